@@ -20,6 +20,7 @@
 package org.apache.axis2.schema;
 
 import org.apache.axis2.schema.i18n.SchemaCompilerMessages;
+import org.apache.axis2.wsdl.codegen.EmissionQueue;
 
 import java.io.File;
 import java.util.HashMap;
@@ -218,4 +219,18 @@ public class CompilerOptions {
     public void setIgnoreUnexpected(boolean isIgnoreUnexpected) {
         this.isIgnoreUnexpected = isIgnoreUnexpected;
     }
+
+    /**
+     * The queue to which the writing of the classes is submitted, if they
+     * are written in parallel
+     */
+    private EmissionQueue emissionQueue;
+
+    public EmissionQueue getEmissionQueue() {
+        return emissionQueue;
+    }
+
+    public void setEmissionQueue(EmissionQueue emissionQueue) {
+        this.emissionQueue = emissionQueue;
+    }
 }
@@ -662,6 +662,8 @@ public class ExtensionUtility {
         if (configuration.isSuppressPrefixesMode()) {
             options.setSuppressPrefixesMode(true);
         }
+
+        options.setEmissionQueue(configuration.getEmissionQueue());
     }
 
 }
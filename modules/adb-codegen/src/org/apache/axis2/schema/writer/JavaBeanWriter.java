@@ -35,6 +35,7 @@ import org.apache.axis2.util.PrettyPrinter;
 import org.apache.axis2.util.URLProcessor;
 import org.apache.axis2.util.XSLTTemplateProcessor;
 import org.apache.axis2.util.XSLTUtils;
+import org.apache.axis2.wsdl.codegen.EmissionQueue;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ws.commons.schema.XmlSchemaElement;
@@ -59,6 +60,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 
 
@@ -109,6 +111,8 @@ public class JavaBeanWriter implements BeanWriter {
 
     private boolean isIgnoreUnexpected = false;
 
+    private EmissionQueue emissionQueue;
+
     /**
      * package for the mapping class
      */
@@ -173,6 +177,7 @@ public class JavaBeanWriter implements BeanWriter {
             writeClasses = options.isWriteOutput();
             isUseWrapperClasses = options.isUseWrapperClasses();
             isIgnoreUnexpected = options.isIgnoreUnexpected();
+            emissionQueue = options.getEmissionQueue();
 
             if (!writeClasses) {
                 wrapClasses = false;
@@ -1320,8 +1325,27 @@ public class JavaBeanWriter implements BeanWriter {
      * @throws Exception
      */
     private void parse(Document doc, File outputFile) throws Exception {
+        if (emissionQueue == null) {
+            write(doc, outputFile, getTransformer());
+        } else {
+            // the model is kept in the model map and may be modified and
+            // written again in helper mode, so the class is written from a copy
+            final Document docCopy = (Document) doc.cloneNode(true);
+            final File file = outputFile;
+            final Transformer transformer = getTransformer();
+            emissionQueue.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    write(docCopy, file, transformer);
+                    return null;
+                }
+            });
+        }
+    }
+
+    private static void write(Document doc, File outputFile, Transformer transformer)
+            throws Exception {
         OutputStream outStream = new FileOutputStream(outputFile);
-        XSLTTemplateProcessor.parse(outStream, doc, getTransformer());
+        XSLTTemplateProcessor.parse(outStream, doc, transformer);
         outStream.flush();
         outStream.close();
 
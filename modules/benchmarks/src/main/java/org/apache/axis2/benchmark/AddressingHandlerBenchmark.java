@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.addressing.RelatesTo;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.HandlerDescription;
+import org.apache.axis2.handlers.addressing.AddressingInHandler;
+import org.apache.axis2.handlers.addressing.AddressingOutHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the WS-Addressing handlers: extraction of the addressing headers of a request by
+ * {@link AddressingInHandler} and creation of the headers of a response by
+ * {@link AddressingOutHandler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AddressingHandlerBenchmark {
+    private ConfigurationContext configurationContext;
+    private AddressingInHandler inHandler;
+    private AddressingOutHandler outHandler;
+    private EndpointReference to;
+    private EndpointReference replyTo;
+    private SOAPEnvelope requestEnvelope;
+
+    @Setup
+    public void setUp() throws Exception {
+        configurationContext = BenchmarkUtils.createConfigurationContext();
+        inHandler = new AddressingInHandler();
+        inHandler.init(new HandlerDescription("AddressingInHandler"));
+        outHandler = new AddressingOutHandler();
+        outHandler.init(new HandlerDescription("AddressingOutHandler"));
+        to = new EndpointReference(BenchmarkUtils.ECHO_ADDRESS);
+        replyTo = new EndpointReference("http://client.example.org/replies");
+
+        // let the out handler create the headers of the request used by the in handler
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeHeaders().getEnvelope().serialize(out);
+        requestEnvelope = OMXMLBuilderFactory.createSOAPModelBuilder(
+                new ByteArrayInputStream(out.toByteArray()), "UTF-8").getSOAPEnvelope();
+        requestEnvelope.build();
+    }
+
+    @Benchmark
+    public MessageContext readHeaders() throws Exception {
+        MessageContext msgContext = configurationContext.createMessageContext();
+        msgContext.setEnvelope(requestEnvelope);
+        inHandler.invoke(msgContext);
+        return msgContext;
+    }
+
+    @Benchmark
+    public MessageContext writeHeaders() throws Exception {
+        MessageContext msgContext = configurationContext.createMessageContext();
+        msgContext.setEnvelope(OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope());
+        msgContext.setTo(to);
+        msgContext.setReplyTo(replyTo);
+        msgContext.setWSAAction(BenchmarkUtils.ECHO_ACTION);
+        msgContext.setMessageID("urn:uuid:5A7D6E1C-2B9F-4C3E-8D1A-6F0B7C2E9A41");
+        msgContext.addRelatesTo(new RelatesTo("urn:uuid:1C6E2B8F-9D4A-4E7B-A3C5-2F8D1B7E6C90"));
+        outHandler.invoke(msgContext);
+        return msgContext;
+    }
+}
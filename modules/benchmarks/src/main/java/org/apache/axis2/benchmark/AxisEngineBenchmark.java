@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.transport.local.LocalTransportReceiver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a complete request/response exchange through {@link org.apache.axis2.engine.AxisEngine}
+ * over the in-VM local transport: parsing, the in flow phases, dispatch, the message receiver and
+ * serialization of the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AxisEngineBenchmark {
+    @Param({"1024", "16384", "262144"})
+    public int size;
+
+    private ConfigurationContext configurationContext;
+    private MessageContext clientMessageContext;
+    private byte[] request;
+
+    @Setup
+    public void setUp() throws Exception {
+        configurationContext = BenchmarkUtils.createConfigurationContext();
+        clientMessageContext = configurationContext.createMessageContext();
+        clientMessageContext.setTo(new EndpointReference(BenchmarkUtils.ECHO_ADDRESS));
+        clientMessageContext.getOptions().setAction(BenchmarkUtils.ECHO_ACTION);
+        request = BenchmarkUtils.createMessage("soap11", size);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream receive() throws Exception {
+        ByteArrayOutputStream response = new ByteArrayOutputStream(request.length + 256);
+        new LocalTransportReceiver(configurationContext).processMessage(clientMessageContext,
+                new ByteArrayInputStream(request), response);
+        return response;
+    }
+}
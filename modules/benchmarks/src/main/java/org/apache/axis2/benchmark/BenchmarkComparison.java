@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares two JMH result files written with <tt>-rf json</tt>, typically the results of a
+ * baseline build and of the current build, and reports the change in score and, if the
+ * benchmarks were run with <tt>-prof gc</tt>, in allocated bytes per operation.
+ * <p>
+ * Usage: <tt>BenchmarkComparison &lt;baseline.json&gt; &lt;current.json&gt; [threshold%]</tt>.
+ * The exit code is 1 if any benchmark regressed by more than the threshold (10% by default),
+ * so that the comparison can be used to fail a build.
+ */
+public final class BenchmarkComparison {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private BenchmarkComparison() {}
+
+    static final class Result {
+        final String mode;
+        final double score;
+        final double error;
+        final String unit;
+        final double allocation;
+
+        Result(String mode, double score, double error, String unit, double allocation) {
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+            this.allocation = allocation;
+        }
+    }
+
+    static Map<String, Result> read(Reader reader) {
+        Map<String, Result> results = new LinkedHashMap<String, Result>();
+        JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+        for (JsonElement element : array) {
+            JsonObject run = element.getAsJsonObject();
+            String benchmark = run.get("benchmark").getAsString();
+            String prefix = BenchmarkComparison.class.getPackage().getName() + ".";
+            if (benchmark.startsWith(prefix)) {
+                benchmark = benchmark.substring(prefix.length());
+            }
+            StringBuilder key = new StringBuilder(benchmark);
+            if (run.has("params")) {
+                Map<String, String> params = new TreeMap<String, String>();
+                for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                    params.put(param.getKey(), param.getValue().getAsString());
+                }
+                key.append(params);
+            }
+            JsonObject primary = run.getAsJsonObject("primaryMetric");
+            double allocation = Double.NaN;
+            if (run.has("secondaryMetrics")) {
+                for (Map.Entry<String, JsonElement> metric : run.getAsJsonObject("secondaryMetrics").entrySet()) {
+                    if (metric.getKey().endsWith(ALLOCATION_METRIC)) {
+                        allocation = metric.getValue().getAsJsonObject().get("score").getAsDouble();
+                    }
+                }
+            }
+            results.put(key.toString(), new Result(run.get("mode").getAsString(),
+                    primary.get("score").getAsDouble(), primary.get("scoreError").getAsDouble(),
+                    primary.get("scoreUnit").getAsString(), allocation));
+        }
+        return results;
+    }
+
+    /**
+     * Get the relative change of a score, positive if the score got worse.
+     */
+    static double regression(Result baseline, Result current) {
+        double change = (current.score - baseline.score) / baseline.score;
+        // for throughput, higher is better
+        return current.mode.equals("thrpt") ? -change : change;
+    }
+
+    /**
+     * Print the comparison report.
+     *
+     * @return the number of benchmarks that regressed by more than the threshold
+     */
+    static int compare(Map<String, Result> baseline, Map<String, Result> current,
+            double threshold, Appendable out) throws IOException {
+        int regressions = 0;
+        out.append(String.format("%-70s %14s %14s %9s %12s %12s%n", "Benchmark", "Baseline",
+                "Current", "Change", "Alloc base", "Alloc cur"));
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result cur = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                out.append(String.format("%-70s %14s %14.3f %9s%n", entry.getKey(), "-",
+                        cur.score, "new"));
+                continue;
+            }
+            double regression = regression(base, cur);
+            // a change within the error margins is not a regression
+            boolean regressed = regression > threshold
+                    && Math.abs(cur.score - base.score) > base.error + cur.error;
+            if (regressed) {
+                regressions++;
+            }
+            out.append(String.format("%-70s %14.3f %14.3f %+8.1f%% %12.0f %12.0f %s%s%n",
+                    entry.getKey(), base.score, cur.score, regression * 100, base.allocation,
+                    cur.allocation, cur.unit, regressed ? "  REGRESSION" : ""));
+        }
+        return regressions;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.1;
+        Map<String, Result> baseline;
+        Map<String, Result> current;
+        try (Reader reader = new InputStreamReader(new FileInputStream(args[0]), "UTF-8")) {
+            baseline = read(reader);
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(args[1]), "UTF-8")) {
+            current = read(reader);
+        }
+        int regressions = compare(baseline, current, threshold, System.out);
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) regressed by more than "
+                    + Math.round(threshold * 100) + "%");
+            System.exit(1);
+        }
+    }
+}
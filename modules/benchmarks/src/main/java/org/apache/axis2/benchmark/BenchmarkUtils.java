@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.engine.AxisConfiguration;
+
+/**
+ * Creates the configuration, services and payloads shared by the benchmarks.
+ */
+public final class BenchmarkUtils {
+    public static final String NAMESPACE = "http://benchmark.axis2.apache.org";
+    public static final String ECHO_SERVICE = "Echo";
+    public static final QName ECHO_OPERATION = new QName(NAMESPACE, "echo");
+    public static final String ECHO_ACTION = "urn:echo";
+    public static final String ECHO_ADDRESS = "local://localhost/axis2/services/" + ECHO_SERVICE;
+
+    private BenchmarkUtils() {}
+
+    /**
+     * Create a configuration context from the benchmark axis2.xml, with the {@link #ECHO_SERVICE}
+     * service and the {@link OrderService} POJO service deployed.
+     */
+    public static ConfigurationContext createConfigurationContext() throws AxisFault {
+        ConfigurationContext configurationContext =
+                ConfigurationContextFactory.createConfigurationContextFromURIs(
+                        BenchmarkUtils.class.getResource("axis2.xml"), null);
+        AxisConfiguration axisConfiguration = configurationContext.getAxisConfiguration();
+
+        AxisService service = new AxisService(ECHO_SERVICE);
+        AxisOperation operation = new InOutAxisOperation(ECHO_OPERATION);
+        operation.setMessageReceiver(new EchoMessageReceiver());
+        operation.setSoapAction(ECHO_ACTION);
+        service.addOperation(operation);
+        service.mapActionToOperation(ECHO_ACTION, operation);
+        service.setTargetNamespace(NAMESPACE);
+        axisConfiguration.addService(service);
+
+        axisConfiguration.addService(
+                AxisService.createService(OrderService.class.getName(), axisConfiguration));
+        return configurationContext;
+    }
+
+    /**
+     * Create an echo request of approximately the given size when serialized.
+     *
+     * @param factory the factory to create the payload with
+     * @param size the approximate size in bytes
+     * @param qualified whether the payload elements are namespace qualified; the JSON mapped
+     *                  convention used by the JSON builder and formatter only supports unqualified
+     *                  elements
+     */
+    public static OMElement createPayload(OMFactory factory, int size, boolean qualified) {
+        OMNamespace ns = qualified ? factory.createOMNamespace(NAMESPACE, "b") : null;
+        OMElement echo = factory.createOMElement("echo", ns);
+        int itemSize = 0;
+        for (int i = 0, written = 0; written < size; i++, written += itemSize) {
+            OMElement item = factory.createOMElement("item", ns, echo);
+            String text = "Item " + i + " of the benchmark payload";
+            item.setText(text);
+            itemSize = text.length() + (qualified ? 17 : 13);
+        }
+        return echo;
+    }
+
+    /**
+     * Create a SOAP envelope with an echo request of approximately the given size in its body.
+     */
+    public static SOAPEnvelope createEnvelope(SOAPFactory factory, int size) {
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        envelope.getBody().addChild(createPayload(factory, size, true));
+        return envelope;
+    }
+
+    /**
+     * Create an echo request of approximately the given size in the given format.
+     *
+     * @param format one of soap11, soap12, pox or json
+     * @param size the approximate size in bytes
+     */
+    public static byte[] createMessage(String format, int size) throws Exception {
+        OMElement element;
+        if (format.equals("soap11")) {
+            element = createEnvelope(OMAbstractFactory.getSOAP11Factory(), size);
+        } else if (format.equals("soap12")) {
+            element = createEnvelope(OMAbstractFactory.getSOAP12Factory(), size);
+        } else if (format.equals("pox")) {
+            element = createPayload(OMAbstractFactory.getOMFactory(), size, true);
+        } else if (format.equals("json")) {
+            StringBuilder json = new StringBuilder("{\"echo\":{\"item\":[");
+            Iterator<OMElement> items =
+                    createPayload(OMAbstractFactory.getOMFactory(), size, false).getChildElements();
+            while (items.hasNext()) {
+                json.append('"').append(items.next().getText()).append('"');
+                if (items.hasNext()) {
+                    json.append(',');
+                }
+            }
+            return json.append("]}}").toString().getBytes("UTF-8");
+        } else {
+            throw new IllegalArgumentException(format);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        element.serialize(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Get the content type of messages in the given format.
+     */
+    public static String getContentType(String format) {
+        if (format.equals("soap11")) {
+            return "text/xml; charset=UTF-8";
+        } else if (format.equals("soap12")) {
+            return "application/soap+xml; charset=UTF-8";
+        } else if (format.equals("pox")) {
+            return "application/xml; charset=UTF-8";
+        } else if (format.equals("json")) {
+            return "application/json";
+        } else {
+            throw new IllegalArgumentException(format);
+        }
+    }
+}
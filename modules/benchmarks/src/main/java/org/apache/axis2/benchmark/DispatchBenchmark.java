@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.engine.Phase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Dispatch phase, i.e. the lookup of the service and operation and the creation of
+ * the service and operation contexts. The service is always found by request URI; the operation
+ * is found either by SOAP action or by the name of the first child of the SOAP body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    @Param({"soapAction", "soapBody"})
+    public String strategy;
+
+    private ConfigurationContext configurationContext;
+    private Phase dispatchPhase;
+    private EndpointReference to;
+    private SOAPEnvelope envelope;
+
+    @Setup
+    public void setUp() throws Exception {
+        configurationContext = BenchmarkUtils.createConfigurationContext();
+        for (Phase phase : configurationContext.getAxisConfiguration().getInFlowPhases()) {
+            if (phase.getPhaseName().equals("Dispatch")) {
+                dispatchPhase = phase;
+            }
+        }
+        to = new EndpointReference(BenchmarkUtils.ECHO_ADDRESS);
+        envelope = BenchmarkUtils.createEnvelope(OMAbstractFactory.getSOAP11Factory(), 1024);
+    }
+
+    @Benchmark
+    public AxisOperation dispatch() throws Exception {
+        MessageContext msgContext = configurationContext.createMessageContext();
+        msgContext.setIncomingTransportName(Constants.TRANSPORT_LOCAL);
+        msgContext.setServerSide(true);
+        msgContext.setTo(to);
+        if (strategy.equals("soapAction")) {
+            msgContext.setSoapAction(BenchmarkUtils.ECHO_ACTION);
+        }
+        msgContext.setEnvelope(envelope);
+        dispatchPhase.invoke(msgContext);
+        return msgContext.getAxisOperation();
+    }
+}
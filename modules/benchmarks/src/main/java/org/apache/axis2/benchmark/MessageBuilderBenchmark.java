@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.transport.TransportUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link TransportUtils#createSOAPMessage(MessageContext, java.io.InputStream, String)}
+ * with the builders configured for SOAP 1.1, SOAP 1.2, plain XML and JSON messages. The envelope
+ * is built completely, since builders defer most of the parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBuilderBenchmark {
+    @Param({"soap11", "soap12", "pox", "json"})
+    public String format;
+
+    @Param({"1024", "16384", "262144"})
+    public int size;
+
+    private ConfigurationContext configurationContext;
+    private String contentType;
+    private byte[] message;
+
+    @Setup
+    public void setUp() throws Exception {
+        configurationContext = BenchmarkUtils.createConfigurationContext();
+        contentType = BenchmarkUtils.getContentType(format);
+        message = BenchmarkUtils.createMessage(format, size);
+    }
+
+    @Benchmark
+    public SOAPEnvelope build() throws Exception {
+        MessageContext msgContext = configurationContext.createMessageContext();
+        SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
+                new ByteArrayInputStream(message), contentType);
+        envelope.getBody().getFirstElement().build();
+        return envelope;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.Constants;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.transport.MessageFormatter;
+import org.apache.axis2.util.MessageProcessorSelector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the {@link MessageFormatter}s configured for SOAP 1.1, SOAP 1.2, plain XML and JSON
+ * messages, writing a completely built envelope.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageFormatterBenchmark {
+    @Param({"soap11", "soap12", "pox", "json"})
+    public String format;
+
+    @Param({"1024", "16384", "262144"})
+    public int size;
+
+    private MessageContext msgContext;
+    private MessageFormatter formatter;
+    private OMOutputFormat outputFormat;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() throws Exception {
+        boolean soap12 = format.equals("soap12");
+        SOAPFactory factory = soap12 ? OMAbstractFactory.getSOAP12Factory()
+                : OMAbstractFactory.getSOAP11Factory();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        envelope.getBody().addChild(
+                BenchmarkUtils.createPayload(factory, size, !format.equals("json")));
+
+        ConfigurationContext configurationContext = BenchmarkUtils.createConfigurationContext();
+        msgContext = configurationContext.createMessageContext();
+        msgContext.setAxisService(configurationContext.getAxisConfiguration().getService(
+                BenchmarkUtils.ECHO_SERVICE));
+        msgContext.setEnvelope(envelope);
+        String contentType = BenchmarkUtils.getContentType(format);
+        int idx = contentType.indexOf(';');
+        msgContext.setProperty(Constants.Configuration.MESSAGE_TYPE,
+                idx == -1 ? contentType : contentType.substring(0, idx));
+        formatter = MessageProcessorSelector.getMessageFormatter(msgContext);
+
+        outputFormat = new OMOutputFormat();
+        outputFormat.setSOAP11(!soap12);
+        outputFormat.setCharSetEncoding("UTF-8");
+        out = new ByteArrayOutputStream(size * 2);
+    }
+
+    @Benchmark
+    public int format() throws Exception {
+        out.reset();
+        formatter.writeTo(msgContext, outputFormat, out, true);
+        return out.size();
+    }
+}
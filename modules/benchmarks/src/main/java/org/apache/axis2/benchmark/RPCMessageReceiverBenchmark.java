@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.databinding.utils.BeanUtil;
+import org.apache.axis2.engine.DefaultObjectSupplier;
+import org.apache.axis2.engine.ObjectSupplier;
+import org.apache.axis2.transport.local.LocalTransportReceiver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the ADB bean binding used by POJO services: the complete exchange with the
+ * RPCMessageReceiver of {@link OrderService} over the local transport, as well as the
+ * deserialization and serialization of the {@link Order} bean alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RPCMessageReceiverBenchmark {
+    private static final QName OPERATION = new QName(BenchmarkUtils.NAMESPACE, "placeOrder");
+
+    @Param({"10", "1000"})
+    public int items;
+
+    private ConfigurationContext configurationContext;
+    private MessageContext clientMessageContext;
+    private ObjectSupplier objectSupplier;
+    private Order order;
+    private OMElement orderElement;
+    private byte[] request;
+
+    @Setup
+    public void setUp() throws Exception {
+        configurationContext = BenchmarkUtils.createConfigurationContext();
+        clientMessageContext = configurationContext.createMessageContext();
+        clientMessageContext.setTo(new EndpointReference(
+                "local://localhost/axis2/services/" + OrderService.class.getSimpleName()));
+        clientMessageContext.getOptions().setAction("urn:placeOrder");
+        objectSupplier = new DefaultObjectSupplier();
+
+        order = new Order();
+        order.setId("order-1");
+        order.setCustomer("Benchmark customer");
+        order.setQuantity(3);
+        order.setPrice(9.99);
+        String[] orderItems = new String[items];
+        for (int i = 0; i < items; i++) {
+            orderItems[i] = "Item " + i;
+        }
+        order.setItems(orderItems);
+
+        OMElement requestElement = BeanUtil.getOMElement(OPERATION, new Object[] { order },
+                null, false, null);
+        orderElement = requestElement.getFirstElement();
+        orderElement.build();
+        SOAPEnvelope envelope = OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope();
+        envelope.getBody().addChild(requestElement);
+        request = envelope.toString().getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream receive() throws Exception {
+        ByteArrayOutputStream response = new ByteArrayOutputStream(request.length + 256);
+        new LocalTransportReceiver(configurationContext).processMessage(clientMessageContext,
+                new ByteArrayInputStream(request), response);
+        return response;
+    }
+
+    @Benchmark
+    public Object deserialize() throws Exception {
+        return BeanUtil.deserialize(Order.class, orderElement, objectSupplier, null);
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream serialize() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OMXMLBuilderFactory.createStAXOMBuilder(
+                BeanUtil.getPullParser(order)).getDocumentElement().serialize(out);
+        return out;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamSource;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the compiled form of the code generation templates, so that a template is compiled
+ * once per code generation run instead of once for each generated file.
+ * <p/>
+ * The includes of a template are resolved when it is compiled, so a cache must only be used
+ * with a single include resolver.  The code generator keeps one cache in each
+ * {@link org.apache.axis2.wsdl.codegen.CodeGenConfiguration}.
+ */
+public class XSLTTemplateCache {
+
+    private final ConcurrentHashMap<String, Templates> templates =
+            new ConcurrentHashMap<String, Templates>();
+
+    /**
+     * Gets a compiled template, compiling it if it is not in the cache yet.
+     *
+     * @param language     the output language
+     * @param clazz        the class used to load the template
+     * @param templateName the resource name of the template
+     * @param resolver     the resolver for the includes of the template, or null
+     * @return Returns Templates.
+     * @throws TransformerConfigurationException if the template cannot be found or compiled
+     */
+    public Templates getTemplates(String language, Class<?> clazz, String templateName,
+                                  URIResolver resolver)
+            throws TransformerConfigurationException {
+        // Use URL instead of InputStream here, so that the processor may resolve
+        // imports/includes with relative hrefs.
+        URL url = clazz.getResource(templateName);
+        if (url == null) {
+            throw new TransformerConfigurationException("Template " + templateName
+                                                        + " not found");
+        }
+        String key = language + ":" + url.toExternalForm();
+        Templates compiled = templates.get(key);
+        if (compiled == null) {
+            TransformerFactory transformerFactory = TransformerFactory.newInstance();
+            if (resolver != null) {
+                transformerFactory.setURIResolver(resolver);
+            }
+            compiled = transformerFactory.newTemplates(new StreamSource(url.toExternalForm()));
+            Templates existing = templates.putIfAbsent(key, compiled);
+            if (existing != null) {
+                compiled = existing;
+            }
+        }
+        return compiled;
+    }
+
+    public int size() {
+        return templates.size();
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.axis2.description.WSDL20ToAllAxisServicesBuilder;
 import org.apache.axis2.description.WSDL20ToAxisServiceBuilder;
 import org.apache.axis2.util.CommandLineOptionConstants;
 import org.apache.axis2.util.URLProcessor;
+import org.apache.axis2.util.XSLTTemplateCache;
 import org.apache.axis2.wsdl.WSDLUtil;
 import org.apache.axis2.wsdl.databinding.TypeMapper;
 import org.apache.axis2.wsdl.i18n.CodegenMessages;
@@ -597,6 +598,41 @@ public class CodeGenConfiguration implements CommandLineOptionConstants {
     public void addOutputFileName(String fileName){
        this.outputFileNamesList.add(fileName);
     }
+
+    // the compiled templates, shared by the writers of this code generation run
+    private final XSLTTemplateCache templateCache = new XSLTTemplateCache();
+
+    public XSLTTemplateCache getTemplateCache() {
+        return templateCache;
+    }
+
+    // the number of threads writing the generated files; 1 writes them sequentially
+    private int emissionThreads = Runtime.getRuntime().availableProcessors();
+
+    // set by the code generation engine while the emitters run, if files are written in parallel
+    private EmissionQueue emissionQueue;
+
+    public int getEmissionThreads() {
+        return emissionThreads;
+    }
+
+    public void setEmissionThreads(int emissionThreads) {
+        this.emissionThreads = emissionThreads;
+    }
+
+    /**
+     * Gets the queue to which the writing of the generated files is submitted.
+     *
+     * @return Returns the queue, or null if the files must be written sequentially.
+     */
+    public EmissionQueue getEmissionQueue() {
+        return emissionQueue;
+    }
+
+    public void setEmissionQueue(EmissionQueue emissionQueue) {
+        this.emissionQueue = emissionQueue;
+    }
+
     public void setoutputSourceLocation(boolean setoutputsourcelocation)
     {
         setoutputSourceLocation = true;
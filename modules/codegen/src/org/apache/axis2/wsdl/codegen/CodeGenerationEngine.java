@@ -110,6 +110,10 @@ public class CodeGenerationEngine {
      * @throws CodeGenerationException
      */
     public void generate() throws CodeGenerationException {
+        if (configuration.getEmissionThreads() > 1) {
+            configuration.setEmissionQueue(
+                    new EmissionQueue(configuration.getEmissionThreads()));
+        }
         try {
             //engage the pre-extensions
             for (int i = 0; i < preExtensions.size(); i++) {
@@ -152,6 +156,11 @@ public class CodeGenerationEngine {
                 emitter.emitStub();
             }
 
+            //wait for the files to be written before the post-extensions process them
+            if (configuration.getEmissionQueue() != null) {
+                configuration.getEmissionQueue().await();
+            }
+
             //engage the post-extensions
             for (int i = 0; i < postExtensions.size(); i++) {
                 ((CodeGenExtension)postExtensions.get(i)).engage(configuration);
@@ -161,6 +170,12 @@ public class CodeGenerationEngine {
             throw new CodeGenerationException(CodegenMessages.getMessage("engine.wrongEmitter"), e);
         } catch (Exception e) {
             throw new CodeGenerationException(e);
+        } finally {
+            if (configuration.getEmissionQueue() != null) {
+                // Stops the writer threads, interrupting them if the generation failed
+                configuration.getEmissionQueue().shutdown();
+                configuration.setEmissionQueue(null);
+            }
         }
 
 
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.wsdl.codegen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the tasks that write the generated files in parallel.  The models are still built
+ * sequentially by the emitter and the schema compilers; only the transformation of a model into
+ * its file, which does not depend on the other files, is submitted to the queue.  The output
+ * files are created and listed when a task is submitted, so the output does not depend on the
+ * order in which the tasks complete.
+ * <p/>
+ * The number of waiting tasks is bounded.  When the queue is full the submitting thread runs the
+ * task itself, which bounds the number of open output files and of models kept in memory.
+ * <p/>
+ * Tasks must be submitted by a single thread, the thread running the code generation.
+ */
+public class EmissionQueue {
+
+    private final ThreadPoolExecutor executor;
+
+    private final List<Future<?>> futures = new ArrayList<Future<?>>();
+
+    /**
+     * @param threads the number of threads writing the files
+     */
+    public EmissionQueue(int threads) {
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                          new ArrayBlockingQueue<Runnable>(threads * 4),
+                                          new EmitterThreadFactory(),
+                                          new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public void submit(Callable<?> task) {
+        futures.add(executor.submit(task));
+    }
+
+    /**
+     * Waits for the tasks submitted so far.  If tasks failed, the failure of the first one in
+     * submission order is thrown, after all the tasks have completed.
+     *
+     * @throws Exception the exception thrown by the failed task
+     */
+    public void await() throws Exception {
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            }
+        }
+        futures.clear();
+        if (failure instanceof Exception) {
+            throw (Exception)failure;
+        } else if (failure instanceof Error) {
+            throw (Error)failure;
+        } else if (failure != null) {
+            throw new CodeGenerationException(failure);
+        }
+    }
+
+    /**
+     * Stops the threads and waits for them to terminate, so that no file is written once the
+     * code generation has returned.  The tasks that have not started are cancelled and the
+     * running ones are interrupted.
+     */
+    public void shutdown() {
+        for (Runnable task : executor.shutdownNow()) {
+            ((Future<?>)task).cancel(false);
+        }
+        futures.clear();
+        // Propagating the interruption would hide the result of the code generation; the
+        // interruption status is restored instead
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    if (executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class EmitterThreadFactory implements ThreadFactory {
+        private static final AtomicInteger poolCount = new AtomicInteger();
+
+        private final String prefix = "axis2-codegen-" + poolCount.incrementAndGet() + "-";
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.axis2.wsdl.WSDLUtil;
 import org.apache.axis2.wsdl.codegen.CodeGenConfiguration;
 import org.apache.axis2.wsdl.codegen.CodeGenerationException;
+import org.apache.axis2.wsdl.codegen.EmissionQueue;
 import org.apache.axis2.wsdl.codegen.writer.AntBuildWriter;
 import org.apache.axis2.wsdl.codegen.writer.CallbackHandlerWriter;
 import org.apache.axis2.wsdl.codegen.writer.ExceptionWriter;
@@ -92,6 +93,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Type;
 import java.lang.reflect.ParameterizedType;
@@ -2650,7 +2652,8 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
      * @throws java.io.IOException
      * @throws Exception
      */
-    protected void writeFile(Document model, FileWriter writer) throws IOException, Exception {
+    protected void writeFile(Document model, final FileWriter writer) throws IOException, Exception {
+        writer.setTemplateCache(codeGenConfiguration.getTemplateCache());
         writer.loadTemplate();
 
         String packageName = model.getDocumentElement().getAttribute("package");
@@ -2660,7 +2663,21 @@ public class AxisServiceBasedMultiLanguageEmitter implements Emitter {
         codeGenConfiguration.addOutputFileName(writer.getOutputFile().getAbsolutePath());//$NON-SEC-3
 
         // use the global resolver
-        writer.parse(model, resolver);
+        final URIResolver globalResolver = resolver;
+        EmissionQueue emissionQueue = codeGenConfiguration.getEmissionQueue();
+        if (emissionQueue == null) {
+            writer.parse(model, globalResolver);
+        } else {
+            // the model may be modified and written again to another file,
+            // so the file is written from a copy
+            final Document modelCopy = (Document)model.cloneNode(true);
+            emissionQueue.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    writer.parse(modelCopy, globalResolver);
+                    return null;
+                }
+            });
+        }
     }
 
     /**
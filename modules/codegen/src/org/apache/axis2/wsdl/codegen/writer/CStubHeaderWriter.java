@@ -19,7 +19,6 @@
 
 package org.apache.axis2.wsdl.codegen.writer;
 
-import org.apache.axis2.util.XSLTTemplateProcessor;
 import org.w3c.dom.Document;
 
 import javax.xml.transform.URIResolver;
@@ -57,10 +56,7 @@ public class CStubHeaderWriter extends FileWriter {
      */
     public void parse(Document doc, URIResolver resolver) throws Exception {
         if (!fileExists) {
-            XSLTTemplateProcessor.parse(this.stream,
-                                        doc,
-                                        this.xsltStream,
-                                        resolver);
+            transform(doc, resolver);
             this.stream.write('\n');
             this.stream.write('\n');
             this.stream.flush();
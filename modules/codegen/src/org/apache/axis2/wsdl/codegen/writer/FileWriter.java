@@ -20,6 +20,7 @@
 package org.apache.axis2.wsdl.codegen.writer;
 
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.util.XSLTTemplateCache;
 import org.apache.axis2.util.XSLTTemplateProcessor;
 import org.apache.axis2.wsdl.codegen.CodeGenerationException;
 import org.apache.axis2.wsdl.i18n.CodegenMessages;
@@ -28,6 +29,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
 
+import javax.xml.transform.Transformer;
 import javax.xml.transform.URIResolver;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -43,6 +45,8 @@ public abstract class FileWriter {
     protected File outputFile = null;
     protected FileOutputStream stream = null;
     protected InputStream xsltStream = null;
+    protected String templateName = null;
+    protected XSLTTemplateCache templateCache = null;
     protected String language = ConfigPropertyFileLoader.getDefaultLanguage(); //default would java
 
     protected static final String TEMPLATE_SUFFIX = ".template";
@@ -61,6 +65,16 @@ public abstract class FileWriter {
         this.language = language;
     }
 
+    /**
+     * Sets the cache of compiled templates. If it is set, the template is taken from the cache
+     * instead of being compiled for this file only.
+     *
+     * @param templateCache
+     */
+    public void setTemplateCache(XSLTTemplateCache templateCache) {
+        this.templateCache = templateCache;
+    }
+
     /** Loads the template. */
     public void loadTemplate() throws CodeGenerationException {
         // the default behavior for the class writers is to use the property map from the languge specific types
@@ -76,9 +90,11 @@ public abstract class FileWriter {
                     CodegenMessages.getMessage("writer.noLangPropertiesExtension"));
         }
 
-        String templateName = findTemplate(languageSpecificPropertyMap);
+        templateName = findTemplate(languageSpecificPropertyMap);
         if (templateName != null) {
-            this.xsltStream = clazz.getResourceAsStream(templateName);
+            if (templateCache == null) {
+                this.xsltStream = clazz.getResourceAsStream(templateName);
+            }
         } else {
             throw new CodeGenerationException(CodegenMessages.getMessage("writer.templateMissing"));
         }
@@ -172,12 +188,34 @@ public abstract class FileWriter {
      */
     public void parse(Document doc, URIResolver resolver) throws Exception {
         if (!fileExists || this.isOverride()) {
+            transform(doc, resolver);
+            this.stream.flush();
+            this.stream.close();
+        }
+    }
+
+    /**
+     * Transforms the model with the template into the output stream, using the compiled
+     * template from the cache if there is one.
+     *
+     * @param doc
+     * @param resolver
+     * @throws Exception
+     */
+    protected void transform(Document doc, URIResolver resolver) throws Exception {
+        if (templateCache != null) {
+            Transformer transformer = templateCache.getTemplates(language, this.getClass(),
+                                                                 templateName, resolver)
+                    .newTransformer();
+            if (resolver != null) {
+                transformer.setURIResolver(resolver);
+            }
+            XSLTTemplateProcessor.parse(this.stream, doc, transformer);
+        } else {
             XSLTTemplateProcessor.parse(this.stream,
                                         doc,
                                         this.xsltStream,
                                         resolver);
-            this.stream.flush();
-            this.stream.close();
         }
     }
 
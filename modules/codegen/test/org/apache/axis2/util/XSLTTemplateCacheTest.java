@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.xml.transform.Templates;
+
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+public class XSLTTemplateCacheTest {
+    private static final String TEMPLATE =
+            "/org/apache/axis2/wsdl/template/general/ServiceXMLTemplate.xsl";
+
+    @Test
+    public void testTemplateCompiledOnce() throws Exception {
+        XSLTTemplateCache cache = new XSLTTemplateCache();
+        Templates templates = cache.getTemplates("java", getClass(), TEMPLATE, null);
+        assertSame(templates, cache.getTemplates("java", getClass(), TEMPLATE, null));
+        assertEquals(1, cache.size());
+
+        // the cached template can be used for several files
+        Document doc = XSLTUtils.getDocument();
+        doc.appendChild(doc.createElement("interface"));
+        for (int i = 0; i < 2; i++) {
+            XSLTTemplateProcessor.parse(new ByteArrayOutputStream(), doc,
+                                        templates.newTransformer());
+        }
+    }
+
+    @Test
+    public void testTemplatesCachedPerLanguage() throws Exception {
+        XSLTTemplateCache cache = new XSLTTemplateCache();
+        cache.getTemplates("java", getClass(), TEMPLATE, null);
+        cache.getTemplates("c", getClass(), TEMPLATE, null);
+        assertEquals(2, cache.size());
+    }
+}
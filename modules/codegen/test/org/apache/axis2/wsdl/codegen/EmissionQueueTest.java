@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.wsdl.codegen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class EmissionQueueTest {
+
+    private final EmissionQueue queue = new EmissionQueue(4);
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    public void testAwaitWaitsForAllTasks() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            queue.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    Thread.sleep(1);
+                    count.incrementAndGet();
+                    return null;
+                }
+            });
+        }
+        queue.await();
+        assertEquals(100, count.get());
+    }
+
+    @Test
+    public void testFirstFailureInSubmissionOrder() throws Exception {
+        final CountDownLatch secondFailed = new CountDownLatch(1);
+        final IOException first = new IOException("first");
+        queue.submit(new Callable<Object>() {
+            public Object call() throws Exception {
+                // fail after the task submitted next
+                secondFailed.await();
+                throw first;
+            }
+        });
+        queue.submit(new Callable<Object>() {
+            public Object call() throws Exception {
+                secondFailed.countDown();
+                throw new IOException("second");
+            }
+        });
+        try {
+            queue.await();
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertSame(first, e);
+        }
+        // the failures are reported once
+        queue.await();
+    }
+
+    @Test
+    public void testShutdownStopsTasks() throws Exception {
+        final CountDownLatch started = new CountDownLatch(4);
+        final AtomicInteger interrupted = new AtomicInteger();
+        final AtomicBoolean queuedTaskRun = new AtomicBoolean();
+        for (int i = 0; i < 4; i++) {
+            queue.submit(new Callable<Object>() {
+                public Object call() throws Exception {
+                    started.countDown();
+                    try {
+                        Thread.sleep(60000);
+                    } catch (InterruptedException e) {
+                        Thread.sleep(100);
+                        interrupted.incrementAndGet();
+                    }
+                    return null;
+                }
+            });
+        }
+        queue.submit(new Callable<Object>() {
+            public Object call() throws Exception {
+                queuedTaskRun.set(true);
+                return null;
+            }
+        });
+        started.await();
+        queue.shutdown();
+        // the running tasks have completed when shutdown returns
+        assertEquals(4, interrupted.get());
+        assertFalse(queuedTaskRun.get());
+    }
+}
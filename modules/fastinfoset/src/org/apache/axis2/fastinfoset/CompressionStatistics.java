@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.fastinfoset;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.util.JavaUtils;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.xml.stream.XMLStreamException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per service statistics about the messages written by the Fast Infoset formatters.
+ * <p>
+ * The number of messages and bytes is recorded for every message. To compute the compression
+ * ratio, the size of the equivalent XML document is measured for a sample of the messages (see
+ * {@link FastInfosetConstants#STATISTICS_SAMPLE_RATE_PARAM}); the ratio is the Fast Infoset size
+ * of the sampled messages divided by their XML size.
+ * <p>
+ * Statistics are only collected for services that enable
+ * {@link FastInfosetConstants#STATISTICS_PARAM}. They are attached to the service as a parameter
+ * and can be retrieved using {@link #getInstance(AxisService)}. They are also registered with
+ * the platform MBean server under the name
+ * <tt>org.apache.axis2:Type=FastInfoset,Service=&lt;service name&gt;</tt>; a redeployed service
+ * replaces the registration of its previous instance.
+ */
+public final class CompressionStatistics implements CompressionStatisticsMBean {
+    private static final Log log = LogFactory.getLog(CompressionStatistics.class);
+
+    private static final String STATISTICS_PARAM = "FastInfosetCompressionStatistics";
+
+    private final int sampleRate;
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong sampledBytes = new AtomicLong();
+    private final AtomicLong sampledXMLBytes = new AtomicLong();
+
+    private CompressionStatistics(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Get the statistics of a service, creating them if necessary.
+     *
+     * @param service the service; may be <code>null</code>
+     * @return the statistics, or <code>null</code> if <code>service</code> is <code>null</code>
+     *         or doesn't enable statistics
+     */
+    public static CompressionStatistics getInstance(AxisService service) {
+        if (service == null
+                || !JavaUtils.isTrueExplicitly(service.getParameterValue(
+                        FastInfosetConstants.STATISTICS_PARAM))) {
+            return null;
+        }
+        Object value = service.getParameterValue(STATISTICS_PARAM);
+        if (value != null) {
+            return (CompressionStatistics)value;
+        }
+        synchronized (service) {
+            value = service.getParameterValue(STATISTICS_PARAM);
+            if (value != null) {
+                return (CompressionStatistics)value;
+            }
+            CompressionStatistics statistics = new CompressionStatistics(getSampleRate(service));
+            try {
+                service.addParameter(new Parameter(STATISTICS_PARAM, statistics));
+            } catch (AxisFault ex) {
+                log.warn("Unable to attach Fast Infoset statistics to service "
+                        + service.getName(), ex);
+            }
+            registerMBean(service.getName(), statistics);
+            return statistics;
+        }
+    }
+
+    private static int getSampleRate(AxisService service) {
+        Object value = service.getParameterValue(FastInfosetConstants.STATISTICS_SAMPLE_RATE_PARAM);
+        if (value == null) {
+            return FastInfosetConstants.DEFAULT_STATISTICS_SAMPLE_RATE;
+        }
+        try {
+            int sampleRate = Integer.parseInt(value.toString().trim());
+            if (sampleRate >= 0) {
+                return sampleRate;
+            }
+        } catch (NumberFormatException ex) {
+            // Fall through
+        }
+        log.warn("Invalid value '" + value + "' for parameter "
+                + FastInfosetConstants.STATISTICS_SAMPLE_RATE_PARAM + " of service "
+                + service.getName() + "; using the default sample rate "
+                + FastInfosetConstants.DEFAULT_STATISTICS_SAMPLE_RATE);
+        return FastInfosetConstants.DEFAULT_STATISTICS_SAMPLE_RATE;
+    }
+
+    /**
+     * Get the name under which the statistics of a service are registered as an MBean.
+     *
+     * @param serviceName the name of the service
+     * @return the object name
+     * @throws Exception if the name is invalid
+     */
+    static ObjectName getMBeanName(String serviceName) throws Exception {
+        String jmxAgentName = System.getProperty("jmx.agent.name");
+        if (jmxAgentName == null || "".equals(jmxAgentName)) {
+            jmxAgentName = "org.apache.axis2";
+        }
+        return ObjectName.getInstance(jmxAgentName + ":Type=FastInfoset,Service="
+                + ObjectName.quote(serviceName));
+    }
+
+    private static void registerMBean(String serviceName, CompressionStatistics statistics) {
+        // A JMX related error must not stop the formatters from working
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = getMBeanName(serviceName);
+            synchronized (CompressionStatistics.class) {
+                if (mbs.isRegistered(name)) {
+                    mbs.unregisterMBean(name);
+                }
+                mbs.registerMBean(statistics, name);
+            }
+        } catch (Exception ex) {
+            log.warn("Unable to register the Fast Infoset statistics of service "
+                    + serviceName + " for JMX management", ex);
+        }
+    }
+
+    /**
+     * Determine whether the XML size of the next message should be measured.
+     *
+     * @return <code>true</code> if the message is part of the sample
+     */
+    boolean sample() {
+        return sampleRate > 0 && messages.get() % sampleRate == 0;
+    }
+
+    /**
+     * Measure the size of the XML serialization of an element. The element is serialized
+     * with caching, so that it can still be serialized afterwards.
+     *
+     * @param element the element to measure
+     * @return the size in bytes
+     * @throws XMLStreamException if the element could not be serialized
+     */
+    static long measureXMLSize(OMElement element) throws XMLStreamException {
+        CountingOutputStream out = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        element.serialize(out);
+        return out.getByteCount();
+    }
+
+    /**
+     * Record a message.
+     *
+     * @param size the size of the Fast Infoset document
+     * @param xmlSize the size of the equivalent XML document, or -1 if it was not measured
+     */
+    void record(long size, long xmlSize) {
+        messages.incrementAndGet();
+        bytes.addAndGet(size);
+        if (xmlSize > 0) {
+            sampledBytes.addAndGet(size);
+            sampledXMLBytes.addAndGet(xmlSize);
+        }
+    }
+
+    public long getMessageCount() {
+        return messages.get();
+    }
+
+    public long getByteCount() {
+        return bytes.get();
+    }
+
+    /**
+     * Get the compression ratio, i.e. the size of the Fast Infoset documents relative to the
+     * equivalent XML documents.
+     *
+     * @return the compression ratio, or -1 if no messages have been sampled yet
+     */
+    public double getCompressionRatio() {
+        long xmlBytes = sampledXMLBytes.get();
+        return xmlBytes == 0 ? -1 : (double)sampledBytes.get() / xmlBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "messages=" + getMessageCount() + ", bytes=" + getByteCount()
+                + ", compressionRatio=" + getCompressionRatio();
+    }
+}
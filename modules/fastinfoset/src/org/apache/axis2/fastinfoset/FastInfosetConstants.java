@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.fastinfoset;
+
+/**
+ * Constants used by the Fast Infoset builders and formatters.
+ */
+public final class FastInfosetConstants {
+    private FastInfosetConstants() {}
+
+    /**
+     * Service parameter enabling the external vocabulary generated from the schema of the
+     * service. It must be set on both ends, i.e. on the service and on the client side
+     * {@link org.apache.axis2.description.AxisService} (which is built from the same WSDL).
+     */
+    public static final String EXTERNAL_VOCABULARY_PARAM = "FastInfosetExternalVocabulary";
+
+    /**
+     * Service parameter enabling the collection of {@link CompressionStatistics} for the
+     * messages written by the formatters. Statistics are disabled by default.
+     */
+    public static final String STATISTICS_PARAM = "FastInfosetStatistics";
+
+    /**
+     * Service parameter specifying how often the size of the equivalent XML document is
+     * measured to compute the compression ratio: every n-th message is sampled. A value of 0
+     * disables sampling. The default is {@link #DEFAULT_STATISTICS_SAMPLE_RATE}. Only used
+     * if {@link #STATISTICS_PARAM} is enabled.
+     */
+    public static final String STATISTICS_SAMPLE_RATE_PARAM = "FastInfosetStatisticsSampleRate";
+
+    public static final int DEFAULT_STATISTICS_SAMPLE_RATE = 100;
+
+    /**
+     * Content type parameter used to advertise the URI of the external vocabulary a message
+     * was encoded with. A service only uses its external vocabulary in a response if the
+     * request advertised the same vocabulary.
+     */
+    public static final String VOCABULARY_CONTENT_TYPE_PARAM = "vocabulary";
+
+    /**
+     * Message context property set by the builders to the URI of the external vocabulary
+     * advertised by the incoming message.
+     */
+    public static final String VOCABULARY_URI_PROPERTY = "FastInfosetVocabularyURI";
+}
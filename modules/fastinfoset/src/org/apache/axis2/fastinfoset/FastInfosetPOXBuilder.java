@@ -53,7 +53,18 @@ public class FastInfosetPOXBuilder implements Builder {
             logger.debug("Processing a Document with the content type: " + contentType);
         }
         //Create a instance of the StAX Parser which can handle the fast infoset stream
-        OMXMLParserWrapper builder = OMXMLBuilderFactory.createStAXOMBuilder(new StAXDocumentParser(inputStream));
+        StAXDocumentParser parser = new StAXDocumentParser(inputStream);
+        //If the message advertises an external vocabulary, make it available to the parser
+        String vocabularyURI = ServiceVocabulary.getVocabularyURI(contentType);
+        if (vocabularyURI != null) {
+            ServiceVocabulary vocabulary = ServiceVocabulary.lookup(messageContext, vocabularyURI);
+            if (vocabulary == null) {
+                throw new AxisFault("Unknown Fast Infoset vocabulary: " + vocabularyURI);
+            }
+            parser.setExternalVocabularies(vocabulary.getParserVocabularies());
+            messageContext.setProperty(FastInfosetConstants.VOCABULARY_URI_PROPERTY, vocabularyURI);
+        }
+        OMXMLParserWrapper builder = OMXMLBuilderFactory.createStAXOMBuilder(parser);
         messageContext.setProperty(Constants.BUILDER, builder);
         return builder.getDocumentElement();
     }
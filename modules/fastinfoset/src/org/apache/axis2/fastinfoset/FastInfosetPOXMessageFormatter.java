@@ -26,11 +26,11 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.transport.MessageFormatter;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamWriter;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -69,6 +69,13 @@ public class FastInfosetPOXMessageFormatter implements MessageFormatter {
         if (encoding != null) {
             contentType += "; charset=" + encoding;
         }
+
+        //Advertise the external vocabulary so that the receiver can decode the message
+        ServiceVocabulary vocabulary = ServiceVocabulary.getInstance(messageContext);
+        if (vocabulary != null) {
+            contentType += "; " + FastInfosetConstants.VOCABULARY_CONTENT_TYPE_PARAM
+                    + "=\"" + vocabulary.getURI() + "\"";
+        }
             
         return contentType;
     }
@@ -115,13 +122,30 @@ public class FastInfosetPOXMessageFormatter implements MessageFormatter {
         //For POX drop the SOAP envelope and use the message body
         OMElement element = messageContext.getEnvelope().getBody().getFirstElement();
         
+        ServiceVocabulary vocabulary = ServiceVocabulary.getInstance(messageContext);
+        CompressionStatistics statistics =
+            CompressionStatistics.getInstance(messageContext.getAxisService());
+        
         try {
-            //Create the StAX document serializer
-            XMLStreamWriter streamWriter = new StAXDocumentSerializer(outputStream);
+            long xmlSize = -1;
+            CountingOutputStream countingStream = null;
+            if (statistics != null) {
+                if (statistics.sample()) {
+                    xmlSize = CompressionStatistics.measureXMLSize(element);
+                }
+                countingStream = new CountingOutputStream(outputStream);
+                outputStream = countingStream;
+            }
+            //Get a pooled StAX document serializer
+            StAXDocumentSerializer streamWriter = SerializerPool.acquire(outputStream, vocabulary);
             //Since we drop the SOAP envelop we have to manually write the start document and the end document events            
             streamWriter.writeStartDocument();
             element.serialize(streamWriter, preserve);
             streamWriter.writeEndDocument();
+            SerializerPool.release(streamWriter, vocabulary);
+            if (statistics != null) {
+                statistics.record(countingStream.getByteCount(), xmlSize);
+            }
         } catch (XMLStreamException xmlse) {
             logger.error(xmlse.getMessage());
             throw new AxisFault(xmlse.getMessage(), xmlse);
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.fastinfoset;
+
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+import com.sun.xml.fastinfoset.vocab.SerializerVocabulary;
+
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of {@link StAXDocumentSerializer} instances.
+ * <p>
+ * Serializers are reset before being handed out. Serializers that have been used with an
+ * external vocabulary are kept apart from the others: once a vocabulary has been set, the
+ * serializer no longer manages its own (internal) vocabulary, so it must be given a fresh
+ * vocabulary for every document.
+ */
+final class SerializerPool {
+    private static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final Queue<StAXDocumentSerializer> plainSerializers =
+            new ConcurrentLinkedQueue<StAXDocumentSerializer>();
+    private static final AtomicInteger plainCount = new AtomicInteger();
+    private static final Queue<StAXDocumentSerializer> vocabularySerializers =
+            new ConcurrentLinkedQueue<StAXDocumentSerializer>();
+    private static final AtomicInteger vocabularyCount = new AtomicInteger();
+
+    private SerializerPool() {}
+
+    /**
+     * Get a serializer writing to the given stream.
+     *
+     * @param out the output stream
+     * @param vocabulary the external vocabulary to use, or <code>null</code>
+     * @return the serializer; it must be returned using {@link #release} once the document
+     *         has been written completely
+     */
+    static StAXDocumentSerializer acquire(OutputStream out, ServiceVocabulary vocabulary) {
+        StAXDocumentSerializer serializer;
+        if (vocabulary == null) {
+            serializer = poll(plainSerializers, plainCount);
+        } else {
+            serializer = poll(vocabularySerializers, vocabularyCount);
+        }
+        if (serializer == null) {
+            serializer = new StAXDocumentSerializer(out);
+        } else {
+            serializer.reset();
+            serializer.setOutputStream(out);
+        }
+        if (vocabulary != null) {
+            SerializerVocabulary documentVocabulary = new SerializerVocabulary();
+            documentVocabulary.setExternalVocabulary(vocabulary.getURI(),
+                    vocabulary.getSerializerVocabulary(), false);
+            serializer.setVocabulary(documentVocabulary);
+        }
+        return serializer;
+    }
+
+    /**
+     * Return a serializer to the pool. Serializers that failed must not be returned.
+     *
+     * @param serializer the serializer
+     * @param vocabulary the external vocabulary passed to {@link #acquire}
+     */
+    static void release(StAXDocumentSerializer serializer, ServiceVocabulary vocabulary) {
+        serializer.setOutputStream(null);
+        if (vocabulary == null) {
+            offer(plainSerializers, plainCount, serializer);
+        } else {
+            offer(vocabularySerializers, vocabularyCount, serializer);
+        }
+    }
+
+    private static StAXDocumentSerializer poll(Queue<StAXDocumentSerializer> queue,
+                                               AtomicInteger count) {
+        StAXDocumentSerializer serializer = queue.poll();
+        if (serializer != null) {
+            count.decrementAndGet();
+        }
+        return serializer;
+    }
+
+    private static void offer(Queue<StAXDocumentSerializer> queue, AtomicInteger count,
+                              StAXDocumentSerializer serializer) {
+        if (count.incrementAndGet() > MAX_IDLE) {
+            count.decrementAndGet();
+        } else {
+            queue.add(serializer);
+        }
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.fastinfoset;
+
+import com.sun.xml.fastinfoset.vocab.ParserVocabulary;
+import com.sun.xml.fastinfoset.vocab.SerializerVocabulary;
+import org.apache.axiom.soap.SOAP11Constants;
+import org.apache.axiom.soap.SOAP12Constants;
+import org.apache.axiom.soap.SOAPConstants;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.context.OperationContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.wsdl.WSDLConstants;
+import org.apache.axis2.util.JavaUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaAll;
+import org.apache.ws.commons.schema.XmlSchemaAllMember;
+import org.apache.ws.commons.schema.XmlSchemaAttribute;
+import org.apache.ws.commons.schema.XmlSchemaAttributeOrGroupRef;
+import org.apache.ws.commons.schema.XmlSchemaChoice;
+import org.apache.ws.commons.schema.XmlSchemaChoiceMember;
+import org.apache.ws.commons.schema.XmlSchemaComplexContentExtension;
+import org.apache.ws.commons.schema.XmlSchemaComplexContentRestriction;
+import org.apache.ws.commons.schema.XmlSchemaComplexType;
+import org.apache.ws.commons.schema.XmlSchemaContent;
+import org.apache.ws.commons.schema.XmlSchemaContentModel;
+import org.apache.ws.commons.schema.XmlSchemaElement;
+import org.apache.ws.commons.schema.XmlSchemaParticle;
+import org.apache.ws.commons.schema.XmlSchemaSequence;
+import org.apache.ws.commons.schema.XmlSchemaSequenceMember;
+import org.apache.ws.commons.schema.XmlSchemaType;
+import org.jvnet.fastinfoset.Vocabulary;
+
+import javax.xml.namespace.QName;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * External Fast Infoset vocabulary generated from the schema of a service.
+ * <p>
+ * The vocabulary contains the namespace names, local names and qualified names of the
+ * elements and attributes defined by the service's schema, as well as the names used by the
+ * SOAP envelope. Messages encoded with the vocabulary refer to these names by index instead
+ * of transmitting the name tables with every message. The generation is deterministic, so
+ * that a client building its {@link AxisService} from the WSDL of the service obtains the
+ * same vocabulary. The URI of the vocabulary is a digest of its content, so that a mismatch is
+ * detected by the parser instead of silently producing wrong names, and so that it doesn't
+ * depend on the name the client gives to its service.
+ * <p>
+ * Instances are created once per service and attached to the service as a parameter. The
+ * serializer and parser vocabularies are read-only and may be shared by concurrent
+ * serializers and parsers.
+ */
+public final class ServiceVocabulary {
+    private static final Log log = LogFactory.getLog(ServiceVocabulary.class);
+
+    private static final String VOCABULARY_PARAM = "FastInfosetServiceVocabulary";
+
+    /**
+     * Configuration context property holding the vocabularies by URI, to resolve the vocabulary
+     * advertised by an incoming message before it has been dispatched to a service.
+     */
+    private static final String VOCABULARIES_PROPERTY = "FastInfosetVocabularies";
+
+    private static final String URI_PREFIX = "urn:org.apache.axis2.fastinfoset:vocabulary:";
+
+    private static final Comparator<QName> QNAME_COMPARATOR = new Comparator<QName>() {
+        public int compare(QName o1, QName o2) {
+            int result = o1.getNamespaceURI().compareTo(o2.getNamespaceURI());
+            if (result == 0) {
+                result = o1.getLocalPart().compareTo(o2.getLocalPart());
+            }
+            if (result == 0) {
+                result = o1.getPrefix().compareTo(o2.getPrefix());
+            }
+            return result;
+        }
+    };
+
+    private final String uri;
+    private final SerializerVocabulary serializerVocabulary;
+    private final Map<String,ParserVocabulary> parserVocabularies;
+
+    private ServiceVocabulary(String uri, Vocabulary vocabulary) {
+        this.uri = uri;
+        serializerVocabulary = new SerializerVocabulary(vocabulary, false);
+        parserVocabularies = Collections.singletonMap(uri, new ParserVocabulary(vocabulary));
+    }
+
+    /**
+     * Get the external vocabulary of a service.
+     *
+     * @param service the service; may be <code>null</code>
+     * @return the vocabulary, or <code>null</code> if the service doesn't enable the
+     *         external vocabulary
+     */
+    public static ServiceVocabulary getInstance(AxisService service) {
+        if (service == null
+                || !JavaUtils.isTrueExplicitly(service.getParameterValue(
+                        FastInfosetConstants.EXTERNAL_VOCABULARY_PARAM))) {
+            return null;
+        }
+        Object value = service.getParameterValue(VOCABULARY_PARAM);
+        if (value != null) {
+            return (ServiceVocabulary)value;
+        }
+        synchronized (service) {
+            value = service.getParameterValue(VOCABULARY_PARAM);
+            if (value != null) {
+                return (ServiceVocabulary)value;
+            }
+            ServiceVocabulary vocabulary = generate(service);
+            try {
+                service.addParameter(new Parameter(VOCABULARY_PARAM, vocabulary));
+            } catch (AxisFault ex) {
+                // The parameter is locked; we can still use the vocabulary for this message
+                log.warn("Unable to cache the Fast Infoset vocabulary of service "
+                        + service.getName(), ex);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Generated Fast Infoset vocabulary " + vocabulary.getURI()
+                        + " for service " + service.getName());
+            }
+            return vocabulary;
+        }
+    }
+
+    /**
+     * Get the external vocabulary to use for an outgoing message. On the client side, this is
+     * the vocabulary of the client's service. On the server side, the vocabulary of the service
+     * is only used if the request advertised the same vocabulary, i.e. if the client is known
+     * to be able to decode it.
+     *
+     * @param messageContext the outgoing message context
+     * @return the vocabulary, or <code>null</code> if the message must be encoded without
+     *         external vocabulary
+     */
+    static ServiceVocabulary getInstance(MessageContext messageContext) {
+        ServiceVocabulary vocabulary = getInstance(messageContext.getAxisService());
+        if (vocabulary == null || !messageContext.isServerSide()) {
+            return vocabulary;
+        }
+        OperationContext operationContext = messageContext.getOperationContext();
+        MessageContext inMessageContext = operationContext == null ? null
+                : operationContext.getMessageContext(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
+        if (inMessageContext != null && vocabulary.getURI().equals(
+                inMessageContext.getProperty(FastInfosetConstants.VOCABULARY_URI_PROPERTY))) {
+            return vocabulary;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Find the vocabulary advertised by an incoming message.
+     *
+     * @param messageContext the incoming message context; it may not have been dispatched yet
+     * @param uri the URI of the vocabulary
+     * @return the vocabulary, or <code>null</code> if no service enabling the external
+     *         vocabulary has a vocabulary with the given URI
+     */
+    static ServiceVocabulary lookup(MessageContext messageContext, String uri) {
+        ServiceVocabulary vocabulary = getInstance(messageContext.getAxisService());
+        if (vocabulary != null && vocabulary.getURI().equals(uri)) {
+            return vocabulary;
+        }
+        ConfigurationContext configurationContext = messageContext.getConfigurationContext();
+        if (configurationContext == null) {
+            return null;
+        }
+        Map<String,ServiceVocabulary> vocabularies;
+        synchronized (configurationContext) {
+            @SuppressWarnings("unchecked")
+            Map<String,ServiceVocabulary> map = (Map<String,ServiceVocabulary>)
+                    configurationContext.getProperty(VOCABULARIES_PROPERTY);
+            if (map == null) {
+                map = new ConcurrentHashMap<String,ServiceVocabulary>();
+                configurationContext.setProperty(VOCABULARIES_PROPERTY, map);
+            }
+            vocabularies = map;
+        }
+        vocabulary = vocabularies.get(uri);
+        if (vocabulary == null) {
+            for (AxisService service :
+                    configurationContext.getAxisConfiguration().getServices().values()) {
+                ServiceVocabulary candidate = getInstance(service);
+                if (candidate != null) {
+                    vocabularies.put(candidate.getURI(), candidate);
+                    if (candidate.getURI().equals(uri)) {
+                        vocabulary = candidate;
+                    }
+                }
+            }
+        }
+        return vocabulary;
+    }
+
+    /**
+     * Extract the URI of the external vocabulary advertised in a content type.
+     *
+     * @param contentType the content type
+     * @return the URI, or <code>null</code> if the content type doesn't have a
+     *         {@link FastInfosetConstants#VOCABULARY_CONTENT_TYPE_PARAM} parameter
+     */
+    static String getVocabularyURI(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String prefix = FastInfosetConstants.VOCABULARY_CONTENT_TYPE_PARAM + "=";
+        int idx = contentType.indexOf(prefix);
+        if (idx == -1) {
+            return null;
+        }
+        String value = contentType.substring(idx + prefix.length());
+        int end = value.indexOf(';');
+        if (end != -1) {
+            value = value.substring(0, end);
+        }
+        value = value.trim();
+        if (value.length() > 1 && value.charAt(0) == '"' && value.charAt(value.length()-1) == '"') {
+            value = value.substring(1, value.length()-1);
+        }
+        return value.length() == 0 ? null : value;
+    }
+
+    /**
+     * Get the URI identifying the vocabulary. This URI is included in the encoded documents
+     * and advertised in the content type.
+     *
+     * @return the URI
+     */
+    public String getURI() {
+        return uri;
+    }
+
+    /**
+     * Get the vocabulary to be referenced by serializers. Serializers must not use it
+     * directly, but wrap it using
+     * {@link SerializerVocabulary#setExternalVocabulary(String, SerializerVocabulary, boolean)}
+     * without cloning.
+     *
+     * @return the read-only serializer vocabulary
+     */
+    SerializerVocabulary getSerializerVocabulary() {
+        return serializerVocabulary;
+    }
+
+    /**
+     * Get the map of external vocabularies to configure on a parser.
+     *
+     * @return a map with a single entry mapping the URI to the read-only parser vocabulary
+     */
+    Map<String,ParserVocabulary> getParserVocabularies() {
+        return parserVocabularies;
+    }
+
+    static ServiceVocabulary generate(AxisService service) {
+        Set<String> namespaces = new TreeSet<String>();
+        Set<String> localNames = new TreeSet<String>();
+        Set<QName> elements = new TreeSet<QName>(QNAME_COMPARATOR);
+        Set<QName> attributes = new TreeSet<QName>(QNAME_COMPARATOR);
+
+        addSOAPNames(elements, SOAP11Constants.SOAP_ENVELOPE_NAMESPACE_URI);
+        addSOAPNames(elements, SOAP12Constants.SOAP_ENVELOPE_NAMESPACE_URI);
+
+        SchemaWalker walker = new SchemaWalker(elements, attributes);
+        List<XmlSchema> schemas = service.getSchema();
+        if (schemas != null) {
+            for (XmlSchema schema : schemas) {
+                walker.addSchema(schema);
+            }
+        }
+
+        Set<String> prefixes = new TreeSet<String>();
+        for (QName name : elements) {
+            namespaces.add(name.getNamespaceURI());
+            localNames.add(name.getLocalPart());
+            prefixes.add(name.getPrefix());
+        }
+        for (QName name : attributes) {
+            namespaces.add(name.getNamespaceURI());
+            localNames.add(name.getLocalPart());
+            prefixes.add(name.getPrefix());
+        }
+        namespaces.remove("");
+        prefixes.remove("");
+
+        Vocabulary vocabulary = new Vocabulary();
+        vocabulary.prefixes.addAll(prefixes);
+        vocabulary.namespaceNames.addAll(namespaces);
+        vocabulary.localNames.addAll(localNames);
+        vocabulary.elements.addAll(elements);
+        vocabulary.attributes.addAll(attributes);
+
+        return new ServiceVocabulary(URI_PREFIX
+                + digest(prefixes, namespaces, localNames, elements, attributes), vocabulary);
+    }
+
+    private static void addSOAPNames(Set<QName> elements, String namespaceURI) {
+        String prefix = SOAPConstants.SOAP_DEFAULT_NAMESPACE_PREFIX;
+        elements.add(new QName(namespaceURI, SOAPConstants.SOAPENVELOPE_LOCAL_NAME, prefix));
+        elements.add(new QName(namespaceURI, SOAPConstants.HEADER_LOCAL_NAME, prefix));
+        elements.add(new QName(namespaceURI, SOAPConstants.BODY_LOCAL_NAME, prefix));
+        elements.add(new QName(namespaceURI, SOAPConstants.SOAPFAULT_LOCAL_NAME, prefix));
+    }
+
+    private static String digest(Set<?>... sets) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            for (Set<?> set : sets) {
+                for (Object item : set) {
+                    String value = item instanceof QName
+                            ? ((QName)item).getPrefix() + ":" + item : item.toString();
+                    digest.update(value.getBytes("UTF-8"));
+                    digest.update((byte)0);
+                }
+                digest.update((byte)1);
+            }
+            byte[] hash = digest.digest();
+            StringBuilder buffer = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                buffer.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+                buffer.append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return buffer.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Collects the names of the elements and attributes that may appear in instance documents.
+     */
+    private static final class SchemaWalker {
+        private final Set<QName> elements;
+        private final Set<QName> attributes;
+        private final Map<Object,Boolean> visited = new IdentityHashMap<Object,Boolean>();
+
+        SchemaWalker(Set<QName> elements, Set<QName> attributes) {
+            this.elements = elements;
+            this.attributes = attributes;
+        }
+
+        void addSchema(XmlSchema schema) {
+            if (visited.put(schema, Boolean.TRUE) != null) {
+                return;
+            }
+            for (XmlSchemaElement element : schema.getElements().values()) {
+                addElement(element);
+            }
+            for (XmlSchemaType type : schema.getSchemaTypes().values()) {
+                addType(type);
+            }
+            for (XmlSchemaAttribute attribute : schema.getAttributes().values()) {
+                addName(attributes, attribute.getWireName());
+            }
+        }
+
+        private void addElement(XmlSchemaElement element) {
+            if (element.isRef()) {
+                addName(elements, element.getRef().getTargetQName());
+                return;
+            }
+            addName(elements, element.getWireName());
+            addType(element.getSchemaType());
+        }
+
+        private void addType(XmlSchemaType type) {
+            if (!(type instanceof XmlSchemaComplexType) || visited.put(type, Boolean.TRUE) != null) {
+                return;
+            }
+            XmlSchemaComplexType complexType = (XmlSchemaComplexType)type;
+            addParticle(complexType.getParticle());
+            addAttributes(complexType.getAttributes());
+            XmlSchemaContentModel contentModel = complexType.getContentModel();
+            if (contentModel != null) {
+                XmlSchemaContent content = contentModel.getContent();
+                if (content instanceof XmlSchemaComplexContentExtension) {
+                    XmlSchemaComplexContentExtension extension =
+                            (XmlSchemaComplexContentExtension)content;
+                    addParticle(extension.getParticle());
+                    addAttributes(extension.getAttributes());
+                } else if (content instanceof XmlSchemaComplexContentRestriction) {
+                    XmlSchemaComplexContentRestriction restriction =
+                            (XmlSchemaComplexContentRestriction)content;
+                    addParticle(restriction.getParticle());
+                    addAttributes(restriction.getAttributes());
+                }
+            }
+        }
+
+        private void addParticle(XmlSchemaParticle particle) {
+            if (particle instanceof XmlSchemaElement) {
+                addElement((XmlSchemaElement)particle);
+            } else if (particle instanceof XmlSchemaSequence) {
+                for (XmlSchemaSequenceMember member : ((XmlSchemaSequence)particle).getItems()) {
+                    if (member instanceof XmlSchemaParticle) {
+                        addParticle((XmlSchemaParticle)member);
+                    }
+                }
+            } else if (particle instanceof XmlSchemaChoice) {
+                for (XmlSchemaChoiceMember member : ((XmlSchemaChoice)particle).getItems()) {
+                    if (member instanceof XmlSchemaParticle) {
+                        addParticle((XmlSchemaParticle)member);
+                    }
+                }
+            } else if (particle instanceof XmlSchemaAll) {
+                for (XmlSchemaAllMember member : ((XmlSchemaAll)particle).getItems()) {
+                    if (member instanceof XmlSchemaParticle) {
+                        addParticle((XmlSchemaParticle)member);
+                    }
+                }
+            }
+        }
+
+        private void addAttributes(List<XmlSchemaAttributeOrGroupRef> list) {
+            for (XmlSchemaAttributeOrGroupRef item : list) {
+                if (item instanceof XmlSchemaAttribute) {
+                    XmlSchemaAttribute attribute = (XmlSchemaAttribute)item;
+                    addName(attributes, attribute.isRef()
+                            ? attribute.getRef().getTargetQName() : attribute.getWireName());
+                }
+            }
+        }
+
+        private static void addName(Set<QName> names, QName name) {
+            if (name != null) {
+                // Qualified names are encoded with the prefix used by the writer, which is not
+                // known in advance; use the default namespace (empty prefix).
+                names.add(new QName(name.getNamespaceURI(), name.getLocalPart()));
+            }
+        }
+    }
+}
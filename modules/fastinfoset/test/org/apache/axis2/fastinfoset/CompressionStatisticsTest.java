@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.fastinfoset;
+
+import org.apache.axis2.description.AxisService;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class CompressionStatisticsTest {
+    private static AxisService createService(String name, String sampleRate) throws Exception {
+        AxisService service = new AxisService(name);
+        service.addParameter(FastInfosetConstants.STATISTICS_PARAM, "true");
+        if (sampleRate != null) {
+            service.addParameter(FastInfosetConstants.STATISTICS_SAMPLE_RATE_PARAM, sampleRate);
+        }
+        return service;
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertNull(CompressionStatistics.getInstance(new AxisService("NoStatistics")));
+    }
+
+    @Test
+    public void testInvalidSampleRate() throws Exception {
+        CompressionStatistics statistics =
+                CompressionStatistics.getInstance(createService("InvalidRate", "often"));
+        int sampled = 0;
+        for (int i = 0; i < 2 * FastInfosetConstants.DEFAULT_STATISTICS_SAMPLE_RATE; i++) {
+            if (statistics.sample()) {
+                sampled++;
+            }
+            statistics.record(10, -1);
+        }
+        assertEquals(2, sampled);
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        AxisService service = createService("MBeanTest", "1");
+        CompressionStatistics statistics = CompressionStatistics.getInstance(service);
+        assertSame(statistics, CompressionStatistics.getInstance(service));
+        statistics.record(40, 100);
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = CompressionStatistics.getMBeanName("MBeanTest");
+        assertTrue(mbs.isRegistered(name));
+        assertEquals(1L, mbs.getAttribute(name, "MessageCount"));
+        assertEquals(0.4, (Double)mbs.getAttribute(name, "CompressionRatio"), 0.001);
+
+        // A redeployed service replaces the registration
+        CompressionStatistics redeployed =
+                CompressionStatistics.getInstance(createService("MBeanTest", "1"));
+        assertNotSame(statistics, redeployed);
+        assertEquals(0L, mbs.getAttribute(name, "MessageCount"));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.fastinfoset;
+
+import com.sun.xml.fastinfoset.stax.StAXDocumentParser;
+import com.sun.xml.fastinfoset.stax.StAXDocumentSerializer;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertAbout;
+import static org.apache.axiom.truth.xml.XMLTruth.xml;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.OutputStream;
+import java.io.StringReader;
+
+public class ServiceVocabularyTest {
+    private static AxisService createService() throws Exception {
+        return AxisService.createService(SimpleAddService.class.getName(), new AxisConfiguration());
+    }
+
+    @Test
+    public void testGenerationIsDeterministic() throws Exception {
+        ServiceVocabulary vocabulary1 = ServiceVocabulary.generate(createService());
+        ServiceVocabulary vocabulary2 = ServiceVocabulary.generate(createService());
+        assertEquals(vocabulary1.getURI(), vocabulary2.getURI());
+    }
+
+    @Test
+    public void testGetVocabularyURI() {
+        assertNull(ServiceVocabulary.getVocabularyURI("application/soap+fastinfoset"));
+        assertEquals("urn:test", ServiceVocabulary.getVocabularyURI(
+                "application/soap+fastinfoset; vocabulary=\"urn:test\"; charset=UTF-8"));
+        assertEquals("urn:test", ServiceVocabulary.getVocabularyURI(
+                "application/fastinfoset; vocabulary=urn:test"));
+    }
+
+    @Test
+    public void testRoundTripWithExternalVocabulary() throws Exception {
+        ServiceVocabulary vocabulary = ServiceVocabulary.generate(createService());
+        OMElement element = OMXMLBuilderFactory.createOMBuilder(new StringReader(
+                "<ns:addInts xmlns:ns='http://fastinfoset.axis2.apache.org'>"
+                + "<ns:val1>17</ns:val1><ns:val2>33</ns:val2></ns:addInts>")).getDocumentElement();
+
+        for (int i = 0; i < 2; i++) {
+            MemoryBlob withVocabulary = Blobs.createMemoryBlob();
+            OutputStream out = withVocabulary.getOutputStream();
+            StAXDocumentSerializer serializer = SerializerPool.acquire(out, vocabulary);
+            serializer.writeStartDocument();
+            element.serialize(serializer);
+            serializer.writeEndDocument();
+            SerializerPool.release(serializer, vocabulary);
+            out.close();
+
+            MemoryBlob withoutVocabulary = Blobs.createMemoryBlob();
+            out = withoutVocabulary.getOutputStream();
+            serializer = SerializerPool.acquire(out, null);
+            serializer.writeStartDocument();
+            element.serialize(serializer);
+            serializer.writeEndDocument();
+            SerializerPool.release(serializer, null);
+            out.close();
+
+            assertTrue(withVocabulary.getSize() < withoutVocabulary.getSize());
+
+            StAXDocumentParser parser = new StAXDocumentParser(withVocabulary.getInputStream());
+            parser.setExternalVocabularies(vocabulary.getParserVocabularies());
+            assertAbout(xml()).that(OMXMLBuilderFactory.createStAXOMBuilder(parser)
+                    .getDocumentElement()).hasSameContentAs(element);
+
+            assertAbout(xml()).that(OMXMLBuilderFactory.createStAXOMBuilder(
+                    new StAXDocumentParser(withoutVocabulary.getInputStream()))
+                    .getDocumentElement()).hasSameContentAs(element);
+        }
+    }
+}
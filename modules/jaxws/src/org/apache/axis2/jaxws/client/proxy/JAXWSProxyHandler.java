@@ -63,6 +63,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
@@ -102,6 +103,9 @@ public class JAXWSProxyHandler extends BindingProvider implements
 
     protected InvocationController controller;
     
+    // Shared by all the proxies of the endpoint
+    private final ConcurrentMap<Method, ProxyMethodDescription> methodDescs;
+    
     public JAXWSProxyHandler(ServiceDelegate delegate,
                              Class seiClazz,
                              EndpointDescription epDesc,
@@ -119,6 +123,7 @@ public class JAXWSProxyHandler extends BindingProvider implements
         
         this.seiClazz = seiClazz;
         this.serviceDesc = delegate.getServiceDescription();
+        this.methodDescs = ProxyMethodDescription.getCache(endpointDesc);
     }
 
     /* (non-Javadoc)
@@ -162,9 +167,7 @@ public class JAXWSProxyHandler extends BindingProvider implements
                 throw ExceptionFactory.makeWebServiceException(e);
             }
         } else {
-            OperationDescription operationDesc =
-                    endpointDesc.getEndpointInterfaceDescription().getOperation(method);
-            if (isMethodExcluded(operationDesc)) {
+            if (getMethodDescription(method).isExcluded()) {
                 throw ExceptionFactory.makeWebServiceException(
                         Messages.getMessage("proxyExcludedMethod", method.getName()));
             }
@@ -192,8 +195,9 @@ public class JAXWSProxyHandler extends BindingProvider implements
             log.debug("Attempting to invoke SEI Method " + method.getName());
         }
 
-        OperationDescription operationDesc =
-                endpointDesc.getEndpointInterfaceDescription().getOperation(method);
+        ProxyMethodDescription methodDesc = getMethodDescription(method);
+        OperationDescription operationDesc = methodDesc.getOperationDescription();
+        ProxyMethodDescription.MEP mep = methodDesc.getMEP();
 
         // Create and configure the request MessageContext
         InvocationContext requestIC = InvocationContextFactory.createInvocationContext(null);
@@ -291,7 +295,7 @@ public class JAXWSProxyHandler extends BindingProvider implements
         }
         
         // Check if the call is OneWay, Async or Sync
-        if (operationDesc.isOneWay()) {
+        if (mep == ProxyMethodDescription.MEP.ONE_WAY) {
             if (log.isDebugEnabled()) {
                 log.debug("OneWay Call");
             }
@@ -301,7 +305,7 @@ public class JAXWSProxyHandler extends BindingProvider implements
             checkMaintainSessionState(request, requestIC);
         }
 
-        if (method.getReturnType() == Future.class) {
+        if (mep == ProxyMethodDescription.MEP.ASYNC_CALLBACK) {
             if (log.isDebugEnabled()) {
                 log.debug("Async Callback");
             }
@@ -349,7 +353,7 @@ public class JAXWSProxyHandler extends BindingProvider implements
             return future;
         }
 
-        if (method.getReturnType() == Response.class) {
+        if (mep == ProxyMethodDescription.MEP.ASYNC_POLLING) {
             if (log.isDebugEnabled()) {
                 log.debug("Async Polling");
             }
@@ -369,7 +373,7 @@ public class JAXWSProxyHandler extends BindingProvider implements
             return response;
         }
 
-        if (!operationDesc.isOneWay()) {
+        if (mep == ProxyMethodDescription.MEP.SYNC) {
             InvocationContext responseIC = controller.invoke(requestIC);
 
             //Check to see if we need to maintain session state
@@ -449,10 +453,15 @@ public class JAXWSProxyHandler extends BindingProvider implements
     }
 
     protected boolean isAsync() {
-        String methodName = method.getName();
-        Class returnType = method.getReturnType();
-        return methodName.endsWith("Async") && (returnType.isAssignableFrom(Response.class) ||
-                returnType.isAssignableFrom(Future.class));
+        return getMethodDescription(method).isAsync();
+    }
+
+    /**
+     * @param method - The method invoked on the proxy object.
+     * @return ProxyMethodDescription of the method, shared by all proxies of the endpoint
+     */
+    private ProxyMethodDescription getMethodDescription(Method method) {
+        return ProxyMethodDescription.get(methodDescs, endpointDesc, method);
     }
 
     /**
@@ -468,8 +477,8 @@ public class JAXWSProxyHandler extends BindingProvider implements
             log.debug("Creating a new Message using the request parameters.");
         }
 
-        OperationDescription operationDesc =
-                endpointDesc.getEndpointInterfaceDescription().getOperation(method);
+        ProxyMethodDescription methodDesc = getMethodDescription(method);
+        OperationDescription operationDesc = methodDesc.getOperationDescription();
 
         MessageContext request = new MessageContext();
         
@@ -479,7 +488,7 @@ public class JAXWSProxyHandler extends BindingProvider implements
         // Make sure the same classloader is used on the response
         request.setProperty(Constants.CACHE_CLASSLOADER, cl);
         
-        Message message = MethodMarshallerFactory.getMarshaller(operationDesc, true, null)
+        Message message = methodDesc.getRequestMarshaller()
                 .marshalRequest(args, operationDesc, this.getRequestContext());
 
         if (log.isDebugEnabled()) {
@@ -631,10 +640,6 @@ public class JAXWSProxyHandler extends BindingProvider implements
         return Modifier.isPublic(method.getModifiers());
     }
 
-    private boolean isMethodExcluded(OperationDescription operationDesc) {
-        return operationDesc.isExcluded();
-    }
-
     public Class getSeiClazz() {
         return seiClazz;
     }
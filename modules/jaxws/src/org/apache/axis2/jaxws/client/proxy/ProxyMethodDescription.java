@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.client.proxy;
+
+import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.description.OperationDescription;
+import org.apache.axis2.jaxws.marshaller.MethodMarshaller;
+import org.apache.axis2.jaxws.marshaller.factory.MethodMarshallerFactory;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.xml.ws.Response;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+
+/**
+ * The information that JAXWSProxyHandler needs to invoke a method of the SEI.  The
+ * ProxyMethodDescription is computed the first time a method is invoked and is then
+ * shared by all the proxies of the same endpoint, so that the OperationDescription
+ * and the MethodMarshaller do not have to be looked up on every invocation.
+ * <p/>
+ * A ProxyMethodDescription is immutable.
+ */
+class ProxyMethodDescription {
+    private static Log log = LogFactory.getLog(ProxyMethodDescription.class);
+
+    /** Key of the EndpointDescription property that holds the ProxyMethodDescriptions */
+    private static final String CACHE_KEY = ProxyMethodDescription.class.getName();
+
+    /** Message exchange pattern of the invocation */
+    enum MEP { SYNC, ONE_WAY, ASYNC_CALLBACK, ASYNC_POLLING }
+
+    private final OperationDescription operationDesc;
+    private final MEP mep;
+    private final boolean async;
+    private final boolean excluded;
+    private final MethodMarshaller requestMarshaller;
+
+    private ProxyMethodDescription(Method method, OperationDescription operationDesc) {
+        this.operationDesc = operationDesc;
+        this.excluded = operationDesc.isExcluded();
+
+        Class returnType = method.getReturnType();
+        if (operationDesc.isOneWay()) {
+            mep = MEP.ONE_WAY;
+        } else if (returnType == Future.class) {
+            mep = MEP.ASYNC_CALLBACK;
+        } else if (returnType == Response.class) {
+            mep = MEP.ASYNC_POLLING;
+        } else {
+            mep = MEP.SYNC;
+        }
+        this.async = method.getName().endsWith("Async") &&
+            (returnType.isAssignableFrom(Response.class) ||
+             returnType.isAssignableFrom(Future.class));
+
+        // The marshaller is only determined for operations that can be invoked.
+        // Note that the request is always marshalled without a specific ClassLoader.
+        this.requestMarshaller = excluded ? null :
+            MethodMarshallerFactory.getMarshaller(operationDesc, true, null);
+    }
+
+    /**
+     * Get the ProxyMethodDescription cache of an endpoint.  The cache is stored
+     * on the EndpointDescription so that it is shared by all proxies of the endpoint.
+     *
+     * @param endpointDesc
+     * @return Map of Method to ProxyMethodDescription
+     */
+    @SuppressWarnings("unchecked")
+    static ConcurrentMap<Method, ProxyMethodDescription> getCache(
+            EndpointDescription endpointDesc) {
+        // The properties of the EndpointDescription are not thread safe; the cache
+        // is only looked up when a proxy is created.
+        synchronized (endpointDesc) {
+            ConcurrentMap<Method, ProxyMethodDescription> cache =
+                (ConcurrentMap<Method, ProxyMethodDescription>)
+                    endpointDesc.getProperty(CACHE_KEY);
+            if (cache == null) {
+                cache = new ConcurrentHashMap<Method, ProxyMethodDescription>();
+                endpointDesc.setProperty(CACHE_KEY, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Get the ProxyMethodDescription of a method, creating it if necessary.
+     *
+     * @param cache obtained from getCache
+     * @param endpointDesc
+     * @param method the method invoked on the proxy
+     * @return ProxyMethodDescription
+     */
+    static ProxyMethodDescription get(ConcurrentMap<Method, ProxyMethodDescription> cache,
+                                      EndpointDescription endpointDesc,
+                                      Method method) {
+        // The Method objects passed to an InvocationHandler are the ones held by the
+        // proxy class, so the lookup normally succeeds on the identity check.
+        ProxyMethodDescription desc = cache.get(method);
+        if (desc == null) {
+            OperationDescription operationDesc =
+                endpointDesc.getEndpointInterfaceDescription().getOperation(method);
+            desc = new ProxyMethodDescription(method, operationDesc);
+            ProxyMethodDescription existing = cache.putIfAbsent(method, desc);
+            if (existing != null) {
+                desc = existing;
+            } else if (log.isDebugEnabled()) {
+                log.debug("Created the ProxyMethodDescription for " + method + ": " + desc);
+            }
+        }
+        return desc;
+    }
+
+    OperationDescription getOperationDescription() {
+        return operationDesc;
+    }
+
+    MEP getMEP() {
+        return mep;
+    }
+
+    /** @return true if the method is a JAX-WS async client method */
+    boolean isAsync() {
+        return async;
+    }
+
+    /** @return true if the operation is excluded (@WebMethod(exclude=true)) */
+    boolean isExcluded() {
+        return excluded;
+    }
+
+    /** @return MethodMarshaller used to marshal the request (null if excluded) */
+    MethodMarshaller getRequestMarshaller() {
+        return requestMarshaller;
+    }
+
+    public String toString() {
+        return "operation=" + operationDesc.getName() + ", mep=" + mep + ", async=" + async
+            + ", excluded=" + excluded + ", marshaller="
+            + (requestMarshaller == null ? null : requestMarshaller.getClass().getName());
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.axis2.jaxws.core.MessageContext;
 import org.apache.axis2.jaxws.i18n.Messages;
 import org.apache.axis2.jaxws.message.Block;
 import org.apache.axis2.jaxws.message.Message;
+import org.apache.axis2.jaxws.message.SOAPMessageView;
 import org.apache.axis2.jaxws.message.databinding.JAXBBlockContext;
 import org.apache.axis2.jaxws.message.factory.BlockFactory;
 import org.apache.axis2.jaxws.message.factory.JAXBBlockFactory;
@@ -61,6 +62,9 @@ public class SoapMessageContext extends BaseMessageContext implements
     Message cachedMessage = null;
     SOAPMessage cachedSoapMessage = null;
     
+    // If the cached SOAPMessage is a view, the view that must be applied to the message
+    SOAPMessageView cachedView = null;
+    
     // Cache information about the SOAPMessage so that we can tell if it has changed
     SOAPPart cachedSoapPart = null;
     SOAPEnvelope cachedSoapEnvelope = null;
@@ -96,6 +100,7 @@ public class SoapMessageContext extends BaseMessageContext implements
         String localPart = qname.getLocalPart();
         BlockFactory blockFactory = (JAXBBlockFactory)
             FactoryRegistry.getFactory(JAXBBlockFactory.class);
+        synchronizeView();
         Message m = messageCtx.getMessage();
         JAXBBlockContext jbc = new JAXBBlockContext(jaxbcontext);
         
@@ -147,12 +152,39 @@ public class SoapMessageContext extends BaseMessageContext implements
         Message msg = messageCtx.getMEPContext().getMessageObject();
         if (msg != cachedMessage) {
             cachedMessage = msg;
-            cachedSoapMessage = msg.getAsSOAPMessage();
+            cachedView = null;
+            // A view can only be used while a handler is invoked, because the changes
+            // are applied to the message by checkAndUpdate after the handler returns.
+            Object tracker = get(Constants.JAXWS_HANDLER_TRACKER);
+            if (tracker != null && ((Boolean) tracker).booleanValue()) {
+                cachedView = msg.getAsSOAPMessageView();
+            }
+            if (cachedView != null) {
+                cachedSoapMessage = cachedView.getSOAPMessage();
+            } else {
+                cachedSoapMessage = msg.getAsSOAPMessage();
+            }
             cacheSOAPMessageInfo(cachedSoapMessage);
         } 
         return cachedSoapMessage;
     }
     
+    /**
+     * If the cached SOAPMessage is a view, make sure that the changes made 
+     * to the view are visible in the Message.
+     */
+    private void synchronizeView() {
+        if (cachedView != null && cachedMessage == messageCtx.getMEPContext().getMessageObject()) {
+            if (!cachedView.applyChanges()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("synchronizeView completes the SOAPMessage view");
+                }
+                cachedView.complete();
+                cachedView = null;
+            }
+        }
+    }
+    
     /**
      * Check the current (cached) SOAPMessage and make sure
      * its internals are consistent with when it was created.
@@ -166,6 +198,25 @@ public class SoapMessageContext extends BaseMessageContext implements
             
             boolean match = checkSOAPMessageInfo(cachedSoapMessage);
             
+            if (cachedView != null) {
+                SOAPMessageView view = cachedView;
+                cachedView = null;
+                if (match && view.applyChanges()) {
+                    // Only the headers were changed (if anything).  The next handler
+                    // gets a new view, because the Message may change in the meantime.
+                    if (log.isDebugEnabled()) {
+                        log.debug("checkAndUpdate applied the changes of the SOAPMessage view");
+                    }
+                    cachedMessage = null;
+                    cachedSoapMessage = null;
+                    cacheSOAPMessageInfo(null);
+                } else {
+                    // Make the view the content of the Message; this is what
+                    // Message.getAsSOAPMessage does.
+                    view.complete();
+                }
+            }
+            
             if (!match) {
                 if (log.isDebugEnabled()) {
                     log.debug("checkAndUpdate detected a mismatch..");
@@ -187,6 +238,9 @@ public class SoapMessageContext extends BaseMessageContext implements
         cachedSoapPart = null;
         cachedSoapEnvelope = null;
         cachedAttachmentParts.clear();
+        if (sm == null) {
+            return;
+        }
         try {
             cachedSoapPart = sm.getSOAPPart();
             if (cachedSoapPart != null) {
@@ -317,6 +371,14 @@ public class SoapMessageContext extends BaseMessageContext implements
                     " existing=" + JavaUtils.getObjectIdentity(cachedSoapMessage));
         }
         try {
+            if (cachedView != null) {
+                // The view is replaced; make sure that the existing Message is consistent
+                SOAPMessageView view = cachedView;
+                cachedView = null;
+                if (view.getSOAPMessage() == soapMessage) {
+                    view.complete();
+                }
+            }
             Message msg =
                     ((MessageFactory) FactoryRegistry.getFactory(MessageFactory.class)).createFrom(soapMessage);
             messageCtx.getMEPContext().setMessage(msg);
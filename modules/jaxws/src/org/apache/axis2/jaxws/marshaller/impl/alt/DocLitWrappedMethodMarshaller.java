@@ -33,21 +33,23 @@ import org.apache.axis2.jaxws.message.databinding.JAXBBlockContext;
 import org.apache.axis2.jaxws.message.factory.JAXBBlockFactory;
 import org.apache.axis2.jaxws.message.factory.MessageFactory;
 import org.apache.axis2.jaxws.registry.FactoryRegistry;
-import org.apache.axis2.jaxws.runtime.description.marshal.AnnotationDesc;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalOperationRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalOperationRuntimeDescriptionFactory;
 import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.WrapperDesc;
 import org.apache.axis2.jaxws.utility.ConvertUtils;
+import org.apache.axis2.jaxws.utility.PropertyDescriptorPlus;
 import org.apache.axis2.jaxws.wrapper.JAXBWrapperTool;
 import org.apache.axis2.jaxws.wrapper.impl.JAXBWrapperToolImpl;
 import org.apache.axis2.jaxws.core.MessageContext;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import javax.jws.WebParam.Mode;
 import javax.xml.bind.JAXBElement;
 import javax.xml.namespace.QName;
 import javax.xml.ws.WebServiceException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
@@ -67,7 +69,6 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
         // Note all exceptions are caught and rethrown with a WebServiceException
 
         EndpointInterfaceDescription ed = operationDesc.getEndpointInterfaceDescription();
-        EndpointDescription endpointDesc = ed.getEndpointDescription();
 
         try {
             // Sample Document message
@@ -86,16 +87,21 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
             //      This element is called the wrapper element
             //   4) The parameters are (param) are child elements of the wrapper element.
             ParameterDescription[] pds = operationDesc.getParameterDescriptions();
+            MarshalOperationRuntimeDescription plan =
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc);
             MarshalServiceRuntimeDescription marshalDesc =
-                    MethodMarshallerUtils.getMarshalDesc(endpointDesc);
-            TreeSet<String> packages = marshalDesc.getPackages();
-            String packagesKey = marshalDesc.getPackagesKey();
+                    plan.getMarshalServiceRuntimeDescription();
+            TreeSet<String> packages = plan.getPackages();
+            String packagesKey = plan.getPackagesKey();
+            WrapperDesc wd = getWrapperDesc(plan.getResponseWrapperDesc(),
+                                            marshalDesc.getResponseWrapperClassName(operationDesc),
+                                            operationDesc);
             
             // Remember this unmarshal information so that we can speed up processing
             // the next time.
             MessageContext mc = message.getMessageContext();
             if (MethodMarshallerUtils.getUnmarshalInfoParameter(mc) == null &&
-                shouldRegiserUnmarshalInfo(operationDesc, marshalDesc, endpointDesc)) {
+                plan.isUnmarshalInfoRegistrable()) {
             	MethodMarshallerUtils.registerUnmarshalInfo(message.getMessageContext(),
                                                         packages,
                                                         packagesKey);
@@ -118,10 +124,8 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
             
             // If the wrapper is not a root element, then the process type
             // must be set on the context so that "by type" unmarshal is performed.
-            if (!isResponseWrapperAnXmlRootElement(operationDesc, marshalDesc, endpointDesc)) {
-            	String clsName = marshalDesc.getResponseWrapperClassName(operationDesc);
-            	Class cls = loadClass(clsName,endpointDesc);
-            	blockContext.setProcessType(cls);
+            if (!wd.hasXmlRootElement()) {
+            	blockContext.setProcessType(wd.getWrapperClass());
             }
             
             JAXBBlockFactory factory =
@@ -135,32 +139,35 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
                 wrapperObject = ((JAXBElement)wrapperObject).getValue();
             }
 
-
-            // Get the list of names for the output parameters
-            List<String> names = new ArrayList<String>();
-            List<ParameterDescription> pdList = new ArrayList<ParameterDescription>();
-            for (int i = 0; i < pds.length; i++) {
-                ParameterDescription pd = pds[i];
-                if (pd.getMode() == Mode.OUT ||
-                        pd.getMode() == Mode.INOUT) {
-                    names.add(pd.getParameterName());
-                    pdList.add(pd);
+            // The names of the output parameters are part of the plan
+            int size = wd.getParameterNames().length;
+            String[] names = wd.getParameterNames();
+            PropertyDescriptorPlus[] propertyDescs = wd.getParameterPropertyDescriptors();
+            PropertyDescriptorPlus resultPartPD = wd.getResultPartPropertyDescriptor();
+            if (wrapperObject.getClass() != wd.getWrapperClass()) {
+                // Unexpected subclass of the wrapper; lookup the properties of the actual class
+                Map<String, PropertyDescriptorPlus> pdMap =
+                        marshalDesc.getPropertyDescriptorMap(wrapperObject.getClass());
+                propertyDescs = new PropertyDescriptorPlus[size];
+                for (int i = 0; i < size; i++) {
+                    propertyDescs[i] = pdMap.get(names[i]);
                 }
+                resultPartPD = pdMap.get(wd.getResultPartName());
             }
 
-            if (pdList.size() == 0) {
+            // Use the wrapper tool to get the child objects.
+            JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
+            
+            if (size == 0) {
                 // No OUT or INOUT parameters
                 // Use return only shortcut
                 if (isNoReturn) {
                     returnValue = null;
                 } else if (isChildReturn) {
                     String returnName = operationDesc.getResultPartName();
-                    // Use the wrapper tool to get the child objects.
-                    JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
                     Object object = wrapperTool.unWrap(wrapperObject, 
                             returnName,
-                            marshalDesc.getPropertyDescriptorMap(
-                                    wrapperObject.getClass()).get(returnName));
+                            resultPartPD);
                     returnValue = object;
                     // returnValue may be incompatible with JAX-WS signature
                     if (ConvertUtils.isConvertable(returnValue, returnType)) {
@@ -180,34 +187,31 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
                 // There are one or more OUT or INOUT parameters
                 // The return name is added as the last name
                 if (isChildReturn && !isNoReturn) {
-                    names.add(operationDesc.getResultPartName());
+                    names = Arrays.copyOf(names, size + 1);
+                    names[size] = operationDesc.getResultPartName();
+                    propertyDescs = Arrays.copyOf(propertyDescs, size + 1);
+                    propertyDescs[size] = resultPartPD;
                 }
-
-                // Use the wrapper tool to get the child objects.
-                JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
                 
                 // Get the child objects
-                Object[] objects = wrapperTool.unWrap(wrapperObject, names,
-                        marshalDesc.getPropertyDescriptorMap(
-                                wrapperObject.getClass()));
+                Object[] objects = wrapperTool.unWrap(wrapperObject, names, propertyDescs);
 
                 // Now create a list of paramValues so that we can populate the signature
-                List<PDElement> pvList = new ArrayList<PDElement>();
-                for (int i = 0; i < pdList.size(); i++) {
-                    ParameterDescription pd = pdList.get(i);
+                ParameterDescription[] pdArray = wd.getParameterDescriptions();
+                QName[] qNames = wd.getParameterQNames();
+                Class[] actualTypes = wd.getParameterActualTypes();
+                boolean[] xmlRootElements = wd.getParameterXmlRootElements();
+                List<PDElement> pvList = new ArrayList<PDElement>(size);
+                for (int i = 0; i < size; i++) {
                     Object value = objects[i];
                     // The object in the PDElement must be an element
                     Element element = null;
-                    QName qName = new QName(pd.getTargetNamespace(), pd.getPartName());
-                    if (!marshalDesc.getAnnotationDesc(pd.getParameterActualType()).hasXmlRootElement())
-                    {
-                        element = new Element(value, qName,
-                                pd.getParameterActualType());
-
+                    if (!xmlRootElements[i]) {
+                        element = new Element(value, qNames[i], actualTypes[i]);
                     } else {
-                        element = new Element(value, qName);
+                        element = new Element(value, qNames[i]);
                     }
-                    pvList.add(new PDElement(pd, element, null));
+                    pvList.add(new PDElement(pdArray[i], element, null));
                 }
 
                 // Populate the response Holders in the signature
@@ -245,7 +249,6 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
             throws WebServiceException {
 
         EndpointInterfaceDescription ed = operationDesc.getEndpointInterfaceDescription();
-        EndpointDescription endpointDesc = ed.getEndpointDescription();
 
         // Note all exceptions are caught and rethrown with a WebServiceException
         try {
@@ -264,14 +267,19 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
             //      This is called the wrapper element.  The wrapper element has a corresponding JAXB element pojo.
             //   4) The parameters (m:param) are child elements of the wrapper element.
             ParameterDescription[] pds = operationDesc.getParameterDescriptions();
+            MarshalOperationRuntimeDescription plan =
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc);
             MarshalServiceRuntimeDescription marshalDesc =
-                    MethodMarshallerUtils.getMarshalDesc(endpointDesc);
-            TreeSet<String> packages = marshalDesc.getPackages();
-            String packagesKey = marshalDesc.getPackagesKey();
+                    plan.getMarshalServiceRuntimeDescription();
+            TreeSet<String> packages = plan.getPackages();
+            String packagesKey = plan.getPackagesKey();
+            WrapperDesc wd = getWrapperDesc(plan.getRequestWrapperDesc(),
+                                            marshalDesc.getRequestWrapperClassName(operationDesc),
+                                            operationDesc);
             
             MessageContext mc = message.getMessageContext();
             if (MethodMarshallerUtils.getUnmarshalInfoParameter(mc) == null &&
-                shouldRegiserUnmarshalInfo(operationDesc, marshalDesc, endpointDesc)) {
+                plan.isUnmarshalInfoRegistrable()) {
                 MethodMarshallerUtils.registerUnmarshalInfo(message.getMessageContext(),
                                                         packages,
                                                         packagesKey);
@@ -283,10 +291,8 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
             blockContext.setWebServiceNamespace(ed.getTargetNamespace());
             // If the wrapper is not a root element, then the process type
             // must be set on the context so that "by type" unmarshal is performed.
-            if (!isRequestWrapperAnXmlRootElement(operationDesc, marshalDesc, endpointDesc)) {
-            	String clsName = marshalDesc.getRequestWrapperClassName(operationDesc);
-            	Class cls = loadClass(clsName,endpointDesc);
-            	blockContext.setProcessType(cls);
+            if (!wd.hasXmlRootElement()) {
+            	blockContext.setProcessType(wd.getWrapperClass());
             }
             
             JAXBBlockFactory factory =
@@ -303,40 +309,38 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
             // Use the wrapper tool to get the child objects.
             JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
 
-            // Get the list of names for the input parameters
-            List<String> names = new ArrayList<String>();
-            List<ParameterDescription> pdList = new ArrayList<ParameterDescription>();
-            for (int i = 0; i < pds.length; i++) {
-                ParameterDescription pd = pds[i];
-                if (pd.getMode() == Mode.IN ||
-                        pd.getMode() == Mode.INOUT) {
-                    names.add(pd.getParameterName());
-                    pdList.add(pd);
+            // The names of the input parameters are part of the plan
+            String[] names = wd.getParameterNames();
+            PropertyDescriptorPlus[] propertyDescs = wd.getParameterPropertyDescriptors();
+            if (wrapperObject.getClass() != wd.getWrapperClass()) {
+                // Unexpected subclass of the wrapper; lookup the properties of the actual class
+                Map<String, PropertyDescriptorPlus> pdMap =
+                        marshalDesc.getPropertyDescriptorMap(wrapperObject.getClass());
+                propertyDescs = new PropertyDescriptorPlus[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    propertyDescs[i] = pdMap.get(names[i]);
                 }
-
             }
 
             // Get the child objects
-            Object[] objects = wrapperTool.unWrap(wrapperObject, names,
-                                                  marshalDesc.getPropertyDescriptorMap(
-                                                          wrapperObject.getClass()));
+            Object[] objects = wrapperTool.unWrap(wrapperObject, names, propertyDescs);
 
             // Now create a list of paramValues 
-            List<PDElement> pvList = new ArrayList<PDElement>();
-            for (int i = 0; i < pdList.size(); i++) {
-                ParameterDescription pd = pdList.get(i);
+            ParameterDescription[] pdArray = wd.getParameterDescriptions();
+            QName[] qNames = wd.getParameterQNames();
+            Class[] actualTypes = wd.getParameterActualTypes();
+            boolean[] xmlRootElements = wd.getParameterXmlRootElements();
+            List<PDElement> pvList = new ArrayList<PDElement>(pdArray.length);
+            for (int i = 0; i < pdArray.length; i++) {
                 Object value = objects[i];
                 // The object in the PDElement must be an element
                 Element element = null;
-                QName qName = new QName(pd.getTargetNamespace(),
-                                        pd.getPartName());
-                if (!marshalDesc.getAnnotationDesc(pd.getParameterActualType()).hasXmlRootElement())
-                {
-                    element = new Element(value, qName, pd.getParameterActualType());
+                if (!xmlRootElements[i]) {
+                    element = new Element(value, qNames[i], actualTypes[i]);
                 } else {
-                    element = new Element(value, qName);
+                    element = new Element(value, qNames[i]);
                 }
-                pvList.add(new PDElement(pd, element, null));
+                pvList.add(new PDElement(pdArray[i], element, null));
             }
 
             // Build the signature arguments
@@ -354,10 +358,11 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
 
         EndpointInterfaceDescription ed = operationDesc.getEndpointInterfaceDescription();
         EndpointDescription endpointDesc = ed.getEndpointDescription();
-        MarshalServiceRuntimeDescription marshalDesc =
-                MethodMarshallerUtils.getMarshalDesc(endpointDesc);
-        TreeSet<String> packages = marshalDesc.getPackages();
-        String packagesKey = marshalDesc.getPackagesKey();
+        MarshalOperationRuntimeDescription plan =
+                MarshalOperationRuntimeDescriptionFactory.get(operationDesc);
+        MarshalServiceRuntimeDescription marshalDesc = plan.getMarshalServiceRuntimeDescription();
+        TreeSet<String> packages = plan.getPackages();
+        String packagesKey = plan.getPackagesKey();
 
         // We want to respond with the same protocol as the request,
         // It the protocol is null, then use the Protocol defined by the binding
@@ -385,6 +390,9 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
 
             // Get the operation information
             ParameterDescription[] pds = operationDesc.getParameterDescriptions();
+            WrapperDesc wd = getWrapperDesc(plan.getResponseWrapperDesc(),
+                                            marshalDesc.getResponseWrapperClassName(operationDesc),
+                                            operationDesc);
 
             // Create the message 
             MessageFactory mf = marshalDesc.getMessageFactory();
@@ -401,8 +409,7 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
                                                         false,  // output
                                                         true, false);
             
-            String wrapperName = marshalDesc.getResponseWrapperClassName(operationDesc);
-            Class cls = loadClass(wrapperName, endpointDesc);
+            Class cls = wd.getWrapperClass();
             JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
             Object object = null;
             
@@ -427,47 +434,41 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
                             childName, 
                             returnObject, 
                             returnType,
-                            marshalDesc.getPropertyDescriptorMap(cls).get(childName));
+                            wd.getResultPropertyDescriptor());
                 }
             } else {           
 
                 // Now we want to create a single JAXB element that contains the 
                 // ParameterValues.  We will use the wrapper tool to do this.
                 // Create the inputs to the wrapper tool
-                ArrayList<String> nameList = new ArrayList<String>();
-                Map<String, Object> objectList = new HashMap<String, Object>();
-                Map<String, Class>  declaredClassMap = new HashMap<String, Class>();
-
-                for (PDElement pde : pdeList) {
-                    String name = pde.getParam().getParameterName();
-
-                    // The object list contains type rendered objects
-                    Object value = pde.getElement().getTypeValue();
-                    Class dclClass = pde.getParam().getParameterActualType();
-
-                    nameList.add(name);
-                    objectList.put(name, value);
-                    declaredClassMap.put(name, dclClass);
+                int size = pdeList.size();
+                if (returnType != void.class) {
+                    size++;
                 }
+                String[] names = new String[size];
+                Object[] values = new Object[size];
+                Class[] declaredClasses = new Class[size];
+                PropertyDescriptorPlus[] propertyDescs = new PropertyDescriptorPlus[size];
+                fillWrapperInputs(wd, marshalDesc, pdeList, names, values, declaredClasses,
+                                  propertyDescs);
 
                 // Add the return type
                 if (returnType != void.class) {
-                    String name = operationDesc.getResultName();
-                    nameList.add(name);
-                    objectList.put(name, returnObject);
-                    declaredClassMap.put(name, returnType);
+                    int i = size - 1;
+                    names[i] = operationDesc.getResultName();
+                    values[i] = returnObject;
+                    declaredClasses[i] = returnType;
+                    propertyDescs[i] = wd.getResultPropertyDescriptor();
                 }
 
                 
-                object = wrapperTool.wrap(cls, nameList, objectList, declaredClassMap,
-                        marshalDesc.getPropertyDescriptorMap(cls));
+                object = wrapperTool.wrap(cls, names, values, declaredClasses, propertyDescs);
             }
 
-            QName wrapperQName = new QName(operationDesc.getResponseWrapperTargetNamespace(),
-                                           operationDesc.getResponseWrapperLocalName());
+            QName wrapperQName = wd.getWrapperQName();
 
             // Make sure object can be rendered as an element
-            if (!marshalDesc.getAnnotationDesc(cls).hasXmlRootElement()) {
+            if (!wd.hasXmlRootElement()) {
                 object = new JAXBElement(wrapperQName, cls, object);
             }
             
@@ -500,10 +501,11 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
         EndpointInterfaceDescription ed = operationDesc.getEndpointInterfaceDescription();
         EndpointDescription endpointDesc = ed.getEndpointDescription();
         Protocol protocol = Protocol.getProtocolForBinding(endpointDesc.getClientBindingID());
-        MarshalServiceRuntimeDescription marshalDesc =
-                MethodMarshallerUtils.getMarshalDesc(endpointDesc);
-        TreeSet<String> packages = marshalDesc.getPackages();
-        String packagesKey = marshalDesc.getPackagesKey();
+        MarshalOperationRuntimeDescription plan =
+                MarshalOperationRuntimeDescriptionFactory.get(operationDesc);
+        MarshalServiceRuntimeDescription marshalDesc = plan.getMarshalServiceRuntimeDescription();
+        TreeSet<String> packages = plan.getPackages();
+        String packagesKey = plan.getPackagesKey();
 
         // Note all exceptions are caught and rethrown with a WebServiceException
         try {
@@ -524,6 +526,9 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
             
             // Get the operation information
             ParameterDescription[] pds = operationDesc.getParameterDescriptions();
+            WrapperDesc wd = getWrapperDesc(plan.getRequestWrapperDesc(),
+                                            marshalDesc.getRequestWrapperClassName(operationDesc),
+                                            operationDesc);
 
             // Create the message 
             MessageFactory mf = marshalDesc.getMessageFactory();
@@ -539,57 +544,26 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
                                                                          true,   // input
                                                                          true, false);
 
-            String wrapperName = marshalDesc.getRequestWrapperClassName(operationDesc);
-            Class cls = loadClass(wrapperName, endpointDesc);
+            Class cls = wd.getWrapperClass();
             JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
             Object object = null;
             
             // Now we want to create a single JAXB element that contains the 
             // ParameterValues.  We will use the wrapper tool to do this.
             // Create the inputs to the wrapper tool
-            if (pvList.size() ==  0) {
-                // Use the short-cut for 0 children
-                object = wrapperTool.wrap(cls, 
-                        (String) null, 
-                        null, 
-                        null, 
-                        null);
-            } else if (pvList.size() == 1) {
-                // Use the short-cut for 1 child
-                PDElement pde = pvList.get(0);
-                String childName = pde.getParam().getParameterName();
-                object = wrapperTool.wrap(cls, 
-                        childName, 
-                        pde.getElement().getTypeValue(), 
-                        pde.getParam().getParameterActualType(),
-                        marshalDesc.getPropertyDescriptorMap(cls).get(childName));
+            int size = pvList.size();
+            String[] names = new String[size];
+            Object[] values = new Object[size];
+            Class[] declaredClasses = new Class[size];
+            PropertyDescriptorPlus[] propertyDescs = new PropertyDescriptorPlus[size];
+            fillWrapperInputs(wd, marshalDesc, pvList, names, values, declaredClasses,
+                              propertyDescs);
+            object = wrapperTool.wrap(cls, names, values, declaredClasses, propertyDescs);
 
-            } else {           
-                ArrayList<String> nameList = new ArrayList<String>();
-                Map<String, Object> objectList = new HashMap<String, Object>();
-                Map<String, Class> declaredClassMap = new HashMap<String, Class>();
-
-                for (PDElement pv : pvList) {
-                    String name = pv.getParam().getParameterName();
-
-                    // The object list contains type rendered objects
-                    Object value = pv.getElement().getTypeValue();
-                    Class dclClass = pv.getParam().getParameterActualType();
-                    nameList.add(name);
-                    objectList.put(name, value);
-                    declaredClassMap.put(name, dclClass);
-                }
-
-                
-                object = wrapperTool.wrap(cls, nameList, objectList, declaredClassMap, 
-                        marshalDesc.getPropertyDescriptorMap(cls));
-            }
-
-            QName wrapperQName = new QName(operationDesc.getRequestWrapperTargetNamespace(),
-                                           operationDesc.getRequestWrapperLocalName());
+            QName wrapperQName = wd.getWrapperQName();
 
             // Make sure object can be rendered as an element
-            if (!marshalDesc.getAnnotationDesc(cls).hasXmlRootElement()) {
+            if (!wd.hasXmlRootElement()) {
                 object = new JAXBElement(wrapperQName, cls, object);
             }
             
@@ -666,95 +640,60 @@ public class DocLitWrappedMethodMarshaller implements MethodMarshaller {
     }
 
     /**
+     * @param wd WrapperDesc from the MarshalOperationRuntimeDescription
+     * @param className name of the wrapper class
      * @param opDesc
-     * @param msrd
-     * @param endpointDesc
-     * @return true if should register UnmarshalInfo for faster processing
-     */
-    boolean shouldRegiserUnmarshalInfo(OperationDescription opDesc, 
-			MarshalServiceRuntimeDescription msrd,
-			EndpointDescription endpointDesc) {
-    	// If either the request wrapper or the response wrapper is 
-    	// not a rendered as a root element, then "by type" unmarshaling
-    	// is needed.  In such cases faster unmarshaling should be disabled.
-    	return isRequestWrapperAnXmlRootElement(opDesc, msrd, endpointDesc) &&
-    		isResponseWrapperAnXmlRootElement(opDesc, msrd, endpointDesc);
-    }
-    /**
-     * @param opDesc
-     * @param msrd
-     * @param endpointDesc
-     * @return true if request wrapper is a root element
+     * @return WrapperDesc
+     * @throws WebServiceException if the wrapper class could not be loaded
      */
-    boolean isRequestWrapperAnXmlRootElement(OperationDescription opDesc, 
-    			MarshalServiceRuntimeDescription msrd,
-    			EndpointDescription endpointDesc) {
-    	boolean isRootElement = false;
-		String wrapperClassName = msrd.getRequestWrapperClassName(opDesc);
-    	try {
-			
-			if (wrapperClassName != null) {
-				AnnotationDesc aDesc = msrd.getAnnotationDesc(wrapperClassName);
-				if (aDesc == null) {
-					Class cls = loadClass(wrapperClassName, endpointDesc);
-					aDesc = msrd.getAnnotationDesc(cls);
-				}
-				isRootElement = aDesc.hasXmlRootElement();
-			}
-			
-		} catch (Throwable t) {
-			if (log.isDebugEnabled()) {
-				log.debug("An error occurred while processing class " + wrapperClassName + " exception is " + t);
-				log.debug("The error is ignored and processing continues.");				
-			}
-		}
-		return isRootElement;
-    }
-    
-    /**
-     * @param opDesc
-     * @param msrd
-     * @param endpointDesc
-     * @return true if response wrapper is a root element
-     */
-    boolean isResponseWrapperAnXmlRootElement(OperationDescription opDesc, 
-    			MarshalServiceRuntimeDescription msrd,
-    			EndpointDescription endpointDesc) {
-    	boolean isRootElement = false;
-		String wrapperClassName = msrd.getResponseWrapperClassName(opDesc);
-    	try {
-			
-			if (wrapperClassName != null) {
-				AnnotationDesc aDesc = msrd.getAnnotationDesc(wrapperClassName);
-				if (aDesc == null) {
-					Class cls = loadClass(wrapperClassName, endpointDesc);
-					aDesc = msrd.getAnnotationDesc(cls);
-				}
-				isRootElement = aDesc.hasXmlRootElement();
-			}
-			
-		} catch (Throwable t) {
-			if (log.isDebugEnabled()) {
-				log.debug("An error occurred while processing class " + wrapperClassName + " exception is " + t);
-				log.debug("The error is ignored and processing continues.");				
-			}
-		}
-		return isRootElement;
+    static WrapperDesc getWrapperDesc(WrapperDesc wd, String className, 
+                                      OperationDescription opDesc) {
+        if (wd == null) {
+            throw ExceptionFactory.makeWebServiceException(
+                    Messages.getMessage("JAXBWrapperErr7", className, 
+                                        opDesc.getJavaMethodName()));
+        }
+        return wd;
     }
 
     /**
-     * @param clsName
-     * @param endpontDesc
-     * @return
-     * @throws ClassNotFoundException
+     * Fill the inputs of the wrapper tool from the parameter values.  The 
+     * PropertyDescriptors are taken from the WrapperDesc if the parameter values
+     * are in the expected order, otherwise they are looked up by name.
+     * 
+     * @param wd WrapperDesc
+     * @param marshalDesc
+     * @param pdeList parameter values
+     * @param names (output) xml child names
+     * @param values (output) type rendered objects
+     * @param declaredClasses (output) declared classes
+     * @param propertyDescs (output) PropertyDescriptors
      */
-    Class loadClass(String clsName, EndpointDescription endpointDesc) throws ClassNotFoundException {
-    	Class cls = null;
-    	try {
-            cls = MethodMarshallerUtils.loadClass(clsName);
-        } catch (ClassNotFoundException e){
-            cls = MethodMarshallerUtils.loadClass(clsName, endpointDesc.getAxisService().getClassLoader());
+    static void fillWrapperInputs(WrapperDesc wd,
+                                  MarshalServiceRuntimeDescription marshalDesc,
+                                  List<PDElement> pdeList,
+                                  String[] names,
+                                  Object[] values,
+                                  Class[] declaredClasses,
+                                  PropertyDescriptorPlus[] propertyDescs) {
+        ParameterDescription[] slots = wd.getParameterDescriptions();
+        Map<String, PropertyDescriptorPlus> pdMap = null;
+        for (int i = 0; i < pdeList.size(); i++) {
+            PDElement pde = pdeList.get(i);
+            ParameterDescription pd = pde.getParam();
+            names[i] = pd.getParameterName();
+            
+            // The object list contains type rendered objects
+            values[i] = pde.getElement().getTypeValue();
+            declaredClasses[i] = pd.getParameterActualType();
+            if (i < slots.length && slots[i] == pd) {
+                propertyDescs[i] = wd.getParameterPropertyDescriptors()[i];
+            } else {
+                if (pdMap == null) {
+                    pdMap = marshalDesc.getPropertyDescriptorMap(wd.getWrapperClass());
+                }
+                propertyDescs[i] = pdMap.get(names[i]);
+            }
         }
-        return cls;
     }
 }
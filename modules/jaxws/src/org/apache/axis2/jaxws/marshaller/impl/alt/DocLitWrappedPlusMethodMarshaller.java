@@ -34,8 +34,9 @@ import org.apache.axis2.jaxws.message.databinding.JAXBUtils;
 import org.apache.axis2.jaxws.message.factory.JAXBBlockFactory;
 import org.apache.axis2.jaxws.message.factory.MessageFactory;
 import org.apache.axis2.jaxws.registry.FactoryRegistry;
-import org.apache.axis2.jaxws.runtime.description.marshal.AnnotationDesc;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalOperationRuntimeDescriptionFactory;
 import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.WrapperDesc;
 import org.apache.axis2.jaxws.utility.ConvertUtils;
 import org.apache.axis2.jaxws.wrapper.JAXBWrapperTool;
 import org.apache.axis2.jaxws.wrapper.impl.JAXBWrapperToolImpl;
@@ -154,10 +155,13 @@ public class DocLitWrappedPlusMethodMarshaller implements MethodMarshaller {
             blockContext.setWebServiceNamespace(ed.getTargetNamespace());
             // If the wrapper is not a root element, then the process type
             // must be set on the context so that "by type" unmarshal is performed.
-            if (!isResponseWrapperAnXmlRootElement(operationDesc, marshalDesc, endpointDesc)) {
-            	String clsName = marshalDesc.getResponseWrapperClassName(operationDesc);
-            	Class cls = loadClass(clsName,endpointDesc);
-            	blockContext.setProcessType(cls);
+            WrapperDesc wd = DocLitWrappedMethodMarshaller.getWrapperDesc(
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc)
+                            .getResponseWrapperDesc(),
+                    marshalDesc.getResponseWrapperClassName(operationDesc),
+                    operationDesc);
+            if (!wd.hasXmlRootElement()) {
+            	blockContext.setProcessType(wd.getWrapperClass());
             }
             JAXBBlockFactory factory =
                     (JAXBBlockFactory)FactoryRegistry.getFactory(JAXBBlockFactory.class);
@@ -325,10 +329,13 @@ public class DocLitWrappedPlusMethodMarshaller implements MethodMarshaller {
             
             // If the wrapper is not a root element, then the process type
             // must be set on the context so that "by type" unmarshal is performed.
-            if (!isRequestWrapperAnXmlRootElement(operationDesc, marshalDesc, endpointDesc)) {
-            	String clsName = marshalDesc.getRequestWrapperClassName(operationDesc);
-            	Class cls = loadClass(clsName,endpointDesc);
-            	blockContext.setProcessType(cls);
+            WrapperDesc wd = DocLitWrappedMethodMarshaller.getWrapperDesc(
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc)
+                            .getRequestWrapperDesc(),
+                    marshalDesc.getRequestWrapperClassName(operationDesc),
+                    operationDesc);
+            if (!wd.hasXmlRootElement()) {
+            	blockContext.setProcessType(wd.getWrapperClass());
             }
             JAXBBlockFactory factory =
                     (JAXBBlockFactory)FactoryRegistry.getFactory(JAXBBlockFactory.class);
@@ -547,18 +554,21 @@ public class DocLitWrappedPlusMethodMarshaller implements MethodMarshaller {
             }
 
             // Now create the single JAXB element
-            String wrapperName = marshalDesc.getResponseWrapperClassName(operationDesc);
-            Class cls = loadClass(wrapperName, endpointDesc);
+            WrapperDesc wd = DocLitWrappedMethodMarshaller.getWrapperDesc(
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc)
+                            .getResponseWrapperDesc(),
+                    marshalDesc.getResponseWrapperClassName(operationDesc),
+                    operationDesc);
+            Class cls = wd.getWrapperClass();
             
             JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
             Object object = wrapperTool.wrap(cls, nameList, objectList, declaredClassMap,
                                              marshalDesc.getPropertyDescriptorMap(cls));
 
-            QName wrapperQName = new QName(operationDesc.getResponseWrapperTargetNamespace(),
-                                           operationDesc.getResponseWrapperLocalName());
+            QName wrapperQName = wd.getWrapperQName();
 
             // Make sure object can be rendered as an element
-            if (!marshalDesc.getAnnotationDesc(cls).hasXmlRootElement()) {
+            if (!wd.hasXmlRootElement()) {
                 object = new JAXBElement(wrapperQName, cls, object);
             }
 
@@ -677,18 +687,21 @@ public class DocLitWrappedPlusMethodMarshaller implements MethodMarshaller {
             }
 
             // Now create the single JAXB element 
-            String wrapperName = marshalDesc.getRequestWrapperClassName(operationDesc);
-            Class cls = loadClass(wrapperName, endpointDesc);
+            WrapperDesc wd = DocLitWrappedMethodMarshaller.getWrapperDesc(
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc)
+                            .getRequestWrapperDesc(),
+                    marshalDesc.getRequestWrapperClassName(operationDesc),
+                    operationDesc);
+            Class cls = wd.getWrapperClass();
             
             JAXBWrapperTool wrapperTool = new JAXBWrapperToolImpl();
             Object object = wrapperTool.wrap(cls, nameList, objectList, declardClassMap,
                                              marshalDesc.getPropertyDescriptorMap(cls));
 
-            QName wrapperQName = new QName(operationDesc.getRequestWrapperTargetNamespace(),
-                                           operationDesc.getRequestWrapperLocalName());
+            QName wrapperQName = wd.getWrapperQName();
 
             // Make sure object can be rendered as an element
-            if (!marshalDesc.getAnnotationDesc(cls).hasXmlRootElement()) {
+            if (!wd.hasXmlRootElement()) {
                 object = new JAXBElement(wrapperQName, cls, object);
             }
 
@@ -785,82 +798,4 @@ public class DocLitWrappedPlusMethodMarshaller implements MethodMarshaller {
             throw ExceptionFactory.makeWebServiceException(e);
         }
     }
-
-    /**
-     * @param opDesc
-     * @param msrd
-     * @param endpointDesc
-     * @return true if request wrapper is a root element
-     */
-    boolean isRequestWrapperAnXmlRootElement(OperationDescription opDesc, 
-    			MarshalServiceRuntimeDescription msrd,
-    			EndpointDescription endpointDesc) {
-    	boolean isRootElement = false;
-		String wrapperClassName = msrd.getRequestWrapperClassName(opDesc);
-    	try {
-			
-			if (wrapperClassName != null) {
-				AnnotationDesc aDesc = msrd.getAnnotationDesc(wrapperClassName);
-				if (aDesc == null) {
-					Class cls = loadClass(wrapperClassName, endpointDesc);
-					aDesc = msrd.getAnnotationDesc(cls);
-				}
-				isRootElement = aDesc.hasXmlRootElement();
-			}
-			
-		} catch (Throwable t) {
-			if (log.isDebugEnabled()) {
-				log.debug("An error occurred while processing class " + wrapperClassName + " exception is " + t);
-				log.debug("The error is ignored and processing continues.");				
-			}
-		}
-		return isRootElement;
-    }
-    
-    /**
-     * @param opDesc
-     * @param msrd
-     * @param endpointDesc
-     * @return true if response wrapper is a root element
-     */
-    boolean isResponseWrapperAnXmlRootElement(OperationDescription opDesc, 
-    			MarshalServiceRuntimeDescription msrd,
-    			EndpointDescription endpointDesc) {
-    	boolean isRootElement = false;
-		String wrapperClassName = msrd.getResponseWrapperClassName(opDesc);
-    	try {
-			
-			if (wrapperClassName != null) {
-				AnnotationDesc aDesc = msrd.getAnnotationDesc(wrapperClassName);
-				if (aDesc == null) {
-					Class cls = loadClass(wrapperClassName, endpointDesc);
-					aDesc = msrd.getAnnotationDesc(cls);
-				}
-				isRootElement = aDesc.hasXmlRootElement();
-			}
-			
-		} catch (Throwable t) {
-			if (log.isDebugEnabled()) {
-				log.debug("An error occurred while processing class " + wrapperClassName + " exception is " + t);
-				log.debug("The error is ignored and processing continues.");				
-			}
-		}
-		return isRootElement;
-    }
-
-    /**
-     * @param clsName
-     * @param endpontDesc
-     * @return
-     * @throws ClassNotFoundException
-     */
-    Class loadClass(String clsName, EndpointDescription endpointDesc) throws ClassNotFoundException {
-    	Class cls = null;
-    	try {
-            cls = MethodMarshallerUtils.loadClass(clsName);
-        } catch (ClassNotFoundException e){
-            cls = MethodMarshallerUtils.loadClass(clsName, endpointDesc.getAxisService().getClassLoader());
-        }
-        return cls;
-    }
 }
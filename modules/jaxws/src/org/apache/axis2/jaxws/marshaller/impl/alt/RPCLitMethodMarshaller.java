@@ -32,6 +32,8 @@ import org.apache.axis2.jaxws.message.Message;
 import org.apache.axis2.jaxws.message.Protocol;
 import org.apache.axis2.jaxws.message.factory.MessageFactory;
 import org.apache.axis2.jaxws.registry.FactoryRegistry;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalOperationRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalOperationRuntimeDescriptionFactory;
 import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
 import org.apache.axis2.jaxws.utility.ConvertUtils;
 import org.apache.commons.logging.Log;
@@ -132,13 +134,10 @@ public class RPCLitMethodMarshaller implements MethodMarshaller {
 
             // We want to use "by Java Type" marshalling for 
             // all body elements and all non-JAXB objects
+            MarshalOperationRuntimeDescription plan =
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc);
             for (PDElement pde : pdeList) {
-                ParameterDescription pd = pde.getParam();
-                Class type = pd.getParameterActualType();
-                if (!pd.isHeader() ||
-                        MethodMarshallerUtils.isNotJAXBRootElement(type, marshalDesc)) {
-                    pde.setByJavaTypeClass(type);
-                }
+                pde.setByJavaTypeClass(plan.getByJavaTypeClass(pde.getParam()));
             }
 
             // Put values onto the message
@@ -193,15 +192,8 @@ public class RPCLitMethodMarshaller implements MethodMarshaller {
 
             // We want to use "by Java Type" unmarshalling for 
             // all body elements and all non-JAXB objects
-            Class[] javaTypes = new Class[pds.length];
-            for (int i = 0; i < pds.length; i++) {
-                ParameterDescription pd = pds[i];
-                Class type = pd.getParameterActualType();
-                if (!pd.isHeader() ||
-                        MethodMarshallerUtils.isNotJAXBRootElement(type, marshalDesc)) {
-                    javaTypes[i] = type;
-                }
-            }
+            Class[] javaTypes = 
+                MarshalOperationRuntimeDescriptionFactory.get(operationDesc).getByJavaTypeClasses();
 
             // Unmarshal the ParamValues from the Message
             List<PDElement> pvList = MethodMarshallerUtils.getPDElements(pds,
@@ -340,11 +332,8 @@ public class RPCLitMethodMarshaller implements MethodMarshaller {
                     }
 
                     // Use marshalling by java type if necessary
-                    Class byJavaType = null;
-                    if (!operationDesc.isResultHeader() ||
-                            MethodMarshallerUtils.isNotJAXBRootElement(returnType, marshalDesc)) {
-                        byJavaType = returnType;
-                    }
+                    Class byJavaType = MarshalOperationRuntimeDescriptionFactory.get(operationDesc)
+                            .getResultByJavaTypeClass();
                     MethodMarshallerUtils.toMessage(returnElement,
                                                     returnType,
                                                     operationDesc.isListType(),
@@ -366,13 +355,10 @@ public class RPCLitMethodMarshaller implements MethodMarshaller {
 
             // We want to use "by Java Type" marshalling for 
             // all body elements and all non-JAXB objects
+            MarshalOperationRuntimeDescription plan =
+                    MarshalOperationRuntimeDescriptionFactory.get(operationDesc);
             for (PDElement pde : pdeList) {
-                ParameterDescription pd = pde.getParam();
-                Class type = pd.getParameterActualType();
-                if (!pd.isHeader() ||
-                        MethodMarshallerUtils.isNotJAXBRootElement(type, marshalDesc)) {
-                    pde.setByJavaTypeClass(type);
-                }
+                pde.setByJavaTypeClass(plan.getByJavaTypeClass(pde.getParam()));
             }
             // TODO Should we check for null output body values?  Should we check for null output header values ?
             // Put values onto the message
@@ -449,11 +435,8 @@ public class RPCLitMethodMarshaller implements MethodMarshaller {
                     // If the webresult is in the header, we need the name of the header so that we can find it.
                     Element returnElement = null;
                     // Use "byJavaType" unmarshalling if necessary
-                    Class byJavaType = null;
-                    if (!operationDesc.isResultHeader() ||
-                            MethodMarshallerUtils.isNotJAXBRootElement(returnType, marshalDesc)) {
-                        byJavaType = returnType;
-                    }
+                    Class byJavaType = MarshalOperationRuntimeDescriptionFactory.get(operationDesc)
+                            .getResultByJavaTypeClass();
                     if (operationDesc.isResultHeader()) {
                         returnElement = MethodMarshallerUtils
                         .getReturnElement(packages, message, byJavaType,  operationDesc.isListType(), true,
@@ -481,15 +464,8 @@ public class RPCLitMethodMarshaller implements MethodMarshaller {
 
             // We want to use "by Java Type" unmarshalling for 
             // all body elements and all non-JAXB objects
-            Class[] javaTypes = new Class[pds.length];
-            for (int i = 0; i < pds.length; i++) {
-                ParameterDescription pd = pds[i];
-                Class type = pd.getParameterActualType();
-                if (!pd.isHeader() ||
-                        MethodMarshallerUtils.isNotJAXBRootElement(type, marshalDesc)) {
-                    javaTypes[i] = type;
-                }
-            }
+            Class[] javaTypes = 
+                MarshalOperationRuntimeDescriptionFactory.get(operationDesc).getByJavaTypeClasses();
 
             // Unmarshall the ParamValues from the Message
             List<PDElement> pvList = MethodMarshallerUtils.getPDElements(pds,
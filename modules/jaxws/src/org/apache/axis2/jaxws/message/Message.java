@@ -55,6 +55,17 @@ public interface Message extends XMLPart {
      */
     public SOAPMessage getAsSOAPMessage() throws WebServiceException;
 
+    /**
+     * getAsSOAPMessageView Get a SAAJ view of the message that only converts the parts
+     * that are accessed.  The SOAP header is converted on first access; the body is only
+     * converted if it is accessed.  Changes to the view must be applied to this message
+     * using {@link SOAPMessageView#applyChanges()}.
+     *
+     * @return SOAPMessageView or null if the message cannot be viewed lazily (in which case
+     *         {@link #getAsSOAPMessage()} should be used)
+     */
+    public SOAPMessageView getAsSOAPMessageView() throws WebServiceException;
+
     /**
      * Add Attachment
      * @param dh DataHandler (type of Attachment is inferred from dh.getContentType)
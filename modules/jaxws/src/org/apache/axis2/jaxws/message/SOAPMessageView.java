@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.axis2.jaxws.message;
+
+import javax.xml.soap.SOAPMessage;
+import javax.xml.ws.WebServiceException;
+
+/**
+ * SOAPMessageView
+ * 
+ * A SAAJ SOAPMessage that is backed by a Message without converting the whole Message.
+ * The SOAPPart of the view is read from the Message as it is accessed, so that handlers
+ * that only look at (or modify) the SOAP headers do not cause the body to be converted.
+ * <p>
+ * Changes made through the SAAJ API are not visible in the Message until 
+ * {@link #applyChanges()} or {@link #complete()} is called.
+ * 
+ * @see Message#getAsSOAPMessageView()
+ */
+public interface SOAPMessageView {
+
+    /**
+     * @return the SAAJ SOAPMessage
+     */
+    public SOAPMessage getSOAPMessage();
+
+    /**
+     * applyChanges
+     * Apply the changes made to the SOAP headers of the view to the Message.
+     * This is only possible if the SOAP body of the view has not been accessed and
+     * the SOAP envelope, header and body elements themselves are unchanged.
+     * The view remains usable after the changes have been applied.
+     * 
+     * @return true if the Message is consistent with the view; false if the view
+     * must be completed
+     * @throws WebServiceException
+     */
+    public boolean applyChanges() throws WebServiceException;
+
+    /**
+     * complete
+     * Convert the remaining parts of the view and make the SOAPEnvelope of the view the
+     * content of the Message (which is what {@link Message#getAsSOAPMessage()} does).
+     * The view must not be used afterwards.
+     * 
+     * @throws WebServiceException
+     */
+    public void complete() throws WebServiceException;
+}
@@ -30,6 +30,7 @@ import org.apache.axis2.jaxws.i18n.Messages;
 import org.apache.axis2.jaxws.message.Block;
 import org.apache.axis2.jaxws.message.Message;
 import org.apache.axis2.jaxws.message.Protocol;
+import org.apache.axis2.jaxws.message.SOAPMessageView;
 import org.apache.axis2.jaxws.message.XMLFault;
 import org.apache.axis2.jaxws.message.XMLPart;
 import org.apache.axis2.jaxws.message.attachments.AttachmentUtils;
@@ -52,6 +53,7 @@ import javax.xml.soap.MessageFactory;
 import javax.xml.soap.MimeHeaders;
 import javax.xml.soap.SOAPConstants;
 import javax.xml.soap.SOAPEnvelope;
+import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
@@ -218,54 +220,7 @@ public class MessageImpl implements Message {
             
             // Get the MimeHeaders from the transportHeaders map
             MimeHeaders defaultHeaders = new MimeHeaders();
-            if (transportHeaders != null) {
-                Iterator it = transportHeaders.entrySet().iterator();
-                while (it.hasNext()) {
-                    Map.Entry entry = (Map.Entry) it.next();
-                    String key = (String) entry.getKey();
-                    if (entry.getValue() == null) {
-                        // This is not necessarily a problem; log it and make sure not to NPE
-                        if (log.isDebugEnabled()) {
-                            log.debug("  Not added to transport header. header =" + key + 
-                                      " because value is null;");
-                        }
-                    }
-                    else if (entry.getValue() instanceof String) {
-                        // Normally there is one value per key
-                        if (log.isDebugEnabled()) {
-                            log.debug("  add transport header. header =" + key + 
-                                      " value = " + entry.getValue());
-                        }
-                        defaultHeaders.addHeader(key, (String) entry.getValue());
-                    } else {
-                        // There may be multiple values for each key.  This code
-                        // assumes the value is an array of String.
-                        String values[] = (String[]) entry.getValue();
-                        for (int i=0; i<values.length; i++) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("  add transport header. header =" + key + 
-                                          " value = " + values[i]);
-                            }
-                            defaultHeaders.addHeader(key, values[i]);
-                        }
-                    }
-                }
-            }
-            
-            // Toggle based on SOAP 1.1 or SOAP 1.2
-            String contentType = null;
-            if (ns.getNamespaceURI().equals(SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE)) {
-                contentType = SOAPConstants.SOAP_1_1_CONTENT_TYPE;
-            } else {
-                contentType = SOAPConstants.SOAP_1_2_CONTENT_TYPE;
-            }
-            
-            // Override the content-type
-            String ctValue = contentType +"; charset=UTF-8";
-            defaultHeaders.setHeader("Content-type", ctValue);
-            if (log.isDebugEnabled()) {
-                log.debug("  setContentType =" + ctValue);
-            }
+            addMimeHeaders(defaultHeaders, ns.getNamespaceURI());
             SOAPMessage soapMessage = mf.createMessage(defaultHeaders, inStream);
             
             // At this point the XMLPart is still an OMElement.  
@@ -299,16 +254,7 @@ public class MessageImpl implements Message {
             }
             
             // Add the attachments from this Message to the SOAPMessage
-            for (String cid:getAttachmentIDs()) {
-                DataHandler dh = attachments.getDataHandler(cid);
-                if (!dontCopy.contains(cid)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("  add Message attachment to SoapMessage.  cid = " + cid);
-                    }
-                    AttachmentPart ap = MessageUtils.createAttachmentPart(cid, dh, soapMessage);
-                    soapMessage.addAttachmentPart(ap);
-                }
-            }
+            addAttachmentParts(soapMessage, dontCopy);
             
             if (log.isDebugEnabled()) {
                 log.debug("  The SOAPMessage has the following attachments");
@@ -329,6 +275,130 @@ public class MessageImpl implements Message {
         }
         
     }
+
+    /* (non-Javadoc)
+     * @see org.apache.axis2.jaxws.message.Message#getAsSOAPMessageView()
+     */
+    public SOAPMessageView getAsSOAPMessageView() throws WebServiceException {
+        // If the xml part already is a SAAJ SOAPEnvelope, there is nothing to gain
+        if (xmlPart.isConsumed() || "SOAPENVELOPE".equals(xmlPart.getXMLPartContentType())) {
+            return null;
+        }
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("start getAsSOAPMessageView");
+            }
+            org.apache.axiom.soap.SOAPEnvelope element =
+                (org.apache.axiom.soap.SOAPEnvelope) xmlPart.getAsOMElement();
+            String namespaceURI = element.getNamespace().getNamespaceURI();
+            
+            MessageFactory mf = getSAAJConverter().createMessageFactory(namespaceURI);
+            SOAPMessage soapMessage = mf.createMessage();
+            addMimeHeaders(soapMessage.getMimeHeaders(), namespaceURI);
+            addAttachmentParts(soapMessage, new ArrayList<String>());
+            
+            SOAPMessageView view = 
+                new SOAPMessageViewImpl(this, element, soapMessage, getSAAJConverter());
+            if (log.isDebugEnabled()) {
+                log.debug("end getAsSOAPMessageView; view = " + view);
+            }
+            return view;
+        } catch (SOAPException e) {
+            // The SAAJ implementation does not support a StAXSource as content
+            if (log.isDebugEnabled()) {
+                log.debug("getAsSOAPMessageView is not supported: " + e);
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Make the SOAPEnvelope of a SOAPMessageView the content of this Message
+     * @param envelope SOAPEnvelope
+     * @throws WebServiceException
+     */
+    void setSOAPEnvelope(SOAPEnvelope envelope) throws WebServiceException {
+        try {
+            createXMLPart(envelope);
+        } catch (XMLStreamException e) {
+            throw ExceptionFactory.makeWebServiceException(e);
+        }
+    }
+    
+    /**
+     * Add the transport headers of this Message and the content type for the given
+     * SOAP version to the MIME headers of a SOAPMessage.
+     * @param mimeHeaders
+     * @param namespaceURI the SOAP envelope namespace
+     */
+    private void addMimeHeaders(MimeHeaders mimeHeaders, String namespaceURI) {
+        if (transportHeaders != null) {
+            Iterator it = transportHeaders.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry entry = (Map.Entry) it.next();
+                String key = (String) entry.getKey();
+                if (entry.getValue() == null) {
+                    // This is not necessarily a problem; log it and make sure not to NPE
+                    if (log.isDebugEnabled()) {
+                        log.debug("  Not added to transport header. header =" + key + 
+                                  " because value is null;");
+                    }
+                }
+                else if (entry.getValue() instanceof String) {
+                    // Normally there is one value per key
+                    if (log.isDebugEnabled()) {
+                        log.debug("  add transport header. header =" + key + 
+                                  " value = " + entry.getValue());
+                    }
+                    mimeHeaders.addHeader(key, (String) entry.getValue());
+                } else {
+                    // There may be multiple values for each key.  This code
+                    // assumes the value is an array of String.
+                    String values[] = (String[]) entry.getValue();
+                    for (int i=0; i<values.length; i++) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("  add transport header. header =" + key + 
+                                      " value = " + values[i]);
+                        }
+                        mimeHeaders.addHeader(key, values[i]);
+                    }
+                }
+            }
+        }
+        
+        // Toggle based on SOAP 1.1 or SOAP 1.2
+        String contentType = null;
+        if (namespaceURI.equals(SOAPConstants.URI_NS_SOAP_1_1_ENVELOPE)) {
+            contentType = SOAPConstants.SOAP_1_1_CONTENT_TYPE;
+        } else {
+            contentType = SOAPConstants.SOAP_1_2_CONTENT_TYPE;
+        }
+        
+        // Override the content-type
+        String ctValue = contentType +"; charset=UTF-8";
+        mimeHeaders.setHeader("Content-type", ctValue);
+        if (log.isDebugEnabled()) {
+            log.debug("  setContentType =" + ctValue);
+        }
+    }
+    
+    /**
+     * Add the attachments of this Message to a SOAPMessage
+     * @param soapMessage
+     * @param dontCopy content ids of the attachments that must not be copied
+     */
+    private void addAttachmentParts(SOAPMessage soapMessage, List<String> dontCopy) {
+        for (String cid:getAttachmentIDs()) {
+            DataHandler dh = attachments.getDataHandler(cid);
+            if (!dontCopy.contains(cid)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("  add Message attachment to SoapMessage.  cid = " + cid);
+                }
+                AttachmentPart ap = MessageUtils.createAttachmentPart(cid, dh, soapMessage);
+                soapMessage.addAttachmentPart(ap);
+            }
+        }
+    }
     
     /**
      * Get the indicated (non-soap part) attachment id
@@ -0,0 +1,510 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.axis2.jaxws.message.impl;
+
+import org.apache.axiom.om.OMAttribute;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.om.util.StAXUtils;
+import org.apache.axis2.jaxws.ExceptionFactory;
+import org.apache.axis2.jaxws.message.Block;
+import org.apache.axis2.jaxws.message.SOAPMessageView;
+import org.apache.axis2.jaxws.message.factory.OMBlockFactory;
+import org.apache.axis2.jaxws.message.util.SAAJConverter;
+import org.apache.axis2.jaxws.registry.FactoryRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPBody;
+import javax.xml.soap.SOAPElement;
+import javax.xml.soap.SOAPEnvelope;
+import javax.xml.soap.SOAPException;
+import javax.xml.soap.SOAPHeader;
+import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.transform.stax.StAXSource;
+import javax.xml.ws.WebServiceException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SOAPMessageViewImpl
+ * 
+ * The SOAPPart of the SOAPMessage is set to a StAXSource that reads the Message.  
+ * The envelope, the SOAP header and the start of the body are read from a serialized copy,
+ * so that the body of the Message is not touched.  The content of the body is only read from
+ * the Message if the SAAJ implementation asks for it; the SAAJ implementation of Axis2 only
+ * does this when the body is accessed.  As long as this is not the case, changes to the view
+ * can only affect the SOAP headers.  The header blocks that changed are then copied back to
+ * the Message; the other header blocks of the Message are left untouched.  Other SAAJ
+ * implementations may read the entire source, in which case the view is simply completed.
+ */
+class SOAPMessageViewImpl implements SOAPMessageView {
+    private static final Log log = LogFactory.getLog(SOAPMessageViewImpl.class);
+
+    private final MessageImpl message;
+    private final SOAPMessage soapMessage;
+    private final HeaderOnlyReader reader;
+    private final SAAJConverter converter;
+    
+    // Information about the SOAPPart so that we can tell what has changed
+    private SOAPBody body;
+    private String envelopeInfo;
+    // The QName of every header block, in document order
+    private List<QName> headerQNames;
+    // The information about the header blocks, by QName
+    private Map<QName, String> headerInfo;
+
+    /**
+     * Create a view.
+     * @param message the Message
+     * @param omEnvelope the OM content of the Message
+     * @param soapMessage a SOAPMessage with the mime headers and attachments of the Message
+     * @param converter
+     * @throws SOAPException if the SAAJ implementation does not accept the content
+     * @throws WebServiceException if the SOAP header cannot be serialized
+     */
+    SOAPMessageViewImpl(MessageImpl message, 
+                        org.apache.axiom.soap.SOAPEnvelope omEnvelope,
+                        SOAPMessage soapMessage,
+                        SAAJConverter converter) throws SOAPException {
+        this.message = message;
+        this.soapMessage = soapMessage;
+        this.converter = converter;
+        try {
+            reader = new HeaderOnlyReader(createHeadReader(omEnvelope), omEnvelope.getBody(),
+                    omEnvelope.getNamespace().getNamespaceURI());
+        } catch (XMLStreamException e) {
+            throw ExceptionFactory.makeWebServiceException(e);
+        }
+        soapMessage.getSOAPPart().setContent(new StAXSource(reader));
+        
+        SOAPEnvelope envelope = soapMessage.getSOAPPart().getEnvelope();
+        body = envelope.getBody();
+        envelopeInfo = getEnvelopeInfo(envelope);
+        Map<QName, List<SOAPElement>> headerBlocks = getHeaderBlocks(envelope.getHeader());
+        headerQNames = getQNames(envelope.getHeader());
+        headerInfo = getHeaderInfo(headerBlocks);
+        if (log.isDebugEnabled() && reader.isBodyContentRead()) {
+            log.debug("The SAAJ implementation read the entire SOAPPart; the view will be completed");
+        }
+    }
+
+    public SOAPMessage getSOAPMessage() {
+        return soapMessage;
+    }
+
+    public boolean applyChanges() throws WebServiceException {
+        if (reader.isBodyContentRead()) {
+            if (log.isDebugEnabled()) {
+                log.debug("applyChanges returns false due to: the body has been accessed");
+            }
+            return false;
+        }
+        try {
+            SOAPEnvelope envelope = soapMessage.getSOAPPart().getEnvelope();
+            if (envelope.getBody() != body || !envelopeInfo.equals(getEnvelopeInfo(envelope))) {
+                if (log.isDebugEnabled()) {
+                    log.debug("applyChanges returns false due to: " +
+                            "the envelope, header or body element changed");
+                }
+                return false;
+            }
+            SOAPHeader header = envelope.getHeader();
+            Map<QName, List<SOAPElement>> headerBlocks = getHeaderBlocks(header);
+            Map<QName, String> currentHeaderInfo = getHeaderInfo(headerBlocks);
+            if (!currentHeaderInfo.equals(headerInfo)) {
+                List<QName> currentHeaderQNames = getQNames(header);
+                if (!updateHeaderBlocks(headerBlocks, currentHeaderInfo, currentHeaderQNames)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("applyChanges copies all SOAP headers to the Message");
+                    }
+                    for (QName qName : new ArrayList<QName>(message.getHeaderQNames())) {
+                        message.removeHeaderBlock(qName.getNamespaceURI(), qName.getLocalPart());
+                    }
+                    for (List<SOAPElement> blocks : headerBlocks.values()) {
+                        appendHeaderBlocks(blocks);
+                    }
+                }
+                headerQNames = currentHeaderQNames;
+                headerInfo = currentHeaderInfo;
+            }
+            return true;
+        } catch (SOAPException e) {
+            throw ExceptionFactory.makeWebServiceException(e);
+        }
+    }
+
+    public void complete() throws WebServiceException {
+        try {
+            SOAPEnvelope envelope = soapMessage.getSOAPPart().getEnvelope();
+            // Visit every node so that the remaining content is read
+            getInfo(envelope, new StringBuilder());
+            message.setSOAPEnvelope(envelope);
+        } catch (SOAPException e) {
+            throw ExceptionFactory.makeWebServiceException(e);
+        }
+    }
+
+    /**
+     * Create a reader for a copy of the envelope that contains the SOAP header and
+     * an empty body.  Only the SOAP header of the Message is read to create the copy.
+     */
+    private static XMLStreamReader createHeadReader(org.apache.axiom.soap.SOAPEnvelope omEnvelope)
+            throws XMLStreamException {
+        StringWriter sw = new StringWriter();
+        XMLStreamWriter writer = StAXUtils.createXMLStreamWriter(sw);
+        Map<String, String> namespaces = new HashMap<String, String>();
+        writeStartElement(omEnvelope, namespaces, writer);
+        OMElement header = omEnvelope.getHeader();
+        if (header != null) {
+            header.serialize(writer);
+        }
+        writeStartElement(omEnvelope.getBody(), new HashMap<String, String>(namespaces), writer);
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+        return StAXUtils.createXMLStreamReader(new StringReader(sw.toString()));
+    }
+
+    /**
+     * Write the start tag of the element, with its namespace declarations and attributes
+     * @param namespaces the namespaces that are in scope (prefix to namespace URI); the
+     * namespaces declared by the element are added
+     */
+    private static void writeStartElement(OMElement element, Map<String, String> namespaces,
+                                          XMLStreamWriter writer) throws XMLStreamException {
+        OMNamespace ns = element.getNamespace();
+        String prefix = ns == null ? "" : ns.getPrefix();
+        String namespaceURI = ns == null ? "" : ns.getNamespaceURI();
+        writer.writeStartElement(prefix, element.getLocalName(), namespaceURI);
+        for (Iterator it = element.getAllDeclaredNamespaces(); it.hasNext();) {
+            OMNamespace decl = (OMNamespace) it.next();
+            writeNamespace(decl.getPrefix(), decl.getNamespaceURI(), namespaces, writer);
+        }
+        if (!namespaceURI.equals(namespaces.get(prefix)) 
+                && (prefix.length() > 0 || namespaceURI.length() > 0)) {
+            writeNamespace(prefix, namespaceURI, namespaces, writer);
+        }
+        for (Iterator it = element.getAllAttributes(); it.hasNext();) {
+            OMAttribute attr = (OMAttribute) it.next();
+            OMNamespace attrNS = attr.getNamespace();
+            if (attrNS == null || attrNS.getNamespaceURI().length() == 0) {
+                writer.writeAttribute(attr.getLocalName(), attr.getAttributeValue());
+            } else {
+                if (!attrNS.getNamespaceURI().equals(namespaces.get(attrNS.getPrefix()))) {
+                    writeNamespace(attrNS.getPrefix(), attrNS.getNamespaceURI(), namespaces, 
+                            writer);
+                }
+                writer.writeAttribute(attrNS.getPrefix(), attrNS.getNamespaceURI(), 
+                        attr.getLocalName(), attr.getAttributeValue());
+            }
+        }
+    }
+
+    private static void writeNamespace(String prefix, String namespaceURI, 
+                                       Map<String, String> namespaces, XMLStreamWriter writer)
+            throws XMLStreamException {
+        if (prefix.length() == 0) {
+            writer.writeDefaultNamespace(namespaceURI);
+        } else {
+            writer.writeNamespace(prefix, namespaceURI);
+        }
+        namespaces.put(prefix, namespaceURI);
+    }
+
+    private static String getEnvelopeInfo(SOAPEnvelope envelope) throws SOAPException {
+        StringBuilder buffer = new StringBuilder();
+        getAttributesInfo(envelope, buffer);
+        SOAPHeader header = envelope.getHeader();
+        if (header != null) {
+            getAttributesInfo(header, buffer);
+        }
+        getAttributesInfo(envelope.getBody(), buffer);
+        return buffer.toString();
+    }
+    
+    /**
+     * Copy the header blocks that changed to the Message, leaving the other header blocks
+     * in place.  A header block that is the only one with its QName before and after the
+     * change is replaced in place; other changed or added header blocks are appended.
+     * @return false if this would not preserve the order of the header blocks, in which
+     * case the Message has not been modified
+     */
+    private boolean updateHeaderBlocks(Map<QName, List<SOAPElement>> headerBlocks,
+                                       Map<QName, String> currentHeaderInfo,
+                                       List<QName> currentHeaderQNames) 
+            throws WebServiceException {
+        List<QName> replaced = new ArrayList<QName>();
+        List<QName> appended = new ArrayList<QName>();
+        for (Map.Entry<QName, String> entry : currentHeaderInfo.entrySet()) {
+            QName qName = entry.getKey();
+            if (!entry.getValue().equals(headerInfo.get(qName))) {
+                if (Collections.frequency(headerQNames, qName) == 1 
+                        && headerBlocks.get(qName).size() == 1) {
+                    replaced.add(qName);
+                } else {
+                    appended.add(qName);
+                }
+            }
+        }
+        
+        // Check that the resulting order is the order of the view
+        List<QName> expected = new ArrayList<QName>();
+        for (QName qName : headerQNames) {
+            if (currentHeaderInfo.containsKey(qName) && !appended.contains(qName)) {
+                expected.add(qName);
+            }
+        }
+        for (QName qName : currentHeaderQNames) {
+            if (appended.contains(qName)) {
+                expected.add(qName);
+            }
+        }
+        if (!expected.equals(currentHeaderQNames)) {
+            return false;
+        }
+        
+        if (log.isDebugEnabled()) {
+            log.debug("applyChanges copies the changed SOAP headers to the Message");
+        }
+        OMBlockFactory bf = (OMBlockFactory) FactoryRegistry.getFactory(OMBlockFactory.class);
+        for (QName qName : headerInfo.keySet()) {
+            if (!currentHeaderInfo.containsKey(qName) || appended.contains(qName)) {
+                message.removeHeaderBlock(qName.getNamespaceURI(), qName.getLocalPart());
+            }
+        }
+        for (QName qName : replaced) {
+            OMElement om = converter.toOM(headerBlocks.get(qName).get(0));
+            message.setHeaderBlock(qName.getNamespaceURI(), qName.getLocalPart(),
+                    bf.createFrom(om, null, om.getQName()));
+        }
+        for (QName qName : appended) {
+            appendHeaderBlocks(headerBlocks.get(qName));
+        }
+        return true;
+    }
+    
+    private void appendHeaderBlocks(List<SOAPElement> blocks) throws WebServiceException {
+        OMBlockFactory bf = (OMBlockFactory) FactoryRegistry.getFactory(OMBlockFactory.class);
+        for (SOAPElement block : blocks) {
+            OMElement om = converter.toOM(block);
+            QName qName = om.getQName();
+            message.appendHeaderBlock(qName.getNamespaceURI(), qName.getLocalPart(), 
+                    bf.createFrom(om, null, qName));
+        }
+    }
+    
+    /**
+     * Get the header blocks, grouped by QName
+     */
+    private static Map<QName, List<SOAPElement>> getHeaderBlocks(SOAPHeader header) {
+        Map<QName, List<SOAPElement>> blocks = new LinkedHashMap<QName, List<SOAPElement>>();
+        if (header != null) {
+            Iterator it = header.getChildElements();
+            while (it.hasNext()) {
+                Object child = it.next();
+                if (child instanceof SOAPElement) {
+                    SOAPElement element = (SOAPElement) child;
+                    QName qName = new QName(element.getNamespaceURI(), element.getLocalName());
+                    List<SOAPElement> list = blocks.get(qName);
+                    if (list == null) {
+                        list = new ArrayList<SOAPElement>();
+                        blocks.put(qName, list);
+                    }
+                    list.add(element);
+                }
+            }
+        }
+        return blocks;
+    }
+    
+    /**
+     * Get the QName of every header block, in document order
+     */
+    private static List<QName> getQNames(SOAPHeader header) {
+        List<QName> qNames = new ArrayList<QName>();
+        if (header != null) {
+            Iterator it = header.getChildElements();
+            while (it.hasNext()) {
+                Object child = it.next();
+                if (child instanceof SOAPElement) {
+                    SOAPElement element = (SOAPElement) child;
+                    qNames.add(new QName(element.getNamespaceURI(), element.getLocalName()));
+                }
+            }
+        }
+        return qNames;
+    }
+    
+    /**
+     * Get the information about the header blocks with each QName
+     */
+    private static Map<QName, String> getHeaderInfo(Map<QName, List<SOAPElement>> headerBlocks) {
+        Map<QName, String> info = new LinkedHashMap<QName, String>();
+        for (Map.Entry<QName, List<SOAPElement>> entry : headerBlocks.entrySet()) {
+            StringBuilder buffer = new StringBuilder();
+            for (SOAPElement block : entry.getValue()) {
+                getInfo(block, buffer);
+            }
+            info.put(entry.getKey(), buffer.toString());
+        }
+        return info;
+    }
+    
+    /**
+     * Append the information about the element, without its children
+     */
+    private static void getAttributesInfo(Node node, StringBuilder buffer) {
+        buffer.append('<').append(node.getNamespaceURI()).append(' ');
+        buffer.append(node.getLocalName());
+        NamedNodeMap attributes = node.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attr = (Attr) attributes.item(i);
+            buffer.append(' ').append(attr.getNamespaceURI()).append(' ');
+            buffer.append(attr.getName()).append("=\"").append(attr.getValue()).append('"');
+        }
+        buffer.append('>');
+    }
+
+    /**
+     * Append the information about the node and its descendants
+     */
+    private static void getInfo(Node node, StringBuilder buffer) {
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            getAttributesInfo(node, buffer);
+            for (Node child = node.getFirstChild(); child != null; 
+                    child = child.getNextSibling()) {
+                getInfo(child, buffer);
+            }
+            buffer.append("</>");
+        } else {
+            buffer.append(node.getNodeType()).append(':').append(node.getNodeValue());
+        }
+    }
+
+    /**
+     * XMLStreamReader that reads the envelope, SOAP header and the start of the body
+     * from a copy.  The content of the body is read from the Message when the event after the
+     * start of the body is requested, which is recorded.
+     */
+    private static class HeaderOnlyReader extends StreamReaderDelegate {
+        private final XMLStreamReader headReader;
+        private final OMElement omBody;
+        private final String envelopeNS;
+        private int depth;
+        private boolean atBodyStart;
+        private boolean inBody;
+        private boolean bodyContentRead;
+
+        HeaderOnlyReader(XMLStreamReader headReader, OMElement omBody, String envelopeNS) {
+            super(headReader);
+            this.headReader = headReader;
+            this.omBody = omBody;
+            this.envelopeNS = envelopeNS;
+        }
+
+        boolean isBodyContentRead() {
+            return bodyContentRead;
+        }
+
+        public int next() throws XMLStreamException {
+            if (atBodyStart) {
+                // Continue with the content of the body of the Message
+                atBodyStart = false;
+                bodyContentRead = true;
+                XMLStreamReader bodyReader = omBody.getXMLStreamReader();
+                while (bodyReader.getEventType() != START_ELEMENT) {
+                    bodyReader.next();
+                }
+                setParent(bodyReader);
+                inBody = true;
+                depth = 0;
+            }
+            int event = super.next();
+            if (event == START_ELEMENT) {
+                depth++;
+                if (!inBody && depth == 2 && "Body".equals(getLocalName()) 
+                        && envelopeNS.equals(getNamespaceURI())) {
+                    atBodyStart = true;
+                }
+            } else if (event == END_ELEMENT) {
+                depth--;
+                if (inBody && depth < 0) {
+                    // This is the end of the body; the copy provides the rest of the envelope
+                    inBody = false;
+                    headReader.next();
+                    setParent(headReader);
+                    depth = 1;
+                }
+            }
+            return event;
+        }
+
+        public int nextTag() throws XMLStreamException {
+            int event = next();
+            while ((event == CHARACTERS && isWhiteSpace()) 
+                    || (event == CDATA && isWhiteSpace())
+                    || event == SPACE
+                    || event == PROCESSING_INSTRUCTION
+                    || event == COMMENT) {
+                event = next();
+            }
+            if (event != START_ELEMENT && event != END_ELEMENT) {
+                throw new XMLStreamException("expected start or end tag", getLocation());
+            }
+            return event;
+        }
+
+        public String getElementText() throws XMLStreamException {
+            if (getEventType() != START_ELEMENT) {
+                throw new XMLStreamException("expected start tag", getLocation());
+            }
+            StringBuilder buffer = new StringBuilder();
+            int event = next();
+            while (event != END_ELEMENT) {
+                if (event == CHARACTERS || event == CDATA || event == SPACE 
+                        || event == ENTITY_REFERENCE) {
+                    buffer.append(getText());
+                } else if (event != PROCESSING_INSTRUCTION && event != COMMENT) {
+                    throw new XMLStreamException("expected text content", getLocation());
+                }
+                event = next();
+            }
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.runtime.description.marshal;
+
+import org.apache.axis2.jaxws.description.OperationRuntimeDescription;
+import org.apache.axis2.jaxws.description.ParameterDescription;
+
+import java.util.TreeSet;
+
+/**
+ * Used to cache the marshalling plan of an operation.  The plan contains the information that
+ * the method marshallers would otherwise look up on every invocation: the wrapper classes and
+ * their PropertyDescriptors, the parameter slots and the JAXB packages.
+ * The arrays returned by this interface are shared and must not be modified.
+ */
+public interface MarshalOperationRuntimeDescription extends OperationRuntimeDescription {
+
+    /** @return MarshalServiceRuntimeDescription of the service */
+    public MarshalServiceRuntimeDescription getMarshalServiceRuntimeDescription();
+
+    /** @return Set of package names for this service */
+    public TreeSet<String> getPackages();
+
+    /** @return Unique key that represents the object returned by getPackages */
+    public String getPackagesKey();
+
+    /**
+     * @return WrapperDesc of the request wrapper or null if the operation is not doc/lit wrapped
+     *         or the wrapper class does not exist
+     */
+    public WrapperDesc getRequestWrapperDesc();
+
+    /**
+     * @return WrapperDesc of the response wrapper or null if the operation is not doc/lit wrapped
+     *         or the wrapper class does not exist
+     */
+    public WrapperDesc getResponseWrapperDesc();
+
+    /**
+     * @return true if both wrappers are root elements, in which case the unmarshal information
+     *         may be registered for faster unmarshalling
+     */
+    public boolean isUnmarshalInfoRegistrable();
+
+    /**
+     * @param pd ParameterDescription of this operation
+     * @return the class to use for "by java type" (un)marshalling of the parameter, or null
+     *         (always null if the operation is not rpc)
+     */
+    public Class getByJavaTypeClass(ParameterDescription pd);
+
+    /**
+     * @return the classes to use for "by java type" (un)marshalling, indexed like the
+     *         parameter descriptions of the operation (null if the operation is not rpc)
+     */
+    public Class[] getByJavaTypeClasses();
+
+    /**
+     * @return the class to use for "by java type" (un)marshalling of the result, or null
+     *         (always null if the operation is not rpc)
+     */
+    public Class getResultByJavaTypeClass();
+}
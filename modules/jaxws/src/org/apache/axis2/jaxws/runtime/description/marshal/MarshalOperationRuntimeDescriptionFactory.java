@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.runtime.description.marshal;
+
+import org.apache.axis2.jaxws.description.OperationDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.impl.MarshalOperationRuntimeDescriptionBuilder;
+
+public class MarshalOperationRuntimeDescriptionFactory {
+
+    /** intentionally private */
+    private MarshalOperationRuntimeDescriptionFactory() {
+    }
+
+    /**
+     * Get or create MarshalOperationRuntimeDescription
+     *
+     * @param opDesc
+     * @return MarshalOperationRuntimeDescription
+     */
+    public static MarshalOperationRuntimeDescription get(OperationDescription opDesc) {
+        String key = MarshalOperationRuntimeDescriptionBuilder.getKey();
+        MarshalOperationRuntimeDescription desc =
+                (MarshalOperationRuntimeDescription)
+                        opDesc.getOperationRuntimeDesc(key);
+
+        if (desc == null) {
+            // There is only one plan per opDesc.  Lock
+            // on the opDesc while creating the plan
+            synchronized(opDesc) {
+                desc =
+                    (MarshalOperationRuntimeDescription)
+                            opDesc.getOperationRuntimeDesc(key);
+                if (desc == null) {
+                    desc = MarshalOperationRuntimeDescriptionBuilder.create(opDesc);
+                    opDesc.setOperationRuntimeDesc(desc);
+                }
+            }
+        }
+        return desc;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.runtime.description.marshal;
+
+import org.apache.axis2.jaxws.description.ParameterDescription;
+import org.apache.axis2.jaxws.utility.PropertyDescriptorPlus;
+
+import javax.xml.namespace.QName;
+
+/**
+ * Information about the request or response wrapper of a doc/lit wrapped operation.
+ * The arrays returned by this interface are shared and must not be modified.
+ */
+public interface WrapperDesc {
+
+    /** @return wrapper class */
+    public Class getWrapperClass();
+
+    /** @return QName of the wrapper element */
+    public QName getWrapperQName();
+
+    /** @return true if the wrapper class has @XmlRootElement */
+    public boolean hasXmlRootElement();
+
+    /** @return the body parameters that are children of the wrapper, in signature order */
+    public ParameterDescription[] getParameterDescriptions();
+
+    /** @return xml child names of the parameters */
+    public String[] getParameterNames();
+
+    /** @return PropertyDescriptors of the parameters (an entry is null if there is no property) */
+    public PropertyDescriptorPlus[] getParameterPropertyDescriptors();
+
+    /** @return element QNames of the parameters */
+    public QName[] getParameterQNames();
+
+    /** @return actual types of the parameters */
+    public Class[] getParameterActualTypes();
+
+    /** @return for each parameter, true if the actual type has @XmlRootElement */
+    public boolean[] getParameterXmlRootElements();
+
+    /** @return @WebResult name (null if there is no result) */
+    public String getResultName();
+
+    /** @return PropertyDescriptor of the @WebResult name (null if there is no result) */
+    public PropertyDescriptorPlus getResultPropertyDescriptor();
+
+    /** @return @WebResult part name (null if there is no result) */
+    public String getResultPartName();
+
+    /** @return PropertyDescriptor of the @WebResult part name (null if there is no result) */
+    public PropertyDescriptorPlus getResultPartPropertyDescriptor();
+}
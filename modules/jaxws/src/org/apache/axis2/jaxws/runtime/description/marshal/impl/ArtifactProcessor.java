@@ -591,7 +591,7 @@ class ArtifactProcessor {
      * @param classLoader
      * @return Class or Null
      */
-    private static Class loadClassOrNull(String className, ClassLoader classLoader) {
+    static Class loadClassOrNull(String className, ClassLoader classLoader) {
         try {
             return loadClass(className, classLoader);
         } catch (Throwable t) {
@@ -683,8 +683,8 @@ class ArtifactProcessor {
     }
 
     /** @return ClassLoader */
-    private static ClassLoader getContextClassLoader() {
-        // NOTE: This method must remain private because it uses AccessController
+    static ClassLoader getContextClassLoader() {
+        // NOTE: This method must not be public because it uses AccessController
         ClassLoader cl = null;
         try {
             cl = (ClassLoader)AccessController.doPrivileged(
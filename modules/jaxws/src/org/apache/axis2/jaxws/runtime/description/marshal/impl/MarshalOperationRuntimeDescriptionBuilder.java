@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.runtime.description.marshal.impl;
+
+import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.description.OperationDescription;
+import org.apache.axis2.jaxws.description.ParameterDescription;
+import org.apache.axis2.jaxws.marshaller.impl.alt.MethodMarshallerUtils;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalOperationRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescriptionFactory;
+import org.apache.axis2.jaxws.utility.PropertyDescriptorPlus;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jws.WebParam.Mode;
+import javax.jws.soap.SOAPBinding;
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class MarshalOperationRuntimeDescriptionBuilder {
+
+    private static Log log = LogFactory.getLog(MarshalOperationRuntimeDescriptionBuilder.class);
+
+    /** Intentionally Private */
+    private MarshalOperationRuntimeDescriptionBuilder() {
+    }
+
+    /**
+     * create
+     *
+     * @param opDesc
+     * @return MarshalOperationRuntimeDescription
+     */
+    static public MarshalOperationRuntimeDescription create(OperationDescription opDesc) {
+        EndpointDescription endpointDesc = 
+            opDesc.getEndpointInterfaceDescription().getEndpointDescription();
+        MarshalServiceRuntimeDescription marshalDesc = 
+            MarshalServiceRuntimeDescriptionFactory.get(endpointDesc.getServiceDescription());
+        MarshalOperationRuntimeDescriptionImpl desc =
+                new MarshalOperationRuntimeDescriptionImpl(getKey(), opDesc, marshalDesc);
+        init(desc, opDesc, marshalDesc, endpointDesc);
+        if (log.isDebugEnabled()) {
+            log.debug("MarshalOperationRuntimeDescription created: " + desc);
+        }
+        return desc;
+    }
+
+    static public String getKey() {
+        return "JAXWS-MARSHAL-OPERATION";
+    }
+
+    static private void init(MarshalOperationRuntimeDescriptionImpl desc,
+                             OperationDescription opDesc,
+                             MarshalServiceRuntimeDescription marshalDesc,
+                             EndpointDescription endpointDesc) {
+        SOAPBinding.Style style = opDesc.getSoapBindingStyle();
+        if (style == SOAPBinding.Style.RPC) {
+            // Determine which parameters are (un)marshalled "by java type".  
+            // This is the case for all body elements and all non-JAXB objects.
+            ParameterDescription[] pds = opDesc.getParameterDescriptions();
+            Class[] javaTypes = new Class[pds.length];
+            for (int i = 0; i < pds.length; i++) {
+                ParameterDescription pd = pds[i];
+                Class type = pd.getParameterActualType();
+                if (!pd.isHeader() ||
+                        MethodMarshallerUtils.isNotJAXBRootElement(type, marshalDesc)) {
+                    javaTypes[i] = type;
+                }
+            }
+            desc.setByJavaTypeClasses(javaTypes);
+            
+            Class returnType = opDesc.getResultActualType();
+            if (returnType != null && returnType != void.class &&
+                    (!opDesc.isResultHeader() ||
+                     MethodMarshallerUtils.isNotJAXBRootElement(returnType, marshalDesc))) {
+                desc.setResultByJavaTypeClass(returnType);
+            }
+        } else if (opDesc.getSoapBindingParameterStyle() == SOAPBinding.ParameterStyle.WRAPPED) {
+            String requestClassName = marshalDesc.getRequestWrapperClassName(opDesc);
+            if (requestClassName != null) {
+                desc.setRequestWrapperDesc(createWrapperDesc(opDesc, marshalDesc, endpointDesc,
+                        requestClassName, true));
+            }
+            String responseClassName = marshalDesc.getResponseWrapperClassName(opDesc);
+            if (responseClassName != null) {
+                desc.setResponseWrapperDesc(createWrapperDesc(opDesc, marshalDesc, endpointDesc,
+                        responseClassName, false));
+            }
+        }
+    }
+
+    /**
+     * @param opDesc
+     * @param marshalDesc
+     * @param endpointDesc
+     * @param className name of the wrapper class
+     * @param isRequest
+     * @return WrapperDescImpl or null if the wrapper class cannot be loaded
+     */
+    static private WrapperDescImpl createWrapperDesc(OperationDescription opDesc,
+                                                     MarshalServiceRuntimeDescription marshalDesc,
+                                                     EndpointDescription endpointDesc,
+                                                     String className,
+                                                     boolean isRequest) {
+        Class cls = ArtifactProcessor.loadClassOrNull(className, 
+                ArtifactProcessor.getContextClassLoader());
+        if (cls == null && endpointDesc.getAxisService() != null) {
+            cls = ArtifactProcessor.loadClassOrNull(className, 
+                    endpointDesc.getAxisService().getClassLoader());
+        }
+        if (cls == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("The wrapper class " + className + " could not be loaded");
+            }
+            return null;
+        }
+        
+        WrapperDescImpl wd = new WrapperDescImpl();
+        wd.wrapperClass = cls;
+        wd.hasXmlRootElement = marshalDesc.getAnnotationDesc(cls).hasXmlRootElement();
+        if (isRequest) {
+            wd.wrapperQName = new QName(opDesc.getRequestWrapperTargetNamespace(),
+                                        opDesc.getRequestWrapperLocalName());
+        } else {
+            wd.wrapperQName = new QName(opDesc.getResponseWrapperTargetNamespace(),
+                                        opDesc.getResponseWrapperLocalName());
+        }
+        Map<String, PropertyDescriptorPlus> pdMap = marshalDesc.getPropertyDescriptorMap(cls);
+        
+        // The parameter slots, in signature order
+        List<ParameterDescription> list = new ArrayList<ParameterDescription>();
+        for (ParameterDescription pd : opDesc.getParameterDescriptions()) {
+            Mode mode = pd.getMode();
+            boolean isChild = isRequest ? 
+                    (mode == Mode.IN || mode == Mode.INOUT) : 
+                    (mode == Mode.OUT || mode == Mode.INOUT);
+            if (isChild && !pd.isHeader()) {
+                list.add(pd);
+            }
+        }
+        int size = list.size();
+        wd.parameterDescriptions = list.toArray(new ParameterDescription[size]);
+        wd.parameterNames = new String[size];
+        wd.parameterPropertyDescriptors = new PropertyDescriptorPlus[size];
+        wd.parameterQNames = new QName[size];
+        wd.parameterActualTypes = new Class[size];
+        wd.parameterXmlRootElements = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            ParameterDescription pd = wd.parameterDescriptions[i];
+            wd.parameterNames[i] = pd.getParameterName();
+            wd.parameterPropertyDescriptors[i] = pdMap.get(pd.getParameterName());
+            wd.parameterQNames[i] = new QName(pd.getTargetNamespace(), pd.getPartName());
+            wd.parameterActualTypes[i] = pd.getParameterActualType();
+            wd.parameterXmlRootElements[i] = 
+                marshalDesc.getAnnotationDesc(pd.getParameterActualType()).hasXmlRootElement();
+        }
+        
+        if (!isRequest && !opDesc.isResultHeader()) {
+            wd.resultName = opDesc.getResultName();
+            if (wd.resultName != null) {
+                wd.resultPropertyDescriptor = pdMap.get(wd.resultName);
+            }
+            wd.resultPartName = opDesc.getResultPartName();
+            if (wd.resultPartName != null) {
+                wd.resultPartPropertyDescriptor = pdMap.get(wd.resultPartName);
+            }
+        }
+        return wd;
+    }
+}
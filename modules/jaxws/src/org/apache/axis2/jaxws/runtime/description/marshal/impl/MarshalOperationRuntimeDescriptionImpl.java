@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.runtime.description.marshal.impl;
+
+import org.apache.axis2.jaxws.description.OperationDescription;
+import org.apache.axis2.jaxws.description.ParameterDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalOperationRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.MarshalServiceRuntimeDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.WrapperDesc;
+
+import java.util.TreeSet;
+
+public class MarshalOperationRuntimeDescriptionImpl implements
+        MarshalOperationRuntimeDescription {
+
+    private OperationDescription opDesc;
+    private String key;
+    private MarshalServiceRuntimeDescription marshalDesc;
+    private WrapperDesc requestWrapperDesc;
+    private WrapperDesc responseWrapperDesc;
+    private ParameterDescription[] pds;
+    private Class[] byJavaTypeClasses;
+    private Class resultByJavaTypeClass;
+
+    protected MarshalOperationRuntimeDescriptionImpl(String key,
+                                                     OperationDescription opDesc,
+                                                     MarshalServiceRuntimeDescription marshalDesc) {
+        this.key = key;
+        this.opDesc = opDesc;
+        this.marshalDesc = marshalDesc;
+        this.pds = opDesc.getParameterDescriptions();
+    }
+
+    public OperationDescription getOperationDescription() {
+        return opDesc;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public MarshalServiceRuntimeDescription getMarshalServiceRuntimeDescription() {
+        return marshalDesc;
+    }
+
+    public TreeSet<String> getPackages() {
+        return marshalDesc.getPackages();
+    }
+
+    public String getPackagesKey() {
+        return marshalDesc.getPackagesKey();
+    }
+
+    public WrapperDesc getRequestWrapperDesc() {
+        return requestWrapperDesc;
+    }
+
+    void setRequestWrapperDesc(WrapperDesc requestWrapperDesc) {
+        this.requestWrapperDesc = requestWrapperDesc;
+    }
+
+    public WrapperDesc getResponseWrapperDesc() {
+        return responseWrapperDesc;
+    }
+
+    void setResponseWrapperDesc(WrapperDesc responseWrapperDesc) {
+        this.responseWrapperDesc = responseWrapperDesc;
+    }
+
+    public boolean isUnmarshalInfoRegistrable() {
+        return requestWrapperDesc != null && requestWrapperDesc.hasXmlRootElement() &&
+            responseWrapperDesc != null && responseWrapperDesc.hasXmlRootElement();
+    }
+
+    public Class getByJavaTypeClass(ParameterDescription pd) {
+        if (byJavaTypeClasses == null) {
+            return null;
+        }
+        for (int i = 0; i < pds.length; i++) {
+            if (pds[i] == pd) {
+                return byJavaTypeClasses[i];
+            }
+        }
+        return null;
+    }
+
+    public Class[] getByJavaTypeClasses() {
+        return byJavaTypeClasses;
+    }
+
+    void setByJavaTypeClasses(Class[] byJavaTypeClasses) {
+        this.byJavaTypeClasses = byJavaTypeClasses;
+    }
+
+    public Class getResultByJavaTypeClass() {
+        return resultByJavaTypeClass;
+    }
+
+    void setResultByJavaTypeClass(Class resultByJavaTypeClass) {
+        this.resultByJavaTypeClass = resultByJavaTypeClass;
+    }
+
+    public String toString() {
+        final String newline = "\n";
+        StringBuffer string = new StringBuffer();
+        string.append(newline);
+        string.append("  MarshalOperationRuntime:" + getKey());
+        string.append(newline);
+        string.append("  Operation: " + opDesc.getJavaMethodName());
+        string.append(newline);
+        if (requestWrapperDesc != null) {
+            string.append("  Request Wrapper:");
+            string.append(newline);
+            string.append(requestWrapperDesc.toString());
+        }
+        if (responseWrapperDesc != null) {
+            string.append("  Response Wrapper:");
+            string.append(newline);
+            string.append(responseWrapperDesc.toString());
+        }
+        return string.toString();
+    }
+}
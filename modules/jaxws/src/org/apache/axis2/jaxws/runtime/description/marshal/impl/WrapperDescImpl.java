@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.runtime.description.marshal.impl;
+
+import org.apache.axis2.jaxws.description.ParameterDescription;
+import org.apache.axis2.jaxws.runtime.description.marshal.WrapperDesc;
+import org.apache.axis2.jaxws.utility.PropertyDescriptorPlus;
+
+import javax.xml.namespace.QName;
+
+class WrapperDescImpl implements WrapperDesc {
+
+    Class wrapperClass;
+    QName wrapperQName;
+    boolean hasXmlRootElement;
+    ParameterDescription[] parameterDescriptions;
+    String[] parameterNames;
+    PropertyDescriptorPlus[] parameterPropertyDescriptors;
+    QName[] parameterQNames;
+    Class[] parameterActualTypes;
+    boolean[] parameterXmlRootElements;
+    String resultName;
+    PropertyDescriptorPlus resultPropertyDescriptor;
+    String resultPartName;
+    PropertyDescriptorPlus resultPartPropertyDescriptor;
+
+    /** Intentionally package protected; created by MarshalOperationRuntimeDescriptionBuilder */
+    WrapperDescImpl() {
+    }
+
+    public Class getWrapperClass() {
+        return wrapperClass;
+    }
+
+    public QName getWrapperQName() {
+        return wrapperQName;
+    }
+
+    public boolean hasXmlRootElement() {
+        return hasXmlRootElement;
+    }
+
+    public ParameterDescription[] getParameterDescriptions() {
+        return parameterDescriptions;
+    }
+
+    public String[] getParameterNames() {
+        return parameterNames;
+    }
+
+    public PropertyDescriptorPlus[] getParameterPropertyDescriptors() {
+        return parameterPropertyDescriptors;
+    }
+
+    public QName[] getParameterQNames() {
+        return parameterQNames;
+    }
+
+    public Class[] getParameterActualTypes() {
+        return parameterActualTypes;
+    }
+
+    public boolean[] getParameterXmlRootElements() {
+        return parameterXmlRootElements;
+    }
+
+    public String getResultName() {
+        return resultName;
+    }
+
+    public PropertyDescriptorPlus getResultPropertyDescriptor() {
+        return resultPropertyDescriptor;
+    }
+
+    public String getResultPartName() {
+        return resultPartName;
+    }
+
+    public PropertyDescriptorPlus getResultPartPropertyDescriptor() {
+        return resultPartPropertyDescriptor;
+    }
+
+    public String toString() {
+        final String newline = "\n";
+        StringBuffer string = new StringBuffer();
+        string.append("  wrapperClass: " + wrapperClass.getName());
+        string.append(newline);
+        string.append("  wrapperQName: " + wrapperQName);
+        string.append(newline);
+        string.append("  hasXmlRootElement: " + hasXmlRootElement);
+        string.append(newline);
+        for (int i = 0; i < parameterNames.length; i++) {
+            string.append("  parameter: " + parameterNames[i] + " " + parameterQNames[i]);
+            string.append(newline);
+        }
+        if (resultName != null) {
+            string.append("  result: " + resultName + " partName: " + resultPartName);
+            string.append(newline);
+        }
+        return string.toString();
+    }
+}
@@ -29,6 +29,10 @@ import javax.xml.namespace.QName;
 import javax.xml.bind.JAXBElement;
 import java.beans.IndexedPropertyDescriptor;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collection;
@@ -44,6 +48,12 @@ import java.util.Collection;
  * beans.
  * <p/>
  * The PropertyDescriptorPlus object also stores the xmlName of the property.
+ * <p/>
+ * The read and write methods are converted to MethodHandles on first use, so that the
+ * get and set methods do not use reflection once the property has been accessed.  The
+ * exceptions are the same as with Method.invoke: an argument of the wrong type causes an
+ * IllegalArgumentException, and only the exceptions thrown by the method itself are wrapped
+ * in an InvocationTargetException.
  *
  * @See XMLRootElementUtil.createPropertyDescriptorMap , which creates the PropertyDescriptorPlus
  * objects
@@ -55,6 +65,28 @@ public class PropertyDescriptorPlus {
     private static Log log = LogFactory.getLog(PropertyDescriptorPlus.class);
     private static final boolean DEBUG_ENABLED = log.isDebugEnabled();
 
+    private static final MethodType GETTER_TYPE = 
+        MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = 
+        MethodType.methodType(void.class, Object.class, Object.class);
+    
+    // Wraps the exceptions thrown by the read and write methods 
+    private static final MethodHandle THROW_TARGET_EXCEPTION;
+    static {
+        try {
+            THROW_TARGET_EXCEPTION = MethodHandles.lookup().findStatic(
+                    PropertyDescriptorPlus.class, "throwTargetException",
+                    MethodType.methodType(Object.class, Throwable.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+    
+    // Getter and setter, resolved on first use
+    private volatile MethodHandle getter;
+    private volatile boolean getterReturnsJAXBElement;
+    private volatile MethodHandle setter;
+
     /**
      * Package protected constructor.  Only created by XMLRootElementUtil.createPropertyDescriptorMap
      *
@@ -109,6 +141,40 @@ public class PropertyDescriptorPlus {
      * @throws IllegalAccessException
      */
     public Object get(Object targetBean) throws InvocationTargetException, IllegalAccessException {
+        MethodHandle handle = getter;
+        if (handle == null) {
+            Method method = getReadMethod(targetBean);
+            getterReturnsJAXBElement = method.getReturnType() == JAXBElement.class;
+            handle = createHandle(method, GETTER_TYPE);
+            getter = handle;
+        }
+        Object ret;
+        try {
+            ret = handle.invokeExact(targetBean);
+        } catch (InvocationTargetException e) {
+            throw e;
+        } catch (ClassCastException e) {
+            throw argumentTypeMismatch(e);
+        } catch (WrongMethodTypeException e) {
+            throw argumentTypeMismatch(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+        if (ret != null && getterReturnsJAXBElement) {
+            ret = ((JAXBElement) ret).getValue();
+        }
+        return ret;
+    }
+
+    /**
+     * @param targetBean
+     * @return the method used to get the property value
+     */
+    private Method getReadMethod(Object targetBean) {
             if(descriptor == null){
                 throw new RuntimeException(Messages.getMessage("pDescrErr"));
             }
@@ -134,11 +200,7 @@ public class PropertyDescriptorPlus {
             if(method == null){
                 throw new RuntimeException(Messages.getMessage("pDescrErr2",targetBean.getClass().getName()));
             }
-            Object ret = method.invoke(targetBean, null);
-            if (ret != null && method.getReturnType() == JAXBElement.class) {
-                ret = ((JAXBElement) ret).getValue();
-            }
-            return ret;
+            return method;
     }
 
     /**
@@ -213,9 +275,7 @@ public class PropertyDescriptorPlus {
         
         if (propValue != null) {
             // Normal case
-        	Object[] SINGLE_PARAM = new Object[1];
-            SINGLE_PARAM[0] = propValue;
-            writeMethod.invoke(targetBean, SINGLE_PARAM);
+            invokeSetter(targetBean, propValue, writeMethod);
         } else {
             Class[] paramTypes = writeMethod.getParameterTypes();
             
@@ -250,10 +310,129 @@ public class PropertyDescriptorPlus {
         Class paramType = writeMethod.getParameterTypes()[0];
         Object value = asArray(propValue, paramType);
         // JAXB provides setters for atomic value.
-        Object[] SINGLE_PARAM = new Object[1];
-        SINGLE_PARAM[0] =value;
-        
-        writeMethod.invoke(targetBean, SINGLE_PARAM);
+        invokeSetter(targetBean, value, writeMethod);
+    }
+
+    /**
+     * Invoke the write method using a (cached) MethodHandle
+     *
+     * @param targetBean
+     * @param value
+     * @param writeMethod
+     * @throws InvocationTargetException
+     * @throws IllegalAccessException
+     */
+    private void invokeSetter(Object targetBean, Object value, Method writeMethod)
+            throws InvocationTargetException, IllegalAccessException {
+        MethodHandle handle = setter;
+        if (handle == null) {
+            handle = createHandle(writeMethod, SETTER_TYPE);
+            setter = handle;
+        }
+        Class paramType = writeMethod.getParameterTypes()[0];
+        if (paramType.isPrimitive()) {
+            value = widen(value, paramType);
+        }
+        try {
+            handle.invokeExact(targetBean, value);
+        } catch (InvocationTargetException e) {
+            throw e;
+        } catch (ClassCastException e) {
+            throw argumentTypeMismatch(e);
+        } catch (WrongMethodTypeException e) {
+            throw argumentTypeMismatch(e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Create the MethodHandle of a read or write method.  The handle wraps the exceptions
+     * thrown by the method in an InvocationTargetException, so that they can be told apart
+     * from the exceptions thrown by the conversion of the arguments to the parameter types.
+     *
+     * @param method
+     * @param type the type of the returned handle
+     * @return MethodHandle
+     * @throws IllegalAccessException
+     */
+    private static MethodHandle createHandle(Method method, MethodType type)
+            throws IllegalAccessException {
+        MethodHandle target = MethodHandles.lookup().unreflect(method);
+        MethodHandle handler = THROW_TARGET_EXCEPTION.asType(
+                MethodType.methodType(target.type().returnType(), Throwable.class));
+        handler = MethodHandles.dropArguments(handler, 1, target.type().parameterList());
+        return MethodHandles.catchException(target, Throwable.class, handler).asType(type);
+    }
+
+    private static Object throwTargetException(Throwable t) throws InvocationTargetException {
+        throw new InvocationTargetException(t);
+    }
+
+    private static IllegalArgumentException argumentTypeMismatch(RuntimeException e) {
+        IllegalArgumentException iae = new IllegalArgumentException("argument type mismatch");
+        iae.initCause(e);
+        return iae;
+    }
+
+    /**
+     * Apply the widening primitive conversion that Method.invoke applies to the argument of
+     * a primitive parameter (for example from Integer to long).  MethodHandle.asType only
+     * unboxes a wrapper of the same primitive type.
+     *
+     * @param value
+     * @param paramType primitive type
+     * @return the converted value, or value if no conversion applies
+     */
+    static Object widen(Object value, Class paramType) {
+        int from = rank(value == null ? null : value.getClass());
+        int to = rank(paramType);
+        if (value instanceof Character && to >= 3) {
+            value = Integer.valueOf(((Character) value).charValue());
+            from = 3;
+        }
+        if (from == 0 || to == 0 || from >= to) {
+            return value;
+        }
+        Number number = (Number) value;
+        switch (to) {
+            case 2:
+                return Short.valueOf(number.shortValue());
+            case 3:
+                return Integer.valueOf(number.intValue());
+            case 4:
+                return Long.valueOf(number.longValue());
+            case 5:
+                return Float.valueOf(number.floatValue());
+            default:
+                return Double.valueOf(number.doubleValue());
+        }
+    }
+
+    /**
+     * @param cls primitive or wrapper class
+     * @return the position of the numeric type in the widening order (byte, short, int, long,
+     *         float, double), starting at 1, or 0 if it is not a numeric type
+     */
+    private static int rank(Class cls) {
+        if (cls == byte.class || cls == Byte.class) {
+            return 1;
+        } else if (cls == short.class || cls == Short.class) {
+            return 2;
+        } else if (cls == int.class || cls == Integer.class) {
+            return 3;
+        } else if (cls == long.class || cls == Long.class) {
+            return 4;
+        } else if (cls == float.class || cls == Float.class) {
+            return 5;
+        } else if (cls == double.class || cls == Double.class) {
+            return 6;
+        }
+        return 0;
     }
 
     /**
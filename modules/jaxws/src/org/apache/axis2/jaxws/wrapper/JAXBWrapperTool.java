@@ -118,5 +118,37 @@ public interface JAXBWrapperTool {
                        Object childObject,
                        Class declaredClass,
                        PropertyDescriptorPlus pd) throws JAXBWrapperException;
+
+    /**
+     * unwrap Returns the child objects of the jaxb object, using PropertyDescriptors that
+     * have already been looked up (for example by a marshalling plan)
+     *
+     * @param jaxbObject that represents the type
+     * @param childNames xml child names
+     * @param pds        PropertyDescriptors in the same order as the child names
+     * @return Objects in the same order as the child names.
+     */
+    public Object[] unWrap(Object jaxbObject,
+                           String[] childNames,
+                           PropertyDescriptorPlus[] pds) throws JAXBWrapperException;
+
+    /**
+     * wrap Creates a jaxb object that is initialized with the child objects, using 
+     * PropertyDescriptors that have already been looked up (for example by a marshalling plan)
+     * <p/>
+     * Note that the jaxbClass must be the class the represents the complexType. (It should never be
+     * JAXBElement)
+     *
+     * @param jaxbClass
+     * @param childNames      xml child names
+     * @param childObjects    component type objects in the same order as the child names
+     * @param declaredClasses declared classes in the same order as the child names
+     * @param pds             PropertyDescriptors in the same order as the child names
+     */
+    public Object wrap(Class jaxbClass,
+                       String[] childNames,
+                       Object[] childObjects,
+                       Class[] declaredClasses,
+                       PropertyDescriptorPlus[] pds) throws JAXBWrapperException;
 }
 
@@ -292,6 +292,60 @@ public class JAXBWrapperToolImpl implements JAXBWrapperTool {
         return jaxbObject;
     }
 
+    public Object[] unWrap(Object jaxbObject,
+                           String[] childNames,
+                           PropertyDescriptorPlus[] pds) throws JAXBWrapperException {
+        if (jaxbObject == null) {
+            throw new JAXBWrapperException(Messages.getMessage("JAXBWrapperErr1"));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Invoking unWrap() method with jaxb object:" +
+                    jaxbObject.getClass().getName());
+        }
+        Object[] jaxbObjects = new Object[childNames.length];
+        for (int i = 0; i < childNames.length; i++) {
+            jaxbObjects[i] = unWrap(jaxbObject, childNames[i], pds[i]);
+        }
+        return jaxbObjects;
+    }
+
+    public Object wrap(Class jaxbClass,
+                       String[] childNames,
+                       Object[] childObjects,
+                       Class[] declaredClasses,
+                       PropertyDescriptorPlus[] pds) throws JAXBWrapperException {
+        if (childNames.length != childObjects.length) {
+            throw new JAXBWrapperException(Messages.getMessage("JAXBWrapperErr4"));
+        }
+        // Create the object and set the first child (if any)
+        Object jaxbObject = wrap(jaxbClass, 
+                                 childNames.length == 0 ? null : childNames[0],
+                                 childNames.length == 0 ? null : childObjects[0],
+                                 childNames.length == 0 ? null : declaredClasses[0],
+                                 childNames.length == 0 ? null : pds[0]);
+        
+        // Now set the remaining objects onto the jaxb object
+        for (int i = 1; i < childNames.length; i++) {
+            PropertyDescriptorPlus propInfo = pds[i];
+            if (propInfo == null) {
+                throw new JAXBWrapperException(Messages.getMessage("JAXBWrapperErr6", 
+                                                                   jaxbClass.getName(), 
+                                                                   childNames[i]));
+            }
+            try {
+                propInfo.set(jaxbObject, childObjects[i], declaredClasses[i]);
+            } catch (Throwable t) {
+                if (log.isDebugEnabled()) {
+                    log.debug("An exception " + t.getClass() +
+                            "occurred while trying to call set() on  " + propInfo);
+                    log.debug("The corresponding xml child name is: " + childNames[i]);
+                }
+                throw new JAXBWrapperException(t);
+            }
+        }
+        return jaxbObject;
+    }
+
     /** 
      * This code checks the pdMap to make sure that a PropertyDescriptor
      * exists for each child name.  This code should only be called when
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.client.proxy;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+
+import javax.jws.Oneway;
+import javax.jws.WebService;
+import javax.xml.namespace.QName;
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Response;
+import javax.xml.ws.Service;
+
+import org.apache.axis2.jaxws.client.InterceptableClientTestCase;
+import org.apache.axis2.jaxws.description.EndpointDescription;
+
+/**
+ * Tests the ProxyMethodDescription cache of JAXWSProxyHandler
+ */
+public class ProxyMethodDescriptionTest extends InterceptableClientTestCase {
+
+    public void testCacheSharedByProxies() throws Exception {
+        Service svc = Service.create(new QName("http://test", "ProxyMethodService"));
+        ProxyMethodService proxy1 = svc.getPort(ProxyMethodService.class);
+        ProxyMethodService proxy2 = svc.getPort(ProxyMethodService.class);
+
+        proxy1.doSomething("12345");
+        proxy2.doSomething("67890");
+
+        EndpointDescription endpointDesc1 = getEndpointDescription(proxy1);
+        EndpointDescription endpointDesc2 = getEndpointDescription(proxy2);
+        ConcurrentMap<Method, ProxyMethodDescription> cache =
+            ProxyMethodDescription.getCache(endpointDesc1);
+        assertSame(cache, ProxyMethodDescription.getCache(endpointDesc2));
+
+        Method method = ProxyMethodService.class.getMethod("doSomething", String.class);
+        ProxyMethodDescription desc = cache.get(method);
+        assertNotNull(desc);
+        assertSame(desc, ProxyMethodDescription.get(cache, endpointDesc2, method));
+        assertEquals("doSomething", desc.getOperationDescription().getJavaMethodName());
+        assertEquals(ProxyMethodDescription.MEP.SYNC, desc.getMEP());
+        assertFalse(desc.isAsync());
+        assertNotNull(desc.getRequestMarshaller());
+    }
+
+    public void testMEP() throws Exception {
+        Service svc = Service.create(new QName("http://test", "ProxyMethodService"));
+        ProxyMethodService proxy = svc.getPort(ProxyMethodService.class);
+        EndpointDescription endpointDesc = getEndpointDescription(proxy);
+        ConcurrentMap<Method, ProxyMethodDescription> cache =
+            ProxyMethodDescription.getCache(endpointDesc);
+
+        ProxyMethodDescription desc = ProxyMethodDescription.get(cache, endpointDesc,
+                ProxyMethodService.class.getMethod("doSomethingOneWay", String.class));
+        assertEquals(ProxyMethodDescription.MEP.ONE_WAY, desc.getMEP());
+
+        desc = ProxyMethodDescription.get(cache, endpointDesc,
+                ProxyMethodService.class.getMethod("doSomethingAsync", String.class));
+        assertEquals(ProxyMethodDescription.MEP.ASYNC_POLLING, desc.getMEP());
+        assertTrue(desc.isAsync());
+
+        desc = ProxyMethodDescription.get(cache, endpointDesc,
+                ProxyMethodService.class.getMethod("doSomethingAsync", String.class,
+                                                   AsyncHandler.class));
+        assertEquals(ProxyMethodDescription.MEP.ASYNC_CALLBACK, desc.getMEP());
+        assertTrue(desc.isAsync());
+    }
+
+    private static EndpointDescription getEndpointDescription(Object proxy) {
+        JAXWSProxyHandler handler = (JAXWSProxyHandler)Proxy.getInvocationHandler(proxy);
+        return handler.getEndpointDescription();
+    }
+
+    @WebService()
+    public interface ProxyMethodService {
+
+        public String doSomething(String id);
+
+        @Oneway
+        public void doSomethingOneWay(String id);
+
+        public Future<?> doSomethingAsync(String id, AsyncHandler<DummyResponse> asyncHandler);
+
+        public Response<DummyResponse> doSomethingAsync(String id);
+
+    }
+
+    public class DummyResponse {}
+}
@@ -55,6 +55,7 @@ import javax.xml.ws.wsaddressing.W3CEndpointReferenceBuilder;
 
 import java.io.ByteArrayOutputStream;
 import java.io.StringReader;
+import java.util.Iterator;
 import java.util.TreeSet;
 
 /**
@@ -617,6 +618,130 @@ public class MessageTests extends TestCase {
 
     }
     
+    /**
+     * Simulate a handler that only adds a header through a SOAPMessageView.
+     * The header must be copied to the Message without converting the body.
+     */
+    public void testStringInflowView() throws Exception {
+        StringReader sr = new StringReader(sampleEnvelope11);
+        XMLStreamReader inflow = inputFactory.createXMLStreamReader(sr);
+        SOAPModelBuilder builder = OMXMLBuilderFactory.createStAXSOAPModelBuilder(inflow);
+        OMElement omElement = builder.getSOAPEnvelope();
+
+        MessageFactory mf = (MessageFactory) FactoryRegistry.getFactory(MessageFactory.class);
+        Message m = mf.createFrom(omElement, null);
+
+        SOAPMessageView view = m.getAsSOAPMessageView();
+        assertNotNull(view);
+        SOAPMessage sm = view.getSOAPMessage();
+        sm.getSOAPHeader().addHeaderElement(new QName("urn://sample", "header", "pre"))
+                .addTextNode("value");
+
+        assertTrue(view.applyChanges());
+        assertTrue("XMLPart Representation is " + m.getXMLPartContentType(),
+                   !"SOAPENVELOPE".equals(m.getXMLPartContentType()));
+        assertTrue(m.getHeaderQNames().contains(new QName("urn://sample", "header")));
+
+        // The body is still intact
+        XMLStringBlockFactory blockFactory =
+                (XMLStringBlockFactory) FactoryRegistry.getFactory(XMLStringBlockFactory.class);
+        Block block = m.getBodyBlock(null, blockFactory);
+        assertTrue(sampleText.equals(block.getBusinessObject(true).toString()));
+    }
+    
+    /**
+     * Simulate a handler that changes one of several headers through a SOAPMessageView.
+     * Only the changed header block may be replaced in the Message.
+     */
+    public void testStringInflowViewChangedHeader() throws Exception {
+        String envelope = "<soapenv:Envelope xmlns:soapenv=\"" + soap11env + "\">" +
+            "<soapenv:Header><pre:h1 xmlns:pre=\"urn://sample\">one</pre:h1>" +
+            "<pre:h2 xmlns:pre=\"urn://sample\">two</pre:h2>" +
+            "<pre:h3 xmlns:pre=\"urn://sample\">three</pre:h3></soapenv:Header>" +
+            "<soapenv:Body>" + sampleText + sampleEnvelopeTail;
+        StringReader sr = new StringReader(envelope);
+        XMLStreamReader inflow = inputFactory.createXMLStreamReader(sr);
+        SOAPModelBuilder builder = OMXMLBuilderFactory.createStAXSOAPModelBuilder(inflow);
+        org.apache.axiom.soap.SOAPEnvelope omEnvelope = builder.getSOAPEnvelope();
+        OMElement h1 = omEnvelope.getHeader().getFirstChildWithName(new QName("urn://sample", "h1"));
+        OMElement h3 = omEnvelope.getHeader().getFirstChildWithName(new QName("urn://sample", "h3"));
+
+        MessageFactory mf = (MessageFactory) FactoryRegistry.getFactory(MessageFactory.class);
+        Message m = mf.createFrom(omEnvelope, null);
+
+        SOAPMessageView view = m.getAsSOAPMessageView();
+        SOAPMessage sm = view.getSOAPMessage();
+        Iterator it = sm.getSOAPHeader().getChildElements(new QName("urn://sample", "h2"));
+        ((javax.xml.soap.SOAPElement) it.next()).setTextContent("changed");
+        sm.getSOAPHeader().removeChild(sm.getSOAPHeader().getChildElements(
+                new QName("urn://sample", "h3")).next());
+
+        assertTrue(view.applyChanges());
+        assertTrue(!"SOAPENVELOPE".equals(m.getXMLPartContentType()));
+        
+        // The unchanged header block is left in place, the removed one is detached
+        assertSame(omEnvelope.getHeader(), h1.getParent());
+        assertNull(h3.getParent());
+        TreeSet<String> names = new TreeSet<String>();
+        for (QName qName : m.getHeaderQNames()) {
+            names.add(qName.getLocalPart());
+        }
+        assertEquals("[h1, h2]", names.toString());
+        XMLStringBlockFactory blockFactory =
+                (XMLStringBlockFactory) FactoryRegistry.getFactory(XMLStringBlockFactory.class);
+        Block h2 = m.getHeaderBlock("urn://sample", "h2", null, blockFactory);
+        assertTrue(h2.getBusinessObject(true).toString().indexOf("changed") != -1);
+    }
+    
+    /**
+     * Simulate a handler that only reads and adds headers through a SOAPMessageView.
+     * The view must not read the body of the Message.
+     */
+    public void testStringInflowViewBodyNotRead() throws Exception {
+        StringReader sr = new StringReader(sampleEnvelope11);
+        XMLStreamReader inflow = inputFactory.createXMLStreamReader(sr);
+        SOAPModelBuilder builder = OMXMLBuilderFactory.createStAXSOAPModelBuilder(inflow);
+        org.apache.axiom.soap.SOAPEnvelope omEnvelope = builder.getSOAPEnvelope();
+
+        MessageFactory mf = (MessageFactory) FactoryRegistry.getFactory(MessageFactory.class);
+        Message m = mf.createFrom(omEnvelope, null);
+
+        SOAPMessageView view = m.getAsSOAPMessageView();
+        SOAPMessage sm = view.getSOAPMessage();
+        assertNotNull(sm.getSOAPPart().getEnvelope().getBody());
+        sm.getSOAPHeader().addHeaderElement(new QName("urn://sample", "header", "pre"))
+                .addTextNode("value");
+
+        assertTrue("the view was completed", view.applyChanges());
+        assertFalse("the body was read", omEnvelope.getBody().isComplete());
+    }
+    
+    /**
+     * Simulate a handler that reads the body through a SOAPMessageView.
+     * The view must be completed and become the content of the Message.
+     */
+    public void testStringInflowViewBodyRead() throws Exception {
+        StringReader sr = new StringReader(sampleEnvelope11);
+        XMLStreamReader inflow = inputFactory.createXMLStreamReader(sr);
+        SOAPModelBuilder builder = OMXMLBuilderFactory.createStAXSOAPModelBuilder(inflow);
+        OMElement omElement = builder.getSOAPEnvelope();
+
+        MessageFactory mf = (MessageFactory) FactoryRegistry.getFactory(MessageFactory.class);
+        Message m = mf.createFrom(omElement, null);
+
+        SOAPMessageView view = m.getAsSOAPMessageView();
+        SOAPMessage sm = view.getSOAPMessage();
+        assertEquals("a", sm.getSOAPBody().getFirstChild().getLocalName());
+
+        assertFalse(view.applyChanges());
+        view.complete();
+        assertEquals("SOAPENVELOPE", m.getXMLPartContentType());
+        XMLStringBlockFactory blockFactory =
+                (XMLStringBlockFactory) FactoryRegistry.getFactory(XMLStringBlockFactory.class);
+        Block block = m.getBodyBlock(null, blockFactory);
+        assertTrue(sampleText.equals(block.getBusinessObject(true).toString()));
+    }
+    
     /**
      * Create a Block representing an XMLString, but this time use one that
      * doesn't have a &lt;soap:Header&gt; element in it.
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.runtime.description.marshal;
+
+import junit.framework.TestCase;
+import org.apache.axis2.jaxws.description.DescriptionTestUtils2;
+import org.apache.axis2.jaxws.description.DocumentLiteralWrappedProxy;
+import org.apache.axis2.jaxws.description.EndpointInterfaceDescription;
+import org.apache.axis2.jaxws.description.OperationDescription;
+import org.apache.axis2.jaxws.description.ServiceDescription;
+import org.apache.axis2.jaxws.spi.ServiceDelegate;
+import org.apache.axis2.jaxws.utility.PropertyDescriptorPlus;
+import org.test.proxy.doclitwrapped.ReturnType;
+import org.test.proxy.doclitwrapped.TwoWay;
+import org.test.proxy.doclitwrapped.TwoWayHolder;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.Holder;
+import javax.xml.ws.Service;
+import java.util.Arrays;
+
+/**
+ * Validate the marshalling information that is computed once per operation
+ * (the MarshalOperationRuntimeDescription and its WrapperDesc objects).
+ */
+public class MarshalOperationRuntimeDescriptionTests extends TestCase {
+    private static final String NAMESPACE = "http://ws.apache.org/axis2/tests";
+    private static final String WRAPPER_NAMESPACE = "http://org.apache.axis2.proxy.doclitwrapped";
+
+    private EndpointInterfaceDescription endpointInterfaceDescription;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        Service service = Service.create(null, new QName(NAMESPACE, "EchoServiceAnnotated"));
+        QName portQName = new QName(NAMESPACE, "EchoServiceAnnotatedPort");
+        service.getPort(portQName, DocumentLiteralWrappedProxy.class);
+        ServiceDelegate serviceDelegate = DescriptionTestUtils2.getServiceDelegate(service);
+        ServiceDescription serviceDescription = serviceDelegate.getServiceDescription();
+        endpointInterfaceDescription = serviceDescription.getEndpointDescription(portQName)
+                .getEndpointInterfaceDescription();
+    }
+
+    public void testCached() throws Exception {
+        OperationDescription opDesc = getOperation("twoWay", new Class[] { String.class });
+        MarshalOperationRuntimeDescription desc = MarshalOperationRuntimeDescriptionFactory.get(opDesc);
+        assertNotNull(desc);
+        assertSame(desc, MarshalOperationRuntimeDescriptionFactory.get(opDesc));
+        assertNotNull(desc.getMarshalServiceRuntimeDescription());
+        assertNotNull(desc.getPackagesKey());
+    }
+
+    public void testDocLitWrapped() throws Exception {
+        OperationDescription opDesc = getOperation("twoWay", new Class[] { String.class });
+        MarshalOperationRuntimeDescription desc = MarshalOperationRuntimeDescriptionFactory.get(opDesc);
+        assertNull(desc.getByJavaTypeClasses());
+        assertNull(desc.getResultByJavaTypeClass());
+        assertNull(desc.getByJavaTypeClass(opDesc.getParameterDescriptions()[0]));
+        assertTrue(desc.isUnmarshalInfoRegistrable());
+
+        WrapperDesc request = desc.getRequestWrapperDesc();
+        assertNotNull(request);
+        assertEquals(TwoWay.class, request.getWrapperClass());
+        assertEquals(new QName(WRAPPER_NAMESPACE, "twoWay"), request.getWrapperQName());
+        assertTrue(request.hasXmlRootElement());
+        assertEquals(1, request.getParameterDescriptions().length);
+        assertSame(opDesc.getParameterDescriptions()[0], request.getParameterDescriptions()[0]);
+        assertTrue(Arrays.equals(new String[] { "twoway_str" }, request.getParameterNames()));
+        assertEquals(new QName("", "twoway_str"), request.getParameterQNames()[0]);
+        assertEquals(String.class, request.getParameterActualTypes()[0]);
+        assertFalse(request.getParameterXmlRootElements()[0]);
+        PropertyDescriptorPlus pd = request.getParameterPropertyDescriptors()[0];
+        assertNotNull(pd);
+        assertEquals(String.class, pd.getPropertyType());
+        assertNull(request.getResultName());
+        assertNull(request.getResultPropertyDescriptor());
+
+        WrapperDesc response = desc.getResponseWrapperDesc();
+        assertNotNull(response);
+        assertEquals(ReturnType.class, response.getWrapperClass());
+        assertEquals(new QName(WRAPPER_NAMESPACE, "ReturnType"), response.getWrapperQName());
+        assertTrue(response.hasXmlRootElement());
+        assertEquals(0, response.getParameterDescriptions().length);
+        assertEquals("return_str", response.getResultName());
+        assertNotNull(response.getResultPropertyDescriptor());
+
+        // The property descriptors access the wrapper objects
+        TwoWay twoWay = new TwoWay();
+        pd.set(twoWay, "hello", null);
+        assertEquals("hello", twoWay.getTwowayStr());
+        assertEquals("hello", pd.get(twoWay));
+    }
+
+    public void testInOutParameters() throws Exception {
+        OperationDescription opDesc =
+            getOperation("twoWayHolder", new Class[] { Holder.class, Holder.class });
+        MarshalOperationRuntimeDescription desc = MarshalOperationRuntimeDescriptionFactory.get(opDesc);
+
+        String[] names = new String[] { "twoWayHolder_str", "twoWayHolder_int" };
+        WrapperDesc request = desc.getRequestWrapperDesc();
+        assertEquals(TwoWayHolder.class, request.getWrapperClass());
+        assertTrue(Arrays.equals(names, request.getParameterNames()));
+        assertEquals(String.class, request.getParameterActualTypes()[0]);
+        assertEquals(Integer.class, request.getParameterActualTypes()[1]);
+
+        WrapperDesc response = desc.getResponseWrapperDesc();
+        assertEquals(TwoWayHolder.class, response.getWrapperClass());
+        assertTrue(Arrays.equals(names, response.getParameterNames()));
+        assertNotNull(response.getParameterPropertyDescriptors()[0]);
+        assertNotNull(response.getParameterPropertyDescriptors()[1]);
+        assertNull(response.getResultName());
+        assertNull(response.getResultPropertyDescriptor());
+    }
+
+    private OperationDescription getOperation(String name, Class[] parameterTypes)
+            throws Exception {
+        OperationDescription opDesc = endpointInterfaceDescription.getOperation(
+                DocumentLiteralWrappedProxy.class.getMethod(name, parameterTypes));
+        assertNotNull(opDesc);
+        return opDesc;
+    }
+}
@@ -1,61 +1,183 @@
-/*
- * Licensed to the Apache Software Foundation (ASF) under one
- * or more contributor license agreements. See the NOTICE file
- * distributed with this work for additional information
- * regarding copyright ownership. The ASF licenses this file
- * to you under the Apache License, Version 2.0 (the
- * "License"); you may not use this file except in compliance
- * with the License. You may obtain a copy of the License at
- *
- * http://www.apache.org/licenses/LICENSE-2.0
- *
- * Unless required by applicable law or agreed to in writing,
- * software distributed under the License is distributed on an
- * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
- * KIND, either express or implied. See the License for the
- * specific language governing permissions and limitations
- * under the License.
- */
-package org.apache.axis2.jaxws.utility;
-
-import junit.framework.TestCase;
-
-import javax.xml.bind.JAXBElement;
-import javax.xml.namespace.QName;
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.util.Arrays;
-
-public class PropertyDescriptorPlusTests extends TestCase {
-    public void testJAXBElement() throws Exception {
-        InvokeAction object = new InvokeAction();
-
-        BeanInfo structBeanInfo = Introspector.getBeanInfo(InvokeAction.class);
-        PropertyDescriptor[] descriptors = structBeanInfo.getPropertyDescriptors();
-        assertNotNull(descriptors);
-        assertEquals(descriptors.length, 2);
-
-        QName qName = new QName("", "args0");
-        PropertyDescriptor propertyDescriptor = null;
-        for (int i = 0; i < descriptors.length; i++) {
-            if(descriptors[i].getName().equals("arg0")){
-                propertyDescriptor = descriptors[i];
-                break;
-            }
-        }
-        assertNotNull(propertyDescriptor);
-        PropertyDescriptorPlus plus = new PropertyDescriptorPlus(propertyDescriptor, qName);
-        byte[] testValue = {0xd, 0xe, 0xa, 0xd, 0xb, 0xe, 0xe, 0xf};
-        plus.set(object, testValue, null);
-
-        JAXBElement<byte[]> arg0 = object.getArg0();
-        assertEquals(arg0.getDeclaredType(), byte[].class);
-        assertEquals(arg0.getName(), qName);
-        assertTrue(Arrays.equals(testValue, arg0.getValue()));
-
-        Object value = plus.get(object);
-        assertEquals(value.getClass(), byte[].class);
-        assertTrue(Arrays.equals(testValue, (byte[]) value));
-    }
-}
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.jaxws.utility;
+
+import junit.framework.TestCase;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
+import java.beans.BeanInfo;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+public class PropertyDescriptorPlusTests extends TestCase {
+    public void testJAXBElement() throws Exception {
+        InvokeAction object = new InvokeAction();
+
+        BeanInfo structBeanInfo = Introspector.getBeanInfo(InvokeAction.class);
+        PropertyDescriptor[] descriptors = structBeanInfo.getPropertyDescriptors();
+        assertNotNull(descriptors);
+        assertEquals(descriptors.length, 2);
+
+        QName qName = new QName("", "args0");
+        PropertyDescriptor propertyDescriptor = null;
+        for (int i = 0; i < descriptors.length; i++) {
+            if(descriptors[i].getName().equals("arg0")){
+                propertyDescriptor = descriptors[i];
+                break;
+            }
+        }
+        assertNotNull(propertyDescriptor);
+        PropertyDescriptorPlus plus = new PropertyDescriptorPlus(propertyDescriptor, qName);
+        byte[] testValue = {0xd, 0xe, 0xa, 0xd, 0xb, 0xe, 0xe, 0xf};
+        plus.set(object, testValue, null);
+
+        JAXBElement<byte[]> arg0 = object.getArg0();
+        assertEquals(arg0.getDeclaredType(), byte[].class);
+        assertEquals(arg0.getName(), qName);
+        assertTrue(Arrays.equals(testValue, arg0.getValue()));
+
+        Object value = plus.get(object);
+        assertEquals(value.getClass(), byte[].class);
+        assertTrue(Arrays.equals(testValue, (byte[]) value));
+    }
+
+    public void testWideningConversion() throws Exception {
+        Bean bean = new Bean();
+        getProperty("count").set(bean, Integer.valueOf(42), null);
+        assertEquals(42L, bean.getCount());
+        getProperty("count").set(bean, Character.valueOf('A'), null);
+        assertEquals(65L, bean.getCount());
+        getProperty("ratio").set(bean, Short.valueOf((short) 3), null);
+        assertEquals(3.0d, bean.getRatio(), 0.0d);
+    }
+
+    public void testNarrowingConversion() throws Exception {
+        try {
+            getProperty("count").set(new Bean(), Double.valueOf(1), null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected: double to long is a narrowing conversion
+        }
+        try {
+            getProperty("code").set(new Bean(), Byte.valueOf((byte) 1), null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected: byte to char is not a widening conversion
+        }
+    }
+
+    public void testWrongValueType() throws Exception {
+        try {
+            getProperty("name").set(new Bean(), Integer.valueOf(1), null);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testWrongBeanType() throws Exception {
+        try {
+            getProperty("name").get(new Object());
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    public void testTargetException() throws Exception {
+        Bean bean = new Bean();
+        PropertyDescriptorPlus plus = getProperty("name");
+        try {
+            plus.set(bean, "fail", null);
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        // ClassCastException thrown by the getter is not an argument type mismatch
+        try {
+            plus.get(bean);
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof ClassCastException);
+        }
+        plus.set(bean, "value", null);
+        assertEquals("value", plus.get(bean));
+    }
+
+    private static PropertyDescriptorPlus getProperty(String name) throws Exception {
+        PropertyDescriptor[] descriptors =
+                Introspector.getBeanInfo(Bean.class).getPropertyDescriptors();
+        for (int i = 0; i < descriptors.length; i++) {
+            if (descriptors[i].getName().equals(name)) {
+                return new PropertyDescriptorPlus(descriptors[i], new QName("", name));
+            }
+        }
+        fail("Property " + name + " not found");
+        return null;
+    }
+
+    public static class Bean {
+        private String name;
+        private long count;
+        private double ratio;
+        private char code;
+
+        public String getName() {
+            if (name == null) {
+                throw new ClassCastException();
+            }
+            return name;
+        }
+
+        public void setName(String name) {
+            if ("fail".equals(name)) {
+                throw new IllegalStateException();
+            }
+            this.name = name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public double getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(double ratio) {
+            this.ratio = ratio;
+        }
+
+        public char getCode() {
+            return code;
+        }
+
+        public void setCode(char code) {
+            this.code = code;
+        }
+    }
+}
@@ -20,8 +20,10 @@
 package org.apache.axis2.jibx;
 
 import org.apache.axiom.om.OMDataSourceExt;
+import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.QNameAwareOMDataSource;
 import org.apache.axiom.om.ds.AbstractPushOMDataSource;
+import org.apache.axiom.om.impl.MTOMXMLStreamWriter;
 import org.jibx.runtime.IBindingFactory;
 import org.jibx.runtime.IMarshallable;
 import org.jibx.runtime.IMarshaller;
@@ -32,11 +34,39 @@ import org.jibx.runtime.impl.StAXWriter;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
-/** Data source for OM element backed by JiBX data bound object. */
+/**
+ * Data source for OM element backed by JiBX data bound object.
+ * <p>
+ * When the element is serialized to a stream in UTF-8 (the normal case when sending a message),
+ * the data object is marshalled with JiBX's native UTF-8 writer directly to the underlying
+ * {@link OutputStream}, bypassing the StAX adapter. Marshalling contexts are pooled per binding
+ * factory. The pools only hold weak references, so that they don't prevent the binding factory
+ * (and the class loader of the service it belongs to) from being garbage collected once the
+ * service is undeployed.
+ */
 public class JiBXDataSource extends AbstractPushOMDataSource implements QNameAwareOMDataSource {
     
+    private static final String UTF_8 = "UTF-8";
+    
+    /** Maximum number of idle marshalling contexts pooled per binding factory. */
+    private static final int MAX_POOLED_CONTEXTS = 16;
+    
+    /** Idle marshalling contexts, by binding factory. */
+    private static final Map<IBindingFactory,BlockingQueue<WeakReference<IMarshallingContext>>> contexts =
+        Collections.synchronizedMap(
+                new WeakHashMap<IBindingFactory,BlockingQueue<WeakReference<IMarshallingContext>>>());
+    
     /** Mapping name, for when abstract mapping is used directly; <code>null</code> if not used). */
     private final String marshallerName;
 
@@ -228,6 +258,15 @@ public class JiBXDataSource extends AbstractPushOMDataSource implements QNameAwa
      * @see org.apache.axiom.om.OMDataSource#serialize(javax.xml.stream.XMLStreamWriter)
      */
     public void serialize(XMLStreamWriter xmlWriter) throws XMLStreamException {
+        OutputStream out = getOutputStream(xmlWriter);
+        if (out != null) {
+            try {
+                marshal(out);
+            } catch (JiBXException e) {
+                throw new XMLStreamException("Error in JiBX marshalling: " + e.getMessage(), e);
+            }
+            return;
+        }
         try {
             
             // check if namespaces already declared for abstract mapping
@@ -250,15 +289,119 @@ public class JiBXDataSource extends AbstractPushOMDataSource implements QNameAwa
             
             // marshal with all namespace declarations, since external state unknown
             IXMLWriter writer = new StAXWriter(nss, xmlWriter);
-            IMarshallingContext ctx = bindingFactory.createMarshallingContext();
-            ctx.setXmlWriter(writer);
-            marshal(full, ctx);
+            IMarshallingContext ctx = acquireContext();
+            try {
+                ctx.setXmlWriter(writer);
+                marshal(full, ctx);
+            } finally {
+                releaseContext(ctx);
+            }
             
         } catch (JiBXException e) {
             throw new XMLStreamException("Error in JiBX marshalling: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public byte[] getXMLBytes(String encoding) throws UnsupportedEncodingException {
+        if (encoding != null && !UTF_8.equalsIgnoreCase(encoding)) {
+            return super.getXMLBytes(encoding);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            marshal(out);
+        } catch (JiBXException e) {
+            throw new OMException("Error in JiBX marshalling: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Marshal the data object as UTF-8 directly to a stream, declaring all namespaces on the
+     * start tag since the enclosing context is unknown.
+     * 
+     * @param out
+     * @throws JiBXException
+     */
+    private void marshal(OutputStream out) throws JiBXException {
+        IMarshallingContext ctx = acquireContext();
+        try {
+            ctx.setOutput(out, UTF_8);
+            marshal(true, ctx);
+        } finally {
+            releaseContext(ctx);
+        }
+    }
+
+    /**
+     * Get the stream underlying the given writer, if the data source may write to it directly.
+     * This is the case if the writer is an Axiom writer backed by a stream and using UTF-8.
+     * 
+     * @param xmlWriter
+     * @return the stream, or <code>null</code> if the data must be written using the
+     *         {@link XMLStreamWriter} API
+     * @throws XMLStreamException
+     */
+    private static OutputStream getOutputStream(XMLStreamWriter xmlWriter) throws XMLStreamException {
+        if (xmlWriter instanceof MTOMXMLStreamWriter) {
+            MTOMXMLStreamWriter mtomWriter = (MTOMXMLStreamWriter)xmlWriter;
+            String encoding = mtomWriter.getCharSetEncoding();
+            if (encoding == null || UTF_8.equalsIgnoreCase(encoding)) {
+                return mtomWriter.getOutputStream();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the pool of idle marshalling contexts for the binding factory.
+     * 
+     * @return the pool
+     */
+    private BlockingQueue<WeakReference<IMarshallingContext>> getContextPool() {
+        synchronized (contexts) {
+            BlockingQueue<WeakReference<IMarshallingContext>> pool = contexts.get(bindingFactory);
+            if (pool == null) {
+                pool = new ArrayBlockingQueue<WeakReference<IMarshallingContext>>(MAX_POOLED_CONTEXTS);
+                contexts.put(bindingFactory, pool);
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Get a marshalling context for the binding factory, reusing an idle one from the pool if
+     * available. The context is removed from the pool while in use, so that concurrent and
+     * reentrant calls get their own context.
+     * 
+     * @return the context
+     * @throws JiBXException
+     */
+    private IMarshallingContext acquireContext() throws JiBXException {
+        BlockingQueue<WeakReference<IMarshallingContext>> pool = getContextPool();
+        WeakReference<IMarshallingContext> ref;
+        while ((ref = pool.poll()) != null) {
+            IMarshallingContext ctx = ref.get();
+            if (ctx != null) {
+                return ctx;
+            }
+        }
+        return bindingFactory.createMarshallingContext();
+    }
+
+    /**
+     * Return a marshalling context to the pool. The context is reset and its writer discarded,
+     * so that the pool doesn't hold on to the output stream or {@link XMLStreamWriter} of the
+     * message that was written.
+     * 
+     * @param ctx
+     */
+    private void releaseContext(IMarshallingContext ctx) {
+        ctx.reset();
+        ctx.setXmlWriter(null);
+        getContextPool().offer(new WeakReference<IMarshallingContext>(ctx));
+    }
+
     @Override
     public Object getObject() {
         return dataObject;
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jibx;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.om.util.StAXUtils;
+import org.jibx.runtime.BindingDirectory;
+import org.jibx.runtime.IBindingFactory;
+import org.jibx.runtime.IMarshallable;
+import org.jibx.runtime.IUnmarshallingContext;
+import org.junit.Test;
+
+public class JiBXDataSourceTest {
+    private static final String NS = "http://ws.apache.org/axis2/jibx/customer/data";
+
+    private static Customer createCustomer() {
+        return new Customer("Redmond", new Person(42, "John", "Smith"), "+14258858080",
+                "WA", "14619 NE 80th Pl.", new Integer(98052));
+    }
+
+    private static JiBXDataSource createDataSource(Customer customer) throws Exception {
+        IBindingFactory factory = BindingDirectory.getFactory(Customer.class);
+        // Customer only implements IMarshallable after the binding has been compiled
+        return new JiBXDataSource((IMarshallable)(Object)customer, factory);
+    }
+
+    private static Customer unmarshal(String xml) throws Exception {
+        IUnmarshallingContext ctx =
+                BindingDirectory.getFactory(Customer.class).createUnmarshallingContext();
+        return (Customer)ctx.unmarshalDocument(new StringReader(xml));
+    }
+
+    @Test
+    public void testGetXMLBytes() throws Exception {
+        Customer customer = createCustomer();
+        JiBXDataSource ds = createDataSource(customer);
+        // Marshal twice to check that a reused marshalling context produces the same output
+        for (int i = 0; i < 2; i++) {
+            String xml = new String(ds.getXMLBytes("UTF-8"), "UTF-8");
+            assertEquals(customer, unmarshal(xml));
+        }
+        assertEquals(customer, unmarshal(new String(ds.getXMLBytes("UTF-16"), "UTF-16")));
+    }
+
+    @Test
+    public void testSerializeToStream() throws Exception {
+        Customer customer = createCustomer();
+        OMElement element = OMAbstractFactory.getOMFactory().createOMElement(createDataSource(customer));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        element.serialize(out);
+        OMElement parsed = OMXMLBuilderFactory.createOMBuilder(
+                new ByteArrayInputStream(out.toByteArray())).getDocumentElement();
+        assertEquals(NS, parsed.getNamespaceURI());
+        assertEquals("customer", parsed.getLocalName());
+        assertEquals(customer, unmarshal(parsed.toString()));
+    }
+
+    @Test
+    public void testSerializeToXMLStreamWriter() throws Exception {
+        Customer customer = createCustomer();
+        JiBXDataSource ds = createDataSource(customer);
+        for (int i = 0; i < 2; i++) {
+            StringWriter sw = new StringWriter();
+            XMLStreamWriter writer = StAXUtils.createXMLStreamWriter(sw);
+            ds.serialize(writer);
+            writer.flush();
+            assertEquals(customer, unmarshal(sw.toString()));
+        }
+    }
+}
@@ -444,6 +444,19 @@ public class Constants extends org.apache.axis2.namespace.Constants {
 
         public static final String GENERATE_ABSOLUTE_LOCATION_URIS = "generateAbsoluteLocationURIs";
 
+        /**
+         * If set to true, service clients created without an AxisService share a single anonymous
+         * service instead of registering a new one in the AxisConfiguration.
+         */
+        public static final String SHARE_ANONYMOUS_SERVICE = "shareAnonymousService";
+
+        /**
+         * If set to true, the schemas imported or included by the WSDL of several services are
+         * read once and shared by these services.  See
+         * {@link org.apache.axis2.description.SchemaRegistry}.
+         */
+        public static final String SHARED_SCHEMAS = "sharedSchemas";
+
         /*
         * These are the parameters introduced to Services XML in order flexible usage of REST support
         * available in AXIS2
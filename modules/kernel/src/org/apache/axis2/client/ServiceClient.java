@@ -71,6 +71,14 @@ public class ServiceClient {
     /** Base name used for a service created without an existing configuration. */
     public static final String ANON_SERVICE = "anonService";
 
+    /**
+     * Name of the anonymous service shared by all lightweight service clients of an {@link
+     * AxisConfiguration}.
+     *
+     * @see #ServiceClient(ConfigurationContext, boolean)
+     */
+    public static final String SHARED_ANON_SERVICE = ANON_SERVICE + "Shared";
+
     /** Option property name for automatically cleaning up old OperationContexts */
     public static final String AUTO_OPERATION_CLEANUP = "ServiceClient.autoOperationCleanup";
 
@@ -127,6 +135,10 @@ public class ServiceClient {
 
     private boolean removeAxisService;
 
+    // whether the client uses the shared anonymous service; in that case the service must not
+    // be modified or removed
+    private boolean sharedAnonService;
+
     /**
      * Create a service client configured to work with a specific AxisService. If this service is
      * already in the world that's handed in (in the form of a ConfigurationContext) then I will
@@ -140,11 +152,40 @@ public class ServiceClient {
      */
     public ServiceClient(ConfigurationContext configContext,
                          AxisService axisService) throws AxisFault {
-        configureServiceClient(configContext, axisService);
+        configureServiceClient(configContext, axisService, false);
+    }
+
+    /**
+     * Create a service client for an anonymous service. If <code>shareAnonymousService</code> is
+     * true, the client uses an anonymous service that is registered only once in the
+     * AxisConfiguration and is shared by all clients created this way. Only the service and
+     * operation contexts are private to the client, so that creating and cleaning up the client
+     * doesn't need to add and remove a service group, notify the observers of the configuration
+     * or engage the global modules. Engaging or disengaging a module on the client, or replacing
+     * its service, gives it a private copy of the anonymous service first. The service returned
+     * by {@link #getAxisService()} must not be modified otherwise.
+     * <p>
+     * Anonymous services are also shared if the <code>shareAnonymousService</code> parameter is
+     * set to true in the AxisConfiguration, even when using {@link
+     * #ServiceClient(ConfigurationContext, AxisService)}.
+     *
+     * @param configContext         The configuration context under which this service lives (may
+     *                              be null, in which case a new local one will be created)
+     * @param shareAnonymousService whether to use the shared anonymous service
+     * @throws AxisFault if something goes wrong while creating a config context (if needed)
+     */
+    public ServiceClient(ConfigurationContext configContext, boolean shareAnonymousService)
+            throws AxisFault {
+        configureServiceClient(configContext, null, shareAnonymousService);
     }
 
     private void configureServiceClient(ConfigurationContext configContext, AxisService axisService)
             throws AxisFault {
+        configureServiceClient(configContext, axisService, false);
+    }
+
+    private void configureServiceClient(ConfigurationContext configContext, AxisService axisService,
+                                        boolean shareAnonymousService) throws AxisFault {
         if (configContext == null) {
             if (MessageContext.getCurrentMessageContext() == null) {
                 configContext = ConfigurationContextFactory.
@@ -168,7 +209,16 @@ public class ServiceClient {
         axisConfig = configContext.getAxisConfiguration();
 
         if (axisService == null) {
-            axisService = createAnonymousService();
+            if (shareAnonymousService || JavaUtils.isTrueExplicitly(axisConfig.getParameterValue(
+                    org.apache.axis2.Constants.Configuration.SHARE_ANONYMOUS_SERVICE), false)) {
+                this.axisService = getSharedAnonymousService(axisConfig);
+                sharedAnonService = true;
+                removeAxisService = false;
+                serviceContext = configContext.createServiceGroupContext(
+                        this.axisService.getAxisServiceGroup()).getServiceContext(this.axisService);
+                return;
+            }
+            axisService = createAnonymousService(ANON_SERVICE + anonServiceCounter.incrementAndGet());
         }
 
         // axis service is removed from the configuration context
@@ -254,15 +304,15 @@ public class ServiceClient {
      * Create an anonymous axisService with one (anonymous) operation for each MEP that we support
      * dealing with anonymously using the convenience APIs.
      *
+     * @param name the name of the service
      * @return the minted anonymous service
      */
-    private AxisService createAnonymousService() {
+    private static AxisService createAnonymousService(String name) {
         // now add anonymous operations to the axis2 service for use with the
         // shortcut client API. NOTE: We only add the ones we know we'll use
         // later in the convenience API; if you use
         // this constructor then you can't expect any magic!
-        AxisService axisService =
-                new AxisService(ANON_SERVICE + anonServiceCounter.incrementAndGet());
+        AxisService axisService = new AxisService(name);
         RobustOutOnlyAxisOperation robustoutoonlyOperation = new RobustOutOnlyAxisOperation(
                 ANON_ROBUST_OUT_ONLY_OP);
         axisService.addOperation(robustoutoonlyOperation);
@@ -277,6 +327,55 @@ public class ServiceClient {
         return axisService;
     }
 
+    /**
+     * Get the anonymous service shared by the lightweight clients of the given configuration,
+     * registering it on first use. Once registered, the service is looked up without locking.
+     *
+     * @param axisConfig the configuration
+     * @return the shared anonymous service
+     * @throws AxisFault if the service can't be registered
+     */
+    private static AxisService getSharedAnonymousService(AxisConfiguration axisConfig)
+            throws AxisFault {
+        AxisService axisService = axisConfig.getService(SHARED_ANON_SERVICE);
+        if (axisService == null) {
+            synchronized (axisConfig) {
+                axisService = axisConfig.getService(SHARED_ANON_SERVICE);
+                if (axisService == null) {
+                    axisService = createAnonymousService(SHARED_ANON_SERVICE);
+                    axisService.setClientSide(true);
+                    axisService.addParameter(
+                            org.apache.axis2.Constants.HIDDEN_SERVICE_PARAM_NAME, "true");
+                    axisConfig.addService(axisService);
+                }
+            }
+        }
+        return axisService;
+    }
+
+    /**
+     * Replace the shared anonymous service used by this client by a private copy, so that it can
+     * be modified. The target EPR of the client is preserved.
+     *
+     * @throws AxisFault if the private service can't be registered
+     */
+    private void detachSharedAnonymousService() throws AxisFault {
+        if (!sharedAnonService) {
+            return;
+        }
+        EndpointReference targetEPR = serviceContext.getTargetEPR();
+        AxisService axisService =
+                createAnonymousService(ANON_SERVICE + anonServiceCounter.incrementAndGet());
+        axisService.setClientSide(true);
+        axisConfig.addService(axisService);
+        this.axisService = axisService;
+        sharedAnonService = false;
+        removeAxisService = true;
+        serviceContext = configContext.createServiceGroupContext(
+                axisService.getAxisServiceGroup()).getServiceContext(axisService);
+        serviceContext.setTargetEPR(targetEPR);
+    }
+
     /**
      * Get the AxisConfiguration
      *
@@ -343,6 +442,7 @@ public class ServiceClient {
      * @throws AxisFault if something goes wrong
      */
     public void engageModule(String moduleName) throws AxisFault {
+        detachSharedAnonymousService();
         synchronized (this.axisConfig) {
             AxisModule module = axisConfig.getModule(moduleName);
             if (module != null) {
@@ -359,6 +459,12 @@ public class ServiceClient {
      * @param moduleName name of Module to disengage
      */
     public void disengageModule(String moduleName) {
+        try {
+            detachSharedAnonymousService();
+        } catch (AxisFault axisFault) {
+            log.error(axisFault.getMessage(), axisFault);
+            return;
+        }
         synchronized (this.axisConfig) {
             AxisModule module = axisConfig.getModule(moduleName);
             if (module != null) {
@@ -742,7 +848,12 @@ public class ServiceClient {
     public void cleanup() throws AxisFault {
         // if a configuration context was created for this client there'll also
         //  be a service group, so discard that
-        if (!createConfigCtx) {
+        if (sharedAnonService) {
+            // the shared service is never removed, and the contexts are private to this client
+            if (createConfigCtx) {
+                configContext.terminate();
+            }
+        } else if (!createConfigCtx) {
             String serviceGroupName = axisService.getAxisServiceGroup().getServiceGroupName();
             AxisConfiguration axisConfiguration = configContext.getAxisConfiguration();
             AxisServiceGroup asg = axisConfiguration.getServiceGroup(serviceGroupName);
@@ -805,7 +916,10 @@ public class ServiceClient {
         }
 
         synchronized (this.axisConfig) {
-            axisConfig.removeService(this.axisService.getName());
+            if (!sharedAnonService) {
+                axisConfig.removeService(this.axisService.getName());
+            }
+            sharedAnonService = false;
             this.axisService = axisService;
 
             axisService.setClientSide(true);
@@ -27,6 +27,7 @@ import org.apache.axis2.clustering.ClusteringAgent;
 import org.apache.axis2.clustering.ClusteringConstants;
 import org.apache.axis2.clustering.management.NodeManager;
 import org.apache.axis2.clustering.state.StateManager;
+import org.apache.axis2.deployment.util.NestedJarCache;
 import org.apache.axis2.description.AxisModule;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
@@ -801,10 +802,14 @@ public class ConfigurationContext extends AbstractContext {
             );
             tempFile = new File(property, "_axis2");
         }
-        deleteTempFiles(tempFile);
+        // The jar cache is kept across restarts
+        deleteTempFiles(tempFile, new File(tempFile, NestedJarCache.CACHE_DIR_NAME));
     }
 
-    private void deleteTempFiles(final File dir) {
+    private void deleteTempFiles(final File dir, File keep) {
+        if (dir.equals(keep)) {
+            return;
+        }
         Boolean isDir = AccessController.doPrivileged(
                 new PrivilegedAction<Boolean>() {
                     public Boolean run() {
@@ -821,7 +826,7 @@ public class ConfigurationContext extends AbstractContext {
                     }
             );
             for (int i = 0; children != null && i < children.length; i++) {
-                deleteTempFiles(new File(dir, children[i]));
+                deleteTempFiles(new File(dir, children[i]), keep);
             }
         }
         AccessController.doPrivileged(
@@ -35,6 +35,7 @@ import org.apache.axis2.modules.Module;
 import org.apache.axis2.transport.TransportSender;
 import org.apache.axis2.util.Loader;
 import org.apache.axis2.util.SessionUtils;
+import org.apache.axis2.util.StartupProfiler;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -61,7 +62,24 @@ public class ConfigurationContextFactory {
      */
     public static ConfigurationContext createConfigurationContext(
             AxisConfigurator axisConfigurator) throws AxisFault {
-        AxisConfiguration axisConfig = axisConfigurator.getAxisConfiguration();
+        StartupProfiler.Recording recording = StartupProfiler.startRecording();
+        try {
+            return doCreateConfigurationContext(axisConfigurator);
+        } finally {
+            recording.stop();
+        }
+    }
+
+    private static ConfigurationContext doCreateConfigurationContext(
+            AxisConfigurator axisConfigurator) throws AxisFault {
+        StartupProfiler.Stage stage =
+                StartupProfiler.start(StartupProfiler.STAGE_AXIS_CONFIGURATION, null);
+        AxisConfiguration axisConfig;
+        try {
+            axisConfig = axisConfigurator.getAxisConfiguration();
+        } finally {
+            stage.end();
+        }
         // call to the deployment listners
         Parameter param = axisConfig.getParameter(Constants.Configuration.DEPLOYMENT_LIFE_CYCLE_LISTENER);
         DeploymentLifeCycleListener deploymentLifeCycleListener = null;
@@ -90,9 +108,24 @@ public class ConfigurationContextFactory {
         }
         //To override context path
         setContextPaths(axisConfig, configContext);
-        init(configContext);
-        axisConfigurator.engageGlobalModules();
-        axisConfigurator.loadServices();
+        stage = StartupProfiler.start(StartupProfiler.STAGE_INIT, null);
+        try {
+            init(configContext);
+        } finally {
+            stage.end();
+        }
+        stage = StartupProfiler.start(StartupProfiler.STAGE_ENGAGE_GLOBAL_MODULES, null);
+        try {
+            axisConfigurator.engageGlobalModules();
+        } finally {
+            stage.end();
+        }
+        stage = StartupProfiler.start(StartupProfiler.STAGE_LOAD_SERVICES, null);
+        try {
+            axisConfigurator.loadServices();
+        } finally {
+            stage.end();
+        }
         addModuleService(configContext);
 
         // TODO: THIS NEEDS A TEST CASE!
@@ -248,11 +281,15 @@ public class ConfigurationContextFactory {
             Module module = axismodule.getModule();
 
             if (module != null) {
+                StartupProfiler.Stage stage = StartupProfiler.start(
+                        StartupProfiler.STAGE_MODULE_INIT, axismodule.getName());
                 try {
                     module.init(context, axismodule);
                 } catch (AxisFault axisFault) {
                     log.info(axisFault.getMessage());
                     faultyModule.put(axismodule, axisFault);
+                } finally {
+                    stage.end();
                 }
             }
         }
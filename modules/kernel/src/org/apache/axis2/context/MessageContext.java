@@ -213,6 +213,13 @@ public class MessageContext extends AbstractContext
      */
     public static final String TRANSPORT_IN = "TRANSPORT_IN";
 
+    /**
+     * Field TRANSPORT_IN_ENVELOPE. A transport that delivers the response within the same VM
+     * may set the response envelope in this property instead of an input stream in
+     * {@link #TRANSPORT_IN}.
+     */
+    public static final String TRANSPORT_IN_ENVELOPE = "TRANSPORT_IN_ENVELOPE";
+
     /**
      * Field CHARACTER_SET_ENCODING
      */
@@ -21,17 +21,51 @@ package org.apache.axis2.deployment;
 
 import org.apache.axis2.classloader.BeanInfoCache;
 import org.apache.axis2.classloader.BeanInfoCachingClassLoader;
+import org.apache.axis2.deployment.util.Utils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
+/**
+ * The class loader of a service or module archive.
+ * <p/>
+ * The class loader is parallel capable.  The first time a class is loaded, it builds an index of
+ * the packages contained in its URLs, which is used to decide without searching the URLs
+ * whether a class can be defined by this class loader or must be loaded by the parent.  The
+ * index is not used if one of the URLs is not a local directory or jar file, or if a jar file
+ * references other jars in its manifest.  Names of classes that could not be loaded are
+ * remembered, so that repeated lookups of missing classes fail fast.
+ */
 public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCachingClassLoader {
-    private boolean isChildFirstClassLoading;
+    private static final Log log = LogFactory.getLog(DeploymentClassLoader.class);
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private volatile boolean isChildFirstClassLoading;
 
     private final BeanInfoCache beanInfoCache = new BeanInfoCache();
-    
+
+    /** The packages contained in the URLs, or null if the index has not been built yet */
+    private volatile PackageIndex packageIndex;
+
+    /** Names of the classes that neither this class loader nor its parent could load */
+    private final Set<String> notFound = ConcurrentHashMap.<String>newKeySet();
+
     /**
      * Constructor.
      *
@@ -60,21 +94,61 @@ public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCac
         return null;
     }
 
-    protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
-        Class<?> c = null;
-        if (!isChildFirstClassLoading) {
-            c = super.loadClass(name, resolve);
-        } else {
-            c = findLoadedClass(name);
-            if (c == null) {
-                try {
-                    c = findClass(name);
-                } catch (Exception e) {
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> c = findLoadedClass(name);
+            if (c != null) {
+                return c;
+            }
+            if (notFound.contains(name)) {
+                throw new ClassNotFoundException(name);
+            }
+            try {
+                if (isChildFirstClassLoading && getPackageIndex().mayContain(name)) {
+                    try {
+                        c = findClass(name);
+                    } catch (ClassNotFoundException e) {
+                        // not in this archive, although the package is
+                    }
+                }
+                if (c == null) {
                     c = super.loadClass(name, resolve);
+                } else if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            } catch (ClassNotFoundException e) {
+                notFound.add(name);
+                throw e;
+            }
+        }
+    }
+
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        if (!getPackageIndex().mayContain(name)) {
+            throw new ClassNotFoundException(name);
+        }
+        return super.findClass(name);
+    }
+
+    protected void addURL(URL url) {
+        super.addURL(url);
+        packageIndex = null;
+        notFound.clear();
+    }
+
+    private PackageIndex getPackageIndex() {
+        PackageIndex index = packageIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = packageIndex;
+                if (index == null) {
+                    index = PackageIndex.build(getURLs());
+                    packageIndex = index;
                 }
             }
         }
-        return c;
+        return index;
     }
 
     public boolean isChildFirstClassLoading() {
@@ -83,9 +157,100 @@ public class DeploymentClassLoader extends URLClassLoader implements BeanInfoCac
 
     public void setChildFirstClassLoading(boolean childFirstClassLoading) {
         isChildFirstClassLoading = childFirstClassLoading;
+        notFound.clear();
     }
 
     public final BeanInfoCache getBeanInfoCache() {
         return beanInfoCache;
     }
+
+    /**
+     * The set of packages that contain classes in the URLs of a class loader.
+     */
+    static final class PackageIndex {
+        /** Index used when the packages cannot be determined */
+        static final PackageIndex UNKNOWN = new PackageIndex(null);
+
+        private final Set<String> packages;
+
+        private PackageIndex(Set<String> packages) {
+            this.packages = packages;
+        }
+
+        /**
+         * @return false if the class is certainly not contained in the URLs
+         */
+        boolean mayContain(String className) {
+            if (packages == null) {
+                return true;
+            }
+            int index = className.lastIndexOf('.');
+            return packages.contains(index == -1 ? "" : className.substring(0, index));
+        }
+
+        static PackageIndex build(URL[] urls) {
+            Set<String> packages = new HashSet<String>();
+            try {
+                for (URL url : urls) {
+                    if (!"file".equals(url.getProtocol())) {
+                        return UNKNOWN;
+                    }
+                    File file = Utils.toFile(url);
+                    if (file.isDirectory()) {
+                        addDirectory(file, "", packages);
+                    } else if (file.isFile()) {
+                        if (!addJar(file, packages)) {
+                            return UNKNOWN;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("Could not index the class loader URLs", e);
+                return UNKNOWN;
+            }
+            return new PackageIndex(packages);
+        }
+
+        private static void addDirectory(File dir, String packageName, Set<String> packages) {
+            File[] files = dir.listFiles();
+            if (files == null) {
+                return;
+            }
+            for (File file : files) {
+                String name = file.getName();
+                if (file.isDirectory()) {
+                    addDirectory(file, packageName.length() == 0 ? name
+                            : packageName + "." + name, packages);
+                } else if (name.endsWith(".class")) {
+                    packages.add(packageName);
+                }
+            }
+        }
+
+        /**
+         * @return false if the jar references other jars, which are loaded by URLClassLoader
+         *         but not indexed
+         */
+        private static boolean addJar(File file, Set<String> packages) throws IOException {
+            JarFile jarFile = new JarFile(file, false);
+            try {
+                Manifest manifest = jarFile.getManifest();
+                if (manifest != null && manifest.getMainAttributes().getValue(
+                        Attributes.Name.CLASS_PATH) != null) {
+                    return false;
+                }
+                for (Enumeration<JarEntry> entries = jarFile.entries();
+                     entries.hasMoreElements();) {
+                    String name = entries.nextElement().getName();
+                    if (name.endsWith(".class")) {
+                        int index = name.lastIndexOf('/');
+                        packages.add(index == -1 ? "" : name.substring(0, index).replace('/', '.'));
+                    }
+                }
+                return true;
+            } finally {
+                jarFile.close();
+            }
+        }
+    }
 }
@@ -90,6 +90,37 @@ public interface DeploymentConstants {
     String TAG_HOT_UPDATE = "hotupdate";
     String TAG_ANTI_JAR_LOCKING = "antiJARLocking";
     String TAG_HOT_DEPLOYMENT = "hotdeployment";
+    /**
+     * If true, hot deployment checks the repository every 10 seconds instead of watching it
+     * for changes.  Use this on network file systems that do not report changes made by other
+     * hosts.
+     */
+    String TAG_HOT_DEPLOYMENT_POLLING = "hotDeploymentPolling";
+    /**
+     * Number of threads used to build services concurrently during deployment: "true" to use
+     * one thread per processor, or a thread count.  Deployment is sequential by default.
+     */
+    String TAG_PARALLEL_DEPLOYMENT = "parallelDeployment";
+    /**
+     * If true, only the service names are read from the services.xml of a service archive at
+     * deployment time, and the service group is built when one of its services is first used.
+     */
+    String TAG_LAZY_SERVICE_ACTIVATION = "lazyServiceActivation";
+    /**
+     * Number of seconds after which an idle, lazily activated service group is passivated.
+     * Passivation is checked by the hot deployment task and is disabled by default.
+     */
+    String TAG_LAZY_SERVICE_IDLE_TIME = "lazyServiceIdleTime";
+    /**
+     * Enables the deployment snapshot used with lazy service activation: "true" to store it in
+     * the deployment.snapshot file of the repository, or the path of the file.  The service
+     * names of the archives that have not changed since the snapshot was written (same length,
+     * modification time and services.xml checksum) are taken from the snapshot, so that their
+     * services.xml is not parsed at startup.  Only the names are cached, and the snapshot has
+     * no effect unless {@link #TAG_LAZY_SERVICE_ACTIVATION} is enabled.  It is ignored if the
+     * parameters of the axis2.xml, the transports or the modules have changed.
+     */
+    String TAG_DEPLOYMENT_SNAPSHOT = "deploymentSnapshot";
     String TAG_ALLOWOVERRIDE = "allowOverride";
     String TAG_EXPOSE = "expose";
     String TAG_EXTRACT_SERVICE_ARCHIVE = "extractServiceArchive";
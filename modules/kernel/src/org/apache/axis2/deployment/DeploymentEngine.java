@@ -27,6 +27,7 @@ import org.apache.axis2.deployment.repository.util.ArchiveReader;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.repository.util.WSInfo;
 import org.apache.axis2.deployment.scheduler.DeploymentIterator;
+import org.apache.axis2.deployment.scheduler.RepositoryWatcher;
 import org.apache.axis2.deployment.scheduler.Scheduler;
 import org.apache.axis2.deployment.scheduler.SchedulerTask;
 import org.apache.axis2.deployment.util.Utils;
@@ -40,6 +41,7 @@ import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.util.FaultyServiceData;
 import org.apache.axis2.util.JavaUtils;
+import org.apache.axis2.util.StartupProfiler;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -60,6 +62,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.ZipEntry;
@@ -79,6 +88,7 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     protected static String webLocationString = null;
     protected Scheduler scheduler;
     private SchedulerTask schedulerTask;
+    private RepositoryWatcher repositoryWatcher;
 
     public static void setWebLocationString(String webLocationString) {
         DeploymentEngine.webLocationString = webLocationString;
@@ -139,42 +149,54 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     }
 
     public void loadRepository(String repoDir) throws DeploymentException {
-        File axisRepo = new File(repoDir);
-        if (!axisRepo.exists()) {
-            throw new DeploymentException(
-                    Messages.getMessage("cannotfindrepo", repoDir));
-        }
-        setDeploymentFeatures();
-        prepareRepository(repoDir);
-        // setting the CLs
-        setClassLoaders(repoDir);
-        repoListener = new RepositoryListener(this, false);
-        org.apache.axis2.util.Utils
-                .calculateDefaultModuleVersion(axisConfig.getModules(), axisConfig);
+        StartupProfiler.Stage stage =
+                StartupProfiler.start(StartupProfiler.STAGE_LOAD_REPOSITORY, repoDir);
         try {
+            File axisRepo = new File(repoDir);
+            if (!axisRepo.exists()) {
+                throw new DeploymentException(
+                        Messages.getMessage("cannotfindrepo", repoDir));
+            }
+            setDeploymentFeatures();
+            prepareRepository(repoDir);
+            // setting the CLs
+            setClassLoaders(repoDir);
+            repoListener = new RepositoryListener(this, false);
+            org.apache.axis2.util.Utils
+                    .calculateDefaultModuleVersion(axisConfig.getModules(), axisConfig);
             try {
-                axisConfig.setRepository(axisRepo.toURI().toURL());
-            } catch (MalformedURLException e) {
-                log.info(e.getMessage());
+                try {
+                    axisConfig.setRepository(axisRepo.toURI().toURL());
+                } catch (MalformedURLException e) {
+                    log.info(e.getMessage());
+                }
+                axisConfig.validateSystemPredefinedPhases();
+            } catch (AxisFault axisFault) {
+                throw new DeploymentException(axisFault);
             }
-            axisConfig.validateSystemPredefinedPhases();
-        } catch (AxisFault axisFault) {
-            throw new DeploymentException(axisFault);
+        } finally {
+            stage.end();
         }
     }
 
     public void loadFromClassPath() throws DeploymentException {
-        //loading modules from the classpath
-        new RepositoryListener(this, true);
-        org.apache.axis2.util.Utils.calculateDefaultModuleVersion(
-                axisConfig.getModules(), axisConfig);
-        axisConfig.validateSystemPredefinedPhases();
+        StartupProfiler.Stage stage =
+                StartupProfiler.start(StartupProfiler.STAGE_LOAD_REPOSITORY, null);
         try {
-            engageModules();
-        } catch (AxisFault axisFault) {
-            log.info(Messages.getMessage(DeploymentErrorMsgs.MODULE_VALIDATION_FAILED,
-                    axisFault.getMessage()));
-            throw new DeploymentException(axisFault);
+            //loading modules from the classpath
+            new RepositoryListener(this, true);
+            org.apache.axis2.util.Utils.calculateDefaultModuleVersion(
+                    axisConfig.getModules(), axisConfig);
+            axisConfig.validateSystemPredefinedPhases();
+            try {
+                engageModules();
+            } catch (AxisFault axisFault) {
+                log.info(Messages.getMessage(DeploymentErrorMsgs.MODULE_VALIDATION_FAILED,
+                        axisFault.getMessage()));
+                throw new DeploymentException(axisFault);
+            }
+        } finally {
+            stage.end();
         }
     }
 
@@ -578,13 +600,21 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     public synchronized void doDeploy() {
         try {
             if (wsToDeploy.size() > 0) {
-                for (Object aWsToDeploy : wsToDeploy) {
-                    DeploymentFileData fileToDeploy = (DeploymentFileData) aWsToDeploy;
-                    try {
-                        fileToDeploy.deploy();
-                    } catch (DeploymentException e) {
-                        // TODO : This probably isn't sufficient.  Maybe provide an option to stop?
-                        log.info(e);
+                int threadCount = Math.min(getDeploymentThreadCount(), wsToDeploy.size());
+                if (threadCount > 1) {
+                    doParallelDeploy(threadCount);
+                } else {
+                    for (Object aWsToDeploy : wsToDeploy) {
+                        DeploymentFileData fileToDeploy = (DeploymentFileData) aWsToDeploy;
+                        StartupProfiler.Stage stage = startDeployStage(fileToDeploy);
+                        try {
+                            fileToDeploy.deploy();
+                        } catch (DeploymentException e) {
+                            // TODO : This probably isn't sufficient.  Maybe provide an option to stop?
+                            deploymentFailed(fileToDeploy, e);
+                        } finally {
+                            stage.end();
+                        }
                     }
                 }
             }
@@ -593,6 +623,139 @@ public abstract class DeploymentEngine implements DeploymentConstants {
         }
     }
 
+    /**
+     * Deploys the files in wsToDeploy using a pool of threads.  Files handled by a
+     * {@link ParallelDeployer} are prepared concurrently, but all files are added to the
+     * AxisConfiguration by the calling thread, in the same order as in sequential deployment.
+     *
+     * @param threadCount the number of threads to use
+     */
+    private void doParallelDeploy(int threadCount) {
+        if (log.isDebugEnabled()) {
+            log.debug("Deploying " + wsToDeploy.size() + " files using " + threadCount
+                    + " threads");
+        }
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Axis2 Deployment-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setContextClassLoader(contextClassLoader);
+                return thread;
+            }
+        });
+        // The worker threads don't have a current stage; their stages are children of the
+        // stage that deploys the files
+        final StartupProfiler.Stage deployStage = StartupProfiler.current();
+        try {
+            List<Future<Object>> preparedList = new ArrayList<Future<Object>>(wsToDeploy.size());
+            for (final DeploymentFileData fileToDeploy : wsToDeploy) {
+                final Deployer deployer = fileToDeploy.getDeployer();
+                if (deployer instanceof ParallelDeployer) {
+                    preparedList.add(executor.submit(new Callable<Object>() {
+                        public Object call() throws DeploymentException {
+                            StartupProfiler.Stage stage = StartupProfiler.start(
+                                    StartupProfiler.STAGE_PREPARE, fileToDeploy.getName(),
+                                    deployStage);
+                            try {
+                                return ((ParallelDeployer)deployer).prepare(fileToDeploy);
+                            } finally {
+                                stage.end();
+                            }
+                        }
+                    }));
+                } else {
+                    preparedList.add(null);
+                }
+            }
+            for (int i = 0; i < wsToDeploy.size(); i++) {
+                DeploymentFileData fileToDeploy = wsToDeploy.get(i);
+                Future<Object> prepared = preparedList.get(i);
+                StartupProfiler.Stage stage = startDeployStage(fileToDeploy);
+                try {
+                    if (prepared == null) {
+                        fileToDeploy.deploy();
+                    } else {
+                        ((ParallelDeployer)fileToDeploy.getDeployer()).deploy(fileToDeploy,
+                                getPrepared(fileToDeploy, prepared));
+                    }
+                } catch (DeploymentException e) {
+                    deploymentFailed(fileToDeploy, e);
+                } finally {
+                    stage.end();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts the profiler stage of the deployment of a file, named after its deployer.
+     */
+    private static StartupProfiler.Stage startDeployStage(DeploymentFileData fileToDeploy) {
+        Deployer deployer = fileToDeploy.getDeployer();
+        return StartupProfiler.start(
+                deployer == null ? "deploy" : deployer.getClass().getSimpleName(),
+                fileToDeploy.getName());
+    }
+
+    private static Object getPrepared(DeploymentFileData fileToDeploy, Future<Object> prepared)
+            throws DeploymentException {
+        try {
+            return prepared.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DeploymentException) {
+                throw (DeploymentException)cause;
+            }
+            // Not reported by the deployer
+            log.error("Failed to prepare the deployment of " + fileToDeploy.getName(), cause);
+            throw new DeploymentException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentException(e);
+        }
+    }
+
+    /**
+     * Handles a deployment failure thrown by a deployer.  Deployers log their failures (and
+     * record faulty services) themselves, so the failure is only logged again at debug level.
+     */
+    private static void deploymentFailed(DeploymentFileData fileToDeploy, DeploymentException e) {
+        if (log.isDebugEnabled()) {
+            log.debug("Deployment of " + fileToDeploy.getName() + " failed", e);
+        }
+    }
+
+    /**
+     * @return the number of threads to use for deployment, as configured by the
+     *         {@link DeploymentConstants#TAG_PARALLEL_DEPLOYMENT} parameter
+     */
+    private int getDeploymentThreadCount() {
+        Object value = axisConfig == null ? null
+                : axisConfig.getParameterValue(TAG_PARALLEL_DEPLOYMENT);
+        if (value == null) {
+            return 1;
+        }
+        String threads = value.toString().trim();
+        if ("true".equalsIgnoreCase(threads)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        if ("false".equalsIgnoreCase(threads)) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(threads));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for the " + TAG_PARALLEL_DEPLOYMENT + " parameter: "
+                    + threads + "; services will be deployed sequentially");
+            return 1;
+        }
+    }
+
     /**
      * Checks if the modules, referred by server.xml, exist or that they are deployed.
      *
@@ -625,7 +788,12 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     public AxisConfiguration populateAxisConfiguration(InputStream in) throws DeploymentException {
         axisConfig = new AxisConfiguration();
         AxisConfigBuilder builder = new AxisConfigBuilder(in, axisConfig, this);
-        builder.populateConfig();
+        StartupProfiler.Stage stage = StartupProfiler.start(StartupProfiler.STAGE_AXIS2_XML, null);
+        try {
+            builder.populateConfig();
+        } finally {
+            stage.end();
+        }
         try {
             if (in != null) {
                 in.close();
@@ -643,12 +811,38 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      * @param listener : RepositoryListener
      */
     protected void startSearch(RepositoryListener listener) {
-        scheduler = new Scheduler();
-
         schedulerTask = new SchedulerTask(listener, axisConfig);
+        if (servicesDir != null && !JavaUtils.isTrueExplicitly(
+                axisConfig.getParameterValue(TAG_HOT_DEPLOYMENT_POLLING))) {
+            repositoryWatcher = new RepositoryWatcher(schedulerTask, getRepositoryDir(),
+                                                      getHotDeploymentDirectories());
+            if (repositoryWatcher.start()) {
+                return;
+            }
+            repositoryWatcher = null;
+        }
+        scheduler = new Scheduler();
         scheduler.schedule(schedulerTask, new DeploymentIterator());
     }
 
+    /**
+     * @return the directories that are checked by hot deployment: the services directory and
+     *         the directories of the deployers configured in axis2.xml
+     */
+    private List<File> getHotDeploymentDirectories() {
+        List<File> directories = new ArrayList<File>();
+        directories.add(servicesDir);
+        // resolved like in RepositoryListener#loadOtherDirectories
+        for (String directory : getDeployers().keySet()) {
+            File dir = new File(directory);
+            if (!dir.isAbsolute()) {
+                dir = new File(getRepositoryDir(), directory);
+            }
+            directories.add(dir);
+        }
+        return directories;
+    }
+
     /**
      * Method to check whether the deployment task is currently running. Will be used is graceful
      * shutdown & restart scenarios.
@@ -1103,6 +1297,7 @@ public abstract class DeploymentEngine implements DeploymentConstants {
             AxisConfiguration axisConfig = configCtx.getAxisConfiguration();
 
             ArchiveReader archiveReader = new ArchiveReader();
+            archiveReader.setSchemaRegistry(axisConfig.getSchemaRegistry());
             HashMap<String, AxisService> wsdlServices = archiveReader.processWSDLs(currentDeploymentFile);
             InputStream serviceXml = classLoader.getResourceAsStream("META-INF/services.xml");
             ArrayList<AxisService> serviceList = archiveReader.buildServiceGroup(serviceXml,
@@ -1175,6 +1370,9 @@ public abstract class DeploymentEngine implements DeploymentConstants {
         if (scheduler != null) {
             scheduler.cleanup(schedulerTask);
         }
+        if (repositoryWatcher != null) {
+            repositoryWatcher.stop();
+        }
         for (Map<String, Deployer> stringDeployerMap : deployerMap.values()) {
             for (Deployer deployer : stringDeployerMap.values()) {
                 try {
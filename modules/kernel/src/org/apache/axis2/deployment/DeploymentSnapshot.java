@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The deployment snapshot (see {@link DeploymentConstants#TAG_DEPLOYMENT_SNAPSHOT}) records the
+ * service group and service names that lazy service activation reads from the services.xml of
+ * each archive, together with a key of the file they were read from (see {@link #key}).  On a
+ * restart the stubs of unchanged archives are registered from the snapshot, without parsing
+ * their services.xml; only the archives that changed are read again.  Only these names are
+ * recorded: the service groups themselves are still built when they are activated.
+ * <p/>
+ * The snapshot also records a fingerprint of the configuration (the parameters of the
+ * axis2.xml, the transports and the modules), and all its entries are ignored if the
+ * configuration has changed.  The snapshot is a versioned binary file.  A snapshot that cannot
+ * be read or that was written by another version is ignored and rewritten.
+ */
+class DeploymentSnapshot {
+    private static final Log log = LogFactory.getLog(DeploymentSnapshot.class);
+
+    private static final int MAGIC = 0x41583253; // "AX2S"
+    private static final int VERSION = 3;
+
+    /** Name of the snapshot file in the repository, if no file name is configured */
+    static final String DEFAULT_FILE_NAME = "deployment.snapshot";
+
+    private static final ConcurrentHashMap<File, DeploymentSnapshot> instances =
+            new ConcurrentHashMap<File, DeploymentSnapshot>();
+
+    private final File file;
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private String fingerprint = "";
+    private boolean modified;
+
+    static class Entry {
+        final String key;
+        final String serviceGroupName;
+        final List<String> serviceNames;
+
+        Entry(String key, String serviceGroupName, List<String> serviceNames) {
+            this.key = key;
+            this.serviceGroupName = serviceGroupName;
+            this.serviceNames = serviceNames;
+        }
+    }
+
+    private DeploymentSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Get the snapshot stored in a file.  The deployers that use the same file share the
+     * snapshot, which is read the first time it is requested and kept until
+     * {@link #release(File)} is called.
+     */
+    static DeploymentSnapshot getInstance(File file) {
+        file = file.getAbsoluteFile();
+        DeploymentSnapshot snapshot = instances.get(file);
+        if (snapshot == null) {
+            snapshot = load(file);
+            DeploymentSnapshot existing = instances.putIfAbsent(file, snapshot);
+            if (existing != null) {
+                snapshot = existing;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Forgets the snapshot stored in a file, so that it is read again the next time it is
+     * requested.  This is called when the deployers are cleaned up.
+     */
+    static void release(File file) {
+        instances.remove(file.getAbsoluteFile());
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param file the snapshot file, which may not exist yet
+     * @return the snapshot, empty if the file cannot be used
+     */
+    static DeploymentSnapshot load(File file) {
+        DeploymentSnapshot snapshot = new DeploymentSnapshot(file);
+        if (!file.isFile()) {
+            return snapshot;
+        }
+        try {
+            DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    log.info("Ignoring the deployment snapshot " + file
+                             + " written by another version");
+                    return snapshot;
+                }
+                snapshot.fingerprint = in.readUTF();
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String path = in.readUTF();
+                    String key = in.readUTF();
+                    String serviceGroupName = in.readUTF();
+                    int serviceCount = in.readInt();
+                    List<String> serviceNames = new ArrayList<String>(serviceCount);
+                    for (int j = 0; j < serviceCount; j++) {
+                        serviceNames.add(in.readUTF());
+                    }
+                    snapshot.entries.put(path, new Entry(key, serviceGroupName, serviceNames));
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring the deployment snapshot " + file + ": " + e.getMessage());
+            snapshot.fingerprint = "";
+            snapshot.entries.clear();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Checks the fingerprint of the configuration the entries were recorded with, and drops
+     * all the entries if the configuration has changed.
+     *
+     * @param fingerprint the fingerprint of the current configuration
+     */
+    synchronized void checkFingerprint(String fingerprint) {
+        if (fingerprint.equals(this.fingerprint)) {
+            return;
+        }
+        if (!entries.isEmpty()) {
+            log.info("Ignoring the deployment snapshot " + file
+                     + " because the configuration or the modules have changed");
+            entries.clear();
+        }
+        this.fingerprint = fingerprint;
+        modified = true;
+    }
+
+    /**
+     * Get the entry of an archive, if the file it was read from has not changed.
+     *
+     * @param path the absolute path of the archive
+     * @param key  the key of the file the names are read from (the archive or its
+     *             services.xml)
+     * @return the entry, or null
+     */
+    synchronized Entry get(String path, String key) {
+        Entry entry = entries.get(path);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.key.equals(key)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Ignoring the deployment snapshot entry of " + path
+                          + " because it has changed");
+            }
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Records the names read from an archive.
+     *
+     * @param key the key of the file the names were read from, computed before it was read
+     */
+    synchronized void put(String path, String key, String serviceGroupName,
+                          List<String> serviceNames) {
+        entries.put(path, new Entry(key, serviceGroupName,
+                                    Collections.unmodifiableList(
+                                            new ArrayList<String>(serviceNames))));
+        modified = true;
+    }
+
+    /**
+     * Computes the key of the file the names are read from.  The key is made of metadata that
+     * is cheap to read, so that checking an entry costs less than parsing the services.xml:
+     * the length and modification time of the file and, for a service archive, the CRC and
+     * size of its services.xml, which are read from the central directory of the archive.
+     *
+     * @param file    the service archive, or the services.xml of an exploded service
+     * @param archive whether the file is a service archive
+     * @return the key
+     * @throws IOException if the file cannot be read
+     */
+    static String key(File file, boolean archive) throws IOException {
+        StringBuilder key = new StringBuilder();
+        key.append(file.length()).append(':').append(file.lastModified());
+        if (archive) {
+            ZipEntry servicesXml = null;
+            ZipFile zipFile = new ZipFile(file);
+            try {
+                for (Enumeration<? extends ZipEntry> e = zipFile.entries();
+                        e.hasMoreElements();) {
+                    ZipEntry entry = e.nextElement();
+                    if (entry.getName().equalsIgnoreCase(DeploymentConstants.SERVICES_XML)) {
+                        servicesXml = entry;
+                        break;
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+            if (servicesXml == null) {
+                key.append(":-");
+            } else {
+                key.append(':').append(Long.toHexString(servicesXml.getCrc()))
+                        .append(':').append(servicesXml.getSize());
+            }
+        }
+        return key.toString();
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder buffer = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+            buffer.append(Character.forDigit(b & 0xF, 16));
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Writes the snapshot if it has been modified, dropping the entries of the archives that
+     * no longer exist.
+     */
+    synchronized void save() {
+        for (Iterator<String> it = entries.keySet().iterator(); it.hasNext();) {
+            if (!new File(it.next()).exists()) {
+                it.remove();
+                modified = true;
+            }
+        }
+        if (!modified) {
+            return;
+        }
+        try {
+            File tmpFile = new File(file.getPath() + ".tmp");
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(fingerprint);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    out.writeUTF(mapEntry.getKey());
+                    out.writeUTF(entry.key);
+                    out.writeUTF(entry.serviceGroupName);
+                    out.writeInt(entry.serviceNames.size());
+                    for (String serviceName : entry.serviceNames) {
+                        out.writeUTF(serviceName);
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            modified = false;
+        } catch (IOException e) {
+            log.warn("Could not write the deployment snapshot " + file + ": " + e.getMessage());
+        }
+    }
+}
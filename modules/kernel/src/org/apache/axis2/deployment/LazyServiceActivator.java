@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.deployment.repository.util.DeploymentFileData;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The stub of a service group that was registered for lazy activation (see
+ * {@link DeploymentConstants#TAG_LAZY_SERVICE_ACTIVATION}).  Only the names of the services
+ * are read from the services.xml at deployment time; the service group is built, added to the
+ * AxisConfiguration and started the first time one of its services is looked up.
+ * <p/>
+ * Concurrent activations of the same service group are coalesced: the first caller builds
+ * the group and the others wait for it.  An active service group can be passivated, which
+ * removes it from the AxisConfiguration again and leaves only the stub.  Requests being
+ * processed by a service of the group are counted (see {@link #acquire()}), and a group is
+ * not passivated while there are any.
+ * <p/>
+ * The activator doesn't hold any lock while the service group is deployed or removed, so that
+ * it can be used by threads that hold the AxisConfiguration monitor and by threads that
+ * deploy services (which take that monitor) without deadlocking.
+ */
+public class LazyServiceActivator {
+    private static final Log log = LogFactory.getLog(LazyServiceActivator.class);
+
+    /**
+     * Marks a passivation in progress.  It is completed when the passivation is done.
+     */
+    private static class Passivation extends FutureTask<Void> {
+        Passivation() {
+            super(new Runnable() {
+                public void run() {
+                }
+            }, null);
+        }
+    }
+
+    private final ServiceDeployer deployer;
+    private final DeploymentFileData deploymentFileData;
+    private final String serviceGroupName;
+    private final List<String> serviceNames;
+
+    /**
+     * The activation of the service group, a {@link Passivation} while the group is passivated,
+     * or null if the group is not active.
+     */
+    private final AtomicReference<FutureTask<Void>> activation =
+            new AtomicReference<FutureTask<Void>>();
+    private volatile boolean active;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long lastAccessTime;
+
+    LazyServiceActivator(ServiceDeployer deployer, DeploymentFileData deploymentFileData,
+                         String serviceGroupName, List<String> serviceNames) {
+        this.deployer = deployer;
+        this.deploymentFileData = deploymentFileData;
+        this.serviceGroupName = serviceGroupName;
+        this.serviceNames = Collections.unmodifiableList(serviceNames);
+    }
+
+    public String getServiceGroupName() {
+        return serviceGroupName;
+    }
+
+    /**
+     * @return the names of the services of the group, including the hierarchical part
+     */
+    public List<String> getServiceNames() {
+        return serviceNames;
+    }
+
+    public DeploymentFileData getDeploymentFileData() {
+        return deploymentFileData;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Builds the service group and adds it to the AxisConfiguration, unless this has
+     * already been done.  If another thread is activating or passivating the group, this
+     * waits for it to complete.
+     *
+     * @throws AxisFault if the service group cannot be deployed
+     */
+    public void activate() throws AxisFault {
+        while (true) {
+            FutureTask<Void> task = activation.get();
+            if (task == null) {
+                FutureTask<Void> newTask = new FutureTask<Void>(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Activating service group " + serviceGroupName);
+                        }
+                        deployer.activate(LazyServiceActivator.this);
+                        touch();
+                        active = true;
+                        return null;
+                    }
+                });
+                if (!activation.compareAndSet(null, newTask)) {
+                    continue;
+                }
+                newTask.run();
+                task = newTask;
+            }
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                // Allow the next request to try again
+                activation.compareAndSet(task, null);
+                Throwable cause = e.getCause();
+                throw cause instanceof AxisFault ? (AxisFault)cause : AxisFault.makeFault(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw AxisFault.makeFault(e);
+            }
+            if (!(task instanceof Passivation)) {
+                return;
+            }
+            // The group has been passivated in the meantime; activate it again
+        }
+    }
+
+    /**
+     * Records that a request is being processed by a service of the group, so that the group
+     * is not passivated until {@link #release()} is called.  If the group is being passivated,
+     * this waits for the passivation to complete.
+     *
+     * @return true if the group is active; false if it has been passivated, in which case
+     *         {@link #release()} must not be called
+     */
+    public boolean acquire() {
+        requests.incrementAndGet();
+        touch();
+        FutureTask<Void> task = activation.get();
+        if (task instanceof Passivation) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                // Passivation tasks don't fail
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (active) {
+            return true;
+        }
+        requests.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Records that a request acquired with {@link #acquire()} has been processed.
+     */
+    public void release() {
+        touch();
+        requests.decrementAndGet();
+    }
+
+    /**
+     * Removes the service group from the AxisConfiguration, keeping the stub so that the
+     * group is activated again by the next request.  Nothing is done if the group is being
+     * activated, is processing requests or has been used less than <code>idleTime</code>
+     * milliseconds ago.
+     *
+     * @param idleTime the minimum time since the group has last been used
+     * @return true if the service group has been passivated
+     * @throws AxisFault if the service group cannot be removed
+     */
+    public boolean passivate(long idleTime) throws AxisFault {
+        FutureTask<Void> task = activation.get();
+        if (!active || task == null || task instanceof Passivation || !isIdle(idleTime)) {
+            return false;
+        }
+        Passivation passivation = new Passivation();
+        if (!activation.compareAndSet(task, passivation)) {
+            return false;
+        }
+        active = false;
+        // A request that acquired the group before it was marked inactive is visible now
+        if (!isIdle(idleTime)) {
+            active = true;
+            activation.set(task);
+            passivation.run();
+            return false;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Passivating service group " + serviceGroupName);
+        }
+        try {
+            deployer.passivate(this);
+        } finally {
+            activation.set(null);
+            passivation.run();
+        }
+        return true;
+    }
+
+    private boolean isIdle(long idleTime) {
+        return requests.get() == 0 && System.currentTimeMillis() - lastAccessTime >= idleTime;
+    }
+
+    /**
+     * Records that a service of the group has been used.
+     */
+    public void touch() {
+        lastAccessTime = System.currentTimeMillis();
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    public String toString() {
+        return serviceGroupName + serviceNames;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import org.apache.axis2.deployment.repository.util.DeploymentFileData;
+
+/**
+ * A Deployer that splits the deployment of a file into two steps, so that the
+ * DeploymentEngine can prepare several files concurrently when parallel deployment
+ * is enabled (see {@link DeploymentConstants#TAG_PARALLEL_DEPLOYMENT}).
+ * <p/>
+ * {@link #prepare(DeploymentFileData)} may be called concurrently for different files and
+ * must not modify the AxisConfiguration.  {@link #deploy(DeploymentFileData, Object)} is
+ * always called by the deployment thread, in the order in which the files were found in
+ * the repository.  {@link Deployer#deploy(DeploymentFileData)} must be equivalent to
+ * calling both methods in sequence.
+ */
+public interface ParallelDeployer extends Deployer {
+    /**
+     * Build the artifacts of a file without adding them to the configuration.
+     *
+     * @param deploymentFileData the DeploymentFileData object to prepare
+     * @return an object that is passed to {@link #deploy(DeploymentFileData, Object)}
+     * @throws DeploymentException if there is a problem
+     */
+    Object prepare(DeploymentFileData deploymentFileData) throws DeploymentException;
+
+    /**
+     * Add the artifacts built by {@link #prepare(DeploymentFileData)} to the configuration.
+     *
+     * @param deploymentFileData the DeploymentFileData object to deploy
+     * @param prepared the object returned by {@link #prepare(DeploymentFileData)}
+     * @throws DeploymentException if there is a problem
+     */
+    void deploy(DeploymentFileData deploymentFileData, Object prepared)
+            throws DeploymentException;
+}
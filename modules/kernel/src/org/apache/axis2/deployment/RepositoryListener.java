@@ -20,9 +20,11 @@
 
 package org.apache.axis2.deployment;
 
+import org.apache.axis2.Constants;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.repository.util.WSInfo;
 import org.apache.axis2.deployment.repository.util.WSInfoList;
+import org.apache.axis2.deployment.util.NestedJarCache;
 import org.apache.axis2.deployment.util.Utils;
 import org.apache.axis2.util.Loader;
 import org.apache.commons.logging.Log;
@@ -258,6 +260,16 @@ public class RepositoryListener implements DeploymentConstants {
         findServicesInDirectory(deploymentEngine.getServicesDir());
         loadOtherDirectories();
         update();
+        ServiceDeployer serviceDeployer = deploymentEngine.getServiceDeployer();
+        if (serviceDeployer != null) {
+            serviceDeployer.saveSnapshot();
+        }
+        // All the archives are deployed now, so unused jars can be removed from the cache
+        NestedJarCache jarCache = NestedJarCache.getInstance((File)deploymentEngine.getAxisConfig()
+                .getParameterValue(Constants.Configuration.ARTIFACTS_TEMP_DIR));
+        if (jarCache != null) {
+            jarCache.collectGarbage();
+        }
     }
 
     /**
@@ -38,6 +38,7 @@ import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.util.Loader;
 import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.PolicyUtil;
+import org.apache.axis2.util.StartupProfiler;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -941,7 +942,13 @@ public class ServiceBuilder extends DescriptionBuilder {
 
     private void startupServiceLifecycle() {
         if (service.getServiceLifeCycle() != null) {
-            service.getServiceLifeCycle().startUp(configCtx, service);
+            StartupProfiler.Stage stage =
+                    StartupProfiler.start(StartupProfiler.STAGE_START_UP, service.getName());
+            try {
+                service.getServiceLifeCycle().startUp(configCtx, service);
+            } finally {
+                stage.end();
+            }
         }
     }
 }
@@ -28,10 +28,13 @@ import org.apache.axis2.deployment.repository.util.ArchiveReader;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.resolver.AARBasedWSDLLocator;
 import org.apache.axis2.deployment.resolver.AARFileBasedURIResolver;
+import org.apache.axis2.deployment.util.NestedJarCache;
 import org.apache.axis2.deployment.util.Utils;
+import org.apache.axis2.description.AxisModule;
 import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.WSDL11ToAxisServiceBuilder;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.engine.AxisConfiguration;
@@ -49,13 +52,17 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
 import java.net.URL;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 
 /**
@@ -112,12 +119,15 @@ import javax.xml.stream.XMLStreamException;
  * important deployment features as well. </p>
  * 
  */
-public class ServiceDeployer extends AbstractDeployer {
+public class ServiceDeployer extends AbstractDeployer implements ParallelDeployer {
     private static final Log log = LogFactory.getLog(ServiceDeployer.class);
     private AxisConfiguration axisConfig;
     private ConfigurationContext configCtx;
     private String directory;
 
+    /** The fingerprint of the configuration recorded in the deployment snapshot */
+    private String configFingerprint;
+
     //To initialize the deployer
     public void init(ConfigurationContext configCtx) {
         this.configCtx = configCtx;
@@ -127,17 +137,36 @@ public class ServiceDeployer extends AbstractDeployer {
     //Will process the file and add that to axisConfig
 
     public void deploy(DeploymentFileData deploymentFileData) throws DeploymentException {
+        deploy(deploymentFileData, prepare(deploymentFileData));
+    }
+
+    /**
+     * Builds the service group of an archive or exploded directory, without adding it
+     * to the AxisConfiguration.  This may be called concurrently for different files.
+     * If lazy service activation is enabled, only the stub of the service group is created.
+     */
+    public Object prepare(DeploymentFileData deploymentFileData) throws DeploymentException {
         File deploymentFile = deploymentFileData.getFile();
         if(deploymentFile == null){
-            //This can be a URL
-            deployFromUrl(deploymentFileData);
-            return;
+            //This can be a URL, which is processed by deploy(DeploymentFileData, Object)
+            return null;
+        }
+        if (JavaUtils.isTrueExplicitly(axisConfig.getParameterValue(
+                DeploymentConstants.TAG_LAZY_SERVICE_ACTIVATION))) {
+            LazyServiceActivator activator = createActivator(deploymentFileData);
+            if (activator != null) {
+                return activator;
+            }
         }
+        return build(deploymentFileData);
+    }
+
+    private PreparedServiceGroup build(DeploymentFileData deploymentFileData)
+            throws DeploymentException {
+        File deploymentFile = deploymentFileData.getFile();
         boolean isDirectory = deploymentFile.isDirectory();
         ArchiveReader archiveReader;
-        StringWriter errorWriter = new StringWriter();
         archiveReader = new ArchiveReader();
-        String serviceStatus = "";
         try {
             deploymentFileData.setClassLoader(isDirectory,
                                               axisConfig.getServiceClassLoader(),
@@ -169,53 +198,308 @@ public class ServiceDeployer extends AbstractDeployer {
                     }
                 }
             }
-            DeploymentEngine.addServiceGroup(serviceGroup,
-                                             serviceList,
-                                             location,
-                                             deploymentFileData,
-                                             axisConfig);
+            return new PreparedServiceGroup(serviceGroup, serviceList, location);
+        } catch (Throwable t) {
+            throw deploymentFailed(deploymentFileData, t);
+        }
+    }
 
-            super.deploy(deploymentFileData);
-        } catch (DeploymentException de) {
-            de.printStackTrace();
-            log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
-                                          deploymentFileData.getName(),
-                                          de.getMessage()),
-                      de);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            de.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+    /**
+     * Reads the names of the services from the services.xml, without building them.
+     *
+     * @return the stub of the service group, or null if the services.xml does not name
+     *         any service (they may be built by a ServiceBuilderExtension)
+     */
+    private LazyServiceActivator createActivator(DeploymentFileData deploymentFileData)
+            throws DeploymentException {
+        File deploymentFile = deploymentFileData.getFile();
+        boolean isDirectory = deploymentFile.isDirectory();
+        if (!isDirectory) {
+            addJarReferences(deploymentFile);
+        }
+        DeploymentSnapshot snapshot = getSnapshot();
+        String path = deploymentFile.getAbsolutePath();
+        // The file the names are read from, whose key is recorded
+        File source = isDirectory ? getServicesXml(deploymentFile) : deploymentFile;
+        String key = null;
+        if (snapshot != null && source != null) {
+            try {
+                key = DeploymentSnapshot.key(source, !isDirectory);
+            } catch (IOException e) {
+                // Not a valid archive; reading the services.xml reports the error
+                log.debug("Unable to compute the deployment snapshot key of " + source, e);
+            }
+        }
+        if (key != null) {
+            DeploymentSnapshot.Entry entry = snapshot.get(path, key);
+            if (entry != null) {
+                return new LazyServiceActivator(this, deploymentFileData,
+                                                entry.serviceGroupName, entry.serviceNames);
+            }
+        }
+        try {
+            OMElement serviceMetaData = new ArchiveReader().buildServiceDescription(
+                    deploymentFileData.getAbsolutePath(), configCtx, isDirectory);
+            // Use the same names as ArchiveReader#processServiceGroup
+            String serviceGroupName = isDirectory ? deploymentFileData.getName()
+                    : DescriptionBuilder.getShortFileName(deploymentFileData.getName());
+            String serviceHierarchy = Utils.getServiceHierarchy(
+                    deploymentFile.toURI().toURL().getPath(), this.directory);
+            if (serviceHierarchy == null) {
+                serviceHierarchy = "";
+            }
+            List<String> serviceNames = new ArrayList<String>();
+            QName nameAttribute = new QName(DeploymentConstants.ATTRIBUTE_NAME);
+            if (DeploymentConstants.TAG_SERVICE.equals(serviceMetaData.getLocalName())) {
+                String serviceName = serviceMetaData.getAttributeValue(nameAttribute);
+                if (serviceName == null || "".equals(serviceName.trim())) {
+                    serviceName = DescriptionBuilder.getShortFileName(
+                            deploymentFileData.getName());
+                }
+                serviceNames.add(serviceHierarchy + serviceName);
+            } else {
+                for (Iterator<OMElement> services = serviceMetaData.getChildrenWithName(
+                        new QName(DeploymentConstants.TAG_SERVICE)); services.hasNext();) {
+                    String serviceName = services.next().getAttributeValue(nameAttribute);
+                    if (serviceName != null && !"".equals(serviceName)) {
+                        serviceNames.add(serviceHierarchy + serviceName);
+                    }
+                }
+            }
+            if (serviceNames.isEmpty()) {
+                return null;
+            }
+            if (key != null) {
+                snapshot.put(path, key, serviceHierarchy + serviceGroupName, serviceNames);
+            }
+            return new LazyServiceActivator(this, deploymentFileData,
+                                            serviceHierarchy + serviceGroupName, serviceNames);
+        } catch (Throwable t) {
+            throw deploymentFailed(deploymentFileData, t);
+        }
+    }
 
-            throw de;
+    /**
+     * Keeps the jars of an archive in the jar cache until the class loader of the service
+     * group is created on activation.
+     */
+    private void addJarReferences(File archive) {
+        NestedJarCache jarCache = NestedJarCache.getInstance(
+                (File)axisConfig.getParameterValue(Constants.Configuration.ARTIFACTS_TEMP_DIR));
+        if (jarCache == null) {
+            return;
+        }
+        try {
+            jarCache.addReferences(archive.toURI().toURL(), archive);
+        } catch (IOException e) {
+            log.warn("Unable to record the jars of " + archive + " in the jar cache", e);
+        }
+    }
 
-        } catch (AxisFault axisFault) {
-            log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
-                                          deploymentFileData.getName(),
-                                          axisFault.getMessage()),
-                      axisFault);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            axisFault.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+    private static File getServicesXml(File directory) {
+        File file = new File(directory, DeploymentConstants.SERVICES_XML);
+        if (!file.exists()) {
+            file = new File(directory, DeploymentConstants.SERVICES_XML.toLowerCase());
+        }
+        return file.exists() ? file : null;
+    }
 
-            throw new DeploymentException(axisFault);
+    /**
+     * Get the deployment snapshot configured by the
+     * {@link DeploymentConstants#TAG_DEPLOYMENT_SNAPSHOT} parameter.
+     *
+     * @return the snapshot, or null if it is not enabled
+     */
+    private DeploymentSnapshot getSnapshot() {
+        File file = getSnapshotFile();
+        if (file == null) {
+            return null;
+        }
+        DeploymentSnapshot snapshot = DeploymentSnapshot.getInstance(file);
+        if (configFingerprint == null) {
+            configFingerprint = getConfigurationFingerprint();
+        }
+        snapshot.checkFingerprint(configFingerprint);
+        return snapshot;
+    }
 
-        } catch (Exception e) {
-            if (log.isInfoEnabled()) {
-                StringWriter sw = new StringWriter();
-                PrintWriter pw = new PrintWriter(sw);
-                e.printStackTrace(pw);
-                log.info(Messages.getMessage(
-                        DeploymentErrorMsgs.INVALID_SERVICE,
-                        deploymentFileData.getName(),
-                        sw.getBuffer().toString()));
+    private File getSnapshotFile() {
+        Object value = axisConfig.getParameterValue(DeploymentConstants.TAG_DEPLOYMENT_SNAPSHOT);
+        if (value == null || JavaUtils.isFalseExplicitly(value)) {
+            return null;
+        }
+        if (JavaUtils.isTrueExplicitly(value)) {
+            URL repository = axisConfig.getRepository();
+            if (repository == null || !"file".equals(repository.getProtocol())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("The deployment snapshot is ignored because the repository "
+                              + repository + " is not a directory");
+                }
+                return null;
             }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            e.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+            try {
+                return new File(Utils.toFile(repository), DeploymentSnapshot.DEFAULT_FILE_NAME);
+            } catch (IOException e) {
+                log.debug("The deployment snapshot is ignored", e);
+                return null;
+            }
+        }
+        return new File(value.toString().trim());
+    }
 
-            throw new DeploymentException(e);
+    /**
+     * Computes the fingerprint of the configuration that the entries of the deployment
+     * snapshot depend on: the parameters read from the axis2.xml, the transports and the
+     * modules, with the size and modification time of their archives.
+     */
+    private String getConfigurationFingerprint() {
+        List<String> items = new ArrayList<String>();
+        for (Parameter parameter : axisConfig.getParameters()) {
+            OMElement element = parameter.getParameterElement();
+            if (element != null) {
+                items.add("parameter:" + element);
+            }
+        }
+        for (String name : axisConfig.getTransportsIn().keySet()) {
+            items.add("transportIn:" + name);
+        }
+        for (String name : axisConfig.getTransportsOut().keySet()) {
+            items.add("transportOut:" + name);
+        }
+        for (AxisModule module : axisConfig.getModules().values()) {
+            String item = "module:" + module.getArchiveName();
+            URL url = module.getFileName();
+            if (url != null && "file".equals(url.getProtocol())) {
+                try {
+                    File file = Utils.toFile(url);
+                    item += ":" + file.length() + ":" + file.lastModified();
+                } catch (IOException e) {
+                    // use the name only
+                }
+            }
+            items.add(item);
+        }
+        for (AxisModule module : axisConfig.getEngagedModules()) {
+            items.add("engaged:" + module.getArchiveName());
+        }
+        Collections.sort(items);
+        MessageDigest digest = DeploymentSnapshot.newDigest();
+        for (String item : items) {
+            try {
+                digest.update(item.getBytes("UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+            digest.update((byte)0);
+        }
+        return DeploymentSnapshot.toHex(digest.digest());
+    }
+
+    /**
+     * Writes the deployment snapshot, if it is enabled and has changed.  This is called by
+     * the RepositoryListener once the services have been deployed.
+     */
+    public void saveSnapshot() {
+        DeploymentSnapshot snapshot = getSnapshot();
+        if (snapshot != null) {
+            snapshot.save();
+        }
+    }
+
+    public void cleanup() throws DeploymentException {
+        File file = getSnapshotFile();
+        if (file != null) {
+            DeploymentSnapshot.release(file);
+        }
+        super.cleanup();
+    }
+
+    /**
+     * Adds a service group built by {@link #prepare(DeploymentFileData)} to the
+     * AxisConfiguration, or registers its stub if the service group is activated lazily.
+     */
+    public void deploy(DeploymentFileData deploymentFileData, Object prepared)
+            throws DeploymentException {
+        if (deploymentFileData.getFile() == null) {
+            deployFromUrl(deploymentFileData);
+            return;
+        }
+        if (prepared instanceof LazyServiceActivator) {
+            LazyServiceActivator activator = (LazyServiceActivator)prepared;
+            axisConfig.addLazyService(activator);
+            super.deploy(deploymentFileData);
+            log.info("Registered the service group " + activator.getServiceGroupName()
+                     + " for lazy activation (" + deploymentFileData.getName() + ")");
+            return;
+        }
+        addServiceGroup(deploymentFileData, (PreparedServiceGroup)prepared);
+    }
 
+    /**
+     * Builds a service group that was registered for lazy activation and adds it to the
+     * AxisConfiguration.  If this fails, the stub is removed and the file is recorded as a
+     * faulty service.
+     */
+    void activate(LazyServiceActivator activator) throws DeploymentException {
+        DeploymentFileData deploymentFileData = activator.getDeploymentFileData();
+        boolean activated = false;
+        try {
+            addServiceGroup(deploymentFileData, build(deploymentFileData));
+            activated = true;
+        } finally {
+            if (!activated) {
+                axisConfig.removeLazyServiceGroup(activator.getServiceGroupName());
+            }
+        }
+    }
+
+    /**
+     * Removes a lazily activated service group from the AxisConfiguration.  The stub stays
+     * registered.
+     */
+    void passivate(LazyServiceActivator activator) throws AxisFault {
+        removeServiceGroup(activator.getServiceGroupName());
+    }
+
+    private void addServiceGroup(DeploymentFileData deploymentFileData,
+                                 PreparedServiceGroup preparedServiceGroup)
+            throws DeploymentException {
+        try {
+            DeploymentEngine.addServiceGroup(preparedServiceGroup.serviceGroup,
+                                             preparedServiceGroup.serviceList,
+                                             preparedServiceGroup.location,
+                                             deploymentFileData,
+                                             axisConfig);
+
+            super.deploy(deploymentFileData);
         } catch (Throwable t) {
+            throw deploymentFailed(deploymentFileData, t);
+        }
+    }
+
+    /**
+     * Logs a deployment failure and records the file as a faulty service.  This is the only
+     * place where the failure is logged; the DeploymentEngine doesn't log it again.
+     *
+     * @return the DeploymentException to throw
+     */
+    private DeploymentException deploymentFailed(DeploymentFileData deploymentFileData,
+                                                 Throwable t) {
+        StringWriter errorWriter = new StringWriter();
+        DeploymentException de;
+        if (t instanceof DeploymentException) {
+            log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
+                                          deploymentFileData.getName(),
+                                          t.getMessage()),
+                      t);
+            de = (DeploymentException)t;
+        } else if (t instanceof AxisFault) {
+            log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
+                                          deploymentFileData.getName(),
+                                          t.getMessage()),
+                      t);
+            de = new DeploymentException(t);
+        } else {
             if (log.isInfoEnabled()) {
                 StringWriter sw = new StringWriter();
                 PrintWriter pw = new PrintWriter(sw);
@@ -225,17 +509,31 @@ public class ServiceDeployer extends AbstractDeployer {
                         deploymentFileData.getName(),
                         sw.getBuffer().toString()));
             }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            t.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+            de = t instanceof Exception ? new DeploymentException(t)
+                    : new DeploymentException(new Exception(t));
+        }
+        PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
+        t.printStackTrace(error_ptintWriter);
+        String serviceStatus = "Error:\n" + errorWriter.toString();
+        // The faulty services table is synchronized, so this is safe during parallel deployment
+        axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
+                                           serviceStatus);
+        return de;
+    }
 
-            throw new DeploymentException(new Exception(t));
+    /**
+     * The result of {@link ServiceDeployer#prepare(DeploymentFileData)}.
+     */
+    private static class PreparedServiceGroup {
+        final AxisServiceGroup serviceGroup;
+        final ArrayList<AxisService> serviceList;
+        final URL location;
 
-        } finally {
-            if (serviceStatus.startsWith("Error:")) {
-                axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
-                                                   serviceStatus);
-            }
+        PreparedServiceGroup(AxisServiceGroup serviceGroup, ArrayList<AxisService> serviceList,
+                             URL location) {
+            this.serviceGroup = serviceGroup;
+            this.serviceList = serviceList;
+            this.location = location;
         }
     }
     
@@ -475,20 +773,12 @@ public class ServiceDeployer extends AbstractDeployer {
             if (serviceHierarchy != null) {
                 fileName = serviceHierarchy + fileName;
             }
-            AxisServiceGroup serviceGroup = axisConfig.removeServiceGroup(fileName);
-            //Fixed - https://issues.apache.org/jira/browse/AXIS2-4610
-            if (serviceGroup != null) {
-                for (Iterator<AxisService> services = serviceGroup.getServices(); services.hasNext();) {
-                AxisService axisService = (AxisService) services.next();
-                ServiceLifeCycle serviceLifeCycle = axisService.getServiceLifeCycle();
-                if (serviceLifeCycle != null) {
-                    serviceLifeCycle.shutDown(configCtx, axisService);
-                }
-            }
-                configCtx.removeServiceGroupContext(serviceGroup);
+            LazyServiceActivator activator = axisConfig.removeLazyServiceGroup(fileName);
+            if (activator != null && !activator.isActive()) {
+                // Only the stub was registered
                 log.info(Messages.getMessage(DeploymentErrorMsgs.SERVICE_REMOVED,
                         fileName));
-            } else {
+            } else if (!removeServiceGroup(fileName)) {
                 axisConfig.removeFaultyService(fileName);
             }
             super.undeploy(fileName);
@@ -499,4 +789,28 @@ public class ServiceDeployer extends AbstractDeployer {
             throw new DeploymentException(axisFault);
         }
     }
+
+    /**
+     * Removes a service group from the AxisConfiguration and shuts its services down.
+     *
+     * @return false if the service group was not found
+     */
+    private boolean removeServiceGroup(String serviceGroupName) throws AxisFault {
+        AxisServiceGroup serviceGroup = axisConfig.removeServiceGroup(serviceGroupName);
+        //Fixed - https://issues.apache.org/jira/browse/AXIS2-4610
+        if (serviceGroup == null) {
+            return false;
+        }
+        for (Iterator<AxisService> services = serviceGroup.getServices(); services.hasNext();) {
+            AxisService axisService = (AxisService) services.next();
+            ServiceLifeCycle serviceLifeCycle = axisService.getServiceLifeCycle();
+            if (serviceLifeCycle != null) {
+                serviceLifeCycle.shutDown(configCtx, axisService);
+            }
+        }
+        configCtx.removeServiceGroupContext(serviceGroup);
+        log.info(Messages.getMessage(DeploymentErrorMsgs.SERVICE_REMOVED,
+                serviceGroupName));
+        return true;
+    }
 }
@@ -49,6 +49,8 @@ public class WSDLServiceBuilderExtension extends AbstractServiceBuilderExtension
     public Map<String, AxisService> buildAxisServices(DeploymentFileData deploymentFileData)
             throws DeploymentException {
         ArchiveReader archiveReader = new ArchiveReader();
+        archiveReader.setSchemaRegistry(
+                getConfigurationContext().getAxisConfiguration().getSchemaRegistry());
         Map<String, AxisService> wsdlservices = archiveReader.processWSDLs(deploymentFileData);
         if (wsdlservices != null && wsdlservices.size() > 0) {
             for (AxisService service : wsdlservices.values()) {
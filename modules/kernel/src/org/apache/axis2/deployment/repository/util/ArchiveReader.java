@@ -38,6 +38,7 @@ import org.apache.axis2.deployment.resolver.WarFileBasedURIResolver;
 import org.apache.axis2.description.AxisModule;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.description.SchemaRegistry;
 import org.apache.axis2.description.WSDL11ToAllAxisServicesBuilder;
 import org.apache.axis2.description.WSDL11ToAxisServiceBuilder;
 import org.apache.axis2.description.WSDL20ToAllAxisServicesBuilder;
@@ -46,6 +47,7 @@ import org.apache.axis2.description.WSDLToAxisServiceBuilder;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.namespace.Constants;
+import org.apache.axis2.util.StartupProfiler;
 import org.apache.axis2.util.XMLUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -68,6 +70,17 @@ import java.util.zip.ZipInputStream;
 public class ArchiveReader implements DeploymentConstants {
     private static final Log log = LogFactory.getLog(ArchiveReader.class);
 
+    private SchemaRegistry schemaRegistry;
+
+    /**
+     * Sets the registry used to share the schemas imported by the WSDL files of the archive.
+     *
+     * @param schemaRegistry the registry, or null if schemas are not shared
+     */
+    public void setSchemaRegistry(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
     public ArrayList<AxisService> buildServiceGroup(InputStream zin, DeploymentFileData currentFile,
                                        AxisServiceGroup axisServiceGroup, HashMap<String, AxisService> wsdlServices,
                                        ConfigurationContext configCtx)
@@ -250,8 +263,9 @@ public class ArchiveReader implements DeploymentConstants {
                                  File serviceArchiveFile,
                                  boolean isArchive, InputStream in, String baseURI)
             throws DeploymentException {
+        StartupProfiler.Stage stage = StartupProfiler.start(StartupProfiler.STAGE_WSDL, baseURI);
         try {
-
+            axisServiceBuilder.setSchemaRegistry(schemaRegistry);
             if (serviceArchiveFile != null && isArchive) {
                 axisServiceBuilder.setCustomResolver(
                         new AARFileBasedURIResolver(serviceArchiveFile));
@@ -295,6 +309,8 @@ public class ArchiveReader implements DeploymentConstants {
             if (log.isDebugEnabled()) {
                 log.debug(ioex);
             }
+        } finally {
+            stage.end();
         }
         return null;
     }
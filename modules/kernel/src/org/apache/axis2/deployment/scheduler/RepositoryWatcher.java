@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.scheduler;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a SchedulerTask when the content of the repository changes, instead of running it at
+ * a fixed interval.  The directories are watched with a {@link WatchService}, and the task is
+ * run once no change has been reported for {@link #QUIET_PERIOD} milliseconds, so that
+ * archives that are still being copied are not deployed.
+ * <p/>
+ * If the directories cannot be watched, {@link #start()} returns false and the caller should
+ * fall back to the {@link Scheduler}.
+ */
+public class RepositoryWatcher implements Runnable {
+    private static final Log log = LogFactory.getLog(RepositoryWatcher.class);
+
+    /** Time without changes after which the repository is checked, in milliseconds */
+    static final long QUIET_PERIOD = 500;
+    /** Maximum time a check can be delayed by changes that keep coming, in milliseconds */
+    static final long MAX_DELAY = 10000;
+    /** Interval at which idle services are checked for passivation, in seconds */
+    private static final long IDLE_CHECK_INTERVAL = 10;
+
+    /**
+     * Source of the current time, so that tests can control the time seen by the watcher.
+     */
+    interface Clock {
+        long currentTimeMillis();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private final SchedulerTask schedulerTask;
+    private final File repositoryDir;
+    private final List<File> directories;
+    private final Clock clock;
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * @param schedulerTask the task to run when the repository changes
+     * @param repositoryDir the repository directory; only its direct children are watched.
+     *                      May be null.
+     * @param directories   the directories watched with their sub directories
+     */
+    public RepositoryWatcher(SchedulerTask schedulerTask, File repositoryDir,
+                             List<File> directories) {
+        this(schedulerTask, repositoryDir, directories, SYSTEM_CLOCK);
+    }
+
+    RepositoryWatcher(SchedulerTask schedulerTask, File repositoryDir, List<File> directories,
+                      Clock clock) {
+        this.schedulerTask = schedulerTask;
+        this.repositoryDir = repositoryDir;
+        this.directories = directories;
+        this.clock = clock;
+    }
+
+    /**
+     * Constructor for tests that supply the watch service instead of calling {@link #start()}.
+     */
+    RepositoryWatcher(SchedulerTask schedulerTask, WatchService watchService, Clock clock) {
+        this(schedulerTask, null, Collections.<File>emptyList(), clock);
+        this.watchService = watchService;
+    }
+
+    /**
+     * Registers the directories and starts the watcher thread.
+     *
+     * @return false if the directories cannot be watched
+     */
+    public boolean start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            if (repositoryDir != null && repositoryDir.isDirectory()) {
+                register(repositoryDir.toPath());
+            }
+            for (File directory : directories) {
+                if (directory.isDirectory()) {
+                    registerAll(directory.toPath());
+                }
+            }
+        } catch (IOException e) {
+            log.info("Cannot watch the repository for changes, hot deployment will poll it: "
+                     + e.getMessage());
+            close();
+            return false;
+        } catch (UnsupportedOperationException e) {
+            log.info("Cannot watch the repository for changes, hot deployment will poll it: "
+                     + e.getMessage());
+            close();
+            return false;
+        }
+        thread = new Thread(this, "Axis2 Repository Watcher");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public void stop() {
+        stopped = true;
+        close();
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public void run() {
+        try {
+            while (!stopped) {
+                WatchKey key = watchService.poll(IDLE_CHECK_INTERVAL, TimeUnit.SECONDS);
+                if (key == null) {
+                    schedulerTask.checkIdleServices();
+                    continue;
+                }
+                awaitQuietPeriod(key);
+                schedulerTask.run();
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        } catch (RuntimeException e) {
+            log.error("The repository watcher has stopped, hot deployment is disabled", e);
+        }
+    }
+
+    /**
+     * Processes the events of the given key and of the keys signalled after it, until no
+     * change has been reported for {@link #QUIET_PERIOD} milliseconds or changes have kept
+     * coming for {@link #MAX_DELAY} milliseconds.
+     *
+     * @param key the first signalled key
+     * @throws InterruptedException if the thread is interrupted while waiting for changes
+     */
+    void awaitQuietPeriod(WatchKey key) throws InterruptedException {
+        long deadline = clock.currentTimeMillis() + MAX_DELAY;
+        do {
+            processEvents(key);
+        } while (clock.currentTimeMillis() < deadline
+                 && (key = watchService.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null);
+    }
+
+    private void processEvents(WatchKey key) {
+        Path directory = (Path)key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // The whole repository is checked anyway
+                continue;
+            }
+            Path child = directory.resolve((Path)event.context());
+            if (log.isDebugEnabled()) {
+                log.debug(event.kind().name() + ": " + child);
+            }
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    registerAll(child);
+                } catch (IOException e) {
+                    log.warn("Cannot watch " + child + " for changes", e);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    private void registerAll(final Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                    throws IOException {
+                String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                if (!dir.equals(root) && (name.startsWith(".") || name.equalsIgnoreCase("CVS"))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path dir) throws IOException {
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                     StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    private void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+}
@@ -22,14 +22,19 @@ package org.apache.axis2.deployment.scheduler;
 
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.deployment.DeploymentConstants;
 import org.apache.axis2.deployment.DeploymentEngine;
+import org.apache.axis2.deployment.LazyServiceActivator;
 import org.apache.axis2.deployment.RepositoryListener;
 import org.apache.axis2.description.Parameter;
 import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.util.TimerTask;
 
 public class SchedulerTask implements Runnable {
+    private static final Log log = LogFactory.getLog(SchedulerTask.class);
     static final int SCHEDULED = 1;
     static final int CANCELLED = 2;
     final Object lock = new Object();
@@ -73,6 +78,49 @@ public class SchedulerTask implements Runnable {
         wsListener.startListener();
     }
 
+    /**
+     * Passivates the idle service groups without checking the repository.  This doesn't
+     * take the AxisConfiguration monitor, so that it doesn't contend with request threads
+     * activating services.
+     */
+    void checkIdleServices() {
+        passivateIdleServices();
+    }
+
+    /**
+     * Passivates the lazily activated service groups that have not been used for longer than
+     * the lazyServiceIdleTime parameter.
+     */
+    private void passivateIdleServices() {
+        Object idleTimeValue = axisConfig.getParameterValue(
+                DeploymentConstants.TAG_LAZY_SERVICE_IDLE_TIME);
+        if (idleTimeValue == null) {
+            return;
+        }
+        long idleTime;
+        try {
+            idleTime = Long.parseLong(idleTimeValue.toString().trim()) * 1000;
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for the " + DeploymentConstants.TAG_LAZY_SERVICE_IDLE_TIME
+                     + " parameter: " + idleTimeValue);
+            return;
+        }
+        if (idleTime <= 0) {
+            return;
+        }
+        for (LazyServiceActivator activator : axisConfig.getLazyServiceGroups()) {
+            try {
+                if (activator.passivate(idleTime)) {
+                    log.info("Passivated the idle service group "
+                             + activator.getServiceGroupName());
+                }
+            } catch (AxisFault e) {
+                log.error("Could not passivate the service group "
+                          + activator.getServiceGroupName(), e);
+            }
+        }
+    }
+
     /**
      * The action to be performed by this scheduler task.
      */
@@ -96,5 +144,6 @@ public class SchedulerTask implements Runnable {
                 DEPLOYMENT_TASK_STATUS_PARAM.setValue(Boolean.FALSE);
             }
         }
+        passivateIdleServices();
     }
 }
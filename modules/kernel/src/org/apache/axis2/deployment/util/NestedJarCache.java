@@ -0,0 +1,433 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.util;
+
+import org.apache.axis2.java.security.AccessController;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A persistent cache of the jars found in the lib directory of service and module archives.
+ * <p/>
+ * Each jar is extracted once to a file named after the CRC and size recorded in the zip
+ * directory of the archive, so that archives that bundle the same jar share the extracted file,
+ * and the file is reused after a restart or a redeployment, provided that its length and CRC
+ * still match.  Files that are no longer used by any archive are removed by
+ * {@link #collectGarbage()}, which the RepositoryListener calls after each check of the services.
+ * <p/>
+ * Several processes may share the cache directory.  Each process records the files it uses as
+ * marker files in its own subdirectory of {@link #REFS_DIR_NAME}, and holds a lock on a file
+ * next to that subdirectory while it runs.  A file is only removed if no running process has a
+ * marker for it; the markers of processes that have terminated are removed.
+ * <p/>
+ * The cache is located in the {@link #CACHE_DIR_NAME} directory of the artifacts temp directory
+ * (see {@link org.apache.axis2.Constants.Configuration#ARTIFACTS_TEMP_DIR}), or in the directory
+ * given by the {@link #CACHE_DIR_PROPERTY} system property.  If neither is available the jars are
+ * extracted to temporary files as before.
+ */
+public class NestedJarCache {
+    private static final Log log = LogFactory.getLog(NestedJarCache.class);
+
+    /** System property that sets the directory of the cache */
+    public static final String CACHE_DIR_PROPERTY = "org.apache.axis2.jarCacheDir";
+
+    /** Name of the cache directory in the artifacts temp directory */
+    public static final String CACHE_DIR_NAME = "jarcache";
+
+    /** Name of the directory, in the cache directory, holding the markers of each process */
+    static final String REFS_DIR_NAME = ".refs";
+
+    /** Age after which an incomplete extraction is removed, in milliseconds */
+    private static final long INCOMPLETE_FILE_AGE = 60 * 60 * 1000;
+
+    private static final ConcurrentHashMap<File, NestedJarCache> instances =
+            new ConcurrentHashMap<File, NestedJarCache>();
+
+    private final File dir;
+
+    /** The directory holding the markers of the files used by this process */
+    private final File refsDir;
+
+    /** The lock that tells the other processes that the markers of this process are in use */
+    private FileLock refsLock;
+
+    /** The cached files used by each archive, keyed by the URL of the archive */
+    private final Map<String, Set<File>> references = new ConcurrentHashMap<String, Set<File>>();
+
+    /** Extractions hold the read lock, garbage collection holds the write lock */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private NestedJarCache(File dir) {
+        this.dir = dir;
+        refsDir = new File(new File(dir, REFS_DIR_NAME), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Get the cache to use.
+     *
+     * @param tmpDir the artifacts temp directory, or null
+     * @return the cache, or null if the jars should be extracted to temporary files
+     */
+    public static NestedJarCache getInstance(File tmpDir) {
+        String property = AccessController.doPrivileged(new PrivilegedAction<String>() {
+            public String run() {
+                return System.getProperty(CACHE_DIR_PROPERTY);
+            }
+        });
+        File dir;
+        if (property != null && property.length() > 0) {
+            dir = new File(property);
+        } else if (tmpDir != null) {
+            dir = new File(tmpDir, CACHE_DIR_NAME);
+        } else {
+            return null;
+        }
+        NestedJarCache cache = instances.get(dir);
+        if (cache == null) {
+            cache = new NestedJarCache(dir);
+            NestedJarCache existing = instances.putIfAbsent(dir, cache);
+            if (existing != null) {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+
+    public File getDirectory() {
+        return dir;
+    }
+
+    /**
+     * Get the cached files of the lib/*.jar entries of an archive, extracting the entries that
+     * are not in the cache yet.
+     *
+     * @param archiveUrl the URL of the archive, which identifies it for garbage collection
+     * @param archive    a local copy of the archive
+     * @return the URLs of the cached files
+     * @throws IOException if the archive cannot be read or the cache cannot be written
+     */
+    public List<URL> getURLsForJars(URL archiveUrl, File archive) throws IOException {
+        return getJars(archiveUrl, archive, true);
+    }
+
+    /**
+     * Records that an archive uses the cached files of its lib/*.jar entries, without
+     * extracting them.  This is used for the archives whose class loader is created later, so
+     * that the files extracted for them before are not removed in the meantime.
+     *
+     * @param archiveUrl the URL of the archive, which identifies it for garbage collection
+     * @param archive    a local copy of the archive
+     * @throws IOException if the archive cannot be read or the cache cannot be written
+     */
+    public void addReferences(URL archiveUrl, File archive) throws IOException {
+        getJars(archiveUrl, archive, false);
+    }
+
+    private List<URL> getJars(URL archiveUrl, File archive, boolean extract) throws IOException {
+        List<URL> urls = new ArrayList<URL>();
+        Set<File> files = new HashSet<File>();
+        lock.readLock().lock();
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                throw new IOException("Unable to create the jar cache directory " + dir);
+            }
+            lockRefsDir();
+            ZipFile zipFile = new ZipFile(archive);
+            try {
+                for (Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                     entries.hasMoreElements();) {
+                    ZipEntry entry = entries.nextElement();
+                    String entryName = entry.getName().toLowerCase();
+                    if (entryName.startsWith("lib/") && entryName.endsWith(".jar")) {
+                        File file = new File(dir, getFileName(entry));
+                        // Mark the file before looking at it, so that no other process
+                        // removes it once it has been found
+                        mark(file);
+                        if (extract) {
+                            getFile(zipFile, entry, file);
+                        }
+                        files.add(file);
+                        urls.add(file.toURI().toURL());
+                    }
+                }
+            } finally {
+                zipFile.close();
+            }
+            references.put(archiveUrl.toString(), files);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return urls;
+    }
+
+    private static String getFileName(ZipEntry entry) {
+        String entryName = entry.getName();
+        return Long.toHexString(entry.getCrc()) + "-" + entry.getSize() + "-"
+               + entryName.substring(entryName.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Creates the marker directory of this process and locks it, unless this has already
+     * been done.
+     */
+    private synchronized void lockRefsDir() throws IOException {
+        if (refsLock != null) {
+            return;
+        }
+        if (!refsDir.isDirectory() && !refsDir.mkdirs()) {
+            throw new IOException("Unable to create the directory " + refsDir);
+        }
+        // The lock is released when the process terminates
+        FileChannel channel = new RandomAccessFile(getLockFile(refsDir), "rw").getChannel();
+        refsLock = channel.lock();
+    }
+
+    private static File getLockFile(File refsDir) {
+        return new File(refsDir.getParentFile(), refsDir.getName() + ".lock");
+    }
+
+    private void mark(File file) throws IOException {
+        File marker = new File(refsDir, file.getName());
+        if (!marker.exists() && !marker.createNewFile() && !marker.exists()) {
+            throw new IOException("Unable to create " + marker);
+        }
+    }
+
+    private static boolean hasValidChecksum(File file, ZipEntry entry) {
+        try {
+            CheckedInputStream in = new CheckedInputStream(new FileInputStream(file),
+                                                           new CRC32());
+            try {
+                byte[] buffer = new byte[8192];
+                while (in.read(buffer) != -1) {
+                    // only the checksum is needed
+                }
+            } finally {
+                in.close();
+            }
+            return in.getChecksum().getValue() == entry.getCrc();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void getFile(ZipFile zipFile, ZipEntry entry, File file) throws IOException {
+        String entryName = entry.getName();
+        String name = file.getName();
+        if (file.isFile() && file.length() == entry.getSize() && hasValidChecksum(file, entry)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Using " + file + " for " + entryName + " in " + zipFile.getName());
+            }
+            return;
+        }
+
+        // Extract to a temporary file and rename it, so that an incomplete file is never used
+        File tmpFile = File.createTempFile(name, ".tmp", dir);
+        try {
+            CheckedInputStream in = new CheckedInputStream(zipFile.getInputStream(entry),
+                                                           new CRC32());
+            try {
+                OutputStream out = new FileOutputStream(tmpFile);
+                try {
+                    byte[] buffer = new byte[8192];
+                    int count;
+                    while ((count = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, count);
+                    }
+                } finally {
+                    out.close();
+                }
+            } finally {
+                in.close();
+            }
+            if (in.getChecksum().getValue() != entry.getCrc()) {
+                throw new IOException("CRC mismatch for " + entryName + " in "
+                                      + zipFile.getName());
+            }
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tmpFile.delete();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Extracted " + entryName + " in " + zipFile.getName() + " to " + file);
+        }
+    }
+
+    /**
+     * Removes the files that are not used by any archive of this process nor marked by another
+     * running process.  The archives that have been deleted since the cache returned their jars
+     * are forgotten first.
+     */
+    public void collectGarbage() {
+        lock.writeLock().lock();
+        try {
+            Set<File> referenced = new HashSet<File>();
+            for (Iterator<Map.Entry<String, Set<File>>> it = references.entrySet().iterator();
+                 it.hasNext();) {
+                Map.Entry<String, Set<File>> entry = it.next();
+                if (isDeleted(entry.getKey())) {
+                    it.remove();
+                } else {
+                    referenced.addAll(entry.getValue());
+                }
+            }
+            File[] files = dir.listFiles();
+            if (files == null) {
+                return;
+            }
+            // Forget the files this process no longer uses before looking at the markers
+            for (File file : files) {
+                if (!referenced.contains(file)) {
+                    new File(refsDir, file.getName()).delete();
+                }
+            }
+            Set<String> marked = getMarkedFiles();
+            long now = System.currentTimeMillis();
+            for (File file : files) {
+                if (referenced.contains(file) || marked.contains(file.getName())
+                        || file.getName().equals(REFS_DIR_NAME)) {
+                    continue;
+                }
+                if (file.getName().endsWith(".tmp")
+                        && now - file.lastModified() < INCOMPLETE_FILE_AGE) {
+                    // may be extracted by another process sharing the cache
+                    continue;
+                }
+                // This fails on some platforms if the file is still open, it will be retried
+                if (file.delete() && log.isDebugEnabled()) {
+                    log.debug("Removed " + file + " from the jar cache");
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the names of the files marked by the processes that are running, and removes the
+     * markers of the processes that have terminated.
+     */
+    private Set<String> getMarkedFiles() {
+        Set<String> marked = new HashSet<String>();
+        File[] processDirs = new File(dir, REFS_DIR_NAME).listFiles();
+        if (processDirs == null) {
+            return marked;
+        }
+        for (File processDir : processDirs) {
+            if (!processDir.isDirectory()) {
+                continue;
+            }
+            String[] names = processDir.list();
+            if (names == null) {
+                continue;
+            }
+            if (processDir.equals(refsDir) || isRunning(processDir)) {
+                marked.addAll(Arrays.asList(names));
+            } else {
+                for (String name : names) {
+                    new File(processDir, name).delete();
+                }
+                processDir.delete();
+                getLockFile(processDir).delete();
+                if (log.isDebugEnabled()) {
+                    log.debug("Removed the markers in " + processDir);
+                }
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Checks whether the process that owns a marker directory is running, i.e. whether it
+     * still holds the lock of the directory.
+     */
+    private static boolean isRunning(File processDir) {
+        File lockFile = getLockFile(processDir);
+        if (!lockFile.exists()) {
+            // The process may be about to create it
+            return true;
+        }
+        try {
+            FileChannel channel = new RandomAccessFile(lockFile, "rw").getChannel();
+            try {
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    return true;
+                }
+                lock.release();
+                return false;
+            } finally {
+                channel.close();
+            }
+        } catch (OverlappingFileLockException e) {
+            // Another cache of this process shares the directory
+            return true;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static boolean isDeleted(String archiveUrl) {
+        try {
+            URL url = new URL(archiveUrl);
+            return "file".equals(url.getProtocol()) && !Utils.toFile(url).exists();
+        } catch (MalformedURLException e) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
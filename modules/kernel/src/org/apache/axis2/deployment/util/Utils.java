@@ -47,6 +47,7 @@ import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.Loader;
 import org.apache.axis2.util.PolicyUtil;
 import org.apache.axis2.util.FaultyServiceData;
+import org.apache.axis2.util.StartupProfiler;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.axis2.wsdl.WSDLUtil;
 import org.apache.commons.io.FileUtils;
@@ -175,6 +176,14 @@ public class Utils {
                         });
                 array.add(f.toURI().toURL());
             }
+            NestedJarCache jarCache = NestedJarCache.getInstance(tmpDir);
+            if (jarCache != null) {
+                File archive = toFile(array.get(0));
+                if (archive.isFile()) {
+                    array.addAll(jarCache.getURLsForJars(url, archive));
+                    return array.toArray(new URL[array.size()]);
+                }
+            }
             zin = new ZipInputStream(in);
 
             ZipEntry entry;
@@ -436,7 +445,14 @@ public class Utils {
         }
         // package to namespace map
         schemaGenerator.setPkg2nsmap(axisService.getP2nMap());
-        Collection schemas = schemaGenerator.generateSchema();
+        Collection schemas;
+        StartupProfiler.Stage stage = StartupProfiler.start(
+                StartupProfiler.STAGE_SCHEMA_GENERATION, axisService.getName());
+        try {
+            schemas = schemaGenerator.generateSchema();
+        } finally {
+            stage.end();
+        }
         axisService.addSchema(schemas);
         axisService.setSchemaTargetNamespace(schemaGenerator
                 .getSchemaTargetNameSpace());
@@ -61,6 +61,7 @@ import org.apache.axis2.util.IOUtils;
 import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.Loader;
 import org.apache.axis2.util.LoggingControl;
+import org.apache.axis2.util.StartupProfiler;
 import org.apache.axis2.util.XMLPrettyPrinter;
 import org.apache.axis2.util.XMLUtils;
 import org.apache.axis2.wsdl.WSDLConstants;
@@ -98,9 +99,18 @@ import javax.wsdl.extensions.UnknownExtensibilityElement;
 import javax.wsdl.factory.WSDLFactory;
 import javax.wsdl.xml.WSDLReader;
 import javax.wsdl.xml.WSDLWriter;
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
-
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -120,6 +130,7 @@ import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -247,6 +258,12 @@ public class AxisService extends AxisDescription {
      */
     private Map schemaMappingTable = null;
 
+    /**
+     * The schema locations computed for the imports and includes of shared schemas (see
+     * {@link SchemaRegistry}), which are applied to the serialized schema when it is printed
+     */
+    private Map<XmlSchemaExternal, String> sharedSchemaLocations;
+
     /**
      * counter variable for naming the schemas
      */
@@ -827,13 +844,20 @@ public class AxisService extends AxisDescription {
      */
     public void onEngage(AxisModule axisModule, AxisDescription engager)
             throws AxisFault {
-        // adding module operations
-        addModuleOperations(axisModule);
+        // The phases of all the operations are resolved in a single stage
+        StartupProfiler.Stage stage = StartupProfiler.start(
+                StartupProfiler.STAGE_PHASE_RESOLUTION, getName() + "/" + axisModule.getName());
+        try {
+            // adding module operations
+            addModuleOperations(axisModule);
 
-        Iterator<AxisOperation> operations = getOperations();
-        while (operations.hasNext()) {
-            AxisOperation axisOperation = (AxisOperation) operations.next();
-            axisOperation.engageModule(axisModule, engager);
+            Iterator<AxisOperation> operations = getOperations();
+            while (operations.hasNext()) {
+                AxisOperation axisOperation = (AxisOperation) operations.next();
+                axisOperation.engageModule(axisModule, engager);
+            }
+        } finally {
+            stage.end();
         }
     }
 
@@ -1296,24 +1320,73 @@ public class AxisService extends AxisDescription {
         }
     }
 
-    private void updateSchemaLocation(XmlSchema schema) throws AxisFault {
-        for (XmlSchemaExternal xmlSchemaExternal : schema.getExternals()) {
-            XmlSchema s = xmlSchemaExternal.getSchema();
-            updateSchemaLocation(s, xmlSchemaExternal);
+    /**
+     * Writes a schema with some of its schema locations replaced.  The locations are replaced
+     * in a serialized copy of the schema, so that the schema itself, which may be shared with
+     * other services, is not modified.
+     *
+     * @param locations the new locations of the imports and includes of the schema, or null
+     */
+    private static void writeSchema(XmlSchema schema, Map<XmlSchemaExternal, String> locations,
+                                    OutputStream out) throws IOException {
+        Map<String, String> newLocations = new HashMap<String, String>();
+        if (locations != null) {
+            for (XmlSchemaExternal external : schema.getExternals()) {
+                String location = locations.get(external);
+                if (location != null && external.getSchemaLocation() != null) {
+                    newLocations.put(external.getSchemaLocation(), location);
+                }
+            }
+        }
+        if (newLocations.isEmpty()) {
+            schema.write(new OutputStreamWriter(out, "UTF8"));
+            return;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        schema.write(buffer);
+        try {
+            Document document = XMLUtils.newDocument(
+                    new ByteArrayInputStream(buffer.toByteArray()));
+            for (Node node = document.getDocumentElement().getFirstChild(); node != null;
+                 node = node.getNextSibling()) {
+                if (node instanceof Element
+                        && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(node.getNamespaceURI())) {
+                    Element element = (Element)node;
+                    String location = newLocations.get(element.getAttribute("schemaLocation"));
+                    if (location != null) {
+                        element.setAttribute("schemaLocation", location);
+                    }
+                }
+            }
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            transformer.transform(new DOMSource(document), new StreamResult(out));
+        } catch (ParserConfigurationException e) {
+            throw AxisFault.makeFault(e);
+        } catch (SAXException e) {
+            throw AxisFault.makeFault(e);
+        } catch (TransformerException e) {
+            throw AxisFault.makeFault(e);
         }
     }
 
-    private void updateSchemaLocation(XmlSchema s, XmlSchemaExternal xmlSchemaExternal) throws AxisFault {
-        if (s != null) {
+    /**
+     * Computes the locations under which the schemas imported or included by a schema provided
+     * by a {@link SchemaSupplier} are served by this service.
+     */
+    private Map<XmlSchemaExternal, String> getSupplierSchemaLocations(XmlSchema schema) {
+        Map<XmlSchemaExternal, String> locations =
+                new IdentityHashMap<XmlSchemaExternal, String>();
+        for (XmlSchemaExternal xmlSchemaExternal : schema.getExternals()) {
             String schemaLocation = xmlSchemaExternal.getSchemaLocation();
-
-            if (schemaLocation.indexOf("://") == -1 && schemaLocation.indexOf("?xsd=") == -1) {
-                String newscheamlocation = this.getServiceEPR() + "?xsd=" + schemaLocation;
-                xmlSchemaExternal.setSchemaLocation(newscheamlocation);
+            if (xmlSchemaExternal.getSchema() != null && schemaLocation.indexOf("://") == -1
+                    && schemaLocation.indexOf("?xsd=") == -1) {
+                locations.put(xmlSchemaExternal, this.getServiceEPR() + "?xsd=" + schemaLocation);
             }
         }
+        return locations;
     }
-       
+
     private void processImport(Node importNode) throws AxisFault {
         NamedNodeMap nodeMap = importNode.getAttributes();
         Node attribute;
@@ -1372,8 +1445,7 @@ public class AxisService extends AxisDescription {
         if (supplier != null) {
             XmlSchema schema = supplier.getSchema(this, xsd);
             if (schema != null) {
-                updateSchemaLocation(schema);
-                schema.write(new OutputStreamWriter(out, "UTF8"));
+                writeSchema(schema, getSupplierSchemaLocations(schema), out);
                 out.flush();
                 return 1;
             }
@@ -1397,7 +1469,7 @@ public class AxisService extends AxisDescription {
             }
             if (schema != null) {
                 // schema is there - pump it outs
-                schema.write(new OutputStreamWriter(out, "UTF8"));
+                writeSchema(schema, sharedSchemaLocations, out);
                 out.flush();
             } else {
                 // make sure we are only serving .xsd files and ignore requests with
@@ -2875,10 +2947,11 @@ public class AxisService extends AxisDescription {
      */
     private void adjustSchemaName(XmlSchema parentSchema, Hashtable nameTable,
                                   Hashtable importedScheams, Hashtable sourceURIToNewLocationMap) {
+        boolean shared = SchemaRegistry.isShared(parentSchema);
         for (XmlSchemaExternal xmlSchemaExternal : parentSchema.getExternals()) {
             XmlSchema s = xmlSchemaExternal.getSchema();
             adjustSchemaLocation(s, xmlSchemaExternal, nameTable,
-                                 importedScheams, sourceURIToNewLocationMap);
+                                 importedScheams, sourceURIToNewLocationMap, shared);
         }
     }
 
@@ -2891,7 +2964,8 @@ public class AxisService extends AxisDescription {
      */
     private void adjustSchemaLocation(XmlSchema s,
                                       XmlSchemaExternal xmlSchemaExternal, Hashtable nameTable,
-                                      Hashtable importedScheams, Hashtable sourceURIToNewLocationMap) {
+                                      Hashtable importedScheams, Hashtable sourceURIToNewLocationMap,
+                                      boolean shared) {
         if (s != null) {
             String schemaLocation = xmlSchemaExternal.getSchemaLocation();
 
@@ -2903,7 +2977,15 @@ public class AxisService extends AxisDescription {
                     // custom prefix is present - add the custom prefix
                     (customSchemaNamePrefix + getScheamLocationWithDot(
                             sourceURIToNewLocationMap, s));
-            xmlSchemaExternal.setSchemaLocation(newscheamlocation);
+            if (shared) {
+                // the schema is shared with other services and must not be modified
+                if (sharedSchemaLocations == null) {
+                    sharedSchemaLocations = new IdentityHashMap<XmlSchemaExternal, String>();
+                }
+                sharedSchemaLocations.put(xmlSchemaExternal, newscheamlocation);
+            } else {
+                xmlSchemaExternal.setSchemaLocation(newscheamlocation);
+            }
             importedScheams.put(schemaLocation, newscheamlocation);
         }
     }
@@ -409,6 +409,11 @@ class OutInAxisOperationClient extends OperationClient {
 
         responseMessageContext.setProperty(MessageContext.TRANSPORT_IN, msgContext
                 .getProperty(MessageContext.TRANSPORT_IN));
+        SOAPEnvelope inVMEnvelope =
+                (SOAPEnvelope) msgContext.getProperty(MessageContext.TRANSPORT_IN_ENVELOPE);
+        if (inVMEnvelope != null) {
+            responseMessageContext.setEnvelope(inVMEnvelope);
+        }
         responseMessageContext.setTransportIn(msgContext.getTransportIn());
         responseMessageContext.setTransportOut(msgContext.getTransportOut());
         handleResponse(responseMessageContext);
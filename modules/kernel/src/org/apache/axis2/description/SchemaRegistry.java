@@ -0,0 +1,401 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import org.apache.axiom.om.util.StAXUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaCollection;
+import org.apache.ws.commons.schema.constants.Constants;
+import org.apache.ws.commons.schema.resolver.CollectionURIResolver;
+import org.apache.ws.commons.schema.resolver.DefaultURIResolver;
+import org.apache.ws.commons.schema.resolver.URIResolver;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares the schemas imported or included by the schemas of different services.
+ * <p/>
+ * The schemas of a service are read with {@link #read(Element, String, URIResolver)}.  Each
+ * imported or included schema document is identified by its target namespace and a digest of
+ * its content and of the content of the documents it imports or includes in turn.  The first
+ * time a document is seen it is read into a collection of its own, and every service that
+ * imports the same document then references that XmlSchema instance instead of reading its own
+ * copy.  Instances that are no longer referenced by any service are released.
+ * <p/>
+ * Shared schemas must not be modified.  AxisService keeps the schema locations it computes for
+ * a shared schema and applies them only while writing it.  Chameleon includes (documents without
+ * a target namespace included by a schema that has one) are not shared, because their content
+ * depends on the including schema.
+ * <p/>
+ * The registry is enabled by the {@link org.apache.axis2.Constants.Configuration#SHARED_SCHEMAS}
+ * parameter and is obtained from {@link org.apache.axis2.engine.AxisConfiguration#getSchemaRegistry()}.
+ */
+public class SchemaRegistry {
+    private static final Log log = LogFactory.getLog(SchemaRegistry.class);
+
+    /** The collections the shared schemas have been read into */
+    private static final Set<XmlSchemaCollection> sharedCollections = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<XmlSchemaCollection, Boolean>()));
+
+    /** The shared schemas, keyed by target namespace and digest */
+    private final Map<String, WeakReference<XmlSchema>> schemas =
+            new ConcurrentHashMap<String, WeakReference<XmlSchema>>();
+
+    /**
+     * Reads a schema of a service.  The schemas it imports or includes are taken from the
+     * registry when possible.
+     *
+     * @param element  the schema element
+     * @param baseUri  the base URI of the schema, or null
+     * @param resolver the resolver of the service, or null to use the default resolver
+     * @return the schema, which belongs to the service
+     */
+    public XmlSchema read(Element element, String baseUri, URIResolver resolver) {
+        XmlSchemaCollection collection = new XmlSchemaCollection();
+        Context context = new Context(resolver == null ? new DefaultURIResolver() : resolver);
+        collection.setSchemaResolver(new Resolver(context, collection));
+        if (baseUri != null) {
+            collection.setBaseUri(baseUri);
+        }
+        return collection.read(element);
+    }
+
+    /**
+     * Checks whether a schema is shared by the services that import it.  Such a schema must
+     * not be modified.
+     */
+    public static boolean isShared(XmlSchema schema) {
+        return schema != null && sharedCollections.contains(schema.getParent());
+    }
+
+    /**
+     * @return the number of shared schemas that are still in use
+     */
+    public int size() {
+        int size = 0;
+        for (Iterator<WeakReference<XmlSchema>> it = schemas.values().iterator(); it.hasNext();) {
+            if (it.next().get() == null) {
+                it.remove();
+            } else {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get the shared schema of a document, reading it if it is not in the registry yet.
+     *
+     * @return the schema, or null if the document must be read by the service itself
+     */
+    private XmlSchema getSchema(Context context, Document document) {
+        String key = document.getKey(context);
+        WeakReference<XmlSchema> reference = schemas.get(key);
+        XmlSchema schema = reference == null ? null : reference.get();
+        if (schema != null) {
+            return schema;
+        }
+        if (!context.inProgress.add(key)) {
+            // The document imports itself, directly or indirectly
+            return null;
+        }
+        try {
+            XmlSchemaCollection collection = new XmlSchemaCollection();
+            collection.setSchemaResolver(new Resolver(context, collection));
+            schema = collection.read(document.getInputSource());
+            sharedCollections.add(collection);
+        } finally {
+            context.inProgress.remove(key);
+        }
+        synchronized (schemas) {
+            reference = schemas.get(key);
+            XmlSchema existing = reference == null ? null : reference.get();
+            if (existing != null) {
+                // read concurrently by another service
+                return existing;
+            }
+            schemas.put(key, new WeakReference<XmlSchema>(schema));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Sharing the schema " + document.systemId + " for namespace "
+                      + document.targetNamespace);
+        }
+        return schema;
+    }
+
+    /**
+     * The state of the read of the schemas of a service.
+     */
+    private static class Context {
+        final URIResolver delegate;
+        /** The documents resolved so far, keyed by system id */
+        final Map<String, Document> documents = new HashMap<String, Document>();
+        /** The keys of the shared schemas being read */
+        final Set<String> inProgress = new HashSet<String>();
+        String collectionBaseUri;
+
+        Context(URIResolver delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Resolves a document with the resolver of the service.
+         *
+         * @return the document, or null if it cannot be resolved
+         */
+        Document resolve(String targetNamespace, String schemaLocation, String baseUri) {
+            if (delegate instanceof CollectionURIResolver) {
+                ((CollectionURIResolver)delegate).setCollectionBaseURI(collectionBaseUri);
+            }
+            InputSource source = delegate.resolveEntity(targetNamespace, schemaLocation, baseUri);
+            if (source == null) {
+                return null;
+            }
+            String systemId = source.getSystemId() == null ? schemaLocation : source.getSystemId();
+            Document document = documents.get(systemId);
+            if (document == null) {
+                document = new Document(systemId, source.getPublicId(), read(source, systemId));
+                documents.put(systemId, document);
+            }
+            return document;
+        }
+
+        private static byte[] read(InputSource source, String systemId) {
+            if (source.getCharacterStream() != null) {
+                return null;
+            }
+            try {
+                InputStream in = source.getByteStream();
+                if (in == null) {
+                    in = new URL(systemId).openStream();
+                }
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[4096];
+                    int count;
+                    while ((count = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, count);
+                    }
+                    return out.toByteArray();
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Cannot read " + systemId + ", it will not be shared", e);
+                }
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A schema document, read into memory so that its digest can be computed.
+     */
+    private static class Document {
+        final String systemId;
+        final String publicId;
+        /** The content, or null if the document cannot be shared */
+        final byte[] content;
+        String targetNamespace;
+        /** The schemaLocation and namespace of the imports and includes */
+        final List<String[]> externals = new ArrayList<String[]>();
+        private String key;
+
+        Document(String systemId, String publicId, byte[] content) {
+            this.systemId = systemId;
+            this.publicId = publicId;
+            this.content = content == null ? null : scan(content) ? content : null;
+        }
+
+        /**
+         * Reads the target namespace and the externals of the document.
+         *
+         * @return false if the document is not a schema
+         */
+        private boolean scan(byte[] content) {
+            try {
+                XMLStreamReader reader = StAXUtils.createXMLStreamReader(
+                        new ByteArrayInputStream(content));
+                try {
+                    int depth = 0;
+                    while (reader.hasNext()) {
+                        int event = reader.next();
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                            depth++;
+                            if (depth == 1) {
+                                if (!Constants.URI_2001_SCHEMA_XSD.equals(
+                                        reader.getNamespaceURI())) {
+                                    return false;
+                                }
+                                targetNamespace = reader.getAttributeValue(null, "targetNamespace");
+                            } else if (depth == 2 && Constants.URI_2001_SCHEMA_XSD.equals(
+                                    reader.getNamespaceURI())) {
+                                String localName = reader.getLocalName();
+                                String location = reader.getAttributeValue(null, "schemaLocation");
+                                if (location == null) {
+                                    continue;
+                                }
+                                if ("import".equals(localName)) {
+                                    externals.add(new String[] {
+                                            location, reader.getAttributeValue(null, "namespace") });
+                                } else if ("include".equals(localName)
+                                        || "redefine".equals(localName)) {
+                                    externals.add(new String[] { location, targetNamespace });
+                                }
+                            }
+                        } else if (event == XMLStreamConstants.END_ELEMENT) {
+                            depth--;
+                        }
+                    }
+                    return true;
+                } finally {
+                    reader.close();
+                }
+            } catch (XMLStreamException e) {
+                return false;
+            }
+        }
+
+        boolean isShareable(String requestedNamespace) {
+            return content != null && normalize(targetNamespace).equals(
+                    normalize(requestedNamespace));
+        }
+
+        InputSource getInputSource() {
+            InputSource source = new InputSource(new ByteArrayInputStream(content));
+            source.setSystemId(systemId);
+            source.setPublicId(publicId);
+            return source;
+        }
+
+        /**
+         * Get the key of the document in the registry, which covers the documents it imports
+         * or includes.
+         */
+        String getKey(Context context) {
+            if (key == null) {
+                MessageDigest digest;
+                try {
+                    digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+                update(digest, context, new HashSet<String>());
+                StringBuilder buffer = new StringBuilder(normalize(targetNamespace)).append('#');
+                for (byte b : digest.digest()) {
+                    buffer.append(Character.forDigit((b >> 4) & 0xF, 16))
+                            .append(Character.forDigit(b & 0xF, 16));
+                }
+                key = buffer.toString();
+            }
+            return key;
+        }
+
+        private void update(MessageDigest digest, Context context, Set<String> visiting) {
+            visiting.add(systemId);
+            digest.update(content);
+            for (String[] external : externals) {
+                digest.update(external[0].getBytes(StandardCharsets.UTF_8));
+                Document document = context.resolve(external[1], external[0], systemId);
+                if (document == null || document.content == null) {
+                    digest.update((byte)0);
+                } else if (visiting.contains(document.systemId)) {
+                    digest.update((byte)1);
+                } else {
+                    document.update(digest, context, visiting);
+                }
+            }
+            visiting.remove(systemId);
+        }
+
+        private static String normalize(String namespace) {
+            return namespace == null ? "" : namespace;
+        }
+    }
+
+    /**
+     * The resolver of a collection.  It resolves a shareable document to the shared schema
+     * through the known namespace map of the collection, and any other document to its content.
+     */
+    private class Resolver implements CollectionURIResolver {
+        private final Context context;
+        private final Map<String, XmlSchema> knownSchemas = new HashMap<String, XmlSchema>();
+
+        Resolver(Context context, XmlSchemaCollection collection) {
+            this.context = context;
+            collection.setKnownNamespaceMap(knownSchemas);
+        }
+
+        public InputSource resolveEntity(String targetNamespace, String schemaLocation,
+                                         String baseUri) {
+            // XmlSchema looks up the known namespace map when the resolver returns null
+            knownSchemas.remove(targetNamespace);
+            Document document = context.resolve(targetNamespace, schemaLocation, baseUri);
+            if (document == null) {
+                return null;
+            }
+            if (!document.isShareable(targetNamespace)) {
+                return document.content == null
+                        ? context.delegate.resolveEntity(targetNamespace, schemaLocation, baseUri)
+                        : document.getInputSource();
+            }
+            XmlSchema schema = getSchema(context, document);
+            if (schema == null) {
+                return document.getInputSource();
+            }
+            knownSchemas.put(targetNamespace, schema);
+            return null;
+        }
+
+        public void setCollectionBaseURI(String uri) {
+            context.collectionBaseUri = uri;
+        }
+
+        public String getCollectionBaseURI() {
+            return context.collectionBaseUri;
+        }
+    }
+}
@@ -87,6 +87,7 @@ public abstract class WSDLToAxisServiceBuilder {
     protected boolean isServerSide = true;
     protected String style = null;
     private URIResolver customResolver;
+    private SchemaRegistry schemaRegistry;
     private String baseUri = null;
     protected static final String TYPES = "Types";
 
@@ -119,6 +120,16 @@ public abstract class WSDLToAxisServiceBuilder {
         this.customResolver = customResolver;
     }
 
+    /**
+     * Sets the registry that shares the schemas imported by the schemas of the WSDL with
+     * other services.
+     *
+     * @param schemaRegistry the registry, or null to read all the schemas
+     */
+    public void setSchemaRegistry(SchemaRegistry schemaRegistry) {
+        this.schemaRegistry = schemaRegistry;
+    }
+
     public boolean isServerSide() {
         return isServerSide;
     }
@@ -133,6 +144,9 @@ public abstract class WSDLToAxisServiceBuilder {
     }
 
     protected XmlSchema getXMLSchema(Element element, String baseUri) {
+        if (schemaRegistry != null) {
+            return schemaRegistry.read(element, baseUri, customResolver);
+        }
         XmlSchemaCollection schemaCollection = new XmlSchemaCollection();
 
         if (baseUri != null) {
@@ -26,6 +26,7 @@ import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
@@ -46,6 +47,7 @@ import org.apache.axis2.clustering.ClusteringAgent;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.dataretrieval.AxisDataLocator;
 import org.apache.axis2.deployment.DeploymentException;
+import org.apache.axis2.deployment.LazyServiceActivator;
 import org.apache.axis2.deployment.ModuleDeployer;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.util.PhasesInfo;
@@ -57,6 +59,7 @@ import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
 import org.apache.axis2.description.ModuleConfiguration;
 import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.SchemaRegistry;
 import org.apache.axis2.description.TransportInDescription;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.description.Version;
@@ -112,6 +115,11 @@ public class AxisConfiguration extends AxisDescription {
 
     private Map<String, AxisService> allServices = new ConcurrentHashMap<String, AxisService>();
     private Map<String, AxisService> allEndpoints = new ConcurrentHashMap<String, AxisService>();
+    // Stubs of the service groups registered for lazy activation, keyed by service name
+    private final Map<String, LazyServiceActivator> lazyServices =
+            new ConcurrentHashMap<String, LazyServiceActivator>();
+    // Schemas shared by the services, created when first requested
+    private SchemaRegistry schemaRegistry;
 
     /**
      * Stores the module specified in the server.xml at the document parsing time.
@@ -971,6 +979,22 @@ public class AxisConfiguration extends AxisDescription {
      * @return an AxisService if found, or null
      */
     public AxisService getService(String name) throws AxisFault {
+        AxisService axisService = findService(name);
+        if (!lazyServices.isEmpty()) {
+            LazyServiceActivator activator = getLazyService(name);
+            if (activator != null) {
+                if (axisService == null) {
+                    activator.activate();
+                    axisService = findService(name);
+                } else {
+                    activator.touch();
+                }
+            }
+        }
+        return axisService;
+    }
+
+    private AxisService findService(String name) throws AxisFault {
         AxisService axisService = allServices.get(name);
         if (axisService != null) {
             if (axisService.isActive()) {
@@ -993,6 +1017,102 @@ public class AxisConfiguration extends AxisDescription {
         return null;
     }
 
+    /**
+     * Registers the stub of a service group that is activated when one of its services is
+     * first looked up with {@link #getService(String)}.
+     *
+     * @param activator the stub of the service group
+     */
+    public void addLazyService(LazyServiceActivator activator) {
+        for (String serviceName : activator.getServiceNames()) {
+            lazyServices.put(serviceName, activator);
+        }
+    }
+
+    /**
+     * Removes the stub of a service group registered for lazy activation.  The service group
+     * itself is not removed if it has been activated.
+     *
+     * @param serviceGroupName name of the service group
+     * @return the removed stub, or null if there was none
+     */
+    public LazyServiceActivator removeLazyServiceGroup(String serviceGroupName) {
+        LazyServiceActivator removed = null;
+        for (Iterator<LazyServiceActivator> it = lazyServices.values().iterator(); it.hasNext();) {
+            LazyServiceActivator activator = it.next();
+            if (activator.getServiceGroupName().equals(serviceGroupName)) {
+                it.remove();
+                removed = activator;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return the stubs of the service groups registered for lazy activation
+     */
+    public Set<LazyServiceActivator> getLazyServiceGroups() {
+        return new HashSet<LazyServiceActivator>(lazyServices.values());
+    }
+
+    /**
+     * Activates the service group of a service registered for lazy activation, if it has not
+     * been activated yet.  Code that looks up services with {@link #getServices()} (to serve
+     * ?wsdl requests, for example) should call this first.
+     *
+     * @param name the name of the service, or of one of its endpoints
+     * @return true if the service was registered for lazy activation
+     * @throws AxisFault if the service group cannot be deployed
+     */
+    public boolean activateLazyService(String name) throws AxisFault {
+        if (lazyServices.isEmpty()) {
+            return false;
+        }
+        LazyServiceActivator activator = getLazyService(name);
+        if (activator == null) {
+            return false;
+        }
+        activator.activate();
+        activator.touch();
+        return true;
+    }
+
+    /**
+     * Get the registry of the schemas shared by the services.
+     *
+     * @return the registry, or null if the
+     *         {@link org.apache.axis2.Constants.Configuration#SHARED_SCHEMAS} parameter is not
+     *         set to true
+     */
+    public synchronized SchemaRegistry getSchemaRegistry() {
+        if (schemaRegistry == null && JavaUtils.isTrueExplicitly(
+                getParameterValue(Constants.Configuration.SHARED_SCHEMAS))) {
+            schemaRegistry = new SchemaRegistry();
+        }
+        return schemaRegistry;
+    }
+
+    /**
+     * Get the stub of the service group of a service registered for lazy activation.
+     *
+     * @param name the name of the service, or of one of its endpoints
+     * @return the stub, or null if the service is not registered for lazy activation
+     */
+    public LazyServiceActivator getLazyService(String name) {
+        if (lazyServices.isEmpty()) {
+            return null;
+        }
+        LazyServiceActivator activator = lazyServices.get(name);
+        if (activator == null) {
+            // May be the name of an endpoint (serviceName.endpointName)
+            int index = name.lastIndexOf('.');
+            if (index > 0) {
+                activator = lazyServices.get(name.substring(0, index));
+            }
+        }
+        return activator;
+    }
+
     /**
      * Service can start and stop, once stopped it cannot be accessed, so we
      * need a way to get the service even if service is not active.
@@ -1383,6 +1503,7 @@ public class AxisConfiguration extends AxisDescription {
         this.allEndpoints.clear();
         this.allModules.clear();
         this.allServices.clear();
+        this.lazyServices.clear();
         this.outPhases.clear();
         this.messageReceivers.clear();
         this.targetResolvers.clear();
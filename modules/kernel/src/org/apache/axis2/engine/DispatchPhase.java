@@ -31,6 +31,7 @@ import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.context.ServiceGroupContext;
 import org.apache.axis2.context.SessionContext;
+import org.apache.axis2.deployment.LazyServiceActivator;
 import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
@@ -53,6 +54,13 @@ import java.util.List;
 public class DispatchPhase extends Phase {
     private static final Log log = LogFactory.getLog(DispatchPhase.class);
 
+    /**
+     * Message context property holding the {@link LazyServiceActivator} acquired for the
+     * message, if the service is registered for lazy activation.
+     */
+    private static final String LAZY_SERVICE_ACTIVATOR =
+            DispatchPhase.class.getName() + ".lazyServiceActivator";
+
     public DispatchPhase() {
     }
 
@@ -61,6 +69,43 @@ public class DispatchPhase extends Phase {
     }
     
     
+    /**
+     * Make sure that a service group registered for lazy activation is not passivated while the
+     * message is processed.  If the group has been passivated since the service was looked up,
+     * it is activated again and the message is dispatched to the new service instance.
+     * 
+     * @return the service to dispatch the message to
+     */
+    private AxisService acquire(MessageContext msgContext, LazyServiceActivator activator,
+                                AxisService service) throws AxisFault {
+        if (!activator.acquire()) {
+            String name = service.getName();
+            AxisService newService = msgContext.getConfigurationContext().getAxisConfiguration()
+                    .getService(name);
+            if (newService == null || !activator.acquire()) {
+                throw new AxisFault(Messages.getMessage("serviceinactive", name));
+            }
+            msgContext.setAxisService(newService);
+            AxisOperation operation = msgContext.getAxisOperation();
+            if (operation != null) {
+                msgContext.setAxisOperation(newService.getOperation(operation.getName()));
+            }
+            service = newService;
+        }
+        msgContext.setProperty(LAZY_SERVICE_ACTIVATOR, activator);
+        return service;
+    }
+
+    public void flowComplete(MessageContext msgContext) {
+        super.flowComplete(msgContext);
+        LazyServiceActivator activator =
+                (LazyServiceActivator) msgContext.getLocalProperty(LAZY_SERVICE_ACTIVATOR);
+        if (activator != null) {
+            msgContext.removeProperty(LAZY_SERVICE_ACTIVATOR);
+            activator.release();
+        }
+    }
+
     private Boolean getDisableAck(MessageContext msgContext) throws AxisFault {
     
        // We should send an early ack to the transport whever possible, but some modules need
@@ -88,6 +133,16 @@ public class DispatchPhase extends Phase {
         AxisService service = msgContext.getAxisService();
         AxisOperation operation = msgContext.getAxisOperation();
         
+        ConfigurationContext configCtx = msgContext.getConfigurationContext();
+        if (configCtx != null) {
+            LazyServiceActivator activator =
+                    configCtx.getAxisConfiguration().getLazyService(service.getName());
+            if (activator != null) {
+                service = acquire(msgContext, activator, service);
+                operation = msgContext.getAxisOperation();
+            }
+        }
+        
         // If operation is an excluded operation, throw an exception.
         // This code is needed to enable exclude operations for static WSDL files. 
         // Without this code, if one specifies excludeOperations in services.xml
@@ -0,0 +1,521 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util;
+
+import org.apache.axis2.java.security.AccessController;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records the time spent in the stages of the creation of a configuration context: building the
+ * AxisConfiguration from axis2.xml, deploying each module and service, processing WSDLs,
+ * generating schemas, engaging modules to services (which resolves the phases of their
+ * operations) and starting the services.  Each stage also records the number of classes loaded
+ * and the change of the used heap while it ran.  Both are JVM wide, so they include the activity
+ * of other threads and of the garbage collector.
+ * <p/>
+ * The profiler is enabled by setting the {@link #REPORT_PROPERTY} system property to the path of
+ * the report file.  The stages are recorded from the start to the end of
+ * {@link org.apache.axis2.context.ConfigurationContextFactory#createConfigurationContext}; the
+ * report is then written as a JSON document and a summary is logged.  Each configuration context
+ * has its own recording and report: the report of the first context is written to the configured
+ * path, and the reports of the following ones (e.g. the context created by a
+ * {@link org.apache.axis2.client.ServiceClient} without a context) to the same path with a
+ * sequence number appended to the file name.  If the JVM supports Java
+ * Flight Recorder, each stage is also emitted as an <code>org.apache.axis2.StartupStage</code>
+ * event, which shows the stages on the timeline of a flight recording.
+ * <p/>
+ * Stages are recorded with:
+ * <pre>
+ * StartupProfiler.Stage stage = StartupProfiler.start(StartupProfiler.STAGE_WSDL, fileName);
+ * try {
+ *     ...
+ * } finally {
+ *     stage.end();
+ * }
+ * </pre>
+ * When the profiler is disabled, {@link #start(String, String)} returns a stage that does
+ * nothing.  Stages started by a thread other than the one creating the configuration context
+ * must be given their parent explicitly with {@link #start(String, String, Stage)}.
+ */
+public class StartupProfiler {
+    private static final Log log = LogFactory.getLog(StartupProfiler.class);
+
+    /** System property that enables the profiler and sets the path of the report file */
+    public static final String REPORT_PROPERTY = "org.apache.axis2.startupReport";
+
+    public static final String STAGE_STARTUP = "startup";
+    public static final String STAGE_AXIS_CONFIGURATION = "axisConfiguration";
+    public static final String STAGE_AXIS2_XML = "axis2.xml";
+    public static final String STAGE_LOAD_REPOSITORY = "loadRepository";
+    public static final String STAGE_INIT = "init";
+    public static final String STAGE_MODULE_INIT = "moduleInit";
+    public static final String STAGE_ENGAGE_GLOBAL_MODULES = "engageGlobalModules";
+    public static final String STAGE_LOAD_SERVICES = "loadServices";
+    public static final String STAGE_PREPARE = "prepare";
+    public static final String STAGE_WSDL = "wsdl";
+    public static final String STAGE_SCHEMA_GENERATION = "schemaGeneration";
+    public static final String STAGE_PHASE_RESOLUTION = "phaseResolution";
+    public static final String STAGE_START_UP = "startUp";
+
+    private static final Stage NO_STAGE = new Stage(null, null, null, null, null);
+
+    private static final Recording NO_RECORDING = new Recording(null, null);
+
+    private static final StartupProfiler instance = createInstance();
+
+    private final File reportFile;
+    private final JfrEventType jfrEventType;
+    private final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+    private final ThreadLocal<Stage> currentStage = new ThreadLocal<Stage>();
+    private final AtomicInteger recordingCount = new AtomicInteger();
+
+    /**
+     * @param reportFile the file to which the report is written
+     * @param jfr        whether to emit flight recorder events, if they are supported
+     */
+    StartupProfiler(File reportFile, boolean jfr) {
+        this.reportFile = reportFile;
+        jfrEventType = jfr ? JfrEventType.create() : null;
+    }
+
+    private static StartupProfiler createInstance() {
+        String path = AccessController.doPrivileged(new PrivilegedAction<String>() {
+            public String run() {
+                return System.getProperty(REPORT_PROPERTY);
+            }
+        });
+        if (path == null || path.length() == 0) {
+            return null;
+        }
+        log.info("Recording the startup stages to " + path);
+        return new StartupProfiler(new File(path), true);
+    }
+
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    /**
+     * Starts a stage.  The stage started last by the current thread, and not ended yet, is the
+     * parent of the new stage.  If the current thread isn't recording, the stage does nothing.
+     *
+     * @param stage the kind of stage, e.g. {@link #STAGE_WSDL}
+     * @param name  the module, service or file the stage is about, or null
+     * @return the stage, which must be ended by the thread that started it
+     */
+    public static Stage start(String stage, String name) {
+        StartupProfiler profiler = instance;
+        return profiler == null ? NO_STAGE : profiler.startStage(stage, name);
+    }
+
+    /**
+     * Starts a stage with the given parent, which may have been started by another thread.  This
+     * is used by tasks that run on behalf of a stage in a pool of threads.
+     *
+     * @param stage  the kind of stage, e.g. {@link #STAGE_PREPARE}
+     * @param name   the module, service or file the stage is about, or null
+     * @param parent the parent stage, as returned by {@link #current()}
+     * @return the stage, which must be ended by the thread that started it
+     */
+    public static Stage start(String stage, String name, Stage parent) {
+        StartupProfiler profiler = instance;
+        return profiler == null ? NO_STAGE : profiler.startStage(stage, name, parent);
+    }
+
+    /**
+     * @return the stage started last by the current thread, and not ended yet, or a stage that
+     *         does nothing if there is none
+     */
+    public static Stage current() {
+        StartupProfiler profiler = instance;
+        Stage stage = profiler == null ? null : profiler.currentStage.get();
+        return stage == null ? NO_STAGE : stage;
+    }
+
+    /**
+     * Starts recording the stages of a configuration context.  The stages started by the current
+     * thread until the recording is stopped are part of this recording.  A recording started
+     * while another one is in progress (e.g. a configuration context created by a service while
+     * it starts up) is separate from it and has its own report.
+     *
+     * @return the recording, which must be stopped by the thread that started it
+     */
+    public static Recording startRecording() {
+        StartupProfiler profiler = instance;
+        return profiler == null ? NO_RECORDING : profiler.record();
+    }
+
+    Recording record() {
+        Recording recording = new Recording(this, getReportFile(recordingCount.incrementAndGet()));
+        recording.root = new Stage(this, recording, STAGE_STARTUP, null, null);
+        begin(recording.root);
+        return recording;
+    }
+
+    /**
+     * @param index the number of the recording, starting at 1
+     * @return the report file of the recording
+     */
+    File getReportFile(int index) {
+        if (index == 1) {
+            return reportFile;
+        }
+        String fileName = reportFile.getName();
+        int dot = fileName.lastIndexOf('.');
+        if (dot <= 0) {
+            fileName = fileName + "-" + index;
+        } else {
+            fileName = fileName.substring(0, dot) + "-" + index + fileName.substring(dot);
+        }
+        return new File(reportFile.getParentFile(), fileName);
+    }
+
+    Stage startStage(String stage, String name) {
+        return startStage(stage, name, currentStage.get());
+    }
+
+    Stage startStage(String stage, String name, Stage parent) {
+        if (parent == null || parent.recording == null) {
+            return NO_STAGE;
+        }
+        Stage started = new Stage(this, parent.recording, stage, name, parent);
+        begin(started);
+        return started;
+    }
+
+    private void begin(Stage stage) {
+        stage.recording.add(stage);
+        stage.previous = currentStage.get();
+        currentStage.set(stage);
+        stage.begin();
+    }
+
+    /** Logs the total time of each kind of stage, in decreasing order */
+    private static void logSummary(List<Stage> recorded) {
+        StringBuilder summary = new StringBuilder("Startup took ")
+                .append(formatMillis(recorded.get(0).duration)).append(" ms:");
+        for (Map.Entry<String, long[]> entry : summarize(recorded)) {
+            summary.append("\n  ").append(entry.getKey()).append(": ")
+                    .append(formatMillis(entry.getValue()[1])).append(" ms (")
+                    .append(entry.getValue()[0]).append(")");
+        }
+        log.info(summary);
+    }
+
+    /**
+     * @return the count and total duration of each kind of stage, by decreasing duration
+     */
+    private static List<Map.Entry<String, long[]>> summarize(List<Stage> recorded) {
+        Map<String, long[]> totals = new LinkedHashMap<String, long[]>();
+        for (Stage stage : recorded.subList(1, recorded.size())) {
+            long[] total = totals.get(stage.stage);
+            if (total == null) {
+                total = new long[2];
+                totals.put(stage.stage, total);
+            }
+            total[0]++;
+            total[1] += stage.duration;
+        }
+        List<Map.Entry<String, long[]>> entries =
+                new ArrayList<Map.Entry<String, long[]>>(totals.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, long[]>>() {
+            public int compare(Map.Entry<String, long[]> e1, Map.Entry<String, long[]> e2) {
+                return Long.compare(e2.getValue()[1], e1.getValue()[1]);
+            }
+        });
+        return entries;
+    }
+
+    static void writeReport(List<Stage> recorded, long startTime, Writer out)
+            throws IOException {
+        Stage startup = recorded.get(0);
+        out.write("{\n  \"startTime\": " + startTime);
+        out.write(",\n  \"duration\": " + formatMillis(startup.duration));
+        out.write(",\n  \"classesLoaded\": " + startup.classesLoaded);
+        out.write(",\n  \"heapDelta\": " + startup.heapDelta);
+        out.write(",\n  \"stages\": [");
+        for (int i = 1; i < recorded.size(); i++) {
+            Stage stage = recorded.get(i);
+            out.write(i == 1 ? "\n    " : ",\n    ");
+            out.write("{\"id\": " + stage.id);
+            out.write(", \"parent\": " + (stage.parent == null ? -1 : stage.parent.id));
+            out.write(", \"stage\": " + quote(stage.stage));
+            out.write(", \"name\": " + quote(stage.name));
+            out.write(", \"thread\": " + quote(stage.thread));
+            out.write(", \"start\": " + formatMillis(stage.startNanos - startup.startNanos));
+            out.write(", \"duration\": " + formatMillis(stage.duration));
+            out.write(", \"classesLoaded\": " + stage.classesLoaded);
+            out.write(", \"heapDelta\": " + stage.heapDelta + "}");
+        }
+        out.write("\n  ],\n  \"summary\": [");
+        boolean first = true;
+        for (Map.Entry<String, long[]> entry : summarize(recorded)) {
+            out.write(first ? "\n    " : ",\n    ");
+            first = false;
+            out.write("{\"stage\": " + quote(entry.getKey()));
+            out.write(", \"count\": " + entry.getValue()[0]);
+            out.write(", \"duration\": " + formatMillis(entry.getValue()[1]) + "}");
+        }
+        out.write("\n  ]\n}\n");
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.valueOf(nanos / 1000 / 1000.0);
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder buffer = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                buffer.append('\\').append(c);
+            } else if (c < 0x20) {
+                buffer.append(String.format("\\u%04x", (int)c));
+            } else {
+                buffer.append(c);
+            }
+        }
+        return buffer.append('"').toString();
+    }
+
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** The recording of the stages of a configuration context */
+    public static class Recording {
+        private final StartupProfiler profiler;
+        private final File reportFile;
+        private final List<Stage> stages = new ArrayList<Stage>();
+        private final long startTime = System.currentTimeMillis();
+        private Stage root;
+
+        Recording(StartupProfiler profiler, File reportFile) {
+            this.profiler = profiler;
+            this.reportFile = reportFile;
+        }
+
+        synchronized void add(Stage stage) {
+            stage.id = stages.size();
+            stages.add(stage);
+        }
+
+        synchronized List<Stage> getStages() {
+            return new ArrayList<Stage>(stages);
+        }
+
+        File getReportFile() {
+            return reportFile;
+        }
+
+        /**
+         * Stops the recording, logs a summary and writes the report.  Stages of this recording
+         * that are started afterwards by other threads are not reported.
+         */
+        public void stop() {
+            if (profiler == null || root.ended) {
+                return;
+            }
+            root.end();
+            List<Stage> recorded = getStages();
+            logSummary(recorded);
+            try {
+                writeReport(recorded);
+            } catch (IOException e) {
+                log.warn("Unable to write the startup report to " + reportFile + ": "
+                         + e.getMessage());
+            }
+        }
+
+        private void writeReport(List<Stage> recorded) throws IOException {
+            File dir = reportFile.getAbsoluteFile().getParentFile();
+            if (dir != null && !dir.isDirectory()) {
+                dir.mkdirs();
+            }
+            Writer out = new OutputStreamWriter(new FileOutputStream(reportFile),
+                                                StandardCharsets.UTF_8);
+            try {
+                StartupProfiler.writeReport(recorded, startTime, out);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /** A stage of the startup */
+    public static class Stage {
+        private final StartupProfiler profiler;
+        final Recording recording;
+        final String stage;
+        final String name;
+        final Stage parent;
+        final String thread;
+        int id;
+        long startNanos;
+        long duration;
+        long classesLoaded;
+        long heapDelta;
+        private Object jfrEvent;
+        private Stage previous;
+        private boolean ended;
+
+        Stage(StartupProfiler profiler, Recording recording, String stage, String name,
+              Stage parent) {
+            this.profiler = profiler;
+            this.recording = recording;
+            this.stage = stage;
+            this.name = name;
+            this.parent = parent;
+            thread = profiler == null ? null : Thread.currentThread().getName();
+        }
+
+        void begin() {
+            if (profiler.jfrEventType != null) {
+                jfrEvent = profiler.jfrEventType.begin(stage, name);
+            }
+            classesLoaded = profiler.classLoading.getTotalLoadedClassCount();
+            heapDelta = getUsedHeap();
+            startNanos = System.nanoTime();
+        }
+
+        /** Ends the stage.  Ending a stage more than once has no effect. */
+        public void end() {
+            if (profiler == null || ended) {
+                return;
+            }
+            ended = true;
+            duration = System.nanoTime() - startNanos;
+            classesLoaded = profiler.classLoading.getTotalLoadedClassCount() - classesLoaded;
+            heapDelta = getUsedHeap() - heapDelta;
+            if (jfrEvent != null) {
+                profiler.jfrEventType.commit(jfrEvent);
+            }
+            if (profiler.currentStage.get() == this) {
+                if (previous == null) {
+                    profiler.currentStage.remove();
+                } else {
+                    profiler.currentStage.set(previous);
+                }
+            }
+        }
+    }
+
+    /**
+     * The flight recorder event type of the stages.  It is defined with jdk.jfr.EventFactory
+     * through reflection, because the flight recorder API is not available on all the Java
+     * versions supported by Axis2.
+     */
+    private static class JfrEventType {
+        private final Object eventFactory;
+        private final Method newEvent;
+        private final Method set;
+        private final Method begin;
+        private final Method end;
+        private final Method commit;
+
+        private JfrEventType(Object eventFactory) throws Exception {
+            this.eventFactory = eventFactory;
+            newEvent = eventFactory.getClass().getMethod("newEvent");
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            set = eventClass.getMethod("set", int.class, Object.class);
+            begin = eventClass.getMethod("begin");
+            end = eventClass.getMethod("end");
+            commit = eventClass.getMethod("commit");
+        }
+
+        static JfrEventType create() {
+            try {
+                Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+                Constructor<?> annotationElement =
+                        annotationElementClass.getConstructor(Class.class, Object.class);
+                Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+                Constructor<?> valueDescriptor =
+                        valueDescriptorClass.getConstructor(Class.class, String.class);
+                List<Object> annotations = Arrays.asList(
+                        annotationElement.newInstance(Class.forName("jdk.jfr.Name"),
+                                                      "org.apache.axis2.StartupStage"),
+                        annotationElement.newInstance(Class.forName("jdk.jfr.Label"),
+                                                      "Axis2 Startup Stage"),
+                        annotationElement.newInstance(Class.forName("jdk.jfr.Category"),
+                                                      new String[] { "Apache Axis2" }),
+                        annotationElement.newInstance(Class.forName("jdk.jfr.StackTrace"),
+                                                      Boolean.FALSE));
+                List<Object> fields = Arrays.asList(
+                        valueDescriptor.newInstance(String.class, "stage"),
+                        valueDescriptor.newInstance(String.class, "name"));
+                Object eventFactory = Class.forName("jdk.jfr.EventFactory")
+                        .getMethod("create", List.class, List.class)
+                        .invoke(null, annotations, fields);
+                return new JfrEventType(eventFactory);
+            } catch (Throwable t) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Flight recorder events are not available", t);
+                }
+                return null;
+            }
+        }
+
+        Object begin(String stage, String name) {
+            try {
+                Object event = newEvent.invoke(eventFactory);
+                set.invoke(event, 0, stage);
+                set.invoke(event, 1, name);
+                begin.invoke(event);
+                return event;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        void commit(Object event) {
+            try {
+                end.invoke(event);
+                commit.invoke(event);
+            } catch (Exception e) {
+                // the event is lost
+            }
+        }
+    }
+}
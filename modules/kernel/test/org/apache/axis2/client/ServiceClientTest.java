@@ -24,8 +24,11 @@ import java.util.List;
 
 import javax.xml.namespace.QName;
 
+import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.ws.commons.schema.XmlSchema;
 import org.junit.Assert;
 import org.junit.Test;
@@ -53,4 +56,48 @@ public class ServiceClientTest extends Assert {
         XmlSchema schema = schemas.get(0);
         assertNotNull(schema.getTypeByName(new QName("urn:test", "echoResponse")));
     }
+
+    @Test
+    public void testSharedAnonymousService() throws Exception {
+        ConfigurationContext configContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+        ServiceClient client1 = new ServiceClient(configContext, true);
+        ServiceClient client2 = new ServiceClient(configContext, true);
+        assertSame(client1.getAxisService(), client2.getAxisService());
+        assertEquals(ServiceClient.SHARED_ANON_SERVICE, client1.getAxisService().getName());
+        assertNotSame(client1.getServiceContext(), client2.getServiceContext());
+        assertNotNull(client1.getAxisService().getOperation(ServiceClient.ANON_OUT_IN_OP));
+        assertEquals(1, axisConfig.getServices().size());
+        client1.cleanup();
+        client2.cleanup();
+        assertNotNull(axisConfig.getService(ServiceClient.SHARED_ANON_SERVICE));
+    }
+
+    @Test
+    public void testSharedAnonymousServiceFromParameter() throws Exception {
+        ConfigurationContext configContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        configContext.getAxisConfiguration().addParameter(
+                org.apache.axis2.Constants.Configuration.SHARE_ANONYMOUS_SERVICE, "true");
+        ServiceClient client = new ServiceClient(configContext, null);
+        assertEquals(ServiceClient.SHARED_ANON_SERVICE, client.getAxisService().getName());
+    }
+
+    @Test
+    public void testEngageModuleDetachesSharedService() throws Exception {
+        ConfigurationContext configContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+        AxisModule module = new AxisModule("testModule");
+        axisConfig.addModule(module);
+        ServiceClient client = new ServiceClient(configContext, true);
+        EndpointReference epr = new EndpointReference("http://localhost/test");
+        client.setTargetEPR(epr);
+        client.engageModule("testModule");
+        assertFalse(ServiceClient.SHARED_ANON_SERVICE.equals(client.getAxisService().getName()));
+        assertTrue(client.getAxisService().isEngaged(module));
+        assertFalse(axisConfig.getService(ServiceClient.SHARED_ANON_SERVICE).isEngaged(module));
+        assertSame(epr, client.getTargetEPR());
+        String name = client.getAxisService().getName();
+        client.cleanup();
+        assertNull(axisConfig.getService(name));
+    }
 }
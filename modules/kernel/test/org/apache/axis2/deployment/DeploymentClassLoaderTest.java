@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+
+public class DeploymentClassLoaderTest extends TestCase {
+    private static final String DUMMY_CLASS = Dummy.class.getName();
+
+    private File classesDir;
+
+    protected void setUp() throws Exception {
+        // Copy a class to a directory that is not on the class path of the test
+        classesDir = new File(AbstractTestCase.basedir, "target/deploymentClassLoader");
+        String resource = DUMMY_CLASS.replace('.', '/') + ".class";
+        File classFile = new File(classesDir, resource);
+        classFile.getParentFile().mkdirs();
+        InputStream in = getClass().getClassLoader().getResourceAsStream(resource);
+        FileOutputStream out = new FileOutputStream(classFile);
+        try {
+            byte[] buffer = new byte[4096];
+            int c;
+            while ((c = in.read(buffer)) != -1) {
+                out.write(buffer, 0, c);
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+    }
+
+    private DeploymentClassLoader createClassLoader(boolean childFirst) throws Exception {
+        return new DeploymentClassLoader(new URL[] { classesDir.toURI().toURL() },
+                                         getClass().getClassLoader(), childFirst);
+    }
+
+    public void testChildFirst() throws Exception {
+        DeploymentClassLoader loader = createClassLoader(true);
+        Class<?> dummy = loader.loadClass(DUMMY_CLASS);
+        assertSame(loader, dummy.getClassLoader());
+        assertSame(dummy, loader.loadClass(DUMMY_CLASS));
+        assertSame(String.class, loader.loadClass("java.lang.String"));
+        assertSame(TestCase.class, loader.loadClass(TestCase.class.getName()));
+    }
+
+    public void testParentFirst() throws Exception {
+        DeploymentClassLoader loader = createClassLoader(false);
+        assertSame(Dummy.class, loader.loadClass(DUMMY_CLASS));
+    }
+
+    public void testClassNotFound() throws Exception {
+        DeploymentClassLoader loader = createClassLoader(true);
+        for (int i = 0; i < 2; i++) {
+            try {
+                loader.loadClass("org.apache.axis2.deployment.NoSuchClass");
+                fail("Expected ClassNotFoundException");
+            } catch (ClassNotFoundException e) {
+                // expected
+            }
+        }
+    }
+
+    public void testPackageIndex() throws Exception {
+        DeploymentClassLoader.PackageIndex index = DeploymentClassLoader.PackageIndex.build(
+                new URL[] { classesDir.toURI().toURL() });
+        assertTrue(index.mayContain(DUMMY_CLASS));
+        assertTrue(index.mayContain("org.apache.axis2.deployment.Other"));
+        assertFalse(index.mayContain("java.lang.String"));
+        assertFalse(index.mayContain("org.apache.axis2.Other"));
+
+        index = DeploymentClassLoader.PackageIndex.build(
+                new URL[] { new URL("http://localhost/classes/") });
+        assertTrue(index.mayContain("java.lang.String"));
+    }
+
+    public static class Dummy {
+    }
+}
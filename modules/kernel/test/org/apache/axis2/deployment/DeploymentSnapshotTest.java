@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class DeploymentSnapshotTest extends TestCase {
+    private File dir;
+    private File snapshotFile;
+    private File archive;
+
+    protected void setUp() throws Exception {
+        dir = new File(AbstractTestCase.basedir, "target/deploymentSnapshot");
+        dir.mkdirs();
+        snapshotFile = new File(dir, DeploymentSnapshot.DEFAULT_FILE_NAME);
+        snapshotFile.delete();
+        archive = new File(dir, "Echo.aar");
+        writeArchive(archive, "EchoService");
+    }
+
+    public void testSaveAndLoad() throws Exception {
+        DeploymentSnapshot snapshot = DeploymentSnapshot.load(snapshotFile);
+        assertNull(snapshot.get(archive.getAbsolutePath(), key(archive)));
+        snapshot.put(archive.getAbsolutePath(), key(archive), "Echo",
+                     Arrays.asList("EchoService", "PingService"));
+        snapshot.save();
+        assertTrue(snapshotFile.isFile());
+
+        DeploymentSnapshot.Entry entry =
+                DeploymentSnapshot.load(snapshotFile).get(archive.getAbsolutePath(),
+                                                          key(archive));
+        assertNotNull(entry);
+        assertEquals("Echo", entry.serviceGroupName);
+        assertEquals(Arrays.asList("EchoService", "PingService"), entry.serviceNames);
+    }
+
+    public void testModifiedArchive() throws Exception {
+        DeploymentSnapshot snapshot = DeploymentSnapshot.load(snapshotFile);
+        snapshot.put(archive.getAbsolutePath(), key(archive), "Echo",
+                     Arrays.asList("EchoService"));
+        snapshot.save();
+
+        // same size and modification time, different services.xml
+        long lastModified = archive.lastModified();
+        long length = archive.length();
+        writeArchive(archive, "PingService");
+        archive.setLastModified(lastModified);
+        assertEquals(length, archive.length());
+        assertNull(DeploymentSnapshot.load(snapshotFile).get(archive.getAbsolutePath(),
+                                                             key(archive)));
+    }
+
+    public void testDeletedArchive() throws Exception {
+        DeploymentSnapshot snapshot = DeploymentSnapshot.load(snapshotFile);
+        File deleted = new File(dir, "Deleted.aar");
+        snapshot.put(deleted.getAbsolutePath(), key(archive), "Deleted",
+                     Arrays.asList("Deleted"));
+        snapshot.put(archive.getAbsolutePath(), key(archive), "Echo",
+                     Arrays.asList("EchoService"));
+        snapshot.save();
+
+        writeArchive(deleted, "Deleted");
+        assertNull(DeploymentSnapshot.load(snapshotFile).get(deleted.getAbsolutePath(),
+                                                             key(deleted)));
+        assertNotNull(DeploymentSnapshot.load(snapshotFile).get(archive.getAbsolutePath(),
+                                                                key(archive)));
+        deleted.delete();
+    }
+
+    public void testCorruptSnapshot() throws Exception {
+        write(snapshotFile, 10);
+        DeploymentSnapshot snapshot = DeploymentSnapshot.load(snapshotFile);
+        assertNull(snapshot.get(archive.getAbsolutePath(), key(archive)));
+        snapshot.put(archive.getAbsolutePath(), key(archive), "Echo",
+                     Arrays.asList("EchoService"));
+        snapshot.save();
+        assertNotNull(DeploymentSnapshot.load(snapshotFile).get(archive.getAbsolutePath(),
+                                                                key(archive)));
+    }
+
+    public void testConfigurationChanged() throws Exception {
+        DeploymentSnapshot snapshot = DeploymentSnapshot.load(snapshotFile);
+        snapshot.checkFingerprint("config1");
+        snapshot.put(archive.getAbsolutePath(), key(archive), "Echo",
+                     Arrays.asList("EchoService"));
+        snapshot.save();
+
+        snapshot = DeploymentSnapshot.load(snapshotFile);
+        snapshot.checkFingerprint("config1");
+        assertNotNull(snapshot.get(archive.getAbsolutePath(), key(archive)));
+
+        snapshot = DeploymentSnapshot.load(snapshotFile);
+        snapshot.checkFingerprint("config2");
+        assertNull(snapshot.get(archive.getAbsolutePath(), key(archive)));
+    }
+
+    public void testRelease() throws Exception {
+        DeploymentSnapshot snapshot = DeploymentSnapshot.getInstance(snapshotFile);
+        assertSame(snapshot, DeploymentSnapshot.getInstance(snapshotFile));
+        DeploymentSnapshot.release(snapshotFile);
+        assertNotSame(snapshot, DeploymentSnapshot.getInstance(snapshotFile));
+        DeploymentSnapshot.release(snapshotFile);
+    }
+
+    public void testExplodedService() throws Exception {
+        File servicesXml = new File(dir, "services.xml");
+        write(servicesXml, 100);
+        String key = DeploymentSnapshot.key(servicesXml, false);
+        assertEquals(key, DeploymentSnapshot.key(servicesXml, false));
+        write(servicesXml, 101);
+        assertFalse(key.equals(DeploymentSnapshot.key(servicesXml, false)));
+    }
+
+    private static String key(File file) throws Exception {
+        return DeploymentSnapshot.key(file, true);
+    }
+
+    private static void writeArchive(File file, String serviceName) throws Exception {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            out.putNextEntry(new ZipEntry(DeploymentConstants.SERVICES_XML));
+            out.write(("<service name=\"" + serviceName + "\"/>").getBytes("UTF-8"));
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("lib/echo.jar"));
+            out.write(new byte[1024]);
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void write(File file, int size) throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.engine.AxisConfiguration;
+
+/**
+ * Deploys the hierarchical service repository with lazy service activation enabled.
+ */
+public class LazyServiceActivationTest extends TestCase {
+    String repo = AbstractTestCase.basedir + "/test-resources/deployment/hierarchicalServiceRepo";
+    String axis2xml = AbstractTestCase.basedir
+            + "/test-resources/deployment/lazyServiceActivation/axis2.xml";
+
+    private AxisConfiguration axisConfig;
+
+    protected void setUp() throws Exception {
+        axisConfig = ConfigurationContextFactory
+                .createConfigurationContextFromFileSystem(repo, axis2xml).getAxisConfiguration();
+    }
+
+    public void testActivation() throws Exception {
+        assertEquals(2, axisConfig.getLazyServiceGroups().size());
+        assertNull(axisConfig.getServiceGroup("foo/bar/1.0.0/testService"));
+        assertNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+
+        AxisService service = axisConfig.getService("foo/bar/1.0.0/Hie100Service1");
+        assertNotNull(service);
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.0/testService"));
+        assertSame(service, axisConfig.getService("foo/bar/1.0.0/Hie100Service1"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.0/Hie100Service2"));
+        assertNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+
+        assertNull(axisConfig.getService("foo/bar/1.0.0/UnknownService"));
+        assertTrue(axisConfig.getFaultyServices().isEmpty());
+    }
+
+    public void testPassivation() throws Exception {
+        assertTrue(axisConfig.activateLazyService("foo/bar/1.0.1/Hie101Service2"));
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+
+        for (LazyServiceActivator activator : axisConfig.getLazyServiceGroups()) {
+            assertEquals("foo/bar/1.0.1/testService".equals(activator.getServiceGroupName()),
+                         activator.passivate(0));
+        }
+        assertNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+        assertEquals(2, axisConfig.getLazyServiceGroups().size());
+
+        // The stub is still registered
+        assertNotNull(axisConfig.getService("foo/bar/1.0.1/Hie101Service1"));
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+    }
+
+    public void testNoPassivationWhileInUse() throws Exception {
+        assertTrue(axisConfig.activateLazyService("foo/bar/1.0.0/Hie100Service1"));
+        LazyServiceActivator activator = axisConfig.getLazyService("foo/bar/1.0.0/Hie100Service1");
+        assertTrue(activator.acquire());
+        assertFalse(activator.passivate(0));
+        assertTrue(activator.isActive());
+        activator.release();
+        assertFalse(activator.passivate(60000));
+        assertTrue(activator.passivate(0));
+        assertFalse(activator.isActive());
+        assertFalse(activator.acquire());
+    }
+
+    /**
+     * Passivating service groups while holding the AxisConfiguration monitor (as the scheduler
+     * task does) must not deadlock with a concurrent activation, which needs that monitor to
+     * add the service group.
+     */
+    public void testPassivationDuringActivation() throws Exception {
+        final LazyServiceActivator activator =
+                axisConfig.getLazyService("foo/bar/1.0.0/Hie100Service1");
+        final Throwable[] error = new Throwable[1];
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    axisConfig.getService("foo/bar/1.0.0/Hie100Service1");
+                } catch (Throwable t) {
+                    error[0] = t;
+                }
+            }
+        };
+        synchronized (axisConfig) {
+            thread.start();
+            // Wait until the activation blocks on the AxisConfiguration monitor
+            long deadline = System.currentTimeMillis() + 10000;
+            while (thread.getState() != Thread.State.BLOCKED) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+            assertFalse(activator.passivate(0));
+        }
+        thread.join(10000);
+        assertFalse(thread.isAlive());
+        assertNull(error[0]);
+        assertTrue(activator.isActive());
+    }
+}
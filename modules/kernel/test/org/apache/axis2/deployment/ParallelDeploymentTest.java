@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.engine.AxisConfiguration;
+
+/**
+ * Deploys the hierarchical service repository with parallel deployment enabled.
+ */
+public class ParallelDeploymentTest extends TestCase {
+    String repo = AbstractTestCase.basedir + "/test-resources/deployment/hierarchicalServiceRepo";
+    String axis2xml = AbstractTestCase.basedir
+            + "/test-resources/deployment/parallelDeployment/axis2.xml";
+
+    public void testParallelDeployment() throws Exception {
+        AxisConfiguration axisConfig = ConfigurationContextFactory
+                .createConfigurationContextFromFileSystem(repo, axis2xml).getAxisConfiguration();
+        assertEquals("4", axisConfig.getParameterValue(DeploymentConstants.TAG_PARALLEL_DEPLOYMENT));
+
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.0/testService"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.0/Hie100Service1"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.0/Hie100Service2"));
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.1/Hie101Service1"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.1/Hie101Service2"));
+        assertTrue(axisConfig.getFaultyServices().isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.scheduler;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.Watchable;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class RepositoryWatcherTest extends TestCase {
+    private final Semaphore runs = new Semaphore(0);
+    private File servicesDir;
+    private RepositoryWatcher watcher;
+
+    protected void setUp() throws Exception {
+        servicesDir = new File(AbstractTestCase.basedir, "target/watcherRepo/services");
+        servicesDir.mkdirs();
+        SchedulerTask task = new SchedulerTask(null, new AxisConfiguration()) {
+            public void run() {
+                runs.release();
+            }
+        };
+        watcher = new RepositoryWatcher(task, servicesDir.getParentFile(),
+                                        Collections.singletonList(servicesDir));
+        assertTrue(watcher.start());
+    }
+
+    protected void tearDown() throws Exception {
+        watcher.stop();
+    }
+
+    public void testNewArchive() throws Exception {
+        write(new File(servicesDir, "Echo.aar"));
+        assertTrue(runs.tryAcquire(5, TimeUnit.SECONDS));
+    }
+
+    public void testNewSubDirectory() throws Exception {
+        File dir = new File(servicesDir, "foo/1.0.0");
+        dir.mkdirs();
+        assertTrue(runs.tryAcquire(5, TimeUnit.SECONDS));
+        // let the watcher register the new directories
+        Thread.sleep(RepositoryWatcher.QUIET_PERIOD);
+        runs.drainPermits();
+
+        write(new File(dir, "Echo.aar"));
+        assertTrue(runs.tryAcquire(5, TimeUnit.SECONDS));
+    }
+
+    public void testQuietPeriod() throws Exception {
+        FakeWatchService watchService = new FakeWatchService(100, 300);
+        RepositoryWatcher watcher = new RepositoryWatcher(null, watchService, watchService);
+        watcher.awaitQuietPeriod(new FakeWatchKey());
+        assertTrue(watchService.events.isEmpty());
+        assertEquals(300 + RepositoryWatcher.QUIET_PERIOD, watchService.now);
+    }
+
+    public void testMaxDelay() throws Exception {
+        // a change every 400 ms never leaves a quiet period
+        long[] events = new long[100];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = (i + 1) * 400L;
+        }
+        FakeWatchService watchService = new FakeWatchService(events);
+        RepositoryWatcher watcher = new RepositoryWatcher(null, watchService, watchService);
+        watcher.awaitQuietPeriod(new FakeWatchKey());
+        assertEquals(RepositoryWatcher.MAX_DELAY, watchService.now);
+        assertFalse(watchService.events.isEmpty());
+    }
+
+    /**
+     * Watch service signalling a key at scripted times. Polling advances the clock to the
+     * next event, or by the whole timeout if no event happens in the meantime.
+     */
+    private static class FakeWatchService implements WatchService, RepositoryWatcher.Clock {
+        final List<Long> events;
+        long now;
+
+        FakeWatchService(long... events) {
+            this.events = new LinkedList<Long>();
+            for (long event : events) {
+                this.events.add(Long.valueOf(event));
+            }
+        }
+
+        public long currentTimeMillis() {
+            return now;
+        }
+
+        public WatchKey poll(long timeout, TimeUnit unit) {
+            long end = now + unit.toMillis(timeout);
+            if (!events.isEmpty() && events.get(0).longValue() <= end) {
+                now = Math.max(now, events.remove(0).longValue());
+                return new FakeWatchKey();
+            }
+            now = end;
+            return null;
+        }
+
+        public WatchKey poll() {
+            return poll(0, TimeUnit.MILLISECONDS);
+        }
+
+        public WatchKey take() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void close() {
+        }
+    }
+
+    private static class FakeWatchKey implements WatchKey {
+        public boolean isValid() {
+            return true;
+        }
+
+        public List<WatchEvent<?>> pollEvents() {
+            return Collections.emptyList();
+        }
+
+        public boolean reset() {
+            return true;
+        }
+
+        public void cancel() {
+        }
+
+        public Watchable watchable() {
+            return Paths.get(".");
+        }
+    }
+
+    private static void write(File file) throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[1024]);
+        } finally {
+            out.close();
+        }
+    }
+}
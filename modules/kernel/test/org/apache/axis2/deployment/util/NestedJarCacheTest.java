@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.util;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class NestedJarCacheTest extends TestCase {
+    private File tmpDir;
+
+    protected void setUp() throws Exception {
+        tmpDir = new File(AbstractTestCase.basedir, "target/nestedJarCache");
+        tmpDir.mkdirs();
+    }
+
+    private File createArchive(String name, byte[] jar) throws Exception {
+        File archive = new File(tmpDir, name);
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            out.putNextEntry(new ZipEntry("META-INF/services.xml"));
+            out.write("<service/>".getBytes("UTF-8"));
+            out.putNextEntry(new ZipEntry("lib/test.jar"));
+            out.write(jar);
+        } finally {
+            out.close();
+        }
+        return archive;
+    }
+
+    public void testSharedAndCollected() throws Exception {
+        byte[] jar = new byte[4096];
+        jar[0] = 1;
+        File archive1 = createArchive("Service1.aar", jar);
+        File archive2 = createArchive("Service2.aar", jar);
+
+        URL[] urls1 = Utils.getURLsForAllJars(archive1.toURI().toURL(), tmpDir);
+        URL[] urls2 = Utils.getURLsForAllJars(archive2.toURI().toURL(), tmpDir);
+        assertEquals(2, urls1.length);
+        assertEquals(2, urls2.length);
+        assertEquals(urls1[1], urls2[1]);
+        File cached = Utils.toFile(urls1[1]);
+        assertEquals(new File(tmpDir, NestedJarCache.CACHE_DIR_NAME),
+                     cached.getParentFile());
+        assertEquals(jar.length, cached.length());
+
+        // the extracted file is reused
+        long lastModified = cached.lastModified();
+        Thread.sleep(1000);
+        assertEquals(urls1[1], Utils.getURLsForAllJars(archive1.toURI().toURL(), tmpDir)[1]);
+        assertEquals(lastModified, cached.lastModified());
+
+        NestedJarCache cache = NestedJarCache.getInstance(tmpDir);
+        archive1.delete();
+        cache.collectGarbage();
+        assertTrue(cached.exists());
+        archive2.delete();
+        cache.collectGarbage();
+        assertFalse(cached.exists());
+    }
+
+    public void testCorruptedFileReplaced() throws Exception {
+        byte[] jar = new byte[4096];
+        jar[0] = 2;
+        File archive = createArchive("Service3.aar", jar);
+        URL archiveUrl = archive.toURI().toURL();
+        File cached = Utils.toFile(Utils.getURLsForAllJars(archiveUrl, tmpDir)[1]);
+
+        // same length, different content
+        FileOutputStream out = new FileOutputStream(cached);
+        try {
+            out.write(new byte[jar.length]);
+        } finally {
+            out.close();
+        }
+        assertEquals(cached, Utils.toFile(Utils.getURLsForAllJars(archiveUrl, tmpDir)[1]));
+        FileInputStream in = new FileInputStream(cached);
+        try {
+            assertEquals(2, in.read());
+        } finally {
+            in.close();
+        }
+        archive.delete();
+        NestedJarCache.getInstance(tmpDir).collectGarbage();
+    }
+
+    public void testReferencesWithoutExtraction() throws Exception {
+        byte[] jar = new byte[4096];
+        jar[0] = 3;
+        File archive1 = createArchive("Service4.aar", jar);
+        File archive2 = createArchive("Service5.aar", jar);
+        File cached = Utils.toFile(Utils.getURLsForAllJars(archive1.toURI().toURL(), tmpDir)[1]);
+
+        NestedJarCache cache = NestedJarCache.getInstance(tmpDir);
+        cache.addReferences(archive2.toURI().toURL(), archive2);
+        archive1.delete();
+        cache.collectGarbage();
+        assertTrue(cached.exists());
+        archive2.delete();
+        cache.collectGarbage();
+        assertFalse(cached.exists());
+    }
+
+    public void testFileMarkedByOtherProcess() throws Exception {
+        byte[] jar = new byte[4096];
+        jar[0] = 4;
+        File archive = createArchive("Service6.aar", jar);
+        File cached = Utils.toFile(Utils.getURLsForAllJars(archive.toURI().toURL(), tmpDir)[1]);
+
+        // simulate another process using the same file
+        File refsDir = new File(cached.getParentFile(), NestedJarCache.REFS_DIR_NAME);
+        File otherDir = new File(refsDir, "other");
+        otherDir.mkdirs();
+        File marker = new File(otherDir, cached.getName());
+        marker.createNewFile();
+        FileChannel channel = new RandomAccessFile(new File(refsDir, "other.lock"), "rw")
+                .getChannel();
+        try {
+            NestedJarCache cache = NestedJarCache.getInstance(tmpDir);
+            archive.delete();
+            FileLock lock = channel.lock();
+            cache.collectGarbage();
+            assertTrue(cached.exists());
+            assertTrue(marker.exists());
+
+            // the other process has terminated
+            lock.release();
+            cache.collectGarbage();
+            assertFalse(cached.exists());
+            assertFalse(otherDir.exists());
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import junit.framework.TestCase;
+import org.apache.axis2.util.Utils;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaExternal;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+import javax.xml.namespace.QName;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+
+public class SchemaRegistryTest extends TestCase {
+    private static final String DIR = "test-resources/schemas/shared";
+
+    private final SchemaRegistry registry = new SchemaRegistry();
+
+    public void testSharedImport() throws Exception {
+        XmlSchema service1 = read("urn:service1", "import namespace='urn:common'", DIR);
+        XmlSchema service2 = read("urn:service2", "import namespace='urn:common'", DIR);
+        XmlSchema common = getExternalSchema(service1);
+        assertNotNull(common);
+        assertSame(common, getExternalSchema(service2));
+        assertTrue(SchemaRegistry.isShared(common));
+        assertFalse(SchemaRegistry.isShared(service1));
+        assertNotNull(common.getElementByName(new QName("urn:common", "fault")));
+
+        // The included schema is shared as well
+        XmlSchema header = getExternalSchema(common);
+        assertNotNull(header);
+        assertTrue(SchemaRegistry.isShared(header));
+        assertEquals(2, registry.size());
+    }
+
+    public void testModifiedInclude() throws Exception {
+        XmlSchema service1 = read("urn:service1", "import namespace='urn:common'", DIR);
+        XmlSchema service2 = read("urn:service2", "import namespace='urn:common'",
+                                  DIR + "/variant");
+        // common.xsd is the same, but the header.xsd it includes is not
+        assertNotSame(getExternalSchema(service1), getExternalSchema(service2));
+    }
+
+    public void testChameleonInclude() throws Exception {
+        XmlSchema service = read("urn:service1", "include", DIR + "/chameleon.xsd");
+        XmlSchema chameleon = getExternalSchema(service);
+        assertNotNull(chameleon);
+        assertFalse(SchemaRegistry.isShared(chameleon));
+        assertEquals(0, registry.size());
+    }
+
+    public void testPrintSharedSchema() throws Exception {
+        AxisService service1 = createService("Service1", "urn:service1");
+        AxisService service2 = createService("Service2", "urn:service2");
+        XmlSchema common = getExternalSchema(service1.getSchema(0));
+        assertSame(common, getExternalSchema(service2.getSchema(0)));
+
+        String wsdl1 = printWSDL(service1);
+        String wsdl2 = printWSDL(service2);
+        assertTrue(wsdl1.contains("Service1?xsd=common.xsd"));
+        assertTrue(wsdl2.contains("Service2?xsd=common.xsd"));
+
+        // Each service serves the shared schema with its own locations
+        String xsd1 = printXSD(service1, "common.xsd");
+        String xsd2 = printXSD(service2, "common.xsd");
+        assertTrue(xsd1.contains("Service1?xsd=header.xsd"));
+        assertFalse(xsd1.contains("Service2"));
+        assertTrue(xsd2.contains("Service2?xsd=header.xsd"));
+        assertFalse(xsd2.contains("Service1"));
+        assertTrue(xsd1.contains("urn:common"));
+
+        // The shared schema itself is not modified
+        assertEquals("header.xsd", common.getExternals().get(0).getSchemaLocation());
+        assertEquals(xsd1, printXSD(service1, "common.xsd"));
+    }
+
+    private AxisService createService(String name, String targetNamespace) throws Exception {
+        AxisService service = Utils.createSimpleService(new QName(name), "", new QName("echo"));
+        service.addSchema(read(targetNamespace, "import namespace='urn:common'", DIR));
+        return service;
+    }
+
+    private static String printWSDL(AxisService service) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.printWSDL(out);
+        return out.toString("UTF-8");
+    }
+
+    private static String printXSD(AxisService service, String xsd) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, service.printXSD(out, xsd));
+        return out.toString("UTF-8");
+    }
+
+    /**
+     * Reads a service schema with a single import or include of common.xsd, or of the given file.
+     */
+    private XmlSchema read(String targetNamespace, String external, String location)
+            throws Exception {
+        File file = new File(location);
+        String schemaLocation = file.isFile() ? file.getName() : "common.xsd";
+        File baseDir = file.isFile() ? file.getParentFile() : file;
+        String xml = "<xsd:schema xmlns:xsd='http://www.w3.org/2001/XMLSchema' targetNamespace='"
+                     + targetNamespace + "'><xsd:" + external + " schemaLocation='"
+                     + schemaLocation + "'/></xsd:schema>";
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Element element = factory.newDocumentBuilder().parse(
+                new InputSource(new StringReader(xml))).getDocumentElement();
+        return registry.read(element, baseDir.getAbsoluteFile().toURI().toString(), null);
+    }
+
+    private static XmlSchema getExternalSchema(XmlSchema schema) {
+        for (XmlSchemaExternal external : schema.getExternals()) {
+            return external.getSchema();
+        }
+        return null;
+    }
+}
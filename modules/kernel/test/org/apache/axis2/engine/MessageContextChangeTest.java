@@ -49,6 +49,7 @@ public class MessageContextChangeTest extends TestCase {
             new FieldDescription("org.apache.axiom.attachments.Attachments", "attachments"),
             new FieldDescription("java.lang.String", "TRANSPORT_OUT"),
             new FieldDescription("java.lang.String", "TRANSPORT_IN"),
+            new FieldDescription("java.lang.String", "TRANSPORT_IN_ENVELOPE"),
             new FieldDescription("java.lang.String", "CHARACTER_SET_ENCODING"),
             new FieldDescription("java.lang.String", "UTF_8"),
             new FieldDescription("java.lang.String", "UTF_16"),
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+public class StartupProfilerTest extends TestCase {
+    private final StartupProfiler profiler = new StartupProfiler(
+            new File(AbstractTestCase.basedir, "target/startup-report.json"), false);
+
+    public void testNestedStages() throws Exception {
+        StartupProfiler.Recording recording = profiler.record();
+        StartupProfiler.Stage deploy = profiler.startStage("ServiceDeployer", "Echo.aar");
+        StartupProfiler.Stage wsdl = profiler.startStage(StartupProfiler.STAGE_WSDL, "Echo.wsdl");
+        wsdl.end();
+        deploy.end();
+        StartupProfiler.Stage init = profiler.startStage(StartupProfiler.STAGE_INIT, null);
+        init.end();
+
+        List<StartupProfiler.Stage> stages = recording.getStages();
+        assertEquals(4, stages.size());
+        assertSame(stages.get(0), stages.get(1).parent);
+        assertSame(deploy, wsdl.parent);
+        assertSame(stages.get(0), init.parent);
+        assertTrue(deploy.duration >= wsdl.duration);
+
+        StringWriter report = new StringWriter();
+        StartupProfiler.writeReport(stages, 0, report);
+        assertTrue(report.toString().contains(
+                "\"parent\": 1, \"stage\": \"wsdl\", \"name\": \"Echo.wsdl\""));
+        assertTrue(report.toString().contains("{\"stage\": \"ServiceDeployer\", \"count\": 1"));
+        recording.stop();
+    }
+
+    public void testNestedRecordings() throws Exception {
+        StartupProfiler.Recording outer = profiler.record();
+        StartupProfiler.Stage startUp = profiler.startStage(StartupProfiler.STAGE_START_UP, "Echo");
+        StartupProfiler.Recording inner = profiler.record();
+        profiler.startStage(StartupProfiler.STAGE_INIT, null).end();
+        inner.stop();
+        profiler.startStage(StartupProfiler.STAGE_WSDL, null).end();
+        startUp.end();
+        outer.stop();
+
+        assertEquals(2, inner.getStages().size());
+        List<StartupProfiler.Stage> stages = outer.getStages();
+        assertEquals(3, stages.size());
+        assertSame(startUp, stages.get(2).parent);
+        assertFalse(inner.getReportFile().equals(outer.getReportFile()));
+        assertTrue(outer.getReportFile().exists());
+        assertTrue(inner.getReportFile().exists());
+    }
+
+    public void testReportFiles() {
+        File reportFile = new File(AbstractTestCase.basedir, "target/startup-report.json");
+        assertEquals(reportFile, profiler.getReportFile(1));
+        assertEquals(new File(AbstractTestCase.basedir, "target/startup-report-2.json"),
+                     profiler.getReportFile(2));
+    }
+
+    public void testConcurrentRecordings() throws Exception {
+        final StartupProfiler.Recording[] recordings = new StartupProfiler.Recording[4];
+        Thread[] threads = new Thread[recordings.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    StartupProfiler.Recording recording = profiler.record();
+                    for (int j = 0; j < 100; j++) {
+                        profiler.startStage(StartupProfiler.STAGE_INIT, null).end();
+                    }
+                    recording.stop();
+                    recordings[index] = recording;
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (StartupProfiler.Recording recording : recordings) {
+            assertEquals(101, recording.getStages().size());
+        }
+    }
+
+    public void testExplicitParent() throws Exception {
+        StartupProfiler.Recording recording = profiler.record();
+        final StartupProfiler.Stage deploy =
+                profiler.startStage(StartupProfiler.STAGE_LOAD_REPOSITORY, null);
+        Thread worker = new Thread() {
+            public void run() {
+                StartupProfiler.Stage prepare =
+                        profiler.startStage(StartupProfiler.STAGE_PREPARE, "Echo.aar", deploy);
+                profiler.startStage(StartupProfiler.STAGE_WSDL, "Echo.wsdl").end();
+                prepare.end();
+            }
+        };
+        worker.start();
+        worker.join();
+        deploy.end();
+        recording.stop();
+
+        List<StartupProfiler.Stage> stages = recording.getStages();
+        assertEquals(4, stages.size());
+        assertSame(deploy, stages.get(2).parent);
+        assertSame(stages.get(2), stages.get(3).parent);
+    }
+
+    public void testNotRecording() {
+        StartupProfiler.Stage stage = profiler.startStage(StartupProfiler.STAGE_INIT, null);
+        stage.end();
+        assertNull(stage.recording);
+    }
+}
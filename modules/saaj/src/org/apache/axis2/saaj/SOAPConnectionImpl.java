@@ -136,7 +136,7 @@ public class SOAPConnectionImpl extends SOAPConnection {
         ServiceClient serviceClient;
         OperationClient opClient;
         try {
-            serviceClient = new ServiceClient(configurationContext, null);
+            serviceClient = new ServiceClient(configurationContext, true);
             opClient = serviceClient.createClient(ServiceClient.ANON_OUT_IN_OP);
         } catch (AxisFault e) {
             throw new SOAPException(e);
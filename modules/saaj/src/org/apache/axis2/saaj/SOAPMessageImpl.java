@@ -365,15 +365,20 @@ public class SOAPMessageImpl extends SOAPMessage {
             String enc = (String)getProperty(CHARACTER_SET_ENCODING);
             format.setCharSetEncoding(enc != null ? enc : OMOutputFormat.DEFAULT_CHAR_SET_ENCODING);
             String writeXmlDecl = (String)getProperty(WRITE_XML_DECLARATION);
-            if (writeXmlDecl == null || writeXmlDecl.equals("false")) {
+            boolean xmlDeclaration = writeXmlDecl != null && !writeXmlDecl.equals("false");
+            if (!xmlDeclaration) {
                 //SAAJ default case doesn't send XML decl
                 format.setIgnoreXMLDeclaration(true);
             }
             
-            SOAPEnvelope envelope = ((SOAPEnvelopeImpl) soapPart.getEnvelope()).getOMTarget();
             if (attachmentParts.isEmpty()) {
-                envelope.serialize(out, format);
+                // Unless the SOAP part has been accessed, write its content as received
+                if (!((SOAPPartImpl)soapPart).writeUnparsedTo(out, format.getCharSetEncoding(),
+                        xmlDeclaration)) {
+                    ((SOAPEnvelopeImpl)soapPart.getEnvelope()).getOMTarget().serialize(out, format);
+                }
             } else {
+                SOAPEnvelope envelope = ((SOAPEnvelopeImpl) soapPart.getEnvelope()).getOMTarget();
                 ContentType.Builder contentType = new ContentType(getSingleHeaderValue(HTTPConstants.HEADER_CONTENT_TYPE)).toBuilder();
                 String boundary = contentType.getParameter("boundary");
                 if(isEmptyString(boundary)) {
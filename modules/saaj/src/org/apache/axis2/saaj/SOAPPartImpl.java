@@ -20,9 +20,12 @@
 package org.apache.axis2.saaj;
 
 import org.apache.axiom.attachments.Attachments;
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
 import org.apache.axiom.mime.ContentType;
 import org.apache.axiom.mime.MediaType;
 import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMException;
 import org.apache.axiom.om.OMMetaFactory;
 import org.apache.axiom.om.OMXMLBuilderFactory;
 import org.apache.axiom.soap.SOAPFactory;
@@ -64,33 +67,59 @@ import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.TransformerFactoryConfigurationError;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.ParseException;
 import java.util.Iterator;
 
+/**
+ * SOAP part implementation backed by an Axiom DOM tree.
+ * <p>
+ * The content of a SOAP part created from an input stream is read into memory by the constructor,
+ * since the caller may close the stream once the message has been created. It is not parsed until
+ * the part is first accessed, and even then the Axiom tree is only built as far as the application
+ * navigates it. As long as the part has not been accessed,
+ * {@link SOAPMessageImpl#writeTo(OutputStream)} and {@link #getContent()} use the raw content
+ * instead of building the tree. Content set using {@link #setContent(Source)} with a
+ * {@link StreamSource} wrapping an input stream is handled in the same way. Content set using a
+ * {@link StAXSource} is read from the caller's reader as the tree is built, so the reader must
+ * remain usable until the part has been read. XOP content is parsed by the constructor because
+ * it depends on the attachments of the MIME package.
+ */
 public class SOAPPartImpl extends SOAPPart {
 
     private static final Log log = LogFactory.getLog(SOAPPartImpl.class);
 
+    private static final String UTF_8 = "UTF-8";
+    
     private Document document;
     private SOAPMessage soapMessage;
     private SOAPEnvelopeImpl envelope;
     private final MimeHeaders mimeHeaders;
 
+    /**
+     * The content that has not been parsed yet, or <code>null</code> if {@link #envelope} has
+     * been created.
+     */
+    private MemoryBlob pendingContent;
+    
+    private String pendingCharset;
+    private SOAPFactory pendingSOAPFactory;
+
     public SOAPPartImpl(SOAPMessageImpl parentSoapMsg,
                         SOAPEnvelopeImpl soapEnvelope) {
         //setMimeHeader(HTTPConstants.HEADER_CONTENT_ID, IDGenerator.generateID());
         //setMimeHeader(HTTPConstants.HEADER_CONTENT_TYPE, "text/xml");
         this.mimeHeaders = SAAJUtil.copyMimeHeaders(parentSoapMsg.getMimeHeaders());
         soapMessage = parentSoapMsg;
-        envelope = soapEnvelope;
-        document = soapEnvelope.getOwnerDocument();
-        envelope.setSOAPPartParent(this);
+        setEnvelope(soapEnvelope);
     }
 
     /**
@@ -101,6 +130,10 @@ public class SOAPPartImpl extends SOAPPart {
      * <p>
      * If the content type is XOP, xop:Include elements will only be replaced if
      * the <code>attachments</code> parameter is not null.
+     * <p>
+     * The content is read into memory, but (unless it is XOP) not parsed before the SOAP part is
+     * accessed. Errors in the content (including a SOAP version that doesn't match the content
+     * type) are therefore only reported at that point.
      *
      * @see MessageFactoryImpl#setProcessMTOM(boolean)
      * 
@@ -134,7 +167,7 @@ public class SOAPPartImpl extends SOAPPart {
 
         String charset;
         boolean isMTOM;
-        OMMetaFactory metaFactory = OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DOM);
+        OMMetaFactory metaFactory = getMetaFactory();
         SOAPFactory soapFactory;
         if (contentType == null) {
             charset = null;
@@ -171,25 +204,165 @@ public class SOAPPartImpl extends SOAPPart {
             charset = contentType.getParameter("charset");
         }
         
-        SOAPModelBuilder builder;
         if (isMTOM && attachments != null) {
-            builder = OMXMLBuilderFactory.createSOAPModelBuilder(metaFactory, attachments);
+            // The root part is read from the MIME package; parse it while it is available
+            setEnvelope(createEnvelope(OMXMLBuilderFactory.createSOAPModelBuilder(metaFactory,
+                    attachments), soapFactory));
+            envelope.omTarget.build();
         } else {
-            builder = OMXMLBuilderFactory.createSOAPModelBuilder(metaFactory, inputStream, charset);
+            MemoryBlob content = Blobs.createMemoryBlob();
+            try {
+                content.readFrom(inputStream);
+            } catch (IOException e) {
+                throw new SOAPException(e);
+            }
+            setPendingContent(content, charset, soapFactory);
         }
-        
+    }
+
+    private static OMMetaFactory getMetaFactory() {
+        return OMAbstractFactory.getMetaFactory(OMAbstractFactory.FEATURE_DOM);
+    }
+
+    private void setPendingContent(MemoryBlob content, String charset, SOAPFactory soapFactory) {
+        pendingContent = content;
+        pendingCharset = charset;
+        pendingSOAPFactory = soapFactory;
+        envelope = null;
+        document = null;
+    }
+
+    private void setEnvelope(SOAPEnvelopeImpl envelope) {
+        pendingContent = null;
+        this.envelope = envelope;
+        this.document = envelope.getOwnerDocument();
+        envelope.setSOAPPartParent(this);
+    }
+
+    /**
+     * Create the envelope from the pending content, if this has not been done yet. Note that
+     * this doesn't build the Axiom tree; it is built incrementally as nodes are accessed.
+     *
+     * @throws SOAPException if the content is not a valid SOAP message
+     */
+    private void parse() throws SOAPException {
+        if (pendingContent == null) {
+            return;
+        }
+        setEnvelope(createEnvelope(OMXMLBuilderFactory.createSOAPModelBuilder(getMetaFactory(),
+                pendingContent.getInputStream(), pendingCharset), pendingSOAPFactory));
+    }
+
+    private static SOAPEnvelopeImpl createEnvelope(SOAPModelBuilder builder,
+            SOAPFactory expectedSOAPFactory) throws SOAPException {
+        org.apache.axiom.soap.SOAPEnvelope soapEnvelope;
         try {
-            org.apache.axiom.soap.SOAPEnvelope soapEnvelope = builder.getSOAPEnvelope();
-            if (soapFactory != null && soapEnvelope.getOMFactory() != soapFactory) {
-                throw new SOAPException("SOAP version of message doesn't match Content-Type");
-            }
-            envelope = new SOAPEnvelopeImpl(soapEnvelope);
-            envelope.omTarget.build();
-            this.document = envelope.getOwnerDocument();
-            envelope.setSOAPPartParent(this);
+            soapEnvelope = builder.getSOAPEnvelope();
         } catch (Exception e) {
             throw new SOAPException(e);
         }
+        if (expectedSOAPFactory != null && soapEnvelope.getOMFactory() != expectedSOAPFactory) {
+            throw new SOAPException("SOAP version of message doesn't match Content-Type");
+        }
+        return new SOAPEnvelopeImpl(soapEnvelope);
+    }
+
+    private Document getDocument() {
+        if (pendingContent != null) {
+            try {
+                parse();
+            } catch (SOAPException ex) {
+                throw new OMException(ex);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Write the content of this SOAP part without parsing it. This is only possible if the
+     * part has not been accessed since it was created from a stream, and if the raw content
+     * can be written unchanged with the requested encoding and XML declaration setting.
+     *
+     * @param out the stream to write to
+     * @param charset the requested encoding
+     * @param xmlDeclaration whether an XML declaration is requested
+     * @return <code>true</code> if the content has been written; <code>false</code> if the
+     *         caller must serialize the envelope
+     * @throws IOException if an I/O error occurs
+     */
+    boolean writeUnparsedTo(OutputStream out, String charset, boolean xmlDeclaration)
+            throws IOException {
+        if (pendingContent == null || !UTF_8.equalsIgnoreCase(charset)
+                || (pendingCharset != null && !UTF_8.equalsIgnoreCase(pendingCharset))) {
+            return false;
+        }
+        InputStream in = pendingContent.getInputStream();
+        try {
+            // The optional byte order mark must be followed by the start of either the XML
+            // declaration or the envelope
+            byte[] start = new byte[128];
+            int len = 0;
+            int c;
+            while (len < start.length && (c = in.read()) != -1) {
+                start[len++] = (byte)c;
+            }
+            boolean hasBOM = len >= 3 && (start[0] & 0xFF) == 0xEF && (start[1] & 0xFF) == 0xBB
+                    && (start[2] & 0xFF) == 0xBF;
+            int offset = hasBOM ? 3 : 0;
+            if (len - offset < 5 || start[offset] != '<') {
+                return false;
+            }
+            String prolog = new String(start, offset, len - offset, "ISO-8859-1");
+            boolean hasXmlDeclaration = prolog.startsWith("<?xml");
+            if (hasXmlDeclaration != xmlDeclaration) {
+                return false;
+            }
+            // Only write the content as is if it is known to be UTF-8, i.e. if this is specified
+            // by the content type, the byte order mark or the XML declaration, and none of them
+            // specifies a different encoding
+            String declaredEncoding = hasXmlDeclaration ? getDeclaredEncoding(prolog) : null;
+            if (declaredEncoding != null && !UTF_8.equalsIgnoreCase(declaredEncoding)) {
+                return false;
+            }
+            if (pendingCharset == null && !hasBOM && declaredEncoding == null) {
+                return false;
+            }
+        } finally {
+            in.close();
+        }
+        pendingContent.writeTo(out);
+        return true;
+    }
+
+    /**
+     * Extract the value of the encoding pseudo-attribute from the XML declaration at the start
+     * of the given string.
+     *
+     * @param prolog the start of the document, beginning with the XML declaration
+     * @return the encoding, or <code>null</code> if the declaration doesn't specify an encoding
+     *         or is not complete
+     */
+    private static String getDeclaredEncoding(String prolog) {
+        int end = prolog.indexOf("?>");
+        if (end == -1) {
+            return null;
+        }
+        String declaration = prolog.substring(0, end);
+        int idx = declaration.indexOf("encoding");
+        if (idx == -1) {
+            return null;
+        }
+        idx = declaration.indexOf('=', idx);
+        if (idx == -1) {
+            return null;
+        }
+        String value = declaration.substring(idx + 1).trim();
+        if (value.length() < 2) {
+            return null;
+        }
+        char quote = value.charAt(0);
+        int close = value.indexOf(quote, 1);
+        return close == -1 ? null : value.substring(1, close);
     }
 
     /**
@@ -209,6 +382,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @throws SOAPException if there is a SOAP error
      */
     public SOAPEnvelope getEnvelope() throws SOAPException {
+        parse();
         return envelope;
     }
 
@@ -316,14 +490,35 @@ public class SOAPPartImpl extends SOAPPart {
     }
 
     public void setContent(Source source) throws SOAPException {
+        if (source instanceof DOMSource) {
+            org.apache.axiom.soap.SOAPEnvelope omEnvelope =
+                    getOMEnvelope(((DOMSource)source).getNode());
+            if (omEnvelope != null) {
+                setContent(omEnvelope);
+                return;
+            }
+        }
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
             XMLInputFactory inputFactory = XMLInputFactory.newInstance();
             XMLStreamReader reader;
-
-            if (source instanceof StreamSource) {
+            // A reader or file opened for a stream source may be closed by the caller
+            boolean build = false;
+
+            if (source instanceof StreamSource
+                    && ((StreamSource)source).getInputStream() != null) {
+                // Read the content now, but only parse it when it is accessed
+                MemoryBlob content = Blobs.createMemoryBlob();
+                content.readFrom(((StreamSource)source).getInputStream());
+                setPendingContent(content, null, null);
+                return;
+            } else if (source instanceof StreamSource) {
                 reader = inputFactory.createXMLStreamReader(source);
+                build = true;
+            } else if (source instanceof StAXSource
+                    && ((StAXSource)source).getXMLStreamReader() != null) {
+                reader = ((StAXSource)source).getXMLStreamReader();
             } else {
                 Result result = new StreamResult(baos);
                 Transformer xformer = TransformerFactory.newInstance().newTransformer();
@@ -333,12 +528,12 @@ public class SOAPPartImpl extends SOAPPart {
             }
 
             SOAPModelBuilder builder1 = OMXMLBuilderFactory.createStAXSOAPModelBuilder(
-                    envelope.omTarget.getOMFactory().getMetaFactory(), reader);
+                    getMetaFactory(), reader);
 
-            envelope = new SOAPEnvelopeImpl(builder1.getSOAPEnvelope());
-            envelope.omTarget.build();
-            this.document = envelope.getOwnerDocument();
-            envelope.setSOAPPartParent(this);
+            setEnvelope(new SOAPEnvelopeImpl(builder1.getSOAPEnvelope()));
+            if (build) {
+                envelope.omTarget.build();
+            }
         } catch (TransformerFactoryConfigurationError e) {
             log.error(e);
             throw new SOAPException(e);
@@ -357,7 +552,68 @@ public class SOAPPartImpl extends SOAPPart {
      * @see #setContent(javax.xml.transform.Source) setContent(javax.xml.transform.Source)
      */
     public Source getContent() throws SOAPException {
-        return new DOMSource(this.document);
+        if (pendingContent != null
+                && (pendingCharset == null || UTF_8.equalsIgnoreCase(pendingCharset))) {
+            return new StreamSource(pendingContent.getInputStream());
+        }
+        return new DOMSource(getDocument());
+    }
+
+    /**
+     * Replace the content of this SOAP part by an envelope that is already available as an
+     * Axiom tree. If the envelope doesn't belong to another SOAP part, it is used in place.
+     * Otherwise it is copied without serializing and parsing it.
+     *
+     * @param omEnvelope the envelope
+     * @throws SOAPException
+     */
+    private void setContent(org.apache.axiom.soap.SOAPEnvelope omEnvelope) throws SOAPException {
+        Object saajNode = ((Node)omEnvelope).getUserData(ProxyNode.SAAJ_NODE);
+        SOAPEnvelopeImpl saajEnvelope =
+                saajNode instanceof SOAPEnvelopeImpl ? (SOAPEnvelopeImpl)saajNode : null;
+        SOAPPartImpl owner = saajEnvelope == null ? null : saajEnvelope.getSOAPPartParent();
+        if (owner == null || owner == this) {
+            setEnvelope(saajEnvelope != null ? saajEnvelope : new SOAPEnvelopeImpl(omEnvelope));
+        } else {
+            try {
+                SOAPModelBuilder builder = OMXMLBuilderFactory.createStAXSOAPModelBuilder(
+                        getMetaFactory(), omEnvelope.getXMLStreamReader());
+                SOAPEnvelopeImpl copy = new SOAPEnvelopeImpl(builder.getSOAPEnvelope());
+                // The other message may change after this; don't read it lazily
+                copy.omTarget.build();
+                setEnvelope(copy);
+            } catch (Exception e) {
+                log.error(e);
+                throw new SOAPException(e);
+            }
+        }
+    }
+
+    /**
+     * Get the Axiom envelope underlying the given DOM node, if the node is (or wraps) a SOAP
+     * envelope or a document containing one that was created by the same Axiom implementation.
+     *
+     * @param node the DOM node
+     * @return the envelope, or <code>null</code> if the node is not an Axiom envelope or
+     *         document
+     */
+    private static org.apache.axiom.soap.SOAPEnvelope getOMEnvelope(Node node) {
+        if (node instanceof SOAPPartImpl) {
+            node = ((SOAPPartImpl)node).getDocument();
+        }
+        if (node instanceof ProxyNode) {
+            node = ((ProxyNode<?,?>)node).getTarget();
+        }
+        if (node instanceof Document) {
+            node = ((Document)node).getDocumentElement();
+        }
+        if (node instanceof org.apache.axiom.soap.SOAPEnvelope) {
+            org.apache.axiom.soap.SOAPEnvelope omEnvelope = (org.apache.axiom.soap.SOAPEnvelope)node;
+            if (omEnvelope.getOMFactory().getMetaFactory() == getMetaFactory()) {
+                return omEnvelope;
+            }
+        }
+        return null;
     }
 
     /**
@@ -369,7 +625,7 @@ public class SOAPPartImpl extends SOAPPart {
      * <code>removeNode</code>.
      */
     public DocumentType getDoctype() {
-        return document.getDoctype();
+        return getDocument().getDoctype();
     }
 
     /**
@@ -377,7 +633,7 @@ public class SOAPPartImpl extends SOAPPart {
      * use objects from multiple implementations.
      */
     public DOMImplementation getImplementation() {
-        return document.getImplementation();
+        return getDocument().getImplementation();
     }
 
     /**
@@ -385,7 +641,7 @@ public class SOAPPartImpl extends SOAPPart {
      * element of the document. For HTML documents, this is the element with the tagName "HTML".
      */
     public Element getDocumentElement() {
-        return document.getDocumentElement();
+        return getDocument().getDocumentElement();
     }
 
     /**
@@ -406,7 +662,7 @@ public class SOAPPartImpl extends SOAPPart {
      *                      character.
      */
     public Element createElement(String tagName) throws DOMException {
-        return document.createElement(tagName);
+        return getDocument().createElement(tagName);
     }
 
     /**
@@ -415,7 +671,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @return A new <code>DocumentFragment</code>.
      */
     public DocumentFragment createDocumentFragment() {
-        return document.createDocumentFragment();
+        return getDocument().createDocumentFragment();
     }
 
     /**
@@ -425,7 +681,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @return The new <code>Text</code> object.
      */
     public Text createTextNode(String data) {
-        return document.createTextNode(data);
+        return getDocument().createTextNode(data);
     }
 
     /**
@@ -436,7 +692,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @throws DOMException NOT_SUPPORTED_ERR: Raised if this document is an HTML document.
      */
     public Comment createComment(String data) {
-        return document.createComment(data);
+        return getDocument().createComment(data);
     }
 
     /**
@@ -447,7 +703,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @throws DOMException NOT_SUPPORTED_ERR: Raised if this document is an HTML document.
      */
     public CDATASection createCDATASection(String data) throws DOMException {
-        return document.createCDATASection(data);
+        return getDocument().createCDATASection(data);
     }
 
     /**
@@ -462,7 +718,7 @@ public class SOAPPartImpl extends SOAPPart {
      */
     public ProcessingInstruction createProcessingInstruction(String target, String data)
             throws DOMException {
-        return document.createProcessingInstruction(target, data);
+        return getDocument().createProcessingInstruction(target, data);
     }
 
     /**
@@ -480,7 +736,7 @@ public class SOAPPartImpl extends SOAPPart {
      *                      character.
      */
     public Attr createAttribute(String name) throws DOMException {
-        return document.createAttribute(name);
+        return getDocument().createAttribute(name);
     }
 
     /**
@@ -499,7 +755,7 @@ public class SOAPPartImpl extends SOAPPart {
      *                      document.
      */
     public EntityReference createEntityReference(String name) throws DOMException {
-        return document.createEntityReference(name);
+        return getDocument().createEntityReference(name);
     }
 
     /**
@@ -511,7 +767,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @return A new <code>NodeList</code> object containing all the matched <code>Elements</code>.
      */
     public NodeList getElementsByTagName(String tagname) {
-        return document.getElementsByTagName(tagname);
+        return getDocument().getElementsByTagName(tagname);
     }
 
     /**
@@ -577,7 +833,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public Node importNode(Node importedNode, boolean deep) throws DOMException {
-        return document.importNode(importedNode, deep);
+        return getDocument().importNode(importedNode, deep);
     }
 
     /**
@@ -609,7 +865,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public Element createElementNS(String namespaceURI, String qualifiedName) throws DOMException {
-        return document.createElementNS(namespaceURI, qualifiedName);
+        return getDocument().createElementNS(namespaceURI, qualifiedName);
     }
 
     /**
@@ -644,7 +900,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public Attr createAttributeNS(String namespaceURI, String qualifiedName) throws DOMException {
-        return document.createAttributeNS(namespaceURI, qualifiedName);
+        return getDocument().createAttributeNS(namespaceURI, qualifiedName);
     }
 
     /**
@@ -660,7 +916,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
-        return document.getElementsByTagNameNS(namespaceURI, localName);
+        return getDocument().getElementsByTagNameNS(namespaceURI, localName);
     }
 
     /**
@@ -676,69 +932,70 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public Element getElementById(String elementId) {
-        return document.getElementById(elementId);
+        return getDocument().getElementById(elementId);
     }
 
     public String getInputEncoding() {
         //return ((DeferredDocumentImpl)(((DOMSource)this.source).getNode())).getInputEncoding();
+        getDocument();
         return this.envelope.getEncodingStyle();
     }
 
     public String getXmlEncoding() {
-        return document.getXmlEncoding();
+        return getDocument().getXmlEncoding();
     }
 
     public boolean getXmlStandalone() {
-        return document.getXmlStandalone();
+        return getDocument().getXmlStandalone();
     }
 
     public void setXmlStandalone(boolean xmlStandalone) throws DOMException {
-        document.setXmlStandalone(xmlStandalone);
+        getDocument().setXmlStandalone(xmlStandalone);
     }
 
     public String getXmlVersion() {
-        return document.getXmlVersion();
+        return getDocument().getXmlVersion();
     }
 
     public void setXmlVersion(String xmlVersion) throws DOMException {
-        document.setXmlVersion(xmlVersion);
+        getDocument().setXmlVersion(xmlVersion);
     }
 
     public boolean getStrictErrorChecking() {
-        return document.getStrictErrorChecking();
+        return getDocument().getStrictErrorChecking();
     }
 
     public void setStrictErrorChecking(boolean strictErrorChecking) {
-        document.setStrictErrorChecking(strictErrorChecking);
+        getDocument().setStrictErrorChecking(strictErrorChecking);
     }
 
     public String getDocumentURI() {
-        return document.getDocumentURI();
+        return getDocument().getDocumentURI();
     }
 
     public void setDocumentURI(String documentURI) {
-        document.setDocumentURI(documentURI);
+        getDocument().setDocumentURI(documentURI);
     }
 
     public Node adoptNode(Node source) throws DOMException {
-        return document.adoptNode(source);
+        return getDocument().adoptNode(source);
     }
 
     public DOMConfiguration getDomConfig() {
-        return document.getDomConfig();
+        return getDocument().getDomConfig();
     }
 
     public void normalizeDocument() {
-        document.normalizeDocument();
+        getDocument().normalizeDocument();
     }
 
     public Node renameNode(Node n, String namespaceURI, String qualifiedName) throws DOMException {
-        return document.renameNode(n, namespaceURI, qualifiedName);
+        return getDocument().renameNode(n, namespaceURI, qualifiedName);
     }
 
     /** The name of this node, depending on its type; see the table above. */
     public String getNodeName() {
-        return document.getNodeName();
+        return getDocument().getNodeName();
     }
 
     /**
@@ -750,7 +1007,7 @@ public class SOAPPartImpl extends SOAPPart {
      *                      in a <code>DOMString</code> variable on the implementation platform.
      */
     public String getNodeValue() throws DOMException {
-        return document.getNodeValue();
+        return getDocument().getNodeValue();
     }
 
     /**
@@ -762,12 +1019,12 @@ public class SOAPPartImpl extends SOAPPart {
      *                      in a <code>DOMString</code> variable on the implementation platform.
      */
     public void setNodeValue(String arg0) throws DOMException {
-        document.setNodeValue(arg0);
+        getDocument().setNodeValue(arg0);
     }
 
     /** A code representing the type of the underlying object, as defined above. */
     public short getNodeType() {
-        return document.getNodeType();
+        return getDocument().getNodeType();
     }
 
     /**
@@ -777,7 +1034,7 @@ public class SOAPPartImpl extends SOAPPart {
      * been removed from the tree, this is <code>null</code>.
      */
     public Node getParentNode() {
-        return toSAAJNode(document.getParentNode());
+        return toSAAJNode(getDocument().getParentNode());
     }
 
     /**
@@ -785,7 +1042,7 @@ public class SOAPPartImpl extends SOAPPart {
      * this is a <code>NodeList</code> containing no nodes.
      */
     public NodeList getChildNodes() {
-        NodeList childNodes = document.getChildNodes();
+        NodeList childNodes = getDocument().getChildNodes();
         NodeListImpl nodes = new NodeListImpl();
         for (int i = 0; i < childNodes.getLength(); i++) {
             nodes.addNode(toSAAJNode(childNodes.item(i)));
@@ -795,12 +1052,12 @@ public class SOAPPartImpl extends SOAPPart {
 
     /** The first child of this node. If there is no such node, this returns <code>null</code>. */
     public Node getFirstChild() {
-        return toSAAJNode(document.getFirstChild());
+        return toSAAJNode(getDocument().getFirstChild());
     }
 
     /** The last child of this node. If there is no such node, this returns <code>null</code>. */
     public Node getLastChild() {
-        return toSAAJNode(document.getLastChild());
+        return toSAAJNode(getDocument().getLastChild());
     }
 
     /**
@@ -808,7 +1065,7 @@ public class SOAPPartImpl extends SOAPPart {
      * <code>null</code>.
      */
     public Node getPreviousSibling() {
-        return toSAAJNode(document.getPreviousSibling());
+        return toSAAJNode(getDocument().getPreviousSibling());
     }
 
     /**
@@ -816,7 +1073,7 @@ public class SOAPPartImpl extends SOAPPart {
      * <code>null</code>.
      */
     public Node getNextSibling() {
-        return toSAAJNode(document.getNextSibling());
+        return toSAAJNode(getDocument().getNextSibling());
     }
 
     /**
@@ -824,7 +1081,7 @@ public class SOAPPartImpl extends SOAPPart {
      * <code>Element</code>) or <code>null</code> otherwise.
      */
     public NamedNodeMap getAttributes() {
-        return document.getAttributes();
+        return getDocument().getAttributes();
     }
 
     /**
@@ -834,7 +1091,7 @@ public class SOAPPartImpl extends SOAPPart {
      * <code>Document</code> yet, this is <code>null</code>.
      */
     public Document getOwnerDocument() {
-        return document.getOwnerDocument();
+        return getDocument().getOwnerDocument();
     }
 
     /**
@@ -858,7 +1115,7 @@ public class SOAPPartImpl extends SOAPPart {
      *                      Raised if <code>refChild</code> is not a child of this node.
      */
     public Node insertBefore(Node newChild, Node refChild) throws DOMException {
-        return document.insertBefore(newChild, refChild);
+        return getDocument().insertBefore(newChild, refChild);
     }
 
     /**
@@ -881,7 +1138,7 @@ public class SOAPPartImpl extends SOAPPart {
      *                      <code>oldChild</code> is not a child of this node.
      */
     public Node replaceChild(Node newChild, Node oldChild) throws DOMException {
-        return document.replaceChild(newChild, oldChild);
+        return getDocument().replaceChild(newChild, oldChild);
     }
 
     /**
@@ -900,7 +1157,7 @@ public class SOAPPartImpl extends SOAPPart {
         } else if (oldChild instanceof TextImplEx) {
             // TODO: handle text nodes somehow
         }
-        return document.removeChild(oldChild);
+        return getDocument().removeChild(oldChild);
     }
 
     /**
@@ -919,7 +1176,7 @@ public class SOAPPartImpl extends SOAPPart {
      *                      the previous parent of the node being inserted is readonly.
      */
     public Node appendChild(Node newChild) throws DOMException {
-        return document.appendChild(newChild);
+        return getDocument().appendChild(newChild);
     }
 
     /**
@@ -928,7 +1185,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @return <code>true</code> if this node has any children, <code>false</code> otherwise.
      */
     public boolean hasChildNodes() {
-        return document.hasChildNodes();
+        return getDocument().hasChildNodes();
     }
 
     /**
@@ -952,7 +1209,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @return The duplicate node.
      */
     public Node cloneNode(boolean deep) {
-        return document.cloneNode(deep);
+        return getDocument().cloneNode(deep);
     }
 
     /**
@@ -968,7 +1225,7 @@ public class SOAPPartImpl extends SOAPPart {
      * and <code>CDATASection</code> nodes.
      */
     public void normalize() {
-        document.normalize();
+        getDocument().normalize();
     }
 
     /**
@@ -985,7 +1242,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public boolean isSupported(String feature, String version) {
-        return document.isSupported(feature, version);
+        return getDocument().isSupported(feature, version);
     }
 
     /**
@@ -1002,7 +1259,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public String getNamespaceURI() {
-        return document.getNamespaceURI();
+        return getDocument().getNamespaceURI();
     }
 
     /**
@@ -1032,7 +1289,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public String getPrefix() {
-        return document.getPrefix();
+        return getDocument().getPrefix();
     }
 
     /**
@@ -1062,7 +1319,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public void setPrefix(String arg0) throws DOMException {
-        document.setPrefix(arg0);
+        getDocument().setPrefix(arg0);
     }
 
     /**
@@ -1074,7 +1331,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public String getLocalName() {
-        return document.getLocalName();
+        return getDocument().getLocalName();
     }
 
     /**
@@ -1084,7 +1341,7 @@ public class SOAPPartImpl extends SOAPPart {
      * @since DOM Level 2
      */
     public boolean hasAttributes() {
-        return document.hasAttributes();
+        return getDocument().hasAttributes();
     }
 
     protected void setMessage(SOAPMessageImpl message) {
@@ -1096,51 +1353,51 @@ public class SOAPPartImpl extends SOAPPart {
      */
 
     public String getBaseURI() {
-        return document.getBaseURI();
+        return getDocument().getBaseURI();
     }
 
     public short compareDocumentPosition(Node node) throws DOMException {
-        return document.compareDocumentPosition(node);
+        return getDocument().compareDocumentPosition(node);
     }
 
     public String getTextContent() throws DOMException {
-        return document.getTextContent();
+        return getDocument().getTextContent();
     }
 
     public void setTextContent(String textContent) throws DOMException {
-        document.setTextContent(textContent);
+        getDocument().setTextContent(textContent);
     }
 
     public boolean isSameNode(Node other) {
-        return document.isSameNode(other);
+        return getDocument().isSameNode(other);
     }
 
     public String lookupPrefix(String namespaceURI) {
-        return document.lookupPrefix(namespaceURI);
+        return getDocument().lookupPrefix(namespaceURI);
     }
 
     public boolean isDefaultNamespace(String namespaceURI) {
-        return document.isDefaultNamespace(namespaceURI);
+        return getDocument().isDefaultNamespace(namespaceURI);
     }
 
     public String lookupNamespaceURI(String prefix) {
-        return document.lookupNamespaceURI(prefix);
+        return getDocument().lookupNamespaceURI(prefix);
     }
 
     public boolean isEqualNode(Node node) {
-        return document.isEqualNode(node);
+        return getDocument().isEqualNode(node);
     }
 
     public Object getFeature(String feature, String version) {
-        return document.getFeature(feature, version);
+        return getDocument().getFeature(feature, version);
     }
 
     public Object setUserData(String key, Object data, UserDataHandler handler) {
-        return document.setUserData(key, data, handler);
+        return getDocument().setUserData(key, data, handler);
     }
 
     public Object getUserData(String key) {
-        return document.getUserData(key);
+        return getDocument().getUserData(key);
     }
 
     public String getValue() {
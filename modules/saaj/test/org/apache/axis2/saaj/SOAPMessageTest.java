@@ -54,6 +54,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
@@ -276,6 +278,97 @@ public class SOAPMessageTest extends Assert {
         //assertEquals(contentType.getParameter("start"), contentType2.getParameter("start"));
     }
     
+    /**
+     * Tests that a message that has not been accessed is written out as received (including
+     * insignificant formatting), and that it can still be accessed afterwards.
+     */
+    @Test
+    public void testWriteToWithoutAccess() throws Exception {
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>"
+                + "<soapenv:Header><h:test xmlns:h='urn:test'>value</h:test></soapenv:Header>"
+                + "<soapenv:Body>  <ns:echo xmlns:ns='urn:ns' /></soapenv:Body></soapenv:Envelope>";
+        MimeHeaders headers = new MimeHeaders();
+        headers.addHeader(HTTPConstants.HEADER_CONTENT_TYPE, "text/xml; charset=UTF-8");
+        SOAPMessage msg = MessageFactory.newInstance().createMessage(headers,
+                new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        msg.writeTo(out);
+        assertEquals(xml, out.toString("UTF-8"));
+        
+        SOAPHeader header = msg.getSOAPPart().getEnvelope().getHeader();
+        SOAPElement child = (SOAPElement)header.getChildElements().next();
+        assertEquals("urn:test", child.getNamespaceURI());
+        assertEquals("value", child.getValue());
+    }
+    
+    /**
+     * Tests that a message can be accessed after the stream it was created from has been closed.
+     */
+    @Test
+    public void testAccessAfterStreamClosed() throws Exception {
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>"
+                + "<soapenv:Body><ns:echo xmlns:ns='urn:ns'>value</ns:echo></soapenv:Body>"
+                + "</soapenv:Envelope>";
+        MimeHeaders headers = new MimeHeaders();
+        headers.addHeader(HTTPConstants.HEADER_CONTENT_TYPE, "text/xml; charset=UTF-8");
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(xml.getBytes("UTF-8"))) {
+            private boolean closed;
+            
+            @Override
+            public int read() throws IOException {
+                checkClosed();
+                return super.read();
+            }
+            
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkClosed();
+                return super.read(b, off, len);
+            }
+            
+            @Override
+            public void close() throws IOException {
+                closed = true;
+                super.close();
+            }
+            
+            private void checkClosed() throws IOException {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+            }
+        };
+        SOAPMessage msg = MessageFactory.newInstance().createMessage(headers, in);
+        in.close();
+        
+        SOAPElement child = (SOAPElement)msg.getSOAPBody().getChildElements().next();
+        assertEquals("value", child.getValue());
+    }
+    
+    /**
+     * Tests that a message whose content is not known to be UTF-8 is not written out as received
+     * when UTF-8 is requested.
+     */
+    @Test
+    public void testWriteToWithOtherEncoding() throws Exception {
+        String xml = "<?xml version='1.0' encoding='ISO-8859-1'?>"
+                + "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>"
+                + "<soapenv:Body><ns:echo xmlns:ns='urn:ns'>caf\u00e9</ns:echo></soapenv:Body>"
+                + "</soapenv:Envelope>";
+        MimeHeaders headers = new MimeHeaders();
+        headers.addHeader(HTTPConstants.HEADER_CONTENT_TYPE, "text/xml");
+        SOAPMessage msg = MessageFactory.newInstance().createMessage(headers,
+                new ByteArrayInputStream(xml.getBytes("ISO-8859-1")));
+        msg.setProperty(SOAPMessage.WRITE_XML_DECLARATION, "true");
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        msg.writeTo(out);
+        String result = out.toString("UTF-8");
+        assertTrue(result.indexOf("caf\u00e9") != -1);
+        assertTrue(result.indexOf("ISO-8859-1") == -1);
+    }
+    
     @Validated @Test
     public void testContentTypeUpdateWithAttachmentChanges() throws Exception{
         MessageFactory fac = MessageFactory.newInstance();
@@ -38,8 +38,12 @@ import javax.xml.soap.SOAPHeaderElement;
 import javax.xml.soap.SOAPMessage;
 import javax.xml.soap.SOAPPart;
 import javax.xml.soap.Text;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stax.StAXSource;
 import java.io.File;
+import java.io.StringReader;
 import java.util.Iterator;
 
 /**
@@ -240,4 +244,27 @@ public class SOAPPartTest extends Assert {
         
         assertTrue("soap env after", soapPart.getFirstChild() == null);
     }
+    
+    /**
+     * Tests that content set using a StAXSource is only read from the reader as far as it is
+     * accessed.
+     */
+    @Test
+    public void testSetContentStAXSource() throws Exception {
+        String xml = "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>"
+                + "<soapenv:Header><ns:hdr xmlns:ns='urn:ns'>header</ns:hdr></soapenv:Header>"
+                + "<soapenv:Body><ns:echo xmlns:ns='urn:ns'>value</ns:echo></soapenv:Body>"
+                + "</soapenv:Envelope>";
+        XMLStreamReader reader =
+                XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(xml));
+        SOAPMessage message = MessageFactory.newInstance().createMessage();
+        message.getSOAPPart().setContent(new StAXSource(reader));
+        
+        SOAPElement header = (SOAPElement)message.getSOAPHeader().getChildElements().next();
+        assertEquals("header", header.getValue());
+        assertTrue("the body has been read", reader.hasNext());
+        
+        SOAPElement child = (SOAPElement)message.getSOAPBody().getChildElements().next();
+        assertEquals("value", child.getValue());
+    }
 }
@@ -19,6 +19,7 @@
 
 package org.apache.axis2.maven2.wsdl2code;
 
+import org.apache.axis2.maven.shared.IncrementalBuild;
 import org.apache.axis2.maven.shared.NamespaceMapping;
 import org.apache.axis2.maven.shared.NamespaceMappingUtil;
 import org.apache.axis2.wsdl.codegen.CodeGenConfiguration;
@@ -31,6 +32,7 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -284,6 +286,16 @@ public abstract class AbstractWSDL2CodeMojo extends AbstractMojo {
      * @parameter property="axis2.wsdl2code.skeletonClassName"
      */
     private String skeletonClassName;
+
+    /**
+     * Whether to skip the code generation if the WSDL, the documents it imports and the
+     * parameters have not changed since the last execution. When the code is generated, the
+     * files written with the same content as before keep their modification time, so that only
+     * the changed sources are recompiled.
+     *
+     * @parameter property="axis2.wsdl2code.incremental" default-value="false"
+     */
+    private boolean incremental;
     
     private CodeGenConfiguration buildConfiguration() throws CodeGenerationException, MojoFailureException {
         CodeGenConfiguration config = new CodeGenConfiguration();
@@ -374,13 +386,61 @@ public abstract class AbstractWSDL2CodeMojo extends AbstractMojo {
         return map;
     }
 
+    /**
+     * Fingerprints the inputs of the code generation.
+     *
+     * @return the incremental build, or null if the inputs cannot be read
+     */
+    private IncrementalBuild createIncrementalBuild(File outputDirectory)
+            throws MojoExecutionException {
+        File file = new File(wsdlFile);
+        if (!file.isAbsolute()) {
+            file = new File(project.getBasedir(), wsdlFile);
+        }
+        String wsdlUri = file.exists() ? file.toURI().toString() : wsdlFile;
+        IncrementalBuild incrementalBuild = new IncrementalBuild(
+                new File(project.getBuild().getDirectory()), "axis2-wsdl2code",
+                wsdlUri + "|" + outputDirectory.getAbsolutePath(), outputDirectory, getLog());
+        incrementalBuild.addParameters(this);
+        incrementalBuild.addGenerator(CodeGenerationEngine.class);
+        try {
+            incrementalBuild.addDocument(wsdlUri);
+            if (jibxBindingFile != null) {
+                incrementalBuild.addFile(new File(jibxBindingFile));
+            }
+            if (externalMapping != null) {
+                incrementalBuild.addFile(externalMapping);
+            }
+        } catch (IOException e) {
+            getLog().warn("Unable to fingerprint the inputs, generating all the sources: "
+                    + e.getMessage());
+            return null;
+        }
+        return incrementalBuild;
+    }
+
     public void execute() throws MojoFailureException, MojoExecutionException {
         File outputDirectory = getOutputDirectory();
         outputDirectory.mkdirs();
         addSourceRoot(project, new File(outputDirectory, targetSourceFolderLocation));
 
+        IncrementalBuild incrementalBuild = null;
+        if (incremental) {
+            incrementalBuild = createIncrementalBuild(outputDirectory);
+            if (incrementalBuild != null && incrementalBuild.isUpToDate()) {
+                getLog().info("The generated sources are up to date");
+                return;
+            }
+        }
+
         try {
+            if (incrementalBuild != null) {
+                incrementalBuild.beforeGeneration();
+            }
             new CodeGenerationEngine(buildConfiguration()).generate();
+            if (incrementalBuild != null) {
+                incrementalBuild.afterGeneration();
+            }
         } catch (CodeGenerationException e) {
             Throwable t = e;
             while (t.getCause() != null) {
@@ -388,6 +448,9 @@ public abstract class AbstractWSDL2CodeMojo extends AbstractMojo {
             }
             t.printStackTrace();
             throw new MojoExecutionException(e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to update the incremental build state: "
+                    + e.getMessage(), e);
         }
     }
 
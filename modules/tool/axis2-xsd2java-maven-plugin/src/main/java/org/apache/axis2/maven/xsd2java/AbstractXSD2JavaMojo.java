@@ -19,7 +19,10 @@
 package org.apache.axis2.maven.xsd2java;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 
+import org.apache.axis2.maven.shared.IncrementalBuild;
 import org.apache.axis2.maven.shared.NamespaceMapping;
 import org.apache.axis2.maven.shared.NamespaceMappingUtil;
 import org.apache.axis2.schema.CompilerOptions;
@@ -87,9 +90,53 @@ public abstract class AbstractXSD2JavaMojo extends AbstractMojo {
      */
     private boolean ignoreUnexpected;
 
+    /**
+     * Whether to skip the code generation if the schemas, the schemas they import and the
+     * parameters have not changed since the last execution. When the code is generated, the
+     * files written with the same content as before keep their modification time, so that only
+     * the changed sources are recompiled.
+     * 
+     * @parameter property="axis2.xsd2java.incremental" default-value="false"
+     */
+    private boolean incremental;
+
+    /**
+     * Fingerprints the inputs of the code generation.
+     *
+     * @return the incremental build, or null if the inputs cannot be read
+     */
+    private IncrementalBuild createIncrementalBuild(File outputDirectory)
+            throws MojoExecutionException {
+        IncrementalBuild incrementalBuild = new IncrementalBuild(
+                new File(project.getBuild().getDirectory()), "axis2-xsd2java",
+                Arrays.toString(xsdFiles) + "|" + outputDirectory.getAbsolutePath(),
+                outputDirectory, getLog());
+        incrementalBuild.addParameters(this);
+        incrementalBuild.addGenerator(SchemaCompiler.class);
+        try {
+            for (File xsdFile : xsdFiles) {
+                incrementalBuild.addDocument(xsdFile.toURI().toString());
+            }
+        } catch (IOException e) {
+            getLog().warn("Unable to fingerprint the inputs, generating all the sources: "
+                    + e.getMessage());
+            return null;
+        }
+        return incrementalBuild;
+    }
+
     public void execute() throws MojoExecutionException, MojoFailureException {
         File outputDirectory = getOutputDirectory();
         outputDirectory.mkdirs();
+        IncrementalBuild incrementalBuild = null;
+        if (incremental) {
+            incrementalBuild = createIncrementalBuild(outputDirectory);
+            if (incrementalBuild != null && incrementalBuild.isUpToDate()) {
+                getLog().info("The generated sources are up to date");
+                addSourceRoot(project);
+                return;
+            }
+        }
         CompilerOptions compilerOptions = new CompilerOptions();
         compilerOptions.setOutputLocation(outputDirectory);
         compilerOptions.setGenerateAll(true);
@@ -105,13 +152,21 @@ public abstract class AbstractXSD2JavaMojo extends AbstractMojo {
         compilerOptions.setIgnoreUnexpected(ignoreUnexpected);
         compilerOptions.setWriteOutput(true);
         try {
+            if (incrementalBuild != null) {
+                incrementalBuild.beforeGeneration();
+            }
             for (File xsdFile : xsdFiles) {
                 XmlSchemaCollection schemaCollection = new XmlSchemaCollection();
                 SchemaCompiler compiler = new SchemaCompiler(compilerOptions);
                 compiler.compile(schemaCollection.read(new InputSource(xsdFile.toURI().toString())));
             }
+            if (incrementalBuild != null) {
+                incrementalBuild.afterGeneration();
+            }
         } catch (SchemaCompilationException ex) {
             throw new MojoExecutionException("An error occurred during 'xsd2java' processing: " + ex.getMessage(), ex);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Unable to update the incremental build state: " + ex.getMessage(), ex);
         }
         addSourceRoot(project);
     }
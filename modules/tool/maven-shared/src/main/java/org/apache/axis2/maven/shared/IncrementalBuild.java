@@ -0,0 +1,490 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.maven.shared;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Supports the incremental mode of the code generation goals.
+ * <p>
+ * The inputs of a goal are fingerprinted: the parameters of the mojo, the jars of the code
+ * generator, and the content of the input documents together with the WSDL and schema documents
+ * they import or include. The fingerprint and the list of generated files are stored in a state
+ * file, which is specific to the inputs, the output directory and the parameters of the
+ * execution. If the fingerprint has not changed and the generated files still exist,
+ * {@link #isUpToDate()} returns true and the goal skips the generation.
+ * <p>
+ * Otherwise the goal calls {@link #beforeGeneration()} and {@link #afterGeneration()} around the
+ * generation. The generated files that have the same content as before get back their previous
+ * modification time, so that only the files that actually changed are seen as modified by the
+ * incremental compilation that follows.
+ */
+public class IncrementalBuild {
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final String FILE_KEY_PREFIX = "file.";
+
+    private static final Set<String> IMPORT_ELEMENTS =
+            new HashSet<String>(Arrays.asList("import", "include", "redefine"));
+
+    private final File buildDirectory;
+    private final String pluginName;
+    private final String key;
+    private final File outputDirectory;
+    private final Log log;
+    private final MessageDigest optionsDigest;
+    private final MessageDigest fingerprintDigest;
+    private final Set<String> documents = new HashSet<String>();
+    private File stateFile;
+    private Properties state;
+    private String fingerprint;
+    private Map<String,FileInfo> filesBefore;
+
+    private static class FileInfo {
+        final long lastModified;
+        final long length;
+        final String hash;
+
+        FileInfo(long lastModified, long length, String hash) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * @param buildDirectory the build directory of the project
+     * @param pluginName the name of the plugin
+     * @param key a string identifying the inputs and the output directory of the execution
+     * @param outputDirectory the directory in which the files are generated
+     * @param log the log of the mojo
+     */
+    public IncrementalBuild(File buildDirectory, String pluginName, String key,
+            File outputDirectory, Log log) {
+        this.buildDirectory = buildDirectory;
+        this.pluginName = pluginName;
+        this.key = key;
+        this.outputDirectory = outputDirectory;
+        this.log = log;
+        optionsDigest = newDigest();
+        fingerprintDigest = newDigest();
+    }
+
+    /**
+     * Get the file in which the state of the execution is stored. Executions that generate code
+     * from different inputs, into different directories or with different options use different
+     * state files. No option may be added once this method has been called.
+     */
+    public File getStateFile() {
+        if (stateFile == null) {
+            String name = hex(newDigest().digest((key + "|" + hex(optionsDigest.digest()))
+                    .getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+            stateFile = new File(buildDirectory,
+                    "maven-status/" + pluginName + "/" + name + ".state");
+        }
+        return stateFile;
+    }
+
+    private Properties getState() {
+        if (state == null) {
+            state = new Properties();
+            File file = getStateFile();
+            if (file.isFile()) {
+                try {
+                    InputStream in = new FileInputStream(file);
+                    try {
+                        state.load(in);
+                    } finally {
+                        in.close();
+                    }
+                } catch (IOException e) {
+                    log.warn("Ignoring the incremental build state " + file + ": "
+                            + e.getMessage());
+                    state.clear();
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Adds the parameters of a mojo to the fingerprint. These are the non static fields of the
+     * mojo classes, except those that hold Maven objects, such as the project.
+     */
+    public void addParameters(Object mojo) throws MojoExecutionException {
+        for (Class<?> clazz = mojo.getClass();
+                clazz != null && !clazz.getName().startsWith("org.apache.maven.");
+                clazz = clazz.getSuperclass()) {
+            for (Field field : getSortedFields(clazz)) {
+                if (field.getType().getName().startsWith("org.apache.maven.")) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    addOption(clazz.getName() + "." + field.getName(), field.get(mojo));
+                } catch (IllegalAccessException e) {
+                    throw new MojoExecutionException("Unable to read the parameter "
+                            + field.getName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an option to the fingerprint and to the key of the state file.
+     */
+    public void addOption(String name, Object value) {
+        byte[] bytes = describe(name, value);
+        optionsDigest.update(bytes);
+        fingerprintDigest.update(bytes);
+    }
+
+    private void addInput(String name, Object value) {
+        fingerprintDigest.update(describe(name, value));
+    }
+
+    private static byte[] describe(String name, Object value) {
+        StringBuilder buffer = new StringBuilder(name).append('=');
+        describe(buffer, value);
+        buffer.append('\n');
+        return buffer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Adds the code generator to the fingerprint, so that the code is generated again when
+     * another version of the generator or of a data binding is used. All the jars of the class
+     * loader of the generator, i.e. of the plugin, are included.
+     *
+     * @param clazz a class of the code generator
+     */
+    public void addGenerator(Class<?> clazz) {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader instanceof URLClassLoader) {
+            addClasspath(((URLClassLoader)classLoader).getURLs());
+        } else {
+            CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+            addClasspath(codeSource == null ? null : codeSource.getLocation());
+        }
+    }
+
+    void addClasspath(URL... locations) {
+        for (URL location : locations) {
+            addInput("generator", location);
+            if (location != null && "file".equals(location.getProtocol())) {
+                try {
+                    File file = new File(location.toURI());
+                    if (file.isFile()) {
+                        addInput("generator.length", file.length());
+                        addInput("generator.lastModified", file.lastModified());
+                    }
+                } catch (URISyntaxException e) {
+                    // the location identifies the jar well enough
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the content of an input file that is not a WSDL or schema document, e.g. a binding
+     * file, to the fingerprint.
+     */
+    public void addFile(File file) throws IOException {
+        addInput("file", file.getAbsolutePath());
+        fingerprintDigest.update(read(file.toURI().toURL()));
+    }
+
+    /**
+     * Adds the content of a WSDL or schema document to the fingerprint, together with the
+     * documents it imports or includes.
+     *
+     * @param uri the URI of the document
+     * @throws IOException if a document cannot be read
+     */
+    public void addDocument(String uri) throws IOException {
+        if (!documents.add(uri)) {
+            return;
+        }
+        byte[] content = read(new URL(uri));
+        addInput("document", uri);
+        fingerprintDigest.update(content);
+        for (String location : getImportedLocations(uri, content)) {
+            addDocument(location);
+        }
+    }
+
+    private static List<String> getImportedLocations(String uri, byte[] content)
+            throws IOException {
+        List<String> locations = new ArrayList<String>();
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(uri,
+                    new ByteArrayInputStream(content));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamReader.START_ELEMENT
+                            && IMPORT_ELEMENTS.contains(reader.getLocalName())) {
+                        // WSDL 1.1 and 2.0 use "location", schemas use "schemaLocation"
+                        String location = reader.getAttributeValue(null, "schemaLocation");
+                        if (location == null) {
+                            location = reader.getAttributeValue(null, "location");
+                        }
+                        if (location != null && location.length() > 0) {
+                            locations.add(URI.create(uri).resolve(location.trim()).toString());
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Unable to parse " + uri + ": " + e.getMessage(), e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid import location in " + uri + ": " + e.getMessage(), e);
+        }
+        return locations;
+    }
+
+    /**
+     * Checks whether the code generated for the same inputs is still present.
+     */
+    public boolean isUpToDate() {
+        Properties state = getState();
+        if (!getFingerprint().equals(state.getProperty(FINGERPRINT_KEY))) {
+            return false;
+        }
+        for (String key : state.stringPropertyNames()) {
+            if (key.startsWith(FILE_KEY_PREFIX)
+                    && !new File(outputDirectory, key.substring(FILE_KEY_PREFIX.length()))
+                            .isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the content of the output directory before the files are generated.
+     */
+    public void beforeGeneration() throws IOException {
+        filesBefore = new HashMap<String,FileInfo>();
+        for (Map.Entry<String,File> entry : listFiles().entrySet()) {
+            File file = entry.getValue();
+            filesBefore.put(entry.getKey(), new FileInfo(file.lastModified(), file.length(),
+                    hash(file)));
+        }
+    }
+
+    /**
+     * Restores the modification time of the files that were written with the same content, and
+     * stores the new state.
+     */
+    public void afterGeneration() throws IOException {
+        Properties newState = new Properties();
+        newState.setProperty(FINGERPRINT_KEY, getFingerprint());
+        int written = 0;
+        int changed = 0;
+        for (Map.Entry<String,File> entry : listFiles().entrySet()) {
+            String path = entry.getKey();
+            File file = entry.getValue();
+            FileInfo before = filesBefore.get(path);
+            if (before != null && before.lastModified == file.lastModified()
+                    && before.length == file.length()) {
+                // not written by this generation
+                continue;
+            }
+            String hash = hash(file);
+            written++;
+            if (before != null && before.hash.equals(hash)) {
+                file.setLastModified(before.lastModified);
+            } else {
+                changed++;
+            }
+            newState.setProperty(FILE_KEY_PREFIX + path, hash);
+        }
+        log.info("Generated " + written + " files, " + changed + " of them changed");
+
+        File file = getStateFile();
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Unable to create " + dir);
+        }
+        OutputStream out = new FileOutputStream(file);
+        try {
+            newState.store(out, null);
+        } finally {
+            out.close();
+        }
+    }
+
+    private String getFingerprint() {
+        if (fingerprint == null) {
+            fingerprint = hex(fingerprintDigest.digest());
+        }
+        return fingerprint;
+    }
+
+    private Map<String,File> listFiles() {
+        Map<String,File> files = new TreeMap<String,File>();
+        listFiles(outputDirectory, "", files);
+        return files;
+    }
+
+    private static void listFiles(File dir, String prefix, Map<String,File> files) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                listFiles(child, prefix + child.getName() + "/", files);
+            } else {
+                files.put(prefix + child.getName(), child);
+            }
+        }
+    }
+
+    private static void describe(StringBuilder buffer, Object value) {
+        if (value == null) {
+            buffer.append("null");
+        } else if (value.getClass().isArray()) {
+            buffer.append('[');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                describe(buffer, Array.get(value, i));
+                buffer.append(',');
+            }
+            buffer.append(']');
+        } else if (value instanceof Map) {
+            Map<String,Object> sorted = new TreeMap<String,Object>();
+            for (Map.Entry<?,?> entry : ((Map<?,?>)value).entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            buffer.append('{');
+            for (Map.Entry<String,Object> entry : sorted.entrySet()) {
+                buffer.append(entry.getKey()).append('=');
+                describe(buffer, entry.getValue());
+                buffer.append(',');
+            }
+            buffer.append('}');
+        } else if (value.getClass().getName().startsWith("java.")) {
+            buffer.append(value);
+        } else {
+            // a data class of the plugin configuration, such as NamespaceMapping
+            buffer.append(value.getClass().getName()).append('{');
+            for (Field field : getSortedFields(value.getClass())) {
+                buffer.append(field.getName()).append('=');
+                try {
+                    field.setAccessible(true);
+                    describe(buffer, field.get(value));
+                } catch (IllegalAccessException e) {
+                    buffer.append('?');
+                }
+                buffer.append(',');
+            }
+            buffer.append('}');
+        }
+    }
+
+    private static List<Field> getSortedFields(Class<?> clazz) {
+        List<Field> fields = new ArrayList<Field>();
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                fields.add(field);
+            }
+        }
+        fields.sort(new Comparator<Field>() {
+            public int compare(Field f1, Field f2) {
+                return f1.getName().compareTo(f2.getName());
+            }
+        });
+        return fields;
+    }
+
+    private static byte[] read(URL url) throws IOException {
+        InputStream in = url.openStream();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static String hash(File file) throws IOException {
+        return hex(newDigest().digest(read(file.toURI().toURL())));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder buffer = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+            buffer.append(Character.forDigit(b & 0xF, 16));
+        }
+        return buffer.toString();
+    }
+}
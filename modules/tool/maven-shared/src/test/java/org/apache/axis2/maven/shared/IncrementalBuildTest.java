@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.maven.shared;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalBuildTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final Log log = new SystemStreamLog();
+    private File buildDirectory;
+    private File outputDirectory;
+    private File wsdl;
+    private File xsd;
+
+    @SuppressWarnings("unused")
+    private static class Mojo {
+        private String packageName;
+        private boolean generateServerSide;
+
+        Mojo(String packageName, boolean generateServerSide) {
+            this.packageName = packageName;
+            this.generateServerSide = generateServerSide;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        buildDirectory = tmp.newFolder("target");
+        outputDirectory = tmp.newFolder("generated");
+        File inputDirectory = tmp.newFolder("input");
+        wsdl = new File(inputDirectory, "service.wsdl");
+        write(wsdl, "<definitions xmlns='http://schemas.xmlsoap.org/wsdl/'>"
+                + "<types><schema xmlns='http://www.w3.org/2001/XMLSchema'>"
+                + "<import schemaLocation='service.xsd'/></schema></types></definitions>");
+        xsd = new File(inputDirectory, "service.xsd");
+        write(xsd, "<schema xmlns='http://www.w3.org/2001/XMLSchema'/>");
+    }
+
+    private IncrementalBuild newBuild(Object mojo) throws Exception {
+        IncrementalBuild build = new IncrementalBuild(buildDirectory, "test", "key",
+                outputDirectory, log);
+        build.addParameters(mojo);
+        build.addDocument(wsdl.toURI().toString());
+        return build;
+    }
+
+    private void generate(IncrementalBuild build, String content) throws Exception {
+        build.beforeGeneration();
+        write(new File(outputDirectory, "demo/Service.java"), content);
+        build.afterGeneration();
+    }
+
+    @Test
+    public void testStateFileDependsOnOptions() throws Exception {
+        File stateFile = newBuild(new Mojo("demo", false)).getStateFile();
+        assertEquals(stateFile, newBuild(new Mojo("demo", false)).getStateFile());
+        assertNotEquals(stateFile, newBuild(new Mojo("demo", true)).getStateFile());
+        assertNotEquals(stateFile, newBuild(new Mojo("other", false)).getStateFile());
+        assertNotEquals(stateFile, new IncrementalBuild(buildDirectory, "test", "otherKey",
+                outputDirectory, log).getStateFile());
+        // the content of the documents is not part of the key
+        write(xsd, "<schema xmlns='http://www.w3.org/2001/XMLSchema' version='2'/>");
+        assertEquals(stateFile, newBuild(new Mojo("demo", false)).getStateFile());
+    }
+
+    @Test
+    public void testUpToDate() throws Exception {
+        IncrementalBuild build = newBuild(new Mojo("demo", false));
+        assertFalse(build.isUpToDate());
+        generate(build, "class Service {}");
+        assertTrue(build.getStateFile().isFile());
+        assertTrue(newBuild(new Mojo("demo", false)).isUpToDate());
+    }
+
+    @Test
+    public void testImportedDocumentChanged() throws Exception {
+        generate(newBuild(new Mojo("demo", false)), "class Service {}");
+        write(xsd, "<schema xmlns='http://www.w3.org/2001/XMLSchema' version='2'/>");
+        assertFalse(newBuild(new Mojo("demo", false)).isUpToDate());
+    }
+
+    @Test
+    public void testGeneratedFileDeleted() throws Exception {
+        generate(newBuild(new Mojo("demo", false)), "class Service {}");
+        assertTrue(new File(outputDirectory, "demo/Service.java").delete());
+        assertFalse(newBuild(new Mojo("demo", false)).isUpToDate());
+    }
+
+    @Test
+    public void testDataBindingJarChanged() throws Exception {
+        File jar = tmp.newFile("adb-codegen.jar");
+        write(jar, "1.0");
+        IncrementalBuild build = newBuild(new Mojo("demo", false));
+        build.addClasspath(jar.toURI().toURL());
+        generate(build, "class Service {}");
+
+        build = newBuild(new Mojo("demo", false));
+        build.addClasspath(jar.toURI().toURL());
+        assertTrue(build.isUpToDate());
+
+        write(jar, "1.0.1");
+        build = newBuild(new Mojo("demo", false));
+        build.addClasspath(jar.toURI().toURL());
+        assertFalse(build.isUpToDate());
+    }
+
+    @Test
+    public void testModificationTimeOfUnchangedFiles() throws Exception {
+        File unchanged = new File(outputDirectory, "demo/Service.java");
+        File changed = new File(outputDirectory, "demo/Other.java");
+        write(unchanged, "class Service {}");
+        write(changed, "class Other {}");
+        long lastModified = System.currentTimeMillis() - 3600000;
+        unchanged.setLastModified(lastModified);
+        changed.setLastModified(lastModified);
+        lastModified = unchanged.lastModified();
+
+        IncrementalBuild build = newBuild(new Mojo("demo", false));
+        build.beforeGeneration();
+        write(unchanged, "class Service {}");
+        write(changed, "class Other { int i; }");
+        build.afterGeneration();
+        assertEquals(lastModified, unchanged.lastModified());
+        assertNotEquals(lastModified, changed.lastModified());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+    }
+}
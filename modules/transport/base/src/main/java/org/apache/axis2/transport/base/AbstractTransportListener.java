@@ -325,7 +325,14 @@ public abstract class AbstractTransportListener implements TransportListener {
                 synchronousCallback.setInMessageContext(msgCtx);
                 callBackMap.remove(replyToMessageID);
             } else {
-                AxisEngine.receive(msgCtx);
+                long start = System.nanoTime();
+                try {
+                    AxisEngine.receive(msgCtx);
+                } finally {
+                    if (metrics != null) {
+                        metrics.notifyLatency(msgCtx, System.nanoTime() - start);
+                    }
+                }
             }
 
         } catch (AxisFault e) {
@@ -506,12 +513,40 @@ public abstract class AbstractTransportListener implements TransportListener {
         return null;
     }
 
+    public Map getSizeReceivedStatistics() {
+        if (metrics != null) {
+            return metrics.getSizeReceivedStatistics();
+        }
+        return null;
+    }
+
+    public Map getSizeSentStatistics() {
+        if (metrics != null) {
+            return metrics.getSizeSentStatistics();
+        }
+        return null;
+    }
+
+    public Map getLatencyStatistics() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics();
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
         }
     }
 
+    public Map snapshotAndResetStatistics() {
+        if (metrics != null) {
+            return metrics.snapshot(true);
+        }
+        return null;
+    }
+
     public long getLastResetTime() {
         if (metrics != null) {
             return metrics.getLastResetTime();
@@ -526,6 +561,17 @@ public abstract class AbstractTransportListener implements TransportListener {
         return -1;
     }    
 
+    /**
+     * Get transport specific information about the runtime state of the endpoint of the given
+     * service, exposed through its {@link TransportListenerEndpointView}.
+     *
+     * @param serviceName the name of the service
+     * @return a list of name=value pairs, or null if the transport provides no such information
+     */
+    public String[] getEndpointStatus(String serviceName) {
+        return null;
+    }
+
     private String getEndpointMBeanName(String serviceName) {
         return mbeanSupport.getMBeanName() + ",Group=Services,Service=" + serviceName;
     }
@@ -127,6 +127,16 @@ public abstract class AbstractTransportListenerEx<E extends ProtocolEndpoint>
         }
     }
 
+    @Override
+    public String[] getEndpointStatus(String serviceName) {
+        for (E endpoint : serviceEndpoints) {
+            if (endpoint.getService().getName().equals(serviceName)) {
+                return endpoint.getStatus();
+            }
+        }
+        return null;
+    }
+
     /**
      * Get the collection of all protocol endpoints managed by this transport, including the
      * endpoint configured at the transport level.
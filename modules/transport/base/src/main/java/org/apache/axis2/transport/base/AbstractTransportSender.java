@@ -103,6 +103,18 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         String targetAddress = (String) msgContext.getProperty(
             Constants.Configuration.TRANSPORT_URL);
 
+        long start = System.nanoTime();
+        try {
+            send(msgContext, targetAddress);
+        } finally {
+            if (metrics != null) {
+                metrics.notifyLatency(msgContext, System.nanoTime() - start);
+            }
+        }
+        return InvocationResponse.CONTINUE;
+    }
+
+    private void send(MessageContext msgContext, String targetAddress) throws AxisFault {
         if (targetAddress != null) {
             sendMessage(msgContext, targetAddress, null);
         } else if (msgContext.getTo() != null && !msgContext.getTo().hasAnonymousAddress()) {
@@ -110,17 +122,13 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
 
             if (!msgContext.getTo().hasNoneAddress()) {
                 sendMessage(msgContext, targetAddress, null);
-            } else {
-                //Don't send the message.
-                return InvocationResponse.CONTINUE;
             }
+            //Don't send the message otherwise.
         } else if (msgContext.isServerSide()) {
             // get the out transport info for server side when target EPR is unknown
             sendMessage(msgContext, null,
                 (OutTransportInfo) msgContext.getProperty(Constants.OUT_TRANSPORT_INFO));
         }
-
-        return InvocationResponse.CONTINUE;
     }
 
     /**
@@ -378,12 +386,40 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         return null;
     }
 
+    public Map getSizeReceivedStatistics() {
+        if (metrics != null) {
+            return metrics.getSizeReceivedStatistics();
+        }
+        return null;
+    }
+
+    public Map getSizeSentStatistics() {
+        if (metrics != null) {
+            return metrics.getSizeSentStatistics();
+        }
+        return null;
+    }
+
+    public Map getLatencyStatistics() {
+        if (metrics != null) {
+            return metrics.getLatencyStatistics();
+        }
+        return null;
+    }
+
     public void resetStatistics() {
         if (metrics != null) {
             metrics.reset();
         }
     }
 
+    public Map snapshotAndResetStatistics() {
+        if (metrics != null) {
+            return metrics.snapshot(true);
+        }
+        return null;
+    }
+
     public long getLastResetTime() {
         if (metrics != null) {
             return metrics.getLastResetTime();
@@ -0,0 +1,220 @@
+/*
+*  Licensed to the Apache Software Foundation (ASF) under one
+*  or more contributor license agreements.  See the NOTICE file
+*  distributed with this work for additional information
+*  regarding copyright ownership.  The ASF licenses this file
+*  to you under the Apache License, Version 2.0 (the
+*  "License"); you may not use this file except in compliance
+*  with the License.  You may obtain a copy of the License at
+*
+*   http://www.apache.org/licenses/LICENSE-2.0
+*
+*  Unless required by applicable law or agreed to in writing,
+*  software distributed under the License is distributed on an
+*   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+*  KIND, either express or implied.  See the License for the
+*  specific language governing permissions and limitations
+*  under the License.
+*/
+package org.apache.axis2.transport.base;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of non negative values, used for message sizes and latencies.
+ * Values are counted in buckets that split every power of two range into eight sub ranges,
+ * so that percentiles are reported with a relative error of at most 12.5%, while min, max
+ * and mean are exact.
+ * <p>
+ * A histogram is reset in place, so that it can be held by the recording threads. A value
+ * recorded while the histogram is being reset is not lost, but it may be counted in the
+ * snapshot taken by the reset for some of the statistics, and after it for others; the min
+ * and max of the period after the reset may miss it.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value
+     * @param value the value; negative values are recorded as zero
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        min.accumulate(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Get the number of values recorded, without taking a snapshot
+     * @return the number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the smallest value recorded, without taking a snapshot
+     * @return the smallest value, or 0 if none was recorded
+     */
+    public long getMin() {
+        return count.sum() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * Get the largest value recorded, without taking a snapshot
+     * @return the largest value, or 0 if none was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the mean of the values recorded, without taking a snapshot
+     * @return the mean, or 0 if no value was recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Take a snapshot of the recorded values
+     * @param reset true to start over with an empty histogram
+     * @return the snapshot
+     */
+    public Snapshot snapshot(boolean reset) {
+        long[] bucketCounts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            bucketCounts[i] = reset ? counts.getAndSet(i, 0) : counts.get(i);
+            count += bucketCounts[i];
+        }
+        long total = sum.sum();
+        if (reset) {
+            // subtract what was read rather than resetting the adders, which could lose updates
+            this.count.add(-count);
+            sum.add(-total);
+            return new Snapshot(bucketCounts, count, total, min.getThenReset(),
+                max.getThenReset());
+        } else {
+            return new Snapshot(bucketCounts, count, total, min.get(), max.get());
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * An immutable view of the values recorded by a {@link Histogram}
+     */
+    public static class Snapshot {
+        private final long[] bucketCounts;
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+
+        Snapshot(long[] bucketCounts, long count, long sum, long min, long max) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.sum = sum;
+            this.min = count == 0 ? 0 : min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        /**
+         * Get the value below which the given fraction of the recorded values fall
+         * @param fraction a value between 0 and 1, e.g. 0.99 for the 99th percentile
+         * @return the upper bound of the bucket containing the percentile, limited to the max
+         */
+        public long getPercentile(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= rank && seen > 0) {
+                    long upperBound = i + 1 < BUCKETS ? bucketLowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                    return Math.max(min, Math.min(upperBound, max));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Summarize this snapshot for management purposes
+         * @return count, min, max, mean and the 50th, 90th and 99th percentiles by name
+         */
+        public Map<String, Number> toMap() {
+            Map<String, Number> map = new LinkedHashMap<String, Number>();
+            map.put("count", count);
+            map.put("min", min);
+            map.put("max", max);
+            map.put("mean", getMean());
+            map.put("p50", getPercentile(0.5));
+            map.put("p90", getPercentile(0.9));
+            map.put("p99", getPercentile(0.99));
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return toMap().toString();
+        }
+    }
+}
@@ -43,8 +43,12 @@ public interface ManagementSupport {
     public long getMaxSizeSent();
     public double getAvgSizeSent();
     public Map getResponseCodeTable();
+    public Map getSizeReceivedStatistics();
+    public Map getSizeSentStatistics();
+    public Map getLatencyStatistics();
 
     public void resetStatistics();
+    public Map snapshotAndResetStatistics();
     public long getLastResetTime();
     public long getMetricsWindow();
 }
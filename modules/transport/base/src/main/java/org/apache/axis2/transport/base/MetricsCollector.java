@@ -20,63 +20,111 @@
 package org.apache.axis2.transport.base;
 import org.apache.axis2.context.MessageContext;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Collects metrics related to a transport that has metrics support enabled
+ * Collects metrics related to a transport that has metrics support enabled. Counters are
+ * lock free, so that concurrent transport threads do not contend on the collector. Message
+ * sizes and processing latencies (in microseconds) are recorded in {@link Histogram}s, which
+ * provide min, max, mean and percentiles.
  */
 public class MetricsCollector {
 
     public static final int LEVEL_NONE = 0;
     public static final int LEVEL_TRANSPORT = 1;
     public static final int LEVEL_FULL = 2;
-    private static final Long ONE = (long) 1;
+
+    /** The key of the latency statistics over all services */
+    public static final String TOTAL = "total";
 
     /** By default, full metrics collection is enabled */
     private int level = LEVEL_FULL;
 
-    private long messagesReceived;
-    private long faultsReceiving;
-    private long timeoutsReceiving;
-    private long bytesReceived;
-    private long minSizeReceived;
-    private long maxSizeReceived;
-    private double avgSizeReceived;
+    private final LongAdder messagesReceived = new LongAdder();
+    private final LongAdder faultsReceiving = new LongAdder();
+    private final LongAdder timeoutsReceiving = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final Histogram sizeReceived = new Histogram();
+
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder faultsSending = new LongAdder();
+    private final LongAdder timeoutsSending = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final Histogram sizeSent = new Histogram();
 
-    private long messagesSent;
-    private long faultsSending;
-    private long timeoutsSending;
-    private long bytesSent;
-    private long minSizeSent;
-    private long maxSizeSent;
-    private double avgSizeSent;
+    private final ConcurrentMap<Integer, LongAdder> responseCodeTable =
+        new ConcurrentHashMap<Integer, LongAdder>();
 
-    private final Map<Integer, Long> responseCodeTable =
-        Collections.synchronizedMap(new HashMap<Integer, Long>());
+    /** Latencies over all services, by service and by service/operation */
+    private final Histogram latency = new Histogram();
+    private final ConcurrentMap<String, Histogram> latencyByEndpoint =
+        new ConcurrentHashMap<String, Histogram>();
 
-    private long lastResetTime = System.currentTimeMillis();
+    private volatile long lastResetTime = System.currentTimeMillis();
 
     public void reset() {
-        messagesReceived  = 0;
-        faultsReceiving   = 0;
-        timeoutsReceiving = 0;
-        bytesReceived     = 0;
-        minSizeReceived   = 0;
-        maxSizeReceived   = 0;
-        avgSizeReceived   = 0;
-
-        messagesSent      = 0;
-        faultsSending     = 0;
-        timeoutsSending   = 0;
-        bytesSent         = 0;
-        minSizeSent       = 0;
-        maxSizeSent       = 0;
-        avgSizeSent       = 0;
-
-        responseCodeTable.clear();
-        lastResetTime = System.currentTimeMillis();
+        snapshot(true);
+    }
+
+    /**
+     * Take a snapshot of all metrics collected since the last reset
+     *
+     * @param reset true to reset the metrics in the same pass, so that no update is lost
+     *              between reading and resetting them. Counters and histograms are reset in
+     *              place, hence the response codes and endpoints seen so far are kept, with
+     *              zero counts
+     * @return the metrics by name; histograms are summarized as nested maps
+     */
+    public Map<String, Object> snapshot(boolean reset) {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("lastResetTime", lastResetTime);
+        snapshot.put("messagesReceived", sum(messagesReceived, reset));
+        snapshot.put("faultsReceiving", sum(faultsReceiving, reset));
+        snapshot.put("timeoutsReceiving", sum(timeoutsReceiving, reset));
+        snapshot.put("bytesReceived", sum(bytesReceived, reset));
+        snapshot.put("sizeReceived", sizeReceived.snapshot(reset).toMap());
+        snapshot.put("messagesSent", sum(messagesSent, reset));
+        snapshot.put("faultsSending", sum(faultsSending, reset));
+        snapshot.put("timeoutsSending", sum(timeoutsSending, reset));
+        snapshot.put("bytesSent", sum(bytesSent, reset));
+        snapshot.put("sizeSent", sizeSent.snapshot(reset).toMap());
+
+        Map<Integer, Long> responseCodes = new TreeMap<Integer, Long>();
+        for (Map.Entry<Integer, LongAdder> entry : responseCodeTable.entrySet()) {
+            responseCodes.put(entry.getKey(), sum(entry.getValue(), reset));
+        }
+        snapshot.put("responseCodes", responseCodes);
+        snapshot.put("latency", latencySnapshot(reset));
+        if (reset) {
+            lastResetTime = System.currentTimeMillis();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Read a counter, resetting it in place by subtracting the value read, so that concurrent
+     * increments are kept for the next snapshot
+     */
+    private static long sum(LongAdder adder, boolean reset) {
+        long sum = adder.sum();
+        if (reset) {
+            adder.add(-sum);
+        }
+        return sum;
+    }
+
+    private Map<String, Map<String, Number>> latencySnapshot(boolean reset) {
+        Map<String, Map<String, Number>> snapshot = new LinkedHashMap<String, Map<String, Number>>();
+        snapshot.put(TOTAL, latency.snapshot(reset).toMap());
+        for (Map.Entry<String, Histogram> entry : new TreeMap<String, Histogram>(latencyByEndpoint).entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot(reset).toMap());
+        }
+        return snapshot;
     }
 
     public int getLevel() {
@@ -92,19 +140,19 @@ public class MetricsCollector {
     }
 
     public long getMessagesReceived() {
-        return messagesReceived;
+        return messagesReceived.sum();
     }
 
     public long getFaultsReceiving() {
-        return faultsReceiving;
+        return faultsReceiving.sum();
     }
 
     public long getTimeoutsReceiving() {
-        return timeoutsReceiving;
+        return timeoutsReceiving.sum();
     }
 
     public long getBytesReceived() {
-        return bytesReceived;
+        return bytesReceived.sum();
     }
 
     /**
@@ -114,110 +162,168 @@ public class MetricsCollector {
      * @return the number of messages sent
      */
     public long getMessagesSent() {
-        return messagesSent;
+        return messagesSent.sum();
     }
 
     public long getFaultsSending() {
-        return faultsSending;
+        return faultsSending.sum();
     }
 
     public long getTimeoutsSending() {
-        return timeoutsSending;
+        return timeoutsSending.sum();
     }
 
     public long getBytesSent() {
-        return bytesSent;
+        return bytesSent.sum();
     }
 
     public long getMinSizeReceived() {
-        return minSizeReceived;
+        return sizeReceived.getMin();
     }
 
     public long getMaxSizeReceived() {
-        return maxSizeReceived;
+        return sizeReceived.getMax();
     }
 
     public long getMinSizeSent() {
-        return minSizeSent;
+        return sizeSent.getMin();
     }
 
     public long getMaxSizeSent() {
-        return maxSizeSent;
+        return sizeSent.getMax();
     }
 
     public double getAvgSizeReceived() {
-        return avgSizeReceived;
+        return sizeReceived.getMean();
     }
 
     public double getAvgSizeSent() {
-        return avgSizeSent;
+        return sizeSent.getMean();
+    }
+
+    /**
+     * Get the count, min, max, mean and percentiles of the sizes of the messages received
+     * @return the statistics by name
+     */
+    public Map<String, Number> getSizeReceivedStatistics() {
+        return sizeReceived.snapshot(false).toMap();
+    }
+
+    /**
+     * Get the count, min, max, mean and percentiles of the sizes of the messages sent
+     * @return the statistics by name
+     */
+    public Map<String, Number> getSizeSentStatistics() {
+        return sizeSent.snapshot(false).toMap();
+    }
+
+    /**
+     * Get the latency statistics in microseconds, over all services ({@link #TOTAL}), by
+     * service name and by service name/operation name
+     * @return the statistics by key
+     */
+    public Map<String, Map<String, Number>> getLatencyStatistics() {
+        return latencySnapshot(false);
+    }
+
+    /**
+     * Get the latency statistics of a single service or operation
+     * @param key the service name, or service name/operation name
+     * @return the statistics, or null if no latency was recorded for the key
+     */
+    public Map<String, Number> getLatencyStatistics(String key) {
+        Histogram histogram = TOTAL.equals(key) ? latency : latencyByEndpoint.get(key);
+        return histogram == null ? null : histogram.snapshot(false).toMap();
     }
 
     public Map<Integer, Long> getResponseCodeTable() {
-        return responseCodeTable;
+        Map<Integer, Long> responseCodes = new TreeMap<Integer, Long>();
+        for (Map.Entry<Integer, LongAdder> entry : responseCodeTable.entrySet()) {
+            responseCodes.put(entry.getKey(), entry.getValue().sum());
+        }
+        return responseCodes;
     }
 
-    public synchronized void incrementMessagesReceived() {
-        messagesReceived++;
+    public void incrementMessagesReceived() {
+        messagesReceived.increment();
     }
 
-    public synchronized void incrementFaultsReceiving() {
-        faultsReceiving++;
+    public void incrementFaultsReceiving() {
+        faultsReceiving.increment();
     }
 
-    public synchronized void incrementTimeoutsReceiving() {
-        timeoutsReceiving++;
+    public void incrementTimeoutsReceiving() {
+        timeoutsReceiving.increment();
     }
 
-    public synchronized void incrementBytesReceived(long size) {
-        bytesReceived += size;
+    public void incrementBytesReceived(long size) {
+        bytesReceived.add(size);
     }
 
-    public synchronized void incrementMessagesSent() {
-        messagesSent++;
+    public void incrementMessagesSent() {
+        messagesSent.increment();
     }
 
-    public synchronized void incrementFaultsSending() {
-        faultsSending++;
+    public void incrementFaultsSending() {
+        faultsSending.increment();
     }
 
-    public synchronized void incrementTimeoutsSending() {
-        timeoutsSending++;
+    public void incrementTimeoutsSending() {
+        timeoutsSending.increment();
     }
 
-    public synchronized void incrementBytesSent(long size) {
-        bytesSent += size;
+    public void incrementBytesSent(long size) {
+        bytesSent.add(size);
     }
     
-    public synchronized void notifyReceivedMessageSize(long size) {
-        if (minSizeReceived == 0 || size < minSizeReceived) {
-            minSizeReceived = size;
-        }
-        if (size > maxSizeReceived) {
-            maxSizeReceived = size;
-        }
-        avgSizeReceived = (avgSizeReceived == 0 ? size : (avgSizeReceived + size) / 2);
+    public void notifyReceivedMessageSize(long size) {
+        sizeReceived.record(size);
+    }
+
+    public void notifySentMessageSize(long size) {
+        sizeSent.record(size);
     }
 
-    public synchronized void notifySentMessageSize(long size) {
-        if (minSizeSent == 0 || size < minSizeSent) {
-            minSizeSent = size;
+    /**
+     * Record the time taken to process or send a message
+     *
+     * @param serviceName the name of the service, or null if unknown
+     * @param operationName the local name of the operation, or null if unknown
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void notifyLatency(String serviceName, String operationName, long nanos) {
+        long micros = nanos / 1000;
+        latency.record(micros);
+        if (serviceName != null) {
+            getLatencyHistogram(serviceName).record(micros);
+            if (operationName != null) {
+                getLatencyHistogram(serviceName + "/" + operationName).record(micros);
+            }
         }
-        if (size > maxSizeSent) {
-            maxSizeSent = size;
+    }
+
+    private Histogram getLatencyHistogram(String key) {
+        Histogram histogram = latencyByEndpoint.get(key);
+        if (histogram == null) {
+            Histogram newHistogram = new Histogram();
+            histogram = latencyByEndpoint.putIfAbsent(key, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
         }
-        avgSizeSent = (avgSizeSent == 0 ? size : (avgSizeSent + size) / 2);
+        return histogram;
     }
 
     public void reportResponseCode(int respCode) {
-        synchronized(responseCodeTable) {
-            Object o = responseCodeTable.get(respCode);
-            if (o == null) {
-                responseCodeTable.put(respCode, ONE);
-            } else {
-                responseCodeTable.put(respCode, (Long) o + 1);
+        LongAdder count = responseCodeTable.get(respCode);
+        if (count == null) {
+            LongAdder newCount = new LongAdder();
+            count = responseCodeTable.putIfAbsent(respCode, newCount);
+            if (count == null) {
+                count = newCount;
             }
         }
+        count.increment();
     }
 
     // --- enhanced methods ---
@@ -310,6 +416,25 @@ public class MetricsCollector {
         }
     }
 
+    /**
+     * Record the time taken to process or send a message, by the service and operation
+     * the message context has been dispatched to
+     *
+     * @param mc the message context
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void notifyLatency(MessageContext mc, long nanos) {
+        String serviceName = null;
+        String operationName = null;
+        if (mc != null && mc.getAxisService() != null) {
+            serviceName = mc.getAxisService().getName();
+            if (mc.getAxisOperation() != null && mc.getAxisOperation().getName() != null) {
+                operationName = mc.getAxisOperation().getName().getLocalPart();
+            }
+        }
+        notifyLatency(serviceName, operationName, nanos);
+    }
+
     public void reportResponseCode(MessageContext mc, int respCode) {
         reportResponseCode(respCode);
 
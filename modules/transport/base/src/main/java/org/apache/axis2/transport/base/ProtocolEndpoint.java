@@ -118,6 +118,16 @@ public abstract class ProtocolEndpoint {
     public String getDescription() {
         return toString();
     }
+
+    /**
+     * Get transport specific information about the runtime state of this endpoint, to be
+     * exposed through the {@link TransportListenerEndpointView} management bean.
+     * 
+     * @return a list of name=value pairs, or <code>null</code> if there is no such information
+     */
+    public String[] getStatus() {
+        return null;
+    }
     
     public MessageContext createMessageContext() throws AxisFault {
         MessageContext msgContext = listener.createMessageContext();
@@ -20,6 +20,7 @@ package org.apache.axis2.transport.base;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Map;
 
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
@@ -58,4 +59,13 @@ public class TransportListenerEndpointView implements TransportListenerEndpointV
             return result;
         }
     }
+
+    public String[] getStatus() {
+        return listener.getEndpointStatus(serviceName);
+    }
+
+    public Map getLatencyStatistics() {
+        MetricsCollector metrics = listener.getMetricsCollector();
+        return metrics == null ? null : metrics.getLatencyStatistics(serviceName);
+    }
 }
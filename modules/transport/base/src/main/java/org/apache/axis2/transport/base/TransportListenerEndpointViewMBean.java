@@ -18,6 +18,10 @@
 */
 package org.apache.axis2.transport.base;
 
+import java.util.Map;
+
 public interface TransportListenerEndpointViewMBean {
     String[] getAddresses();
+    String[] getStatus();
+    Map getLatencyStatistics();
 }
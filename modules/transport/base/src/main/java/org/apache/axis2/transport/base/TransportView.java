@@ -153,6 +153,27 @@ public class TransportView implements TransportViewMBean {
         return null;
     }    
 
+    public Map getSizeReceivedStatistics() {
+        if (managementSupport != null) {
+            return managementSupport.getSizeReceivedStatistics();
+        }
+        return null;
+    }
+
+    public Map getSizeSentStatistics() {
+        if (managementSupport != null) {
+            return managementSupport.getSizeSentStatistics();
+        }
+        return null;
+    }
+
+    public Map getLatencyStatistics() {
+        if (managementSupport != null) {
+            return managementSupport.getLatencyStatistics();
+        }
+        return null;
+    }
+
     public int getActiveThreadCount() {
         if (managementSupport != null) {
             return managementSupport.getActiveThreadCount();
@@ -206,6 +227,13 @@ public class TransportView implements TransportViewMBean {
         }
     }
 
+    public Map snapshotAndResetStatistics() {
+        if (managementSupport != null) {
+            return managementSupport.snapshotAndResetStatistics();
+        }
+        return null;
+    }
+
     public long getLastResetTime() {
         if (managementSupport != null) {
             return managementSupport.getLastResetTime();
@@ -40,6 +40,9 @@ public interface TransportViewMBean {
     public int  getActiveThreadCount();
     public int getQueueSize();
     public Map getResponseCodeTable();
+    public Map getSizeReceivedStatistics();
+    public Map getSizeSentStatistics();
+    public Map getLatencyStatistics();
 
     // JMX Operations
     public void start() throws Exception;
@@ -49,6 +52,7 @@ public interface TransportViewMBean {
     public void maintenenceShutdown(long seconds) throws Exception;
 
     public void resetStatistics();
+    public Map snapshotAndResetStatistics();
     public long getLastResetTime();
     public long getMetricsWindow();
 }
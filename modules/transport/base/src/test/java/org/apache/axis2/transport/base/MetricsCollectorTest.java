@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.base;
+
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+public class MetricsCollectorTest extends TestCase {
+
+    public void testBucketBoundaries() {
+        for (long value = 0; value < 100000; value++) {
+            int index = Histogram.bucketIndex(value);
+            assertTrue(Histogram.bucketLowerBound(index) <= value);
+            assertTrue(Histogram.bucketLowerBound(index + 1) > value);
+        }
+        assertTrue(Histogram.bucketIndex(Long.MAX_VALUE) >= 0);
+    }
+
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(1000, snapshot.getMax());
+        assertEquals(500.5, snapshot.getMean(), 0.001);
+        long p50 = snapshot.getPercentile(0.5);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.125);
+        long p99 = snapshot.getPercentile(0.99);
+        assertTrue(p99 >= 990 && p99 <= 1000);
+
+        histogram.snapshot(true);
+        snapshot = histogram.snapshot(false);
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getMax());
+    }
+
+    public void testAverageSize() {
+        MetricsCollector metrics = new MetricsCollector();
+        metrics.notifyReceivedMessageSize(100);
+        metrics.notifyReceivedMessageSize(200);
+        metrics.notifyReceivedMessageSize(600);
+        assertEquals(100, metrics.getMinSizeReceived());
+        assertEquals(600, metrics.getMaxSizeReceived());
+        assertEquals(300.0, metrics.getAvgSizeReceived(), 0.001);
+    }
+
+    public void testLatencyByEndpoint() {
+        MetricsCollector metrics = new MetricsCollector();
+        metrics.notifyLatency("echo", "echoString", 2000000);
+        metrics.notifyLatency("echo", "echoInt", 4000000);
+        metrics.notifyLatency(null, null, 6000000);
+        Map<String, Map<String, Number>> latency = metrics.getLatencyStatistics();
+        assertEquals(3L, latency.get(MetricsCollector.TOTAL).get("count"));
+        assertEquals(2L, latency.get("echo").get("count"));
+        assertEquals(2000L, latency.get("echo/echoString").get("max"));
+        assertEquals(3000.0, metrics.getLatencyStatistics("echo").get("mean"));
+    }
+
+    public void testSnapshotAndReset() {
+        MetricsCollector metrics = new MetricsCollector();
+        metrics.incrementMessagesReceived();
+        metrics.reportResponseCode(200);
+        metrics.reportResponseCode(200);
+        metrics.notifyLatency("echo", null, 1000);
+        Map<String, Object> snapshot = metrics.snapshot(true);
+        assertEquals(1L, snapshot.get("messagesReceived"));
+        assertEquals(2L, ((Map<?, ?>) snapshot.get("responseCodes")).get(200));
+        assertEquals(0, metrics.getMessagesReceived());
+        assertEquals(Long.valueOf(0), metrics.getResponseCodeTable().get(200));
+        assertEquals(0L, metrics.getLatencyStatistics("echo").get("count"));
+
+        metrics.reportResponseCode(200);
+        metrics.notifyLatency("echo", null, 1000);
+        assertEquals(Long.valueOf(1), metrics.getResponseCodeTable().get(200));
+        assertEquals(1L, metrics.getLatencyStatistics("echo").get("count"));
+    }
+
+    public void testNoUpdateLostOnReset() throws Exception {
+        final MetricsCollector metrics = new MetricsCollector();
+        final int threads = 4;
+        final int iterations = 100000;
+        Thread[] writers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            writers[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < iterations; j++) {
+                        metrics.incrementMessagesReceived();
+                        metrics.reportResponseCode(200);
+                        metrics.notifyReceivedMessageSize(10);
+                        metrics.notifyLatency("echo", "echoString", 1000);
+                    }
+                }
+            };
+            writers[i].start();
+        }
+        long messages = 0;
+        long responses = 0;
+        long sizes = 0;
+        long latencies = 0;
+        boolean running = true;
+        while (running) {
+            running = false;
+            for (Thread writer : writers) {
+                running |= writer.isAlive();
+            }
+            Map<String, Object> snapshot = metrics.snapshot(true);
+            messages += (Long) snapshot.get("messagesReceived");
+            Long count = (Long) ((Map<?, ?>) snapshot.get("responseCodes")).get(200);
+            responses += count == null ? 0 : count;
+            Map<?, ?> sizeReceived = (Map<?, ?>) snapshot.get("sizeReceived");
+            sizes += (Long) sizeReceived.get("count");
+            Map<?, ?> latency = (Map<?, ?>) snapshot.get("latency");
+            Map<?, ?> echoString = (Map<?, ?>) latency.get("echo/echoString");
+            latencies += echoString == null ? 0 : (Long) echoString.get("count");
+        }
+        long total = (long) threads * iterations;
+        assertEquals(total, messages);
+        assertEquals(total, responses);
+        assertEquals(total, sizes);
+        assertEquals(total, latencies);
+    }
+}
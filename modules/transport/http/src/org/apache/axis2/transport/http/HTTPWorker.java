@@ -115,6 +115,7 @@ public class HTTPWorker implements Worker {
             }
             if (HttpUtils.endsWithIgnoreCase(uri , "?wsdl2")) {
                 String serviceName = uri.substring(uri.lastIndexOf("/") + 1, uri.length() - 6);
+                configurationContext.getAxisConfiguration().activateLazyService(serviceName);
                 HashMap services = configurationContext.getAxisConfiguration().getServices();
                 AxisService service = (AxisService) services.get(serviceName);
                 if (service != null) {
@@ -137,6 +138,7 @@ public class HTTPWorker implements Worker {
                 String[] temp = uri.split(configurationContext.getServiceContextPath() + "/");
                 String serviceName = temp[1].substring(0, temp[1].length() - 5);
                 
+                configurationContext.getAxisConfiguration().activateLazyService(serviceName);
                 HashMap services = configurationContext.getAxisConfiguration().getServices();
                 AxisService service = (AxisService) services.get(serviceName);
                 if (service != null) {
@@ -153,6 +155,7 @@ public class HTTPWorker implements Worker {
             }
             if (HttpUtils.endsWithIgnoreCase(uri , "?xsd")) {
                 String serviceName = uri.substring(uri.lastIndexOf("/") + 1, uri.length() - 4);
+                configurationContext.getAxisConfiguration().activateLazyService(serviceName);
                 HashMap services = configurationContext.getAxisConfiguration().getServices();
                 AxisService service = (AxisService) services.get(serviceName);
                 if (service != null) {
@@ -175,6 +178,7 @@ public class HTTPWorker implements Worker {
                         uri.substring(uriParts[0].lastIndexOf("/") + 1, uriParts[0].length());
                 String schemaName = uri.substring(uri.lastIndexOf("=") + 1);
 
+                configurationContext.getAxisConfiguration().activateLazyService(serviceName);
                 HashMap services = configurationContext.getAxisConfiguration().getServices();
                 AxisService service = (AxisService) services.get(serviceName);
                 if (service != null) {
@@ -168,6 +168,7 @@ public class ListingAgent extends AbstractAgent {
 
         String url = req.getRequestURL().toString();
         String serviceName = extractServiceName(url);
+        configContext.getAxisConfiguration().activateLazyService(serviceName);
         HashMap<String, AxisService> services = configContext.getAxisConfiguration().getServices();
         String query = req.getQueryString();
         int wsdl2 = HttpUtils.indexOfIngnoreCase(query, "wsdl2");
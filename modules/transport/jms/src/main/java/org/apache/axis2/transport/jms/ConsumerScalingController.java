@@ -0,0 +1,167 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.jms;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides when the {@link ServiceTaskManager} of a service should add or remove polling tasks,
+ * based on what the tasks observed during the last sampling window: the ratio of polls that
+ * returned no message, the fraction of time spent processing messages and optionally the number
+ * of messages waiting on the queue (as sampled through a QueueBrowser).
+ * <p>
+ * Scaling up requires the load condition to hold for {@link #SCALE_UP_WINDOWS} consecutive
+ * windows, scaling down for {@link #SCALE_DOWN_WINDOWS}, so that the number of consumers does
+ * not oscillate with short bursts of load. Each decision adds or removes a single task.
+ */
+public class ConsumerScalingController {
+
+    /** Scale up when fewer than this fraction of the polls in a window returned no message */
+    static final double SCALE_UP_IDLE_RATIO = 0.1;
+    /** Scale down when more than this fraction of the polls in a window returned no message */
+    static final double SCALE_DOWN_IDLE_RATIO = 0.5;
+    /** Scale up when the tasks spent more than this fraction of a window processing messages */
+    static final double SCALE_UP_UTILIZATION = 0.9;
+    /** Scale down only when the tasks spent less than this fraction of a window processing */
+    static final double SCALE_DOWN_UTILIZATION = 0.5;
+    /** Consecutive windows for which the scale up condition must hold */
+    static final int SCALE_UP_WINDOWS = 1;
+    /** Consecutive windows for which the scale down condition must hold */
+    static final int SCALE_DOWN_WINDOWS = 3;
+
+    /** Outcome of an evaluation */
+    public enum Decision { NONE, SCALE_UP, SCALE_DOWN }
+
+    /** Length of a sampling window in milliseconds */
+    private final long interval;
+
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder idlePolls = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+    /** Start of the current sampling window */
+    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+
+    /** Consecutive windows in which the scale up / down condition held */
+    private int upWindows = 0;
+    private int downWindows = 0;
+
+    /** The observations and decision of the last evaluation, for management purposes */
+    private volatile String[] lastStatus = new String[0];
+
+    public ConsumerScalingController(long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Record the outcome of a receive call by a polling task
+     * @param received true if a message was received, false if the poll timed out
+     */
+    public void recordPoll(boolean received) {
+        polls.increment();
+        if (!received) {
+            idlePolls.increment();
+        }
+    }
+
+    /**
+     * Record the time spent by a polling task to process a message
+     * @param nanos the processing time in nanoseconds
+     */
+    public void recordProcessingTime(long nanos) {
+        processingNanos.add(nanos);
+    }
+
+    /**
+     * Check whether the current sampling window has elapsed, and if so, claim its evaluation.
+     * Only a single caller is granted each evaluation
+     *
+     * @return true if the caller must call {@link #evaluate(int, int, int, long)}
+     */
+    public boolean claimEvaluation() {
+        long start = windowStart.get();
+        long now = System.currentTimeMillis();
+        return now - start >= interval && windowStart.compareAndSet(start, now);
+    }
+
+    /**
+     * Evaluate the observations of the elapsed window and start a new one
+     *
+     * @param consumers the current number of polling tasks
+     * @param minConsumers the number of tasks not to scale below
+     * @param maxConsumers the number of tasks not to scale above
+     * @param backlog the number of messages waiting, or -1 if unknown
+     * @return the scaling decision
+     */
+    public synchronized Decision evaluate(int consumers, int minConsumers, int maxConsumers,
+        long backlog) {
+
+        long windowPolls = polls.sumThenReset();
+        long windowIdlePolls = idlePolls.sumThenReset();
+        long windowProcessingNanos = processingNanos.sumThenReset();
+        long windowMessages = windowPolls - windowIdlePolls;
+
+        // no completed poll at all means that every task is busy processing a message
+        double idleRatio = windowPolls == 0 ? 0 : (double) windowIdlePolls / windowPolls;
+        double utilization = consumers == 0 ? 0 :
+            (double) windowProcessingNanos / (interval * 1000000L * consumers);
+
+        boolean overloaded = backlog >= 0 ? backlog > consumers :
+            idleRatio < SCALE_UP_IDLE_RATIO || utilization > SCALE_UP_UTILIZATION;
+        boolean underloaded = backlog <= 0 && idleRatio > SCALE_DOWN_IDLE_RATIO &&
+            utilization < SCALE_DOWN_UTILIZATION;
+
+        upWindows = overloaded && consumers < maxConsumers ? upWindows + 1 : 0;
+        downWindows = underloaded && consumers > minConsumers ? downWindows + 1 : 0;
+
+        Decision decision = Decision.NONE;
+        if (upWindows >= SCALE_UP_WINDOWS) {
+            decision = Decision.SCALE_UP;
+            upWindows = 0;
+        } else if (downWindows >= SCALE_DOWN_WINDOWS) {
+            decision = Decision.SCALE_DOWN;
+            downWindows = 0;
+        }
+
+        lastStatus = new String[] {
+            "consumers=" + consumers,
+            "minConsumers=" + minConsumers,
+            "maxConsumers=" + maxConsumers,
+            "throughput=" + (windowMessages * 1000 / interval) + " msg/s",
+            "idleRatio=" + Math.round(idleRatio * 100) + "%",
+            "utilization=" + Math.round(utilization * 100) + "%",
+            "avgProcessingTime=" +
+                (windowMessages == 0 ? 0 : windowProcessingNanos / windowMessages / 1000000) + " ms",
+            "backlog=" + (backlog < 0 ? "unknown" : String.valueOf(backlog)),
+            "lastDecision=" + decision,
+            "lastEvaluation=" + new Date(windowStart.get())
+        };
+        return decision;
+    }
+
+    /**
+     * Get the observations and the decision of the last evaluation
+     * @return a list of name=value pairs
+     */
+    public String[] getStatus() {
+        return lastStatus;
+    }
+}
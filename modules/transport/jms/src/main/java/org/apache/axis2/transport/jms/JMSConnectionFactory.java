@@ -64,6 +64,10 @@ public class JMSConnectionFactory {
     private Destination sharedDestination = null;
     /** The shared JMS connection for this JMS connection factory */
     private int cacheLevel = JMSConstants.CACHE_CONNECTION;
+    /** The pool of sessions used for sending, if enabled */
+    private JMSSessionPool sessionPool = null;
+    /** The dispatcher for synchronous replies received through a shared consumer, if enabled */
+    private JMSReplyDispatcher replyDispatcher = null;
 
     /**
      * Digest a JMS CF definition from an axis2.xml 'Parameter' and construct
@@ -86,6 +90,10 @@ public class JMSConnectionFactory {
         }
 
         digestCacheLevel();
+        digestSessionPoolSize();
+        if (Boolean.valueOf(parameters.get(JMSConstants.PARAM_SHARED_REPLY_CONSUMER))) {
+            replyDispatcher = new JMSReplyDispatcher(this, JMSConstants.DEFAULT_JMS_TIMEOUT);
+        }
         try {
             context = new InitialContext(parameters);
             conFactory = JMSUtils.lookup(context, ConnectionFactory.class,
@@ -129,10 +137,43 @@ public class JMSConnectionFactory {
         }
     }
     
+    /**
+     * Digest the session pool size if specified. Pooling requires the connection to be shared
+     */
+    private void digestSessionPoolSize() {
+
+        String val = parameters.get(JMSConstants.PARAM_SESSION_POOL_SIZE);
+        if (val == null) {
+            return;
+        }
+
+        int poolSize;
+        try {
+            poolSize = Integer.parseInt(val);
+        } catch (NumberFormatException e) {
+            throw new AxisJMSException("Invalid session pool size : " + val + " for JMS CF : " + name);
+        }
+
+        if (poolSize > 0) {
+            if (cacheLevel < JMSConstants.CACHE_CONNECTION) {
+                log.warn("Ignoring " + JMSConstants.PARAM_SESSION_POOL_SIZE + " for JMS CF : " +
+                    name + " as its connection is not cached");
+            } else {
+                sessionPool = new JMSSessionPool(this, poolSize);
+            }
+        }
+    }
+
     /**
      * Close all connections, sessions etc.. and stop this connection factory
      */
     public synchronized void stop() {
+        if (replyDispatcher != null) {
+            replyDispatcher.stop();
+        }
+        if (sessionPool != null) {
+            sessionPool.close();
+        }
         if (sharedConnection != null) {
             try {
             	sharedConnection.close();
@@ -174,6 +215,22 @@ public class JMSConnectionFactory {
         return cacheLevel;
     }
 
+    /**
+     * Get the pool of sessions to be used for sending - if enabled
+     * @return the session pool, or null if sessions are not pooled
+     */
+    public JMSSessionPool getSessionPool() {
+        return sessionPool;
+    }
+
+    /**
+     * Get the dispatcher for replies received through a shared consumer - if enabled
+     * @return the reply dispatcher, or null if a consumer should be created per request
+     */
+    public JMSReplyDispatcher getReplyDispatcher() {
+        return replyDispatcher;
+    }
+
     /**
      * Get the shared Destination - if defined
      * @return
@@ -276,7 +333,7 @@ public class JMSConnectionFactory {
      * Create a new Connection
      * @return a new Connection
      */
-    private Connection createConnection() {
+    Connection createConnection() {
 
         Connection connection = null;
         try {
@@ -302,7 +359,7 @@ public class JMSConnectionFactory {
      * @param connection Connection to use
      * @return A new Session
      */
-    private Session createSession(Connection connection) {
+    Session createSession(Connection connection) {
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Creating a new JMS Session from JMS CF : " + name);
@@ -322,7 +379,7 @@ public class JMSConnectionFactory {
      * @param destination Destination to be used
      * @return a new MessageProducer
      */
-    private MessageProducer createProducer(Session session, Destination destination) {
+    MessageProducer createProducer(Session session, Destination destination) {
         try {
             if (log.isDebugEnabled()) {
                 log.debug("Creating a new JMS MessageProducer from JMS CF : " + name);
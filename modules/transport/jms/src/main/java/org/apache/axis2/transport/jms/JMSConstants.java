@@ -176,6 +176,19 @@ public class JMSConstants {
      * prevent many longer running threads - default is unlimited (i.e. a worker task will live forever)
      */
     public static final String PARAM_MAX_MSGS_PER_TASK = "transport.jms.MaxMessagesPerTask";
+    /**
+     * Should the number of concurrent consumers be scaled between {@link PARAM_CONCURRENT_CONSUMERS}
+     * and {@link PARAM_MAX_CONSUMERS} by observing throughput, idle polls and processing time,
+     * rather than by the idle task heuristic of {@link PARAM_IDLE_TASK_LIMIT} - "true" or "false"
+     */
+    public static final String PARAM_ADAPTIVE_SCALING = "transport.jms.AdaptiveScaling";
+    /** The duration of an adaptive scaling sampling window in milliseconds */
+    public static final String PARAM_SCALING_INTERVAL = "transport.jms.ScalingInterval";
+    /**
+     * Should adaptive scaling also sample the number of waiting messages on the queue through a
+     * QueueBrowser? - "true" or "false"
+     */
+    public static final String PARAM_BACKLOG_SAMPLING = "transport.jms.BacklogSampling";
     /**
      * Number of milliseconds before the first reconnection attempt is tried, on detection of an
      * error. Subsequent retries follow a geometric series, where the
@@ -188,6 +201,19 @@ public class JMSConstants {
     /** @see PARAM_RECON_INIT_DURATION */
     public static final String PARAM_RECON_MAX_DURATION = "transport.jms.MaxReconnectDuration";
 
+    /**
+     * Should synchronous replies for a JMS CF used for sending be received through a single,
+     * long lived consumer per reply destination, rather than a consumer created per request?
+     * "true" or "false" - defaults to false
+     */
+    public static final String PARAM_SHARED_REPLY_CONSUMER = "transport.jms.SharedReplyConsumer";
+    /**
+     * The maximum number of Sessions (and their MessageProducers) a JMS CF used for sending
+     * should pool, to allow concurrent sends over the shared connection. Zero or negative
+     * disables pooling (default)
+     */
+    public static final String PARAM_SESSION_POOL_SIZE = "transport.jms.SessionPoolSize";
+
     /** The username to use when obtaining a JMS Connection */
     public static final String PARAM_JMS_USERNAME = "transport.jms.UserName";
     /** The password to use when obtaining a JMS Connection */
@@ -181,6 +181,11 @@ public class JMSEndpoint extends ProtocolEndpoint {
         this.serviceTaskManager = serviceTaskManager;
     }
 
+    @Override
+    public String[] getStatus() {
+        return serviceTaskManager == null ? null : serviceTaskManager.getScalingStatus();
+    }
+
     @Override
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
         // We only support endpoints configured at service level
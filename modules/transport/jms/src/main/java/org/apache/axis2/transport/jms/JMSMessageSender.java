@@ -50,6 +50,10 @@ public class JMSMessageSender {
     private boolean jmsSpec11 = true;
     /** Are we sending to a Queue ? */
     private Boolean isQueue = null;
+    /** The pooled session (and producer) in use, if the JMS CF pools sessions */
+    private JMSSessionPool.PooledSession pooledSession = null;
+    /** Did the session fail? A failed pooled session is discarded instead of being released */
+    private boolean sessionFailed = false;
 
     /**
      * This is a low-end method to support the one-time sends using JMS 1.0.2b
@@ -84,13 +88,21 @@ public class JMSMessageSender {
         this.cacheLevel  = jmsConnectionFactory.getCacheLevel();
         this.jmsSpec11   = jmsConnectionFactory.isJmsSpec11();
         this.connection  = jmsConnectionFactory.getConnection();
-        this.session     = jmsConnectionFactory.getSession(connection);
         this.destination =
             jmsConnectionFactory.getSharedDestination() == null ?
                 jmsConnectionFactory.getDestination(JMSUtils.getDestination(targetAddress),
                         JMSConstants.DESTINATION_TYPE_GENERIC) :
                 jmsConnectionFactory.getSharedDestination();
-        this.producer = jmsConnectionFactory.getMessageProducer(connection, session, destination);
+
+        JMSSessionPool sessionPool = jmsConnectionFactory.getSessionPool();
+        if (sessionPool != null) {
+            this.pooledSession = sessionPool.borrow();
+            this.session  = pooledSession.getSession();
+            this.producer = pooledSession.getProducer(destination);
+        } else {
+            this.session  = jmsConnectionFactory.getSession(connection);
+            this.producer = jmsConnectionFactory.getMessageProducer(connection, session, destination);
+        }
     }
 
     /**
@@ -116,6 +128,7 @@ public class JMSMessageSender {
             try {
                 producer.setDeliveryMode(DeliveryMode.PERSISTENT);
             } catch (JMSException e) {
+                sessionFailed = true;
                 handleException("Error setting JMS Producer for PERSISTENT delivery", e);
             }
         }
@@ -123,6 +136,7 @@ public class JMSMessageSender {
             try {
                 producer.setPriority(priority);
             } catch (JMSException e) {
+                sessionFailed = true;
                 handleException("Error setting JMS Producer priority to : " + priority, e);
             }
         }
@@ -130,6 +144,7 @@ public class JMSMessageSender {
             try {
                 producer.setTimeToLive(timeToLive);
             } catch (JMSException e) {
+                sessionFailed = true;
                 handleException("Error setting JMS Producer TTL to : " + timeToLive, e);
             }
         }
@@ -167,6 +182,7 @@ public class JMSMessageSender {
             }
 
         } catch (JMSException e) {
+            sessionFailed = true;
             log.error("Error sending message with MessageContext ID : " +
                 msgCtx.getMessageID() + " to destination : " + destination, e);
 
@@ -213,6 +229,7 @@ public class JMSMessageSender {
                     }
 
                 } catch (JMSException e) {
+                    sessionFailed = true;
                     handleException("Error committing/rolling back local (i.e. session) " +
                         "transaction after sending of message with MessageContext ID : " + 
                         msgCtx.getMessageID() + " to destination : " + destination, e);
@@ -222,9 +239,23 @@ public class JMSMessageSender {
     }
 
     /**
-     * Close non-shared producer, session and connection if any
+     * Close non-shared producer, session and connection if any, or return the pooled session
+     * to its pool - unless the session failed, in which case it is discarded
      */
     public void close() {
+        if (pooledSession != null) {
+            if (sessionFailed) {
+                pooledSession.discard();
+            } else {
+                pooledSession.release();
+            }
+            pooledSession = null;
+            producer = null;
+            session = null;
+            connection = null;
+            return;
+        }
+
         if (producer != null && cacheLevel < JMSConstants.CACHE_PRODUCER) {
             try {
                 producer.close();
@@ -316,4 +347,19 @@ public class JMSMessageSender {
     public Session getSession() {
         return session;
     }
+
+    /**
+     * Is the session of this sender borrowed from a session pool, i.e. for exclusive use?
+     * @return true if the session is pooled
+     */
+    public boolean isSessionPooled() {
+        return pooledSession != null;
+    }
+
+    /**
+     * Record that the session failed while in use by the caller, so that it is not reused
+     */
+    void setSessionFailed() {
+        sessionFailed = true;
+    }
 }
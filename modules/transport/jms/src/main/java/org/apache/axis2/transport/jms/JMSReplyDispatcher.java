@@ -0,0 +1,345 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Receives synchronous replies for messages sent through a JMS CF, using a single long lived
+ * consumer per reply destination, and hands them over to the waiting callers by their JMS
+ * correlation ID. This avoids the creation of a consumer with a correlation ID message selector
+ * for each request sent out.
+ *
+ * Requests are given a JMS correlation ID with a prefix unique to the dispatcher, and the
+ * consumers of reply destinations other than the shared temporary destination select the
+ * replies bearing that prefix, so that replies meant for other clients of the same destination
+ * are left alone.
+ *
+ * A reply may arrive before the caller registered its interest (i.e. before the send returns
+ * the JMS message ID), hence unclaimed replies are retained for a limited time, and discarded
+ * by a timer afterwards.
+ */
+public class JMSReplyDispatcher {
+
+    private static final Log log = LogFactory.getLog(JMSReplyDispatcher.class);
+
+    /** The JMS CF this dispatcher receives replies for */
+    private final JMSConnectionFactory jmsConnectionFactory;
+    /** The connection dedicated to the reply consumers */
+    private Connection connection = null;
+    /** The session used to create the shared temporary reply destination */
+    private Session temporarySession = null;
+    /** The shared temporary reply destination, if one was requested */
+    private Destination temporaryDestination = null;
+    /** The consumers (and their sessions) per reply destination */
+    private final Map<Destination, ReplyConsumer> consumers =
+        new ConcurrentHashMap<Destination, ReplyConsumer>();
+    /** Pending replies keyed by JMS correlation ID */
+    private final Map<String, PendingReply> pendingReplies =
+        new ConcurrentHashMap<String, PendingReply>();
+    /** How long an unclaimed reply is retained before it is discarded */
+    private final long unclaimedReplyTimeout;
+    /** The prefix of the JMS correlation IDs created by this dispatcher */
+    private final String correlationIdPrefix = "axis2-" + UUID.randomUUID() + "-";
+    /** The sequence number of the last JMS correlation ID created by this dispatcher */
+    private final AtomicLong correlationIdSequence = new AtomicLong();
+    /** The timer which discards the unclaimed replies */
+    private Timer expiryTimer = null;
+
+    public JMSReplyDispatcher(JMSConnectionFactory jmsConnectionFactory, long unclaimedReplyTimeout) {
+        this.jmsConnectionFactory = jmsConnectionFactory;
+        this.unclaimedReplyTimeout = unclaimedReplyTimeout;
+    }
+
+    /**
+     * Make sure that replies sent to the given destination are consumed by this dispatcher
+     *
+     * @param replyDestination the reply destination
+     * @throws JMSException on error creating the consumer
+     */
+    public void listen(Destination replyDestination) throws JMSException {
+        if (consumers.containsKey(replyDestination)) {
+            return;
+        }
+        synchronized (this) {
+            if (!consumers.containsKey(replyDestination)) {
+                Session session = createSession();
+                String messageSelector = replyDestination.equals(temporaryDestination) ?
+                    null : "JMSCorrelationID LIKE '" + correlationIdPrefix + "%'";
+                MessageConsumer consumer =
+                    JMSUtils.createConsumer(session, replyDestination, messageSelector);
+                consumer.setMessageListener(new MessageListener() {
+                    public void onMessage(Message message) {
+                        dispatch(message);
+                    }
+                });
+                consumers.put(replyDestination, new ReplyConsumer(session, consumer));
+                startExpiryTimer();
+                if (log.isDebugEnabled()) {
+                    log.debug("Started shared reply consumer for destination : " +
+                        replyDestination + " of JMS CF : " + jmsConnectionFactory.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Return a temporary destination shared by all requests sent through this dispatchers'
+     * JMS CF, for which a consumer has already been started
+     *
+     * @return the shared temporary reply destination
+     * @throws JMSException on error creating the destination or its consumer
+     */
+    public synchronized Destination getTemporaryDestination() throws JMSException {
+        if (temporaryDestination == null) {
+            temporarySession = createSession();
+            temporaryDestination = JMSUtils.createTemporaryDestination(temporarySession);
+            listen(temporaryDestination);
+        }
+        return temporaryDestination;
+    }
+
+    /**
+     * Create a JMS correlation ID for a request, which the consumers of this dispatcher select
+     *
+     * @return a new JMS correlation ID
+     */
+    public String createCorrelationId() {
+        return correlationIdPrefix + correlationIdSequence.incrementAndGet();
+    }
+
+    /**
+     * Can the reply bearing the given JMS correlation ID, sent to the given destination, be
+     * awaited through this dispatcher? This is not the case for a correlation ID set by the
+     * application on a destination shared with others, as the consumer would not select it
+     *
+     * @param replyDestination the reply destination
+     * @param correlationId the JMS correlation ID expected on the reply
+     * @return true if the reply is received by this dispatcher
+     */
+    public boolean isDispatched(Destination replyDestination, String correlationId) {
+        synchronized (this) {
+            if (replyDestination != null && replyDestination.equals(temporaryDestination)) {
+                return true;
+            }
+        }
+        return correlationId != null && correlationId.startsWith(correlationIdPrefix);
+    }
+
+    /**
+     * Get a future that completes with the reply bearing the given JMS correlation ID. Callers
+     * that stop waiting must call {@link #cancel(String)}
+     *
+     * @param correlationId the JMS correlation ID expected on the reply
+     * @return a future for the reply message
+     */
+    public CompletableFuture<Message> getReply(String correlationId) {
+        return getPendingReply(correlationId).future;
+    }
+
+    /**
+     * Wait for the reply bearing the given JMS correlation ID
+     *
+     * @param correlationId the JMS correlation ID expected on the reply
+     * @param timeout the number of milliseconds to wait
+     * @return the reply message, or null if none arrived within the timeout
+     */
+    public Message waitForReply(String correlationId, long timeout) {
+        CompletableFuture<Message> future = getReply(correlationId);
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        } finally {
+            cancel(correlationId);
+        }
+    }
+
+    /**
+     * Stop waiting for the reply bearing the given JMS correlation ID
+     *
+     * @param correlationId the JMS correlation ID
+     */
+    public void cancel(String correlationId) {
+        PendingReply pendingReply = pendingReplies.remove(correlationId);
+        if (pendingReply != null) {
+            pendingReply.future.cancel(false);
+        }
+    }
+
+    /**
+     * Close the reply consumers, their sessions and the dedicated connection
+     */
+    public synchronized void stop() {
+        if (expiryTimer != null) {
+            expiryTimer.cancel();
+            expiryTimer = null;
+        }
+        for (ReplyConsumer replyConsumer : consumers.values()) {
+            replyConsumer.close();
+        }
+        consumers.clear();
+        if (temporarySession != null) {
+            try {
+                temporarySession.close();
+            } catch (JMSException e) {
+                log.warn("Error closing the temporary reply destination session of JMS CF : " +
+                    jmsConnectionFactory.getName(), e);
+            }
+            temporarySession = null;
+            temporaryDestination = null;
+        }
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (JMSException e) {
+                log.warn("Error closing the reply connection of JMS CF : " +
+                    jmsConnectionFactory.getName(), e);
+            }
+            connection = null;
+        }
+        for (PendingReply pendingReply : pendingReplies.values()) {
+            pendingReply.future.cancel(false);
+        }
+        pendingReplies.clear();
+    }
+
+    private void dispatch(Message message) {
+        String correlationId = null;
+        try {
+            correlationId = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            log.warn("Error reading the JMS correlation ID of a reply message", e);
+        }
+        if (correlationId == null) {
+            log.warn("Discarding a reply message without a JMS correlation ID");
+            return;
+        }
+        getPendingReply(correlationId).future.complete(message);
+    }
+
+    private PendingReply getPendingReply(String correlationId) {
+        PendingReply pendingReply = pendingReplies.get(correlationId);
+        if (pendingReply == null) {
+            PendingReply newPendingReply = new PendingReply();
+            pendingReply = pendingReplies.putIfAbsent(correlationId, newPendingReply);
+            if (pendingReply == null) {
+                pendingReply = newPendingReply;
+            }
+        }
+        return pendingReply;
+    }
+
+    private synchronized void startExpiryTimer() {
+        if (expiryTimer == null) {
+            expiryTimer = new Timer("JMSReplyExpiry-" + jmsConnectionFactory.getName(), true);
+            long period = Math.max(unclaimedReplyTimeout, 1000);
+            expiryTimer.schedule(new TimerTask() {
+                public void run() {
+                    expireUnclaimedReplies();
+                }
+            }, period, period);
+        }
+    }
+
+    /**
+     * Discard the replies that have not been claimed within the timeout
+     */
+    void expireUnclaimedReplies() {
+        long expiry = System.currentTimeMillis() - unclaimedReplyTimeout;
+        for (Iterator<Map.Entry<String, PendingReply>> it = pendingReplies.entrySet().iterator();
+             it.hasNext(); ) {
+            Map.Entry<String, PendingReply> entry = it.next();
+            if (entry.getValue().created < expiry && entry.getValue().future.isDone()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Discarding unclaimed reply with JMS correlation ID : " +
+                        entry.getKey());
+                }
+                it.remove();
+            }
+        }
+    }
+
+    private Session createSession() throws JMSException {
+        return JMSUtils.createSession(getConnection(), false, Session.AUTO_ACKNOWLEDGE,
+            jmsConnectionFactory.isJmsSpec11(), jmsConnectionFactory.isQueue());
+    }
+
+    private synchronized Connection getConnection() throws JMSException {
+        if (connection == null) {
+            connection = jmsConnectionFactory.createConnection();
+            connection.start();
+        }
+        return connection;
+    }
+
+    private static class PendingReply {
+        final long created = System.currentTimeMillis();
+        final CompletableFuture<Message> future = new CompletableFuture<Message>();
+    }
+
+    private static class ReplyConsumer {
+        private final Session session;
+        private final MessageConsumer consumer;
+
+        ReplyConsumer(Session session, MessageConsumer consumer) {
+            this.session = session;
+            this.consumer = consumer;
+        }
+
+        void close() {
+            try {
+                consumer.close();
+            } catch (JMSException e) {
+                log.warn("Error closing shared reply consumer", e);
+            }
+            try {
+                session.close();
+            } catch (JMSException e) {
+                log.warn("Error closing shared reply consumer session", e);
+            }
+        }
+    }
+}
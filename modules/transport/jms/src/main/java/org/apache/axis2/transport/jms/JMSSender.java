@@ -148,20 +148,40 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             contentTypeProperty = jmsOut.getContentTypeProperty();
         }
 
-        // need to synchronize as Sessions are not thread safe
-        synchronized (messageSender.getSession()) {
+        // need to synchronize as Sessions are not thread safe, unless borrowed from a pool
+        String correlationId;
+        if (messageSender.isSessionPooled()) {
             try {
-                sendOverJMS(msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut);
+                correlationId = sendOverJMS(
+                    msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut);
             } finally {
                 messageSender.close();
             }
+        } else {
+            synchronized (messageSender.getSession()) {
+                try {
+                    correlationId = sendOverJMS(
+                        msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut);
+                } finally {
+                    messageSender.close();
+                }
+            }
+        }
+
+        // a reply expected through the shared reply consumer is awaited without holding the session
+        if (correlationId != null) {
+            waitForSharedResponseAndProcess(jmsConnectionFactory.getReplyDispatcher(),
+                msgCtx, correlationId, contentTypeProperty);
         }
     }
 
     /**
      * Perform actual sending of the JMS message
+     *
+     * @return the correlation ID of the expected reply, if it should be awaited through the
+     *         shared reply consumer of the JMS CF, or null otherwise
      */
-    private void sendOverJMS(MessageContext msgCtx, JMSMessageSender messageSender,
+    private String sendOverJMS(MessageContext msgCtx, JMSMessageSender messageSender,
         String contentTypeProperty, JMSConnectionFactory jmsConnectionFactory,
         JMSOutTransportInfo jmsOut) throws AxisFault {
         
@@ -171,12 +191,15 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         try {
             message = createJMSMessage(msgCtx, messageSender.getSession(), contentTypeProperty);
         } catch (JMSException e) {
+            messageSender.setSessionFailed();
             handleException("Error creating a JMS message from the message context", e);
         }
 
         // should we wait for a synchronous response on this same thread?
         boolean waitForResponse = waitForSynchronousResponse(msgCtx);
         Destination replyDestination = jmsOut.getReplyDestination();
+        JMSReplyDispatcher replyDispatcher =
+            jmsConnectionFactory == null ? null : jmsConnectionFactory.getReplyDispatcher();
 
         // if this is a synchronous out-in, prepare to listen on the response destination
         if (waitForResponse) {
@@ -199,6 +222,24 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                     replyDestination = jmsOut.getReplyDestination(replyDestName);
                 }
             }
+
+            if (replyDispatcher != null) {
+                try {
+                    if (replyDestination == null) {
+                        replyDestination = replyDispatcher.getTemporaryDestination();
+                    } else {
+                        replyDispatcher.listen(replyDestination);
+                    }
+                    // let the shared consumer select the reply, unless the application set its
+                    // own correlation ID
+                    if (message.getJMSCorrelationID() == null) {
+                        message.setJMSCorrelationID(replyDispatcher.createCorrelationId());
+                    }
+                } catch (JMSException e) {
+                    handleException("Error starting the shared reply consumer for reply " +
+                        "Destination : " + replyDestination, e);
+                }
+            }
             replyDestination = JMSUtils.setReplyDestination(
                 replyDestination, messageSender.getSession(), message);
         }
@@ -238,12 +279,43 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 }
             } catch(JMSException ignore) {}
 
+            if (replyDispatcher != null &&
+                replyDispatcher.isDispatched(replyDestination, correlationId)) {
+                return correlationId;
+            }
+
             // We assume here that the response uses the same message property to
             // specify the content type of the message.
             waitForResponseAndProcess(messageSender.getSession(), replyDestination,
                 msgCtx, correlationId, contentTypeProperty);
             // TODO ********************************************************************************
         }
+        return null;
+    }
+
+    /**
+     * Wait for the response JMS message to be received by the shared reply consumer of the
+     * JMS CF. If a message arrives within the specified time interval, process it through Axis2
+     * @param replyDispatcher the dispatcher of the shared reply consumer
+     * @param msgCtx the outgoing message for which we are expecting the response
+     * @param correlationId the JMS correlation ID expected on the response
+     * @param contentTypeProperty the message property used to determine the content type
+     *                            of the response message
+     * @throws AxisFault on error
+     */
+    private void waitForSharedResponseAndProcess(JMSReplyDispatcher replyDispatcher,
+            MessageContext msgCtx, String correlationId,
+            String contentTypeProperty) throws AxisFault {
+
+        long timeout = getReplyTimeout(msgCtx);
+        if (log.isDebugEnabled()) {
+            log.debug("Waiting for a maximum of " + timeout +
+                "ms for a response message through the shared reply consumer" +
+                " with JMS correlation ID : " + correlationId);
+        }
+
+        processResponse(msgCtx, replyDispatcher.waitForReply(correlationId, timeout),
+            timeout, null, correlationId, contentTypeProperty);
     }
 
     /**
@@ -267,11 +339,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 "JMSCorrelationID = '" + correlationId + "'");
 
             // how long are we willing to wait for the sync response
-            long timeout = JMSConstants.DEFAULT_JMS_TIMEOUT;
-            String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
-            if (waitReply != null) {
-                timeout = Long.valueOf(waitReply).longValue();
-            }
+            long timeout = getReplyTimeout(msgCtx);
 
             if (log.isDebugEnabled()) {
                 log.debug("Waiting for a maximum of " + timeout +
@@ -280,31 +348,8 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             }
 
             Message reply = consumer.receive(timeout);
-
-            if (reply != null) {
-
-                // update transport level metrics
-                metrics.incrementMessagesReceived();                
-                try {
-                    metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
-                } catch (JMSException e) {
-                    log.warn("Error reading JMS message size to update transport metrics", e);
-                }
-
-                try {
-                    processSyncResponse(msgCtx, reply, contentTypeProperty);
-                    metrics.incrementMessagesReceived();
-                } catch (AxisFault e) {
-                    metrics.incrementFaultsReceiving();
-                    throw e;
-                }
-
-            } else {
-                log.warn("Did not receive a JMS response within " +
-                    timeout + " ms to destination : " + replyDestination +
-                    " with JMS correlation ID : " + correlationId);
-                metrics.incrementTimeoutsReceiving();
-            }
+            processResponse(msgCtx, reply, timeout, replyDestination, correlationId,
+                contentTypeProperty);
 
         } catch (JMSException e) {
             metrics.incrementFaultsReceiving();
@@ -314,6 +359,51 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         }
     }
 
+    /**
+     * How long are we willing to wait for the sync response
+     */
+    private long getReplyTimeout(MessageContext msgCtx) {
+        String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
+        if (waitReply != null) {
+            return Long.valueOf(waitReply).longValue();
+        }
+        return JMSConstants.DEFAULT_JMS_TIMEOUT;
+    }
+
+    /**
+     * Update the transport metrics for a received response, or its absence, and process it
+     */
+    private void processResponse(MessageContext msgCtx, Message reply, long timeout,
+            Destination replyDestination, String correlationId,
+            String contentTypeProperty) throws AxisFault {
+
+        if (reply != null) {
+
+            // update transport level metrics
+            metrics.incrementMessagesReceived();
+            try {
+                metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
+            } catch (JMSException e) {
+                log.warn("Error reading JMS message size to update transport metrics", e);
+            }
+
+            try {
+                processSyncResponse(msgCtx, reply, contentTypeProperty);
+                metrics.incrementMessagesReceived();
+            } catch (AxisFault e) {
+                metrics.incrementFaultsReceiving();
+                throw e;
+            }
+
+        } else {
+            log.warn("Did not receive a JMS response within " +
+                timeout + " ms" +
+                (replyDestination != null ? " to destination : " + replyDestination : "") +
+                " with JMS correlation ID : " + correlationId);
+            metrics.incrementTimeoutsReceiving();
+        }
+    }
+
     /**
      * Create a JMS Message from the given MessageContext and using the given
      * session
@@ -0,0 +1,182 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of Sessions (and the MessageProducers created on them) over the shared
+ * connection of a JMS CF used for sending. A pooled session is used by a single sender at a
+ * time, so that concurrent sends do not have to serialize on one shared session.
+ */
+public class JMSSessionPool {
+
+    private static final Log log = LogFactory.getLog(JMSSessionPool.class);
+
+    /** How long a borrower waits for a released session before checking the pool again (ms) */
+    private static final long WAIT_INTERVAL = 100;
+
+    /** The JMS CF which owns the shared connection the sessions are created on */
+    private final JMSConnectionFactory jmsConnectionFactory;
+    /** The maximum number of sessions created by this pool */
+    private final int maxSize;
+    /** The sessions currently not in use */
+    private final BlockingQueue<PooledSession> idleSessions = new LinkedBlockingQueue<PooledSession>();
+    /** The number of sessions created by this pool and not yet discarded */
+    private final AtomicInteger size = new AtomicInteger();
+    /** All the sessions created by this pool and not yet discarded, idle or borrowed */
+    private final Set<PooledSession> sessions =
+        ConcurrentHashMap.<PooledSession>newKeySet();
+    /** Has this pool been closed? */
+    private volatile boolean closed = false;
+
+    public JMSSessionPool(JMSConnectionFactory jmsConnectionFactory, int maxSize) {
+        this.jmsConnectionFactory = jmsConnectionFactory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Borrow a session from the pool, creating one if the pool is not yet full, or waiting for
+     * one to be released otherwise
+     *
+     * @return a session for the exclusive use of the caller until it is released
+     */
+    public PooledSession borrow() {
+        while (true) {
+            if (closed) {
+                throw new AxisJMSException("The JMS session pool of JMS CF : " +
+                    jmsConnectionFactory.getName() + " is closed");
+            }
+            PooledSession pooledSession = idleSessions.poll();
+            if (pooledSession != null) {
+                return pooledSession;
+            }
+            if (size.incrementAndGet() <= maxSize) {
+                try {
+                    pooledSession = new PooledSession(
+                        jmsConnectionFactory.createSession(jmsConnectionFactory.getConnection()));
+                    sessions.add(pooledSession);
+                    return pooledSession;
+                } catch (RuntimeException e) {
+                    size.decrementAndGet();
+                    throw e;
+                }
+            }
+            size.decrementAndGet();
+            // wait for a session to be released, checking again from time to time as a discarded
+            // session makes room for a new one without being released
+            try {
+                pooledSession = idleSessions.poll(WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AxisJMSException("Interrupted waiting for a pooled JMS session of " +
+                    "JMS CF : " + jmsConnectionFactory.getName(), e);
+            }
+            if (pooledSession != null) {
+                return pooledSession;
+            }
+        }
+    }
+
+    /**
+     * Close all sessions, including the ones currently borrowed. The senders using a borrowed
+     * session will fail, and the session is discarded when they return it
+     */
+    public void close() {
+        closed = true;
+        idleSessions.clear();
+        for (PooledSession pooledSession : sessions) {
+            pooledSession.discard();
+        }
+    }
+
+    /**
+     * A pooled session and the producers created on it, by destination
+     */
+    public class PooledSession {
+
+        private final Session session;
+        private final Map<Destination, MessageProducer> producers =
+            new HashMap<Destination, MessageProducer>();
+
+        PooledSession(Session session) {
+            this.session = session;
+        }
+
+        public Session getSession() {
+            return session;
+        }
+
+        /**
+         * Get the producer of this session for the given destination
+         * @param destination the destination
+         * @return a producer created on this session
+         */
+        public MessageProducer getProducer(Destination destination) {
+            MessageProducer producer = producers.get(destination);
+            if (producer == null) {
+                producer = jmsConnectionFactory.createProducer(session, destination);
+                producers.put(destination, producer);
+            }
+            return producer;
+        }
+
+        /**
+         * Return this session to the pool
+         */
+        public void release() {
+            if (closed) {
+                discard();
+            } else {
+                idleSessions.offer(this);
+            }
+        }
+
+        /**
+         * Close this session instead of returning it to the pool, e.g. after a failure
+         */
+        public void discard() {
+            if (!sessions.remove(this)) {
+                return;
+            }
+            size.decrementAndGet();
+            try {
+                session.close();
+            } catch (JMSException e) {
+                log.warn("Error closing pooled JMS Session of JMS CF : " +
+                    jmsConnectionFactory.getName(), e);
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.commons.logging.LogFactory;
 
 import javax.jms.*;
 import javax.jms.IllegalStateException;
+import javax.jms.Queue;
 import javax.naming.InitialContext;
 import javax.naming.Context;
 import javax.naming.NamingException;
@@ -99,6 +100,14 @@ public class ServiceTaskManager {
     private int idleTaskExecutionLimit = 10;
     /** The maximum number of successful message receipts for a task - to limit thread life span */
     private int maxMessagesPerTask = -1;    // default is unlimited
+    /** Should the number of tasks be scaled by the {@link ConsumerScalingController} ? */
+    private boolean adaptiveScaling = false;
+    /** The duration of a sampling window of the scaling controller in milliseconds */
+    private int scalingInterval = 5000;
+    /** Should the scaling controller sample the queue depth through a QueueBrowser ? */
+    private boolean backlogSampling = false;
+    /** The maximum number of messages counted when sampling the queue depth */
+    private static final int MAX_BACKLOG_SAMPLE = 1000;
     /** The default receive timeout - a negative value means wait forever, zero dont wait at all */
     private int receiveTimeout = 1000;
     /** JMS Resource cache level - Connection, Session, Consumer. Auto will select safe default */
@@ -140,6 +149,8 @@ public class ServiceTaskManager {
     private final AtomicInteger consumerCount = new AtomicInteger();
     /** The shared thread pool from the Listener */
     private WorkerPool workerPool = null;
+    /** The controller scaling the number of tasks, when adaptive scaling is enabled */
+    private volatile ConsumerScalingController scalingController = null;
 
     /** The JMS Connection shared between multiple polling tasks - when enabled (reccomended) */
     private Connection sharedConnection = null;
@@ -193,6 +204,10 @@ public class ServiceTaskManager {
             }
         }
 
+        if (adaptiveScaling) {
+            scalingController = new ConsumerScalingController(scalingInterval);
+        }
+
         for (int i=0; i<concurrentConsumers; i++) {
             workerPool.execute(new MessageListenerTask());
         }
@@ -285,15 +300,26 @@ public class ServiceTaskManager {
 
     /**
      * Start a new MessageListenerTask if we are still active, the threshold is not reached, and w
-     * e do not have any idle tasks - i.e. scale up listening
+     * e do not have any idle tasks - i.e. scale up listening. With adaptive scaling, scaling up
+     * is left to the scaling controller, and this only replaces tasks that ended
      */
     private void scheduleNewTaskIfAppropriate() {
         if (serviceTaskManagerState == STATE_STARTED &&
-            pollingTasks.size() < getMaxConcurrentConsumers() && getIdleTaskCount() == 0) {
+            pollingTasks.size() < getMaxConcurrentConsumers() &&
+            (scalingController != null || getIdleTaskCount() == 0)) {
             workerPool.execute(new MessageListenerTask());
         }
     }
 
+    /**
+     * Get the observations and the last decision of the scaling controller
+     * @return a list of name=value pairs, or null if adaptive scaling is not enabled
+     */
+    public String[] getScalingStatus() {
+        ConsumerScalingController controller = scalingController;
+        return controller == null ? null : controller.getStatus();
+    }
+
     /**
      * Get the number of MessageListenerTasks that are currently idle
      * @return idle task count
@@ -341,6 +367,8 @@ public class ServiceTaskManager {
         private volatile boolean idle = false;
         /** Is this task connected to the JMS provider successfully? */
         private volatile boolean connected = false;
+        /** Has this task been retired by the scaling controller? */
+        private boolean retired = false;
 
         /** As soon as we create a new polling task, add it to the STM for control later */
         MessageListenerTask() {
@@ -392,9 +420,10 @@ public class ServiceTaskManager {
             }
 
             try {
-                while (isActive() &&
+                while (isActive() && !retired &&
                     (getMaxMessagesPerTask() < 0 || messageCount < getMaxMessagesPerTask()) &&
-                    (getConcurrentConsumers() == 1 || idleExecutionCount < getIdleTaskExecutionLimit())) {
+                    (getConcurrentConsumers() == 1 || scalingController != null ||
+                        idleExecutionCount < getIdleTaskExecutionLimit())) {
 
                     UserTransaction ut = null;
                     try {
@@ -427,18 +456,33 @@ public class ServiceTaskManager {
                         }
                     }
 
+                    ConsumerScalingController controller = scalingController;
+                    if (controller != null) {
+                        controller.recordPoll(message != null);
+                    }
+
                     if (message != null) {
                         idle = false;
                         idleExecutionCount = 0;
                         messageCount++;
-                        // I will be busy now while processing this message, so start another if needed
-                        scheduleNewTaskIfAppropriate();
-                        handleMessage(message, ut);
+                        if (controller == null) {
+                            // I will be busy now while processing this message, so start another if needed
+                            scheduleNewTaskIfAppropriate();
+                            handleMessage(message, ut);
+                        } else {
+                            long start = System.nanoTime();
+                            handleMessage(message, ut);
+                            controller.recordProcessingTime(System.nanoTime() - start);
+                        }
 
                     } else {
                         idle = true;
                         idleExecutionCount++;
                     }
+
+                    if (controller != null && controller.claimEvaluation()) {
+                        adaptConsumerCount(controller);
+                    }
                 }
 
             } finally {
@@ -470,7 +514,7 @@ public class ServiceTaskManager {
 
                 // if this is a JMS onException, ServiceTaskManager#onException will schedule
                 // a new polling task
-                if (!isOnExceptionError) {
+                if (!isOnExceptionError && !retired) {
                     // My time is up, so if I am going away, create another
                     scheduleNewTaskIfAppropriate();
                 }
@@ -478,6 +522,68 @@ public class ServiceTaskManager {
 
         }
 
+        /**
+         * Apply the decision of the scaling controller for the window that just elapsed: start
+         * a new task to scale up, or retire this task to scale down
+         *
+         * @param controller the scaling controller
+         */
+        private void adaptConsumerCount(ConsumerScalingController controller) {
+            ConsumerScalingController.Decision decision = controller.evaluate(
+                pollingTasks.size(), getConcurrentConsumers(), getMaxConcurrentConsumers(),
+                backlogSampling ? sampleBacklog() : -1);
+
+            if (decision == ConsumerScalingController.Decision.SCALE_UP) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Scaling up to " + (pollingTasks.size() + 1) +
+                        " polling tasks for service : " + serviceName);
+                }
+                if (isSTMActive()) {
+                    workerPool.execute(new MessageListenerTask());
+                }
+            } else if (decision == ConsumerScalingController.Decision.SCALE_DOWN) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Scaling down to " + (pollingTasks.size() - 1) +
+                        " polling tasks for service : " + serviceName);
+                }
+                retired = true;
+            }
+        }
+
+        /**
+         * Count the messages waiting on the queue through a QueueBrowser, up to a limit
+         *
+         * @return the number of messages waiting, or -1 if it could not be determined
+         */
+        private long sampleBacklog() {
+            if (session == null || Boolean.FALSE.equals(isQueue())) {
+                return -1;
+            }
+            Destination dest = getDestination(session);
+            if (!(dest instanceof Queue)) {
+                return -1;
+            }
+            QueueBrowser browser = null;
+            try {
+                browser = session.createBrowser((Queue) dest, getMessageSelector());
+                long count = 0;
+                for (Enumeration<?> e = browser.getEnumeration();
+                     e.hasMoreElements() && count < MAX_BACKLOG_SAMPLE; count++) {
+                    e.nextElement();
+                }
+                return count;
+            } catch (JMSException e) {
+                log.warn("Error sampling the queue depth for service : " + serviceName, e);
+                return -1;
+            } finally {
+                if (browser != null) {
+                    try {
+                        browser.close();
+                    } catch (JMSException ignore) {}
+                }
+            }
+        }
+
         /**
          * Poll for and return a message if available
          *
@@ -1163,6 +1269,34 @@ public class ServiceTaskManager {
         this.maxReconnectDuration = maxReconnectDuration;
     }
 
+    public boolean isAdaptiveScaling() {
+        return adaptiveScaling;
+    }
+
+    public void setAdaptiveScaling(Boolean adaptiveScaling) {
+        if (adaptiveScaling != null) {
+            this.adaptiveScaling = adaptiveScaling;
+        }
+    }
+
+    public int getScalingInterval() {
+        return scalingInterval;
+    }
+
+    public void setScalingInterval(int scalingInterval) {
+        this.scalingInterval = scalingInterval;
+    }
+
+    public boolean isBacklogSampling() {
+        return backlogSampling;
+    }
+
+    public void setBacklogSampling(Boolean backlogSampling) {
+        if (backlogSampling != null) {
+            this.backlogSampling = backlogSampling;
+        }
+    }
+
     public int getMaxMessagesPerTask() {
         return maxMessagesPerTask;
     }
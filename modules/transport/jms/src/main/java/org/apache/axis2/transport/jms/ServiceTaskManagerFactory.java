@@ -102,6 +102,14 @@ public class ServiceTaskManagerFactory {
         if (value != null) {
             stm.setMaxMessagesPerTask(value);
         }
+        stm.setAdaptiveScaling(
+            getOptionalBooleanProperty(JMSConstants.PARAM_ADAPTIVE_SCALING, svc, cf));
+        value = getOptionalIntProperty(JMSConstants.PARAM_SCALING_INTERVAL, svc, cf);
+        if (value != null) {
+            stm.setScalingInterval(value);
+        }
+        stm.setBacklogSampling(
+            getOptionalBooleanProperty(JMSConstants.PARAM_BACKLOG_SAMPLING, svc, cf));
 
         value = getOptionalIntProperty(JMSConstants.PARAM_RECON_INIT_DURATION, svc, cf);
         if (value != null) {
@@ -136,6 +144,9 @@ public class ServiceTaskManagerFactory {
         stm.removeJmsProperties(JMSConstants.PARAM_MAX_CONSUMERS);
         stm.removeJmsProperties(JMSConstants.PARAM_IDLE_TASK_LIMIT);
         stm.removeJmsProperties(JMSConstants.PARAM_MAX_MSGS_PER_TASK);
+        stm.removeJmsProperties(JMSConstants.PARAM_ADAPTIVE_SCALING);
+        stm.removeJmsProperties(JMSConstants.PARAM_SCALING_INTERVAL);
+        stm.removeJmsProperties(JMSConstants.PARAM_BACKLOG_SAMPLING);
         stm.removeJmsProperties(JMSConstants.PARAM_RECON_INIT_DURATION);
         stm.removeJmsProperties(JMSConstants.PARAM_RECON_MAX_DURATION);
         stm.removeJmsProperties(JMSConstants.PARAM_RECON_FACTOR);
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.axis2.transport.jms.ConsumerScalingController.Decision;
+import org.junit.Test;
+
+public class ConsumerScalingControllerTest {
+    private static void poll(ConsumerScalingController controller, int received, int idle) {
+        for (int i=0; i<received; i++) {
+            controller.recordPoll(true);
+        }
+        for (int i=0; i<idle; i++) {
+            controller.recordPoll(false);
+        }
+    }
+
+    @Test
+    public void testScaleUpWhenBusy() {
+        ConsumerScalingController controller = new ConsumerScalingController(1000);
+        poll(controller, 100, 1);
+        assertThat(controller.evaluate(2, 1, 5, -1)).isEqualTo(Decision.SCALE_UP);
+    }
+
+    @Test
+    public void testNoScaleUpAboveMax() {
+        ConsumerScalingController controller = new ConsumerScalingController(1000);
+        poll(controller, 100, 0);
+        assertThat(controller.evaluate(5, 1, 5, -1)).isEqualTo(Decision.NONE);
+    }
+
+    @Test
+    public void testScaleUpOnBacklog() {
+        ConsumerScalingController controller = new ConsumerScalingController(1000);
+        poll(controller, 10, 10);
+        assertThat(controller.evaluate(2, 1, 5, 50)).isEqualTo(Decision.SCALE_UP);
+    }
+
+    @Test
+    public void testScaleDownHysteresis() {
+        ConsumerScalingController controller = new ConsumerScalingController(1000);
+        for (int i=1; i<ConsumerScalingController.SCALE_DOWN_WINDOWS; i++) {
+            poll(controller, 1, 10);
+            assertThat(controller.evaluate(3, 1, 5, 0)).isEqualTo(Decision.NONE);
+        }
+        poll(controller, 1, 10);
+        assertThat(controller.evaluate(3, 1, 5, 0)).isEqualTo(Decision.SCALE_DOWN);
+        assertThat(controller.getStatus()).contains("lastDecision=SCALE_DOWN");
+    }
+
+    @Test
+    public void testBusyWindowResetsScaleDown() {
+        ConsumerScalingController controller = new ConsumerScalingController(1000);
+        poll(controller, 1, 10);
+        controller.evaluate(3, 1, 5, -1);
+        poll(controller, 1, 10);
+        controller.evaluate(3, 1, 5, -1);
+        poll(controller, 10, 3);
+        controller.evaluate(3, 1, 5, -1);
+        poll(controller, 1, 10);
+        assertThat(controller.evaluate(3, 1, 5, -1)).isEqualTo(Decision.NONE);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.jms.Connection;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class JMSReplyDispatcherTest {
+    private Queue replyQueue;
+    private Connection connection;
+    private Session session;
+    private MessageConsumer consumer;
+    private JMSConnectionFactory jmsConnectionFactory;
+    private JMSReplyDispatcher dispatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        replyQueue = mock(Queue.class);
+        connection = mock(Connection.class);
+        session = mock(Session.class);
+        consumer = mock(MessageConsumer.class);
+        when(connection.createSession(false, Session.AUTO_ACKNOWLEDGE)).thenReturn(session);
+        when(session.createConsumer(eq(replyQueue), any())).thenReturn(consumer);
+        jmsConnectionFactory = mock(JMSConnectionFactory.class);
+        when(jmsConnectionFactory.createConnection()).thenReturn(connection);
+        when(jmsConnectionFactory.isJmsSpec11()).thenReturn(true);
+        dispatcher = new JMSReplyDispatcher(jmsConnectionFactory, 60000);
+    }
+
+    private MessageListener listen() throws Exception {
+        dispatcher.listen(replyQueue);
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(consumer).setMessageListener(listener.capture());
+        return listener.getValue();
+    }
+
+    private static Message reply(String correlationId) throws Exception {
+        Message message = mock(Message.class);
+        when(message.getJMSCorrelationID()).thenReturn(correlationId);
+        return message;
+    }
+
+    @Test
+    public void testSingleConsumerPerDestination() throws Exception {
+        dispatcher.listen(replyQueue);
+        dispatcher.listen(replyQueue);
+        verify(consumer, times(1)).setMessageListener(any(MessageListener.class));
+        verify(connection, times(1)).start();
+    }
+
+    @Test
+    public void testReplyDispatchedByCorrelationId() throws Exception {
+        MessageListener listener = listen();
+        Message reply1 = reply("id1");
+        Message reply2 = reply("id2");
+        listener.onMessage(reply2);
+        listener.onMessage(reply1);
+        assertThat(dispatcher.waitForReply("id1", 0)).isSameAs(reply1);
+        assertThat(dispatcher.getReply("id2").get()).isSameAs(reply2);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        listen();
+        assertThat(dispatcher.waitForReply("id1", 10)).isNull();
+        assertThat(dispatcher.getReply("id1").isDone()).isFalse();
+    }
+
+    @Test
+    public void testCorrelationIdSelector() throws Exception {
+        listen();
+        String correlationId = dispatcher.createCorrelationId();
+        ArgumentCaptor<String> selector = ArgumentCaptor.forClass(String.class);
+        verify(session).createConsumer(eq(replyQueue), selector.capture());
+        assertThat(selector.getValue()).startsWith("JMSCorrelationID LIKE '");
+        String prefix = selector.getValue().substring(23, selector.getValue().length() - 2);
+        assertThat(correlationId).startsWith(prefix);
+        assertThat(dispatcher.createCorrelationId()).isNotEqualTo(correlationId);
+        assertThat(dispatcher.isDispatched(replyQueue, correlationId)).isTrue();
+        assertThat(dispatcher.isDispatched(replyQueue, "ID:application")).isFalse();
+    }
+
+    @Test
+    public void testUnclaimedReplyExpiry() throws Exception {
+        dispatcher = new JMSReplyDispatcher(jmsConnectionFactory, 0);
+        MessageListener listener = listen();
+        Message reply1 = reply("id1");
+        listener.onMessage(reply1);
+        Thread.sleep(10);
+        dispatcher.expireUnclaimedReplies();
+        assertThat(dispatcher.getReply("id1").isDone()).isFalse();
+        dispatcher.stop();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.jms.Connection;
+import javax.jms.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class JMSSessionPoolTest {
+    private JMSConnectionFactory jmsConnectionFactory;
+    private JMSSessionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        Connection connection = mock(Connection.class);
+        jmsConnectionFactory = mock(JMSConnectionFactory.class);
+        when(jmsConnectionFactory.getConnection()).thenReturn(connection);
+        when(jmsConnectionFactory.createSession(connection)).thenReturn(
+            mock(Session.class), mock(Session.class));
+        pool = new JMSSessionPool(jmsConnectionFactory, 1);
+    }
+
+    @Test
+    public void testReleasedSessionIsReused() throws Exception {
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        pooledSession.release();
+        assertThat(pool.borrow()).isSameAs(pooledSession);
+        verify(pooledSession.getSession(), never()).close();
+    }
+
+    @Test
+    public void testDiscardedSessionIsReplaced() throws Exception {
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        pooledSession.discard();
+        verify(pooledSession.getSession()).close();
+        JMSSessionPool.PooledSession newSession = pool.borrow();
+        assertThat(newSession).isNotSameAs(pooledSession);
+        assertThat(newSession.getSession()).isNotSameAs(pooledSession.getSession());
+    }
+
+    @Test
+    public void testCloseBorrowedSession() throws Exception {
+        JMSSessionPool.PooledSession pooledSession = pool.borrow();
+        pool.close();
+        verify(pooledSession.getSession()).close();
+        pooledSession.release();
+        verify(pooledSession.getSession()).close();
+    }
+}
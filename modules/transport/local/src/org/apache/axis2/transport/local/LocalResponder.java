@@ -44,10 +44,24 @@ public class LocalResponder extends AbstractHandler implements TransportSender {
     //  fixed for Executing LocalTransport in MulthThread. 
     private OutputStream out;
 
+    // the message context of the request, if the response is passed by reference
+    private MessageContext requestMessageContext;
+
     public LocalResponder(OutputStream response) {
         this.out = response;        
     }
 
+    /**
+     * Create a responder for the in-VM mode of the {@link LocalTransportSender}. A copy of the
+     * response envelope is set in the {@link MessageContext#TRANSPORT_IN_ENVELOPE} property of
+     * the request message context.
+     *
+     * @param requestMessageContext the message context of the sender
+     */
+    public LocalResponder(MessageContext requestMessageContext) {
+        this.requestMessageContext = requestMessageContext;
+    }
+
     public void init(ConfigurationContext confContext, TransportOutDescription transportOut)
             throws AxisFault {
     }
@@ -82,7 +96,12 @@ public class LocalResponder extends AbstractHandler implements TransportSender {
                 log.debug("Response - " + msgContext.getEnvelope().toString());
             }
 
-            if (epr != null) {
+            if (requestMessageContext != null) {
+                if (epr == null || !epr.hasNoneAddress()) {
+                    requestMessageContext.setProperty(MessageContext.TRANSPORT_IN_ENVELOPE,
+                            LocalTransportSender.copyEnvelope(msgContext.getEnvelope()));
+                }
+            } else if (epr != null) {
                 if (!epr.hasNoneAddress()) {
                     TransportUtils.writeMessage(msgContext, out);
                 }
@@ -73,9 +73,35 @@ public class LocalTransportReceiver {
         processMessage(in, to, action, response);
     }
 
+    /**
+     * Process a message in the in-VM mode of the {@link LocalTransportSender}. The response is
+     * not serialized either, but set in the {@link MessageContext#TRANSPORT_IN_ENVELOPE}
+     * property of the given message context.
+     *
+     * @param inMessageContext the message context of the sender
+     * @param envelope a copy of the envelope of the message, owned by the receiver
+     * @throws AxisFault if the message could not be processed
+     */
+    public void processMessage(MessageContext inMessageContext, SOAPEnvelope envelope)
+            throws AxisFault {
+        if (this.confContext == null) {
+            this.confContext = inMessageContext.getConfigurationContext();
+        }
+        this.inMessageContext = inMessageContext;
+        processMessage(envelope, null, inMessageContext.getTo(),
+                       inMessageContext.getOptions().getAction(), null,
+                       new LocalResponder(inMessageContext));
+    }
+
     public void processMessage(InputStream in, EndpointReference to, String action,
                                OutputStream response)
             throws AxisFault {
+        processMessage(null, in, to, action, response, new LocalResponder(response));
+    }
+
+    private void processMessage(SOAPEnvelope envelope, InputStream in, EndpointReference to,
+                                String action, OutputStream response, LocalResponder responder)
+            throws AxisFault {
         MessageContext msgCtx = confContext.createMessageContext();
         if (inMessageContext != null) {
             msgCtx.setProperty(HTTPConstants.MC_HTTP_SERVLETREQUEST,
@@ -94,13 +120,15 @@ public class LocalTransportReceiver {
         // We escaped this problem by the following code.
         LocalResponseTransportOutDescription localTransportResOut = new LocalResponseTransportOutDescription(
                 tOut);
-        localTransportResOut.setSender(new LocalResponder(response));
+        localTransportResOut.setSender(responder);
 
         try {
             msgCtx.setIncomingTransportName(Constants.TRANSPORT_LOCAL);
             msgCtx.setTransportIn(tIn);
             msgCtx.setTransportOut(localTransportResOut);
-            msgCtx.setProperty(MessageContext.TRANSPORT_OUT, response);
+            if (response != null) {
+                msgCtx.setProperty(MessageContext.TRANSPORT_OUT, response);
+            }
 
             Object headers = inMessageContext.getProperty(MessageContext.TRANSPORT_HEADERS);
             if (headers != null) {
@@ -111,8 +139,12 @@ public class LocalTransportReceiver {
             msgCtx.setWSAAction(action);
             msgCtx.setServerSide(true);
 
-            InputStreamReader streamReader = new InputStreamReader(in);
-            SOAPEnvelope envelope = OMXMLBuilderFactory.createSOAPModelBuilder(streamReader).getSOAPEnvelope();
+            if (envelope == null) {
+                InputStreamReader streamReader = new InputStreamReader(in);
+                envelope = OMXMLBuilderFactory.createSOAPModelBuilder(streamReader).getSOAPEnvelope();
+            } else if (inMessageContext.isDoingSwA()) {
+                msgCtx.setAttachmentMap(inMessageContext.getAttachmentMap());
+            }
 
             msgCtx.setEnvelope(envelope);
 
@@ -123,7 +155,9 @@ public class LocalTransportReceiver {
                 MessageContext faultContext =
                         MessageContextBuilder.createFaultMessageContext(msgCtx, e);
                 faultContext.setTransportOut(localTransportResOut);
-                faultContext.setProperty(MessageContext.TRANSPORT_OUT, response);
+                if (response != null) {
+                    faultContext.setProperty(MessageContext.TRANSPORT_OUT, response);
+                }
 
                 AxisEngine.sendFault(faultContext);
             } catch (AxisFault axisFault) {
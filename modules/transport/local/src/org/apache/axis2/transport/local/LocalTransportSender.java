@@ -20,14 +20,20 @@
 
 package org.apache.axis2.transport.local;
 
+import org.apache.axiom.soap.SOAPCloneOptions;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axiom.soap.SOAPMessage;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.transport.TransportSender;
 import org.apache.axis2.transport.TransportUtils;
+import org.apache.axis2.util.JavaUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -40,8 +46,21 @@ import java.io.OutputStream;
 public class LocalTransportSender extends AbstractHandler implements TransportSender {
     protected static final Log log = LogFactory.getLog(LocalTransportSender.class);
 
+    /**
+     * Name of the transport parameter, or message context property, that enables the in-VM
+     * mode. In that mode the request and response envelopes are handed over as copies of the
+     * object model instead of being serialized and parsed again. The copies preserve
+     * {@link org.apache.axiom.om.OMSourcedElement}s together with their data sources, and each
+     * side owns its copy, so that neither side observes the mutations made by the other.
+     */
+    public static final String PASS_BY_REFERENCE = "passByReference";
+
+    private boolean passByReference;
+
     public void init(ConfigurationContext confContext, TransportOutDescription transportOut)
             throws AxisFault {
+        Parameter param = transportOut.getParameter(PASS_BY_REFERENCE);
+        passByReference = param != null && JavaUtils.isTrueExplicitly(param.getValue(), false);
     }
 
     public void stop() {
@@ -72,9 +91,13 @@ public class LocalTransportSender extends AbstractHandler implements TransportSe
 
         if (epr != null) {
             if (!epr.hasNoneAddress()) {
-                out = new ByteArrayOutputStream();
-                TransportUtils.writeMessage(msgContext, out);
-                finalizeSendWithToAddress(msgContext, (ByteArrayOutputStream)out);
+                if (isPassByReference(msgContext)) {
+                    finalizeSendByReference(msgContext);
+                } else {
+                    out = new ByteArrayOutputStream();
+                    TransportUtils.writeMessage(msgContext, out);
+                    finalizeSendWithToAddress(msgContext, (ByteArrayOutputStream)out);
+                }
             }
         } else {
             out = (OutputStream) msgContext.getProperty(MessageContext.TRANSPORT_OUT);
@@ -111,4 +134,40 @@ public class LocalTransportSender extends AbstractHandler implements TransportSe
             throw AxisFault.makeFault(e);
         }
     }
+
+    /**
+     * Deliver the message to the local service without serializing it. The response envelope,
+     * if any, is set in the {@link MessageContext#TRANSPORT_IN_ENVELOPE} property.
+     *
+     * @param msgContext the outgoing message context
+     * @throws AxisFault if the message could not be processed
+     */
+    public void finalizeSendByReference(MessageContext msgContext) throws AxisFault {
+        LocalTransportReceiver localTransportReceiver = new LocalTransportReceiver(this);
+        localTransportReceiver.processMessage(msgContext, copyEnvelope(msgContext.getEnvelope()));
+    }
+
+    private boolean isPassByReference(MessageContext msgContext) {
+        return JavaUtils.isTrueExplicitly(msgContext.getProperty(PASS_BY_REFERENCE),
+                                          passByReference);
+    }
+
+    /**
+     * Copy an envelope for the in-VM mode. The copy has its own document and its header blocks
+     * are not marked as processed. OMSourcedElements are copied with their data sources instead
+     * of being expanded, if the data sources support it.
+     *
+     * @param envelope the envelope to copy
+     * @return the copy
+     */
+    static SOAPEnvelope copyEnvelope(SOAPEnvelope envelope) {
+        SOAPCloneOptions options = new SOAPCloneOptions();
+        options.setPreserveModel(true);
+        options.setCopyOMDataSources(true);
+        options.setProcessedFlag(Boolean.FALSE);
+        SOAPEnvelope copy = (SOAPEnvelope)envelope.clone(options);
+        SOAPMessage message = ((SOAPFactory)envelope.getOMFactory()).createSOAPMessage();
+        message.setSOAPEnvelope(copy);
+        return copy;
+    }
 }
@@ -18,6 +18,9 @@
  */
 package org.apache.axis2.transport.local;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
 import javax.xml.namespace.QName;
 
 import org.apache.axiom.om.OMAbstractFactory;
@@ -35,8 +38,7 @@ import org.custommonkey.xmlunit.XMLAssert;
 import org.junit.Test;
 
 public class LocalTransportTest {
-    @Test
-    public void test() throws Exception {
+    private static ServiceClient createServiceClient(boolean passByReference) throws Exception {
         ConfigurationContext configurationContext =
             ConfigurationContextFactory.createConfigurationContextFromURIs(
                     LocalTransportTest.class.getResource("axis2.xml"), null);
@@ -48,16 +50,42 @@ public class LocalTransportTest {
         service.addParameter(AxisService.SUPPORT_SINGLE_OP, true);
         configurationContext.getAxisConfiguration().addService(service);
         
-        OMFactory factory = OMAbstractFactory.getOMFactory();
-        OMElement requestElement = factory.createOMElement("test", "urn:test", "t");
-        requestElement.setText("Hi there!");
-        
         Options options = new Options();
         options.setTo(new EndpointReference("local://localhost/axis2/services/Echo"));
+        if (passByReference) {
+            options.setProperty(LocalTransportSender.PASS_BY_REFERENCE, Boolean.TRUE);
+        }
         ServiceClient serviceClient = new ServiceClient(configurationContext, null);
         serviceClient.setOptions(options);
-        OMElement responseElement = serviceClient.sendReceive(requestElement);
+        return serviceClient;
+    }
+    
+    private static OMElement createRequestElement() {
+        OMFactory factory = OMAbstractFactory.getOMFactory();
+        OMElement requestElement = factory.createOMElement("test", "urn:test", "t");
+        requestElement.setText("Hi there!");
+        return requestElement;
+    }
+    
+    @Test
+    public void test() throws Exception {
+        OMElement requestElement = createRequestElement();
+        OMElement responseElement = createServiceClient(false).sendReceive(requestElement);
+        
+        XMLAssert.assertXMLEqual(requestElement.toString(), responseElement.toString());
+    }
+    
+    @Test
+    public void testPassByReference() throws Exception {
+        OMElement requestElement = createRequestElement();
+        OMElement responseElement = createServiceClient(true).sendReceive(requestElement);
         
         XMLAssert.assertXMLEqual(requestElement.toString(), responseElement.toString());
+        // The echo service returns the envelope it received; the client must still get a
+        // distinct copy, and its request must not have been moved or modified
+        assertNotSame(requestElement, responseElement);
+        assertNotSame(requestElement.getParent(), responseElement.getParent());
+        responseElement.setText("modified");
+        assertEquals("Hi there!", requestElement.getText());
     }
 }
@@ -40,6 +40,15 @@ public class MailConstants {
     public static final String TRANSPORT_MAIL_MOVE_AFTER_FAILURE = "transport.mail.MoveAfterFailure";
 
     public static final String TRANSPORT_MAIL_PROCESS_IN_PARALLEL = "transport.mail.ProcessInParallel";
+    public static final String TRANSPORT_MAIL_MAX_CONCURRENT_MESSAGES = "transport.mail.MaxConcurrentMessages";
+    public static final String TRANSPORT_MAIL_MAX_MESSAGES_PER_POLL = "transport.mail.MaxMessagesPerPoll";
+
+    /**
+     * Key for the parameter enabling IMAP IDLE. If set to <tt>true</tt> (and the store protocol
+     * is IMAP), the listener keeps the folder open and processes new messages as soon as the
+     * server announces them instead of polling the folder at a fixed interval.
+     */
+    public static final String TRANSPORT_MAIL_USE_IDLE = "transport.mail.UseIdle";
 
     public static final String MAX_RETRY_COUNT   = "transport.mail.MaxRetryCount";
     public static final String RECONNECT_TIMEOUT = "transport.mail.ReconnectTimeout";
@@ -34,6 +34,9 @@ import org.apache.axis2.transport.base.event.TransportErrorSource;
 import org.apache.axis2.transport.base.event.TransportErrorSourceSupport;
 
 import javax.mail.*;
+import javax.mail.search.AndTerm;
+import javax.mail.search.FlagTerm;
+import javax.mail.search.SearchTerm;
 import javax.mail.internet.ContentType;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
@@ -48,6 +51,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.lang.reflect.Method;
 
+import com.sun.mail.imap.IMAPFolder;
+
 /**
  * This mail transport lister implementation uses the base transport framework and is a polling
  * transport. i.e. a service can register itself with custom a custom mail configuration (i.e.
@@ -56,6 +61,15 @@ import java.lang.reflect.Method;
  * and can be configured to be optionally moved to a different folder, if the server supports it
  * (e.g. with imap). When checking for new mail, the transport ignores messages already flaged as
  * SEEN and DELETED
+ * <p>
+ * For IMAP stores, the <tt>transport.mail.UseIdle</tt> parameter switches the listener from
+ * polling to push mode: a dedicated thread keeps the folder open and uses the IMAP IDLE command
+ * to wait for new messages, which are then processed immediately. In both modes, messages are
+ * fetched in bulk using a {@link FetchProfile}. <tt>transport.mail.MaxMessagesPerPoll</tt> limits
+ * the size of each batch and <tt>transport.mail.MaxConcurrentMessages</tt> limits the number of
+ * messages processed concurrently when <tt>transport.mail.ProcessInParallel</tt> is enabled.
+ * Messages that are neither marked SEEN nor deleted after processing (e.g. in a read only
+ * folder) are remembered by UID and not processed again.
  */
 
 public class MailTransportListener extends AbstractPollingTransportListener<PollTableEntry>
@@ -66,6 +80,15 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
     
     private final TransportErrorSourceSupport tess = new TransportErrorSourceSupport(this);
 
+    /** The IDLE watchers for the endpoints configured to use IMAP IDLE */
+    private final Map<PollTableEntry,IdleWatcher> idleWatchers =
+        new ConcurrentHashMap<PollTableEntry,IdleWatcher>();
+
+    /** Selects the messages that still need to be processed */
+    private static final SearchTerm UNPROCESSED = new AndTerm(
+        new FlagTerm(new Flags(Flags.Flag.SEEN), false),
+        new FlagTerm(new Flags(Flags.Flag.DELETED), false));
+
     @Override
     protected void doInit() throws AxisFault {
         super.doInit();
@@ -75,6 +98,27 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
         }
     }
 
+    @Override
+    protected void startEndpoint(PollTableEntry entry) throws AxisFault {
+        if (entry.isUsingIdle()) {
+            IdleWatcher watcher = new IdleWatcher(entry);
+            idleWatchers.put(entry, watcher);
+            watcher.start();
+        } else {
+            super.startEndpoint(entry);
+        }
+    }
+
+    @Override
+    protected void stopEndpoint(PollTableEntry entry) {
+        IdleWatcher watcher = idleWatchers.remove(entry);
+        if (watcher != null) {
+            watcher.stop();
+        } else {
+            super.stopEndpoint(entry);
+        }
+    }
+
     @Override
     protected void poll(PollTableEntry entry) {
         checkMail(entry, entry.getEmailAddress());
@@ -121,14 +165,7 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
                 connected = store.isConnected();
 
                 if (connected) {
-                    if (entry.getFolder() != null) {
-                        folder = store.getFolder(entry.getFolder());
-                    } else {
-                        folder = store.getFolder(MailConstants.DEFAULT_FOLDER);
-                    }
-                    if (folder == null) {
-                        folder = store.getDefaultFolder();
-                    }
+                    folder = getFolder(store, entry);
                 }
 
             } catch (Exception e) {
@@ -162,52 +199,15 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
                 }
 
                 folder.open(Folder.READ_WRITE);
-                int total = folder.getMessageCount();
-                Message[] messages = folder.getMessages();
+                Message[] messages = getUnprocessedMessages(entry, folder);
 
                 if (log.isDebugEnabled()) {
-                    log.debug(messages.length + " messgaes in folder : " + folder);
+                    log.debug(messages.length + " messgaes to process in folder : " + folder);
                 }
 
-                latch = new CountDownLatch(total);
-                for (int i = 0; i < total; i++) {
-
-                    try {
-                        String[] status = messages[i].getHeader("Status");
-                        if (status != null && status.length == 1 && status[0].equals("RO")) {
-                            // some times the mail server sends a special mail message which is
-                            // not relavent in processing. ignore this message.
-                            if (log.isDebugEnabled()) {
-                                log.debug("Skipping message # : " + messages[i].getMessageNumber()
-                                    + " : " + messages[i].getSubject() + " - Status: RO");
-                            }
-                            latch.countDown();
-                        } else if (messages[i].isSet(Flags.Flag.SEEN)) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Skipping message # : " + messages[i].getMessageNumber()
-                                    + " : " + messages[i].getSubject() + " - already marked SEEN");
-                            }
-                            latch.countDown();
-                        } else if (messages[i].isSet(Flags.Flag.DELETED)) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Skipping message # : " + messages[i].getMessageNumber()
-                                    + " : " +  messages[i].getSubject() + " - already marked DELETED");
-                            }
-                            latch.countDown();
-
-                        } else {
-                            processMail(entry, folder, store, messages[i], latch, onCompletion);
-                            mailProcessingStarted = true;
-                        }
-                    } catch (MessageRemovedException ignore) {
-                        // while reading the meta information, this mail was deleted, thats ok
-                        if (log.isDebugEnabled()) {
-                            log.debug("Skipping message # : " + messages[i].getMessageNumber() +
-                                " as it has been DELETED by another thread after processing");
-                        }
-                        latch.countDown();
-                    }
-                }
+                latch = new CountDownLatch(messages.length);
+                mailProcessingStarted =
+                    dispatchMessages(entry, folder, store, messages, latch, onCompletion);
 
                 if (!mailProcessingStarted) {
                     // if we didnt process any mail in this run, the onCompletion will not
@@ -225,6 +225,120 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
         }
     }
 
+    /**
+     * Get the messages from the given folder that are neither SEEN nor DELETED, and that have
+     * not been processed already, up to the configured maximum number of messages per poll.
+     * Messages that were processed but not flagged (e.g. because the folder is read only) are
+     * recognized by their UID, so that they don't fill every batch. The envelope, flags and UIDs
+     * of the messages are fetched in bulk, so that the checks done before processing a message
+     * don't require a round trip to the server for every message.
+     *
+     * @param entry the poll table entry
+     * @param folder the open mail folder
+     * @return the messages to process
+     * @throws MessagingException on error
+     */
+    static Message[] getUnprocessedMessages(PollTableEntry entry, Folder folder)
+        throws MessagingException {
+
+        Message[] messages = folder.search(UNPROCESSED);
+        if (folder instanceof UIDFolder && messages.length > 0) {
+            UIDFolder uidFolder = (UIDFolder) folder;
+            FetchProfile uidProfile = new FetchProfile();
+            uidProfile.add(UIDFolder.FetchProfileItem.UID);
+            folder.fetch(messages, uidProfile);
+            long[] uids = new long[messages.length];
+            Set<Long> uidSet = new HashSet<Long>();
+            for (int i = 0; i < messages.length; i++) {
+                uids[i] = uidFolder.getUID(messages[i]);
+                uidSet.add(uids[i]);
+            }
+            Set<Long> processed = entry.retainProcessedUIDs(uidFolder.getUIDValidity(), uidSet);
+            if (!processed.isEmpty()) {
+                List<Message> remaining = new ArrayList<Message>(messages.length);
+                for (int i = 0; i < messages.length; i++) {
+                    if (!processed.contains(uids[i])) {
+                        remaining.add(messages[i]);
+                    }
+                }
+                messages = remaining.toArray(new Message[remaining.size()]);
+            }
+        }
+
+        int max = entry.getMaxMessagesPerPoll();
+        if (max > 0 && messages.length > max) {
+            Message[] batch = new Message[max];
+            System.arraycopy(messages, 0, batch, 0, max);
+            messages = batch;
+        }
+
+        FetchProfile fetchProfile = new FetchProfile();
+        fetchProfile.add(FetchProfile.Item.ENVELOPE);
+        fetchProfile.add(FetchProfile.Item.FLAGS);
+        fetchProfile.add("Status");
+        if (folder instanceof UIDFolder) {
+            fetchProfile.add(UIDFolder.FetchProfileItem.UID);
+        }
+        folder.fetch(messages, fetchProfile);
+        return messages;
+    }
+
+    /**
+     * Start processing the given messages. Messages that don't need to be processed are skipped.
+     *
+     * @param entry the poll table entry
+     * @param folder the mail folder
+     * @param store the mail store
+     * @param messages the messages to process
+     * @param latch the completion latch, initialized with the number of messages
+     * @param onCompletion the task to run on the completion of mail processing
+     * @return <code>true</code> if processing of at least one message has been started
+     */
+    private boolean dispatchMessages(PollTableEntry entry, Folder folder, Store store,
+                                     Message[] messages, CountDownLatch latch,
+                                     Runnable onCompletion) throws MessagingException {
+
+        boolean mailProcessingStarted = false;
+        for (int i = 0; i < messages.length; i++) {
+            try {
+                String[] status = messages[i].getHeader("Status");
+                if (status != null && status.length == 1 && status[0].equals("RO")) {
+                    // some times the mail server sends a special mail message which is
+                    // not relavent in processing. ignore this message.
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipping message # : " + messages[i].getMessageNumber()
+                            + " : " + messages[i].getSubject() + " - Status: RO");
+                    }
+                    latch.countDown();
+                } else if (messages[i].isSet(Flags.Flag.SEEN)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipping message # : " + messages[i].getMessageNumber()
+                            + " : " + messages[i].getSubject() + " - already marked SEEN");
+                    }
+                    latch.countDown();
+                } else if (messages[i].isSet(Flags.Flag.DELETED)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Skipping message # : " + messages[i].getMessageNumber()
+                            + " : " +  messages[i].getSubject() + " - already marked DELETED");
+                    }
+                    latch.countDown();
+
+                } else {
+                    processMail(entry, folder, store, messages[i], latch, onCompletion);
+                    mailProcessingStarted = true;
+                }
+            } catch (MessageRemovedException ignore) {
+                // while reading the meta information, this mail was deleted, thats ok
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping message # : " + messages[i].getMessageNumber() +
+                        " as it has been DELETED by another thread after processing");
+                }
+                latch.countDown();
+            }
+        }
+        return mailProcessingStarted;
+    }
+
     /**
      * Invoke the actual message processor in the current thread or another worker thread
      * @param entry PolltableEntry
@@ -264,7 +378,7 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
                             log.debug("Processing message # : " + message.getMessageNumber() +
                                 " with UID : " + uid + " with a worker thread");
                         }
-                        workerPool.execute(mp);
+                        executeInWorker(entry, mp);
                     } else {
                         if (log.isDebugEnabled()) {
                             log.debug("Processing message # : " + message.getMessageNumber() +
@@ -287,7 +401,7 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
                     log.debug("Processing message # : " + message.getMessageNumber() +
                         " with a worker thread");
                 }
-                workerPool.execute(mp);
+                executeInWorker(entry, mp);
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug("Processing message # : " + message.getMessageNumber() + " in same thread");
@@ -297,6 +411,23 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
         }
     }
 
+    /**
+     * Hand over a message to a worker thread, waiting first until the number of messages
+     * being processed concurrently for the entry is below the configured limit.
+     */
+    private void executeInWorker(PollTableEntry entry, MailProcessor mp) {
+        try {
+            entry.acquireProcessingPermit();
+        } catch (InterruptedException e) {
+            // the listener is stopping; leave the message for the next check
+            Thread.currentThread().interrupt();
+            mp.skip();
+            return;
+        }
+        mp.setHoldingPermit();
+        workerPool.execute(mp);
+    }
+
     /**
      * Handle processing of a message, possibly in a new thread
      */
@@ -309,6 +440,7 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
         private String uid = null;
         private CountDownLatch doneSignal = null;
         private Runnable onCompletion = null;
+        private boolean holdingPermit = false;
 
         MailProcessor(PollTableEntry entry, Message message, Store store, Folder folder,
                       CountDownLatch doneSignal, Runnable onCompletion) {
@@ -324,6 +456,10 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
             this.uid = uid;
         }
 
+        public void setHoldingPermit() {
+            this.holdingPermit = true;
+        }
+
         public void run() {
 
             entry.setLastPollState(PollTableEntry.NONE);
@@ -349,7 +485,34 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
                 log.error("Failed to move or delete email message", e);
                 tess.error(entry.getService(), e);
             }
+            if (folder instanceof UIDFolder) {
+                try {
+                    UIDFolder uidFolder = (UIDFolder) folder;
+                    entry.messageProcessed(uidFolder.getUIDValidity(), uidFolder.getUID(message));
+                } catch (MessagingException e) {
+                    log.warn("Unable to record the UID of processed message # : " +
+                        message.getMessageNumber() + " :: " + e.getMessage());
+                }
+            }
+
+            if (holdingPermit) {
+                entry.releaseProcessingPermit();
+            }
+
+            done();
+        }
+
+        /**
+         * Give up on processing the message, which is left untouched in the folder
+         */
+        public void skip() {
+            if (uid != null) {
+                entry.removeUID(uid);
+            }
+            done();
+        }
 
+        private void done() {
             doneSignal.countDown();
 
             if (doneSignal.getCount() == 0) {
@@ -712,6 +875,170 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
         }
     }
 
+    /**
+     * Get the folder to check for mail for the given entry
+     *
+     * @param store the connected mail store
+     * @param entry the poll table entry
+     * @return the configured folder, or the default folder of the store
+     * @throws MessagingException on error
+     */
+    private Folder getFolder(Store store, PollTableEntry entry) throws MessagingException {
+        Folder folder;
+        if (entry.getFolder() != null) {
+            folder = store.getFolder(entry.getFolder());
+        } else {
+            folder = store.getFolder(MailConstants.DEFAULT_FOLDER);
+        }
+        if (folder == null) {
+            folder = store.getDefaultFolder();
+        }
+        return folder;
+    }
+
+    /**
+     * Process the messages currently available in a folder kept open by an {@link IdleWatcher}.
+     * This method returns once all messages have been processed and the deleted ones have been
+     * expunged.
+     *
+     * @param entry the poll table entry
+     * @param store the mail store
+     * @param folder the open mail folder
+     * @return <code>true</code> if the batch was truncated to the configured maximum number of
+     *         messages per poll, i.e. if more messages may be waiting
+     * @throws MessagingException on error
+     * @throws InterruptedException if the thread was interrupted while waiting for the
+     *         processing of the messages to complete
+     */
+    private boolean processAvailableMail(PollTableEntry entry, Store store, Folder folder)
+        throws MessagingException, InterruptedException {
+
+        Message[] messages = getUnprocessedMessages(entry, folder);
+        if (messages.length == 0) {
+            return false;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(messages.length + " new messages in folder : " + folder);
+        }
+
+        CountDownLatch latch = new CountDownLatch(messages.length);
+        dispatchMessages(entry, folder, store, messages, latch, new Runnable() {
+            public void run() {
+                // Nothing to do; the folder stays open
+            }
+        });
+        latch.await();
+        folder.expunge();
+
+        long now = System.currentTimeMillis();
+        entry.setLastPollTime(now);
+        entry.setNextPollTime(now);
+        return messages.length == entry.getMaxMessagesPerPoll();
+    }
+
+    /**
+     * Keeps the IMAP folder of an endpoint open and processes new messages as soon as the server
+     * announces them using IMAP IDLE. If the connection is lost, the watcher reconnects after the
+     * configured reconnect timeout.
+     */
+    private class IdleWatcher implements Runnable {
+        private final PollTableEntry entry;
+        private volatile boolean stopped = false;
+        private volatile Store store = null;
+        private Thread thread;
+
+        IdleWatcher(PollTableEntry entry) {
+            this.entry = entry;
+        }
+
+        void start() {
+            thread = new Thread(this, getTransportName() + "-idle-" + entry.getEmailAddress());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void stop() {
+            stopped = true;
+            thread.interrupt();
+            // Closing the store aborts a pending IDLE command
+            Store store = this.store;
+            if (store != null) {
+                try {
+                    store.close();
+                } catch (MessagingException ignore) {}
+            }
+        }
+
+        public void run() {
+            InternetAddress emailAddress = entry.getEmailAddress();
+            long reconnectTimeout = entry.getReconnectTimeout() > 0 ?
+                entry.getReconnectTimeout() : MailConstants.DEFAULT_RECONNECT_TIMEOUT;
+            while (!stopped) {
+                Folder folder = null;
+                try {
+                    store = entry.getSession().getStore(entry.getProtocol());
+                    store.connect(entry.getUserName(), entry.getPassword());
+                    folder = getFolder(store, entry);
+                    folder.open(Folder.READ_WRITE);
+                    log.info("Listening for new mail for account : " + emailAddress +
+                        " using IMAP IDLE");
+
+                    while (!stopped) {
+                        if (state == BaseConstants.PAUSED) {
+                            Thread.sleep(entry.getPollInterval());
+                        } else if (!processAvailableMail(entry, store, folder)) {
+                            if (folder instanceof IMAPFolder) {
+                                ((IMAPFolder) folder).idle(true);
+                            } else {
+                                Thread.sleep(entry.getPollInterval());
+                            }
+                        }
+                    }
+
+                } catch (InterruptedException e) {
+                    break;
+
+                } catch (Exception e) {
+                    if (stopped) {
+                        break;
+                    }
+                    log.error("Error checking mail for account : " + emailAddress +
+                        ". Reconnecting in : " + reconnectTimeout / 1000 + " seconds", e);
+                    entry.setLastPollState(PollTableEntry.FAILED);
+                    tess.error(entry.getService(), e);
+                    try {
+                        Thread.sleep(reconnectTimeout);
+                    } catch (InterruptedException ignore) {
+                        break;
+                    }
+
+                } finally {
+                    close(folder);
+                }
+            }
+        }
+
+        private void close(Folder folder) {
+            if (folder != null && folder.isOpen()) {
+                try {
+                    folder.close(true);
+                } catch (MessagingException e) {
+                    log.warn("Error closing mail folder : " + folder + " for account : " +
+                        entry.getEmailAddress() + " :: " + e.getMessage());
+                }
+            }
+            Store store = this.store;
+            if (store != null && store.isConnected()) {
+                try {
+                    store.close();
+                } catch (MessagingException e) {
+                    log.warn("Error closing mail store for account : " +
+                        entry.getEmailAddress() + " :: " + e.getMessage());
+                }
+            }
+        }
+    }
+
     @Override
     protected PollTableEntry createEndpoint() {
         return new PollTableEntry(log);
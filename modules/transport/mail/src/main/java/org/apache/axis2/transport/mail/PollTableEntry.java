@@ -20,10 +20,13 @@
 package org.apache.axis2.transport.mail;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
 
 import javax.mail.Session;
 import javax.mail.internet.AddressException;
@@ -88,8 +91,23 @@ public class PollTableEntry extends AbstractPollTableEntry {
     private String moveAfterFailure;
     /** Should mail be processed in parallel? e.g. with IMAP */
     private boolean processingMailInParallel = false;
+    /** Maximum number of messages processed concurrently by worker threads; -1 for no limit */
+    private int maxConcurrentMessages = -1;
+    /** Permits for messages processed by worker threads, or null if there is no limit */
+    private Semaphore processingPermits;
+    /** Maximum number of messages fetched in a single poll; -1 for no limit */
+    private int maxMessagesPerPoll = -1;
+    /** Should the listener use IMAP IDLE instead of polling? */
+    private boolean usingIdle = false;
     /** UIDs of messages currently being processed */
     private List<String> uidList = Collections.synchronizedList(new ArrayList<String>());
+    /**
+     * UIDs of the messages processed that are still neither SEEN nor DELETED, e.g. because the
+     * folder is read only, so that they are not processed again
+     */
+    private final Set<Long> processedUIDs = new HashSet<Long>();
+    /** The UID validity of the folder the processed UIDs belong to */
+    private long processedUIDValidity = -1;
 
     private int maxRetryCount;
     private long reconnectTimeout;
@@ -208,6 +226,40 @@ public class PollTableEntry extends AbstractPollTableEntry {
         return processingMailInParallel;
     }
 
+    public int getMaxConcurrentMessages() {
+        return maxConcurrentMessages;
+    }
+
+    public int getMaxMessagesPerPoll() {
+        return maxMessagesPerPoll;
+    }
+
+    void setMaxMessagesPerPoll(int maxMessagesPerPoll) {
+        this.maxMessagesPerPoll = maxMessagesPerPoll;
+    }
+
+    public boolean isUsingIdle() {
+        return usingIdle;
+    }
+
+    /**
+     * Wait until a message may be handed over to a worker thread, i.e. until the number of
+     * messages being processed concurrently is below the configured limit.
+     * 
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void acquireProcessingPermit() throws InterruptedException {
+        if (processingPermits != null) {
+            processingPermits.acquire();
+        }
+    }
+
+    public void releaseProcessingPermit() {
+        if (processingPermits != null) {
+            processingPermits.release();
+        }
+    }
+
     @Override
     public boolean loadConfiguration(ParameterInclude paramIncl) throws AxisFault {
         String address =
@@ -290,6 +342,20 @@ public class PollTableEntry extends AbstractPollTableEntry {
                 }
             }
 
+            maxConcurrentMessages = ParamUtils.getOptionalParamInt(
+                paramIncl, MailConstants.TRANSPORT_MAIL_MAX_CONCURRENT_MESSAGES, -1);
+            processingPermits = maxConcurrentMessages > 0 ? new Semaphore(maxConcurrentMessages) : null;
+            maxMessagesPerPoll = ParamUtils.getOptionalParamInt(
+                paramIncl, MailConstants.TRANSPORT_MAIL_MAX_MESSAGES_PER_POLL, -1);
+
+            usingIdle = ParamUtils.getOptionalParamBoolean(
+                paramIncl, MailConstants.TRANSPORT_MAIL_USE_IDLE, false);
+            if (usingIdle && (protocol == null || !protocol.startsWith(MailConstants.MAIL_IMAP))) {
+                log.warn("IMAP IDLE requested for " + address + ", but the store protocol is " +
+                    protocol + "; falling back to polling");
+                usingIdle = false;
+            }
+
             String pollInParallel = ParamUtils.getOptionalParam(
                 paramIncl, BaseConstants.TRANSPORT_POLL_IN_PARALLEL);
             if (pollInParallel != null) {
@@ -326,4 +392,36 @@ public class PollTableEntry extends AbstractPollTableEntry {
     public synchronized void removeUID(String uid) {
         this.uidList.remove(uid);
     }
+
+    /**
+     * Record that a message has been processed, so that it is skipped if it is still found
+     * among the unprocessed messages of the folder afterwards
+     *
+     * @param uidValidity the UID validity of the folder
+     * @param uid the UID of the message
+     */
+    public synchronized void messageProcessed(long uidValidity, long uid) {
+        if (uidValidity != processedUIDValidity) {
+            processedUIDs.clear();
+            processedUIDValidity = uidValidity;
+        }
+        processedUIDs.add(uid);
+    }
+
+    /**
+     * Get the UIDs of the messages already processed among the given ones. The UIDs of the
+     * messages that are no longer found are forgotten.
+     *
+     * @param uidValidity the UID validity of the folder
+     * @param uids the UIDs of the messages that are neither SEEN nor DELETED
+     * @return the UIDs of the messages already processed
+     */
+    public synchronized Set<Long> retainProcessedUIDs(long uidValidity, Set<Long> uids) {
+        if (uidValidity != processedUIDValidity) {
+            processedUIDs.clear();
+            processedUIDValidity = uidValidity;
+        }
+        processedUIDs.retainAll(uids);
+        return new HashSet<Long>(processedUIDs);
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.mail;
+
+import java.net.ServerSocket;
+import java.util.Properties;
+
+import javax.mail.Folder;
+import javax.mail.Message;
+import javax.mail.Session;
+import javax.mail.Store;
+import javax.mail.UIDFolder;
+import javax.mail.internet.MimeMessage;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.transport.testkit.util.ServerUtil;
+import org.apache.commons.logging.LogFactory;
+
+import com.icegreen.greenmail.user.GreenMailUser;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+
+public class UnprocessedMessagesTest extends TestCase {
+    private int port;
+    private GreenMail greenMail;
+    private Store store;
+    private Folder folder;
+
+    @Override
+    protected void setUp() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        port = socket.getLocalPort();
+        socket.close();
+        greenMail = new GreenMail(new ServerSetup(port, "127.0.0.1", ServerSetup.PROTOCOL_IMAP));
+        greenMail.start();
+        ServerUtil.waitForServer(port);
+        GreenMailUser user = greenMail.setUser("test@localhost", "test", "password");
+        Session session = Session.getInstance(new Properties());
+        for (int i = 0; i < 5; i++) {
+            MimeMessage message = new MimeMessage(session);
+            message.setSubject("Message " + i);
+            message.setText("Test");
+            user.deliver(message);
+        }
+        store = session.getStore("imap");
+        store.connect("127.0.0.1", port, "test", "password");
+        folder = store.getFolder("INBOX");
+        // processed messages are neither flagged SEEN nor deleted in a read only folder
+        folder.open(Folder.READ_ONLY);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        folder.close(false);
+        store.close();
+        greenMail.stop();
+    }
+
+    public void testProcessedMessagesAreSkipped() throws Exception {
+        PollTableEntry entry = new PollTableEntry(LogFactory.getLog(UnprocessedMessagesTest.class));
+        entry.setMaxMessagesPerPoll(2);
+        UIDFolder uidFolder = (UIDFolder) folder;
+
+        String[][] expectedBatches = { { "Message 0", "Message 1" }, { "Message 2", "Message 3" },
+                                       { "Message 4" }, { } };
+        for (String[] expectedBatch : expectedBatches) {
+            Message[] batch = MailTransportListener.getUnprocessedMessages(entry, folder);
+            assertEquals(expectedBatch.length, batch.length);
+            for (int i = 0; i < batch.length; i++) {
+                assertEquals(expectedBatch[i], batch[i].getSubject());
+                entry.messageProcessed(uidFolder.getUIDValidity(), uidFolder.getUID(batch[i]));
+            }
+        }
+    }
+
+    public void testUIDValidityChange() throws Exception {
+        PollTableEntry entry = new PollTableEntry(LogFactory.getLog(UnprocessedMessagesTest.class));
+        UIDFolder uidFolder = (UIDFolder) folder;
+        for (Message message : MailTransportListener.getUnprocessedMessages(entry, folder)) {
+            entry.messageProcessed(uidFolder.getUIDValidity() + 1, uidFolder.getUID(message));
+        }
+        // the UIDs recorded for another folder (or mailbox generation) are ignored
+        assertEquals(5, MailTransportListener.getUnprocessedMessages(entry, folder).length);
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.axis2.transport.testkit;
 
 import static org.apache.axis2.transport.testkit.AdapterUtils.adapt;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -48,6 +49,9 @@ import org.apache.axis2.transport.testkit.tests.async.SwATestCase;
 import org.apache.axis2.transport.testkit.tests.async.TextPlainTestCase;
 import org.apache.axis2.transport.testkit.tests.async.XMLAsyncMessageTestCase;
 import org.apache.axis2.transport.testkit.tests.echo.XMLRequestResponseMessageTestCase;
+import org.apache.axis2.transport.testkit.tests.load.AsyncLoadTestCase;
+import org.apache.axis2.transport.testkit.tests.load.LoadTestProfile;
+import org.apache.axis2.transport.testkit.tests.load.RequestResponseLoadTestCase;
 import org.osgi.framework.InvalidSyntaxException;
 
 public class TransportTestSuiteBuilder {
@@ -125,6 +129,8 @@ public class TransportTestSuiteBuilder {
     
     private final ResourceList<InOutEndpoint> echoEndpoints = new ResourceList<InOutEndpoint>();
     
+    private final List<LoadTestProfile> loadTestProfiles = new ArrayList<LoadTestProfile>();
+    
     public TransportTestSuiteBuilder(ManagedTestSuite suite) {
         this.suite = suite;
         try {
@@ -201,6 +207,15 @@ public class TransportTestSuiteBuilder {
         echoEndpoints.add(endpoint, relatedResources);
     }
     
+    /**
+     * Add load test cases with the given profile to the suite. Load test cases are also added if
+     * the <tt>testkit.load</tt> system property is set, in which case the functional test cases
+     * are skipped. See {@link LoadTestProfile} for the properties that define the load.
+     */
+    public void addLoadTestProfile(LoadTestProfile profile) {
+        loadTestProfiles.add(profile);
+    }
+    
     private Object[] merge(Object[] environment, ResourceRelation<?>... resourceRelations) {
         Set<Object> resources = new LinkedHashSet<Object>();
         resources.addAll(Arrays.asList(environment));
@@ -211,6 +226,15 @@ public class TransportTestSuiteBuilder {
     }
     
     private void build(Object[] env) {
+        if (!LoadTestProfile.isLoadTestModeEnabled()) {
+            buildFunctionalTests(env);
+        }
+        if (!loadTestProfiles.isEmpty()) {
+            buildLoadTests(env);
+        }
+    }
+    
+    private void buildFunctionalTests(Object[] env) {
         for (ResourceRelation<AsyncChannel> channel : asyncChannels) {
             for (ResourceRelation<AsyncTestClient<XMLMessage>> client : xmlAsyncClients) {
                 for (ResourceRelation<AsyncEndpoint<XMLMessage>> endpoint : xmlAsyncEndpoints) {
@@ -266,7 +290,37 @@ public class TransportTestSuiteBuilder {
         }
     }
     
+    private void buildLoadTests(Object[] env) {
+        List<XMLMessage.Type> types = new ArrayList<XMLMessage.Type>();
+        for (String type : LoadTestProfile.getListProperty("types", "SOAP11,SOAP12,POX")) {
+            types.add(XMLMessage.Type.valueOf(type.trim()));
+        }
+        for (LoadTestProfile profile : loadTestProfiles) {
+            for (XMLMessage.Type type : types) {
+                for (ResourceRelation<RequestResponseChannel> channel : requestResponseChannels) {
+                    for (ResourceRelation<RequestResponseTestClient<XMLMessage,XMLMessage>> client : xmlRequestResponseClients) {
+                        for (ResourceRelation<InOutEndpoint> endpoint : echoEndpoints) {
+                            Object[] resources = merge(env, channel, client, endpoint);
+                            suite.addTest(new RequestResponseLoadTestCase(channel.getPrimaryResource(), client.getPrimaryResource(), endpoint.getPrimaryResource(), type, profile, resources));
+                        }
+                    }
+                }
+                for (ResourceRelation<AsyncChannel> channel : asyncChannels) {
+                    for (ResourceRelation<AsyncTestClient<XMLMessage>> client : xmlAsyncClients) {
+                        for (ResourceRelation<AsyncEndpoint<XMLMessage>> endpoint : xmlAsyncEndpoints) {
+                            Object[] resources = merge(env, channel, client, endpoint);
+                            suite.addTest(new AsyncLoadTestCase(channel.getPrimaryResource(), client.getPrimaryResource(), endpoint.getPrimaryResource(), type, profile, resources));
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
     public void build() {
+        if (LoadTestProfile.isLoadTestModeEnabled() && loadTestProfiles.isEmpty()) {
+            loadTestProfiles.addAll(LoadTestProfile.fromSystemProperties());
+        }
         if (environments.isEmpty()) {
             build(new Object[0]);
         } else {
@@ -0,0 +1,66 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.testkit.tests.load;
+
+import org.apache.axis2.transport.testkit.channel.AsyncChannel;
+import org.apache.axis2.transport.testkit.client.AsyncTestClient;
+import org.apache.axis2.transport.testkit.endpoint.AsyncEndpoint;
+import org.apache.axis2.transport.testkit.message.XMLMessage;
+import org.apache.axis2.transport.testkit.name.Name;
+
+/**
+ * Load test for asynchronous channels. The latency of a message is the time taken by the client
+ * to send it; the throughput includes the time until the endpoint has received all messages.
+ */
+@Name("AsyncXMLLoad")
+public class AsyncLoadTestCase extends LoadTestCase {
+    private final AsyncTestClient<XMLMessage> client;
+    private final AsyncEndpoint<XMLMessage> endpoint;
+
+    public AsyncLoadTestCase(AsyncChannel channel, AsyncTestClient<XMLMessage> client,
+            AsyncEndpoint<XMLMessage> endpoint, XMLMessage.Type xmlMessageType,
+            LoadTestProfile profile, Object... resources) {
+        super(client, xmlMessageType, profile, resources);
+        this.client = client;
+        this.endpoint = endpoint;
+        addResource(channel);
+        addResource(endpoint);
+    }
+
+    @Override
+    protected void prepare() throws Exception {
+        endpoint.clear();
+    }
+
+    @Override
+    protected void exchange(XMLMessage message) throws Exception {
+        client.sendMessage(options, contentType, message);
+    }
+
+    @Override
+    protected long complete(int messages) throws Throwable {
+        for (int i = 0; i < messages; i++) {
+            if (endpoint.waitForMessage(profile.getTimeout()) == null) {
+                return messages - i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.testkit.tests.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axiom.mime.ContentType;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axis2.transport.base.Histogram;
+import org.apache.axis2.transport.testkit.Adapter;
+import org.apache.axis2.transport.testkit.client.ClientOptions;
+import org.apache.axis2.transport.testkit.client.TestClient;
+import org.apache.axis2.transport.testkit.message.XMLMessage;
+import org.apache.axis2.transport.testkit.name.Key;
+import org.apache.axis2.transport.testkit.name.Named;
+import org.apache.axis2.transport.testkit.tests.ManagedTestCase;
+
+/**
+ * Base class for test cases that measure the throughput, latency and allocation rate of a
+ * transport, using the same channels, clients and endpoints as the functional test cases.
+ * <p>
+ * The messages are sent by {@link LoadTestProfile#getConcurrency()} threads. Unlike
+ * {@link org.apache.axis2.transport.testkit.tests.MessageTestCase}, no message exchange
+ * validators are invoked, since they assume that a single message is exchanged. The test
+ * fails if any message could not be exchanged, after the result has been reported.
+ */
+public abstract class LoadTestCase extends ManagedTestCase {
+    private static final int CHILD_SIZE = "<child>text</child>".length();
+    
+    protected final XMLMessage.Type xmlMessageType;
+    protected final LoadTestProfile profile;
+    protected final ContentType contentType;
+    protected final ClientOptions options;
+    
+    public LoadTestCase(TestClient client, XMLMessage.Type xmlMessageType, LoadTestProfile profile,
+            Object... resources) {
+        super(resources);
+        if (client instanceof Adapter) {
+            addResource(((Adapter)client).getTarget());
+        } else {
+            addResource(client);
+        }
+        this.xmlMessageType = xmlMessageType;
+        this.profile = profile;
+        contentType = new ContentType(xmlMessageType.getContentType());
+        try {
+            options = new ClientOptions(client, contentType, "UTF-8");
+        } catch (Exception ex) {
+            throw new Error(ex);
+        }
+        addResource(options);
+        addResource(this);
+    }
+
+    @Key("messageType")
+    public XMLMessage.Type getXmlMessageType() {
+        return xmlMessageType;
+    }
+
+    @Named
+    public LoadTestProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Create a message of approximately the size given by the profile. A new message is
+     * created for every exchange, because sending a message may consume its payload.
+     */
+    protected XMLMessage createMessage() {
+        OMFactory factory = OMAbstractFactory.getOMFactory();
+        OMElement root = factory.createOMElement(new QName("root"));
+        for (int i = Math.max(1, profile.getMessageSize() / CHILD_SIZE); i > 0; i--) {
+            OMElement child = factory.createOMElement(new QName("child"));
+            child.setText("text");
+            root.addChild(child);
+        }
+        return new XMLMessage(root, xmlMessageType);
+    }
+
+    @Override
+    protected void runTest() throws Throwable {
+        prepare();
+        run(profile.getWarmupMessages(), new Histogram());
+        
+        Histogram latency = new Histogram();
+        long allocatedBytes = getAllocatedBytes();
+        long start = System.nanoTime();
+        long errors = run(profile.getMessages(), latency);
+        long elapsed = System.nanoTime() - start;
+        if (allocatedBytes != -1) {
+            allocatedBytes = getAllocatedBytes() - allocatedBytes;
+        }
+        
+        new LoadTestResult(getName(), profile.getMessages(), errors, elapsed,
+                latency.snapshot(false), allocatedBytes).report();
+        if (errors > 0) {
+            fail(errors + " of " + profile.getMessages() + " messages failed");
+        }
+    }
+
+    private long run(int messages, final Histogram latency) throws Throwable {
+        final AtomicInteger remaining = new AtomicInteger(messages);
+        final LongAdder errors = new LongAdder();
+        final AtomicReference<Throwable> firstError = new AtomicReference<Throwable>();
+        ExecutorService executor = Executors.newFixedThreadPool(profile.getConcurrency());
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < profile.getConcurrency(); i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    public Void call() {
+                        while (remaining.getAndDecrement() > 0) {
+                            XMLMessage message = createMessage();
+                            long start = System.nanoTime();
+                            try {
+                                exchange(message);
+                                latency.record((System.nanoTime() - start) / 1000);
+                            } catch (Throwable ex) {
+                                errors.increment();
+                                firstError.compareAndSet(null, ex);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long failed = errors.sum();
+        if (firstError.get() != null && failed == messages) {
+            // nothing got through; the configuration is broken rather than the transport slow
+            throw firstError.get();
+        }
+        // messages that failed to be sent are not expected to be delivered
+        return failed + complete((int)(messages - failed));
+    }
+
+    /**
+     * Get the number of bytes allocated so far by all live threads, or -1 if not supported.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)threadMXBean;
+        if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : bean.getThreadAllocatedBytes(bean.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Prepare the run, e.g. by discarding messages left by a previous test.
+     */
+    protected void prepare() throws Exception {
+    }
+
+    /**
+     * Exchange a single message. This method is called concurrently.
+     */
+    protected abstract void exchange(XMLMessage message) throws Exception;
+
+    /**
+     * Wait for the completion of the exchanges started by {@link #exchange(XMLMessage)}, for
+     * transports that deliver messages asynchronously.
+     * 
+     * @param messages the number of messages sent successfully
+     * @return the number of these messages that were not delivered
+     */
+    protected long complete(int messages) throws Throwable {
+        return 0;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.testkit.tests.load;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.axis2.transport.testkit.name.Key;
+
+/**
+ * The load applied by a load test case: the number of concurrent senders, the approximate size
+ * of the messages and the number of messages to send, after a number of warm up messages that
+ * are not measured, as well as how long to wait for asynchronously delivered messages.
+ * <p>
+ * Profiles can be created from the following system properties, each of which accepts a comma
+ * separated list of values. One profile is created for each combination of concurrency and size.
+ * <dl>
+ *   <dt>testkit.load.concurrency</dt><dd>the number of concurrent senders (default: 1,8)</dd>
+ *   <dt>testkit.load.sizes</dt><dd>the message sizes in bytes (default: 1024,65536)</dd>
+ *   <dt>testkit.load.messages</dt><dd>the number of measured messages (default: 1000)</dd>
+ *   <dt>testkit.load.warmup</dt><dd>the number of warm up messages (default: 100)</dd>
+ *   <dt>testkit.load.timeout</dt><dd>the time in milliseconds to wait for the next message
+ *       delivered asynchronously, before the remaining messages are considered lost
+ *       (default: 8000)</dd>
+ * </dl>
+ */
+public class LoadTestProfile {
+    public static final String PROPERTY_PREFIX = "testkit.load.";
+    public static final int DEFAULT_TIMEOUT = 8000;
+    
+    private final int concurrency;
+    private final int messageSize;
+    private final int messages;
+    private final int warmupMessages;
+    private final int timeout;
+    
+    public LoadTestProfile(int concurrency, int messageSize, int messages, int warmupMessages) {
+        this(concurrency, messageSize, messages, warmupMessages, DEFAULT_TIMEOUT);
+    }
+    
+    public LoadTestProfile(int concurrency, int messageSize, int messages, int warmupMessages,
+            int timeout) {
+        this.concurrency = concurrency;
+        this.messageSize = messageSize;
+        this.messages = messages;
+        this.warmupMessages = warmupMessages;
+        this.timeout = timeout;
+    }
+
+    @Key("concurrency")
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    @Key("size")
+    public int getMessageSize() {
+        return messageSize;
+    }
+
+    public int getMessages() {
+        return messages;
+    }
+
+    public int getWarmupMessages() {
+        return warmupMessages;
+    }
+
+    /**
+     * Get the time to wait for the next message delivered asynchronously.
+     * 
+     * @return the timeout in milliseconds
+     */
+    public int getTimeout() {
+        return timeout;
+    }
+    
+    /**
+     * Determine whether load tests are requested, i.e. whether the <tt>testkit.load</tt> system
+     * property is set to true.
+     */
+    public static boolean isLoadTestModeEnabled() {
+        return Boolean.getBoolean("testkit.load");
+    }
+    
+    /**
+     * Create the profiles defined by the <tt>testkit.load.*</tt> system properties.
+     */
+    public static List<LoadTestProfile> fromSystemProperties() {
+        int messages = Integer.parseInt(System.getProperty(PROPERTY_PREFIX + "messages", "1000"));
+        int warmupMessages = Integer.parseInt(System.getProperty(PROPERTY_PREFIX + "warmup", "100"));
+        int timeout = Integer.parseInt(System.getProperty(PROPERTY_PREFIX + "timeout",
+                String.valueOf(DEFAULT_TIMEOUT)));
+        List<LoadTestProfile> profiles = new ArrayList<LoadTestProfile>();
+        for (String concurrency : getListProperty("concurrency", "1,8")) {
+            for (String size : getListProperty("sizes", "1024,65536")) {
+                profiles.add(new LoadTestProfile(Integer.parseInt(concurrency),
+                        Integer.parseInt(size), messages, warmupMessages, timeout));
+            }
+        }
+        return profiles;
+    }
+    
+    public static String[] getListProperty(String name, String defaultValue) {
+        return System.getProperty(PROPERTY_PREFIX + name, defaultValue).trim().split("\\s*,\\s*");
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.testkit.tests.load;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+import org.apache.axis2.transport.base.Histogram;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * The measurements of a single load test run. Results are logged and appended to a CSV file, so
+ * that runs of different transports, or of different builds, can be compared. The file is
+ * <tt>target/load-test-results.csv</tt> unless specified by the <tt>testkit.load.report</tt>
+ * system property.
+ */
+public class LoadTestResult {
+    private static final Log log = LogFactory.getLog(LoadTestResult.class);
+    
+    private static final String HEADER = "test,messages,errors,elapsedMillis,throughput,"
+            + "latencyMeanMicros,latencyP50Micros,latencyP90Micros,latencyP99Micros,"
+            + "latencyMaxMicros,allocatedBytesPerMessage,allocationRateMBPerSecond";
+    
+    private final String testName;
+    private final long messages;
+    private final long errors;
+    private final long elapsedNanos;
+    private final Histogram.Snapshot latency;
+    private final long allocatedBytes;
+    
+    public LoadTestResult(String testName, long messages, long errors, long elapsedNanos,
+            Histogram.Snapshot latency, long allocatedBytes) {
+        this.testName = testName;
+        this.messages = messages;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the latency of the messages, in microseconds.
+     */
+    public Histogram.Snapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * Get the number of messages processed successfully per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : (messages - errors) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Get the number of bytes allocated by the JVM during the run, or -1 if the JVM doesn't
+     * support the measurement of allocations.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public double getAllocatedBytesPerMessage() {
+        return allocatedBytes < 0 || messages == 0 ? -1 : (double)allocatedBytes / messages;
+    }
+
+    public double getAllocationRate() {
+        return allocatedBytes < 0 || elapsedNanos == 0 ? -1
+                : allocatedBytes / 1048576.0 * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %d messages, %d errors, %.1f msg/s, "
+                + "latency (us) mean=%.0f p50=%d p90=%d p99=%d max=%d, "
+                + "allocation %.0f B/msg (%.1f MB/s)", testName, messages, errors,
+                getThroughput(), latency.getMean(), latency.getPercentile(0.5),
+                latency.getPercentile(0.9), latency.getPercentile(0.99), latency.getMax(),
+                getAllocatedBytesPerMessage(), getAllocationRate());
+    }
+
+    /**
+     * Log this result and append it to the report file.
+     */
+    public void report() {
+        log.info(this);
+        File file = new File(System.getProperty(LoadTestProfile.PROPERTY_PREFIX + "report",
+                "target/load-test-results.csv"));
+        synchronized (LoadTestResult.class) {
+            boolean writeHeader = !file.exists();
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            try {
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                        new FileOutputStream(file, true), "UTF-8"));
+                try {
+                    if (writeHeader) {
+                        out.println(HEADER);
+                    }
+                    out.printf(Locale.ROOT, "\"%s\",%d,%d,%d,%.1f,%.1f,%d,%d,%d,%d,%.0f,%.1f%n",
+                            testName.replace("\"", "\"\""), messages, errors,
+                            elapsedNanos / 1000000, getThroughput(), latency.getMean(),
+                            latency.getPercentile(0.5), latency.getPercentile(0.9),
+                            latency.getPercentile(0.99), latency.getMax(),
+                            getAllocatedBytesPerMessage(), getAllocationRate());
+                } finally {
+                    out.close();
+                }
+            } catch (IOException ex) {
+                log.warn("Unable to write load test report to " + file, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.apache.axis2.transport.testkit.tests.load;
+
+import org.apache.axis2.transport.testkit.channel.RequestResponseChannel;
+import org.apache.axis2.transport.testkit.client.RequestResponseTestClient;
+import org.apache.axis2.transport.testkit.endpoint.InOutEndpoint;
+import org.apache.axis2.transport.testkit.message.XMLMessage;
+import org.apache.axis2.transport.testkit.name.Name;
+
+/**
+ * Load test for request-response channels. The latency of a message is the time until the
+ * response has been received from the echo endpoint.
+ */
+@Name("EchoXMLLoad")
+public class RequestResponseLoadTestCase extends LoadTestCase {
+    private final RequestResponseTestClient<XMLMessage,XMLMessage> client;
+
+    public RequestResponseLoadTestCase(RequestResponseChannel channel,
+            RequestResponseTestClient<XMLMessage,XMLMessage> client, InOutEndpoint endpoint,
+            XMLMessage.Type xmlMessageType, LoadTestProfile profile, Object... resources) {
+        super(client, xmlMessageType, profile, resources);
+        this.client = client;
+        addResource(channel);
+        addResource(endpoint);
+    }
+
+    @Override
+    protected void exchange(XMLMessage message) throws Exception {
+        if (client.sendMessage(options, contentType, message).getData() == null) {
+            throw new Exception("No response received");
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.axis2.transport.udp;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
@@ -49,6 +50,10 @@ import org.apache.commons.logging.LogFactory;
  * packet received, a {@link ProcessPacketTask} instance is created
  * and dispatched to a worker thread from the configured pool.
  * <p>
+ * Packets are read into a single direct buffer owned by the dispatcher
+ * thread and then copied into an array sized to the actual packet length,
+ * from which the processing task parses the message.
+ * <p>
  * The methods {@link #addEndpoint(Endpoint)}, {@link #removeEndpoint(Endpoint)}
  * and {@link #stop()} are thread safe and may be called from any thread.
  * However, to avoid concurrency issues, the operation on the underlying
@@ -90,6 +95,13 @@ public class IODispatcher implements DatagramDispatcher<Endpoint>, Runnable {
     private final Queue<SelectorOperation> selectorOperationQueue =
             new ConcurrentLinkedQueue<SelectorOperation>();
     
+    /**
+     * Buffer used to receive packets. Only accessed by the thread executing
+     * {@link #run()}. It is allocated lazily and grown to the largest maximum packet
+     * size of the endpoints registered with this dispatcher.
+     */
+    private ByteBuffer receiveBuffer;
+    
     /**
      * Constructor.
      * 
@@ -246,13 +258,26 @@ public class IODispatcher implements DatagramDispatcher<Endpoint>, Runnable {
     
     private void receive(Endpoint endpoint, DatagramChannel channel) {
         try {
-            byte[] data = new byte[endpoint.getMaxPacketSize()];
-            ByteBuffer buffer = ByteBuffer.wrap(data);
-            InetSocketAddress address = (InetSocketAddress)channel.receive(buffer);
-            int length = buffer.position();
+            int maxPacketSize = endpoint.getMaxPacketSize();
+            if (receiveBuffer == null || receiveBuffer.capacity() < maxPacketSize) {
+                receiveBuffer = ByteBuffer.allocateDirect(maxPacketSize);
+            }
+            // The Buffer casts keep the code linkable on Java 8, where ByteBuffer doesn't
+            // override these methods
+            ((Buffer)receiveBuffer).clear();
+            ((Buffer)receiveBuffer).limit(maxPacketSize);
+            InetSocketAddress address = (InetSocketAddress)channel.receive(receiveBuffer);
+            if (address == null) {
+                // Spurious wakeup; no packet available
+                return;
+            }
+            ((Buffer)receiveBuffer).flip();
+            int length = receiveBuffer.remaining();
             if (log.isDebugEnabled()) {
                 log.debug("Received packet from " + address + " with length " + length);
             }
+            byte[] data = new byte[length];
+            receiveBuffer.get(data);
             callback.receive(endpoint, data, length, new UDPOutTransportInfo(address));
         } catch (IOException ex) {
             endpoint.getMetrics().incrementFaultsReceiving();
@@ -0,0 +1,104 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *   * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.axis2.transport.udp;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.axis2.transport.base.datagram.DatagramDispatcher;
+
+/**
+ * Dispatcher that distributes endpoints over a set of {@link IODispatcher} instances.
+ * Each endpoint is serviced by exactly one dispatcher, namely the one that had the
+ * fewest endpoints at the time the endpoint was added. Since every dispatcher runs
+ * its own selector thread, this allows receive throughput to scale with the number
+ * of cores when there are several busy endpoints.
+ * <p>
+ * The methods of this class are thread safe.
+ */
+public class IODispatcherGroup implements DatagramDispatcher<Endpoint> {
+    private final IODispatcher[] dispatchers;
+    private final int[] endpointCounts;
+    private final Map<Endpoint,Integer> assignments = new HashMap<Endpoint,Integer>();
+
+    /**
+     * Constructor.
+     *
+     * @param dispatchers the dispatchers; the caller is responsible for starting
+     *        a thread executing the {@link IODispatcher#run()} method of each of them
+     */
+    public IODispatcherGroup(IODispatcher[] dispatchers) {
+        this.dispatchers = dispatchers;
+        endpointCounts = new int[dispatchers.length];
+    }
+
+    public void addEndpoint(Endpoint endpoint) throws IOException {
+        int index;
+        synchronized (assignments) {
+            index = 0;
+            for (int i=1; i<dispatchers.length; i++) {
+                if (endpointCounts[i] < endpointCounts[index]) {
+                    index = i;
+                }
+            }
+            endpointCounts[index]++;
+            assignments.put(endpoint, index);
+        }
+        try {
+            dispatchers[index].addEndpoint(endpoint);
+        } catch (IOException ex) {
+            release(endpoint);
+            throw ex;
+        }
+    }
+
+    public void removeEndpoint(Endpoint endpoint) throws IOException {
+        Integer index = release(endpoint);
+        if (index != null) {
+            dispatchers[index].removeEndpoint(endpoint);
+        }
+    }
+
+    public void stop() throws IOException {
+        IOException exception = null;
+        for (IODispatcher dispatcher : dispatchers) {
+            try {
+                dispatcher.stop();
+            } catch (IOException ex) {
+                if (exception == null) {
+                    exception = ex;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private Integer release(Endpoint endpoint) {
+        synchronized (assignments) {
+            Integer index = assignments.remove(endpoint);
+            if (index != null) {
+                endpointCounts[index]--;
+            }
+            return index;
+        }
+    }
+}
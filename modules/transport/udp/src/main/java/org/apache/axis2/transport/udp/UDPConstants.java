@@ -29,4 +29,5 @@ public class UDPConstants {
     public static final String PORT_KEY = "transport.udp.port";
     public static final String CONTENT_TYPE_KEY = "transport.udp.contentType";
     public static final String MAX_PACKET_SIZE_KEY = "transport.udp.maxPacketSize";
+    public static final String DISPATCHER_COUNT_KEY = "transport.udp.dispatcherCount";
 }
@@ -21,7 +21,9 @@ package org.apache.axis2.transport.udp;
 import java.io.IOException;
 
 import org.apache.axis2.transport.base.ManagementSupport;
+import org.apache.axis2.transport.base.ParamUtils;
 import org.apache.axis2.transport.base.datagram.AbstractDatagramTransportListener;
+import org.apache.axis2.transport.base.datagram.DatagramDispatcher;
 import org.apache.axis2.transport.base.datagram.DatagramDispatcherCallback;
 
 /**
@@ -38,6 +40,13 @@ import org.apache.axis2.transport.base.datagram.DatagramDispatcherCallback;
  *   <dd>The maximum packet size (optional; default 1024). Packets longer
  *       than the specified length will be truncated.</dd>
  * </dl>
+ * The following parameter may be specified on the transport receiver:
+ * <dl>
+ *   <dt>transport.udp.dispatcherCount</dt>
+ *   <dd>The number of I/O dispatcher threads (optional; default 1). With more than one
+ *       dispatcher, endpoints are distributed over the dispatchers so that packets
+ *       arriving on different ports are received in parallel.</dd>
+ * </dl>
  * 
  * @see org.apache.axis2.transport.udp
  */
@@ -45,12 +54,23 @@ public class UDPListener extends AbstractDatagramTransportListener<Endpoint>
         implements ManagementSupport {
 
     @Override
-    protected IODispatcher createDispatcher(DatagramDispatcherCallback callback)
+    protected DatagramDispatcher<Endpoint> createDispatcher(DatagramDispatcherCallback callback)
             throws IOException {
-    	IODispatcher dispatcher = new IODispatcher(callback);
-    	new Thread(dispatcher, getTransportName() + "-dispatcher").start();
-        // Start a new thread for the I/O dispatcher
-    	return dispatcher;
+        int dispatcherCount = ParamUtils.getOptionalParamInt(getTransportInDescription(),
+                UDPConstants.DISPATCHER_COUNT_KEY, 1);
+        if (dispatcherCount <= 1) {
+            IODispatcher dispatcher = new IODispatcher(callback);
+            // Start a new thread for the I/O dispatcher
+            new Thread(dispatcher, getTransportName() + "-dispatcher").start();
+            return dispatcher;
+        } else {
+            IODispatcher[] dispatchers = new IODispatcher[dispatcherCount];
+            for (int i=0; i<dispatcherCount; i++) {
+                dispatchers[i] = new IODispatcher(callback);
+                new Thread(dispatchers[i], getTransportName() + "-dispatcher-" + i).start();
+            }
+            return new IODispatcherGroup(dispatchers);
+        }
     }
 
     @Override